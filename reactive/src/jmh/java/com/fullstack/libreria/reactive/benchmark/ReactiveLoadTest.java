@@ -0,0 +1,215 @@
+package com.fullstack.libreria.reactive.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.fullstack.libreria.reactive.LibreriaReactiveApplication;
+
+import io.r2dbc.pool.PoolMetrics;
+import reactor.core.publisher.Flux;
+
+/**
+ * Prueba de carga del módulo reactivo, la contraparte de LoadTest de la
+ * aplicación principal: misma ruta (GET /api/books/page con un afterId al
+ * azar), misma latencia simulada por sentencia SQL, mismo tamaño de pool y
+ * la misma salida, así los resultados se comparan lado a lado.
+ *
+ * Sin --url arranca la aplicación sobre H2 en memoria con
+ * SlowConnectionFactory. Con --url solo mide el servidor indicado.
+ *
+ * Ejecutar (desde reactive/):
+ *   mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="--concurrency=2000 --requests=20000"
+ *
+ * Opciones: --url, --concurrency, --requests, --db-latency-ms, --pool-size,
+ * --catalog-size
+ */
+public final class ReactiveLoadTest {
+
+    private ReactiveLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] par = arg.replaceFirst("^--", "").split("=", 2);
+            opciones.put(par[0], par.length > 1 ? par[1] : "true");
+        }
+        int concurrencia = Integer.parseInt(opciones.getOrDefault("concurrency", "2000"));
+        int peticiones = Integer.parseInt(opciones.getOrDefault("requests", "20000"));
+
+        if (opciones.containsKey("url")) {
+            medir("externo", opciones.get("url"), concurrencia, peticiones, false);
+            return;
+        }
+
+        System.setProperty("libreria.bench.db-latency-ms", opciones.getOrDefault("db-latency-ms", "50"));
+        int catalogo = Integer.parseInt(opciones.getOrDefault("catalog-size", "1000"));
+        String poolSize = opciones.getOrDefault("pool-size", "30");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                LibreriaReactiveApplication.class, BaseDeDatosLenta.class)
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.r2dbc.pool.initial-size=" + poolSize,
+                        "--spring.r2dbc.pool.max-size=" + poolSize,
+                        // Igual que connection-timeout de Hikari en LoadTest
+                        "--spring.r2dbc.pool.max-acquire-time=3s",
+                        "--spring.sql.init.mode=always",
+                        "--libreria.security.token.enforce=false",
+                        "--libreria.cache.invalidation.channel=local",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.fullstack.libreria=WARN");
+        try {
+            seedBooks(context, catalogo);
+            String puerto = context.getEnvironment().getProperty("local.server.port");
+            String url = "http://localhost:" + puerto + "/api/books/page?limit=20&afterId=";
+            // Ronda corta de calentamiento (JIT, pool de conexiones)
+            medir("reactivo*", url + "{random}", concurrencia, Math.min(peticiones, concurrencia), true);
+            medir("reactivo", url + "{random}", concurrencia, peticiones, true);
+        } finally {
+            context.close();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class BaseDeDatosLenta {
+
+        @Bean
+        static BeanPostProcessor conexionesLentas() {
+            return SlowConnectionFactory.postProcessor();
+        }
+    }
+
+    /**
+     * Inserta "cantidad" libros (mismos datos que BenchmarkContext.seedBooks).
+     */
+    private static void seedBooks(ConfigurableApplicationContext context, int cantidad) {
+        DatabaseClient db = context.getBean(DatabaseClient.class);
+        Flux.range(1, cantidad)
+                .concatMap(i -> db.sql("INSERT INTO BOOK (TITLE, AUTHOR, GENRE, PUBLICATION, TITLE_KEY, UPDATED_AT, VERSION)"
+                        + " VALUES (:title, :author, :genre, :publication, :titleKey, CURRENT_TIMESTAMP, 0)")
+                        .bind("title", "Libro " + i)
+                        .bind("author", "Autor " + i % 500)
+                        .bind("genre", "Genero " + i % 20)
+                        .bind("publication", 1900 + i % 120)
+                        .bind("titleKey", "libro " + i)
+                        .then(), 32)
+                .blockLast();
+    }
+
+    /**
+     * Lanza "total" peticiones manteniendo "concurrencia" en vuelo e imprime
+     * throughput y percentiles de latencia. "{random}" en la URL se reemplaza
+     * por un número al azar en cada petición.
+     *
+     * Mientras tanto muestrea cada 5 ms los hilos vivos de la JVM y, si se
+     * indica, las conexiones del pool R2DBC en uso y en espera (se informa
+     * el pico).
+     */
+    private static void medir(String nombre, String url, int concurrencia, int total, boolean pool)
+            throws InterruptedException {
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Semaphore enVuelo = new Semaphore(concurrencia);
+        CountDownLatch fin = new CountDownLatch(total);
+        long[] latencias = new long[total];
+        AtomicInteger indice = new AtomicInteger();
+        ConcurrentMap<String, LongAdder> estados = new ConcurrentHashMap<>();
+
+        Picos picos = new Picos(pool ? SlowConnectionFactory.pool.getMetrics().orElse(null) : null);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            enVuelo.acquire();
+            String destino = url.replace("{random}", String.valueOf(ThreadLocalRandom.current().nextInt(1000)));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(destino))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long enviado = System.nanoTime();
+            cliente.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((respuesta, error) -> {
+                        latencias[indice.getAndIncrement()] = System.nanoTime() - enviado;
+                        String estado = error != null ? error.getClass().getSimpleName()
+                                : String.valueOf(respuesta.statusCode());
+                        estados.computeIfAbsent(estado, k -> new LongAdder()).increment();
+                        enVuelo.release();
+                        fin.countDown();
+                    });
+        }
+        fin.await();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        picos.detener();
+
+        Arrays.sort(latencias);
+        System.out.printf("%-9s concurrencia=%d peticiones=%d  %.0f req/s  p50=%.0f ms  p95=%.0f ms  p99=%.0f ms  max=%.0f ms  estados=%s%n",
+                nombre, concurrencia, total, total / segundos,
+                percentil(latencias, 0.50), percentil(latencias, 0.95), percentil(latencias, 0.99),
+                latencias[total - 1] / 1e6, estados);
+        System.out.printf("%-9s hilos JVM (pico)=%d%s%n", "", picos.hilos,
+                picos.metricas != null ? "  conexiones en uso (pico)=" + picos.activas
+                        + "  esperando conexión (pico)=" + picos.esperando : "");
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+    }
+
+    // Muestreo periódico de hilos y conexiones mientras dura una medición
+    private static final class Picos {
+
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final ScheduledExecutorService muestreo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "load-test-muestreo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        private final PoolMetrics metricas;
+        private volatile int hilos;
+        private volatile int activas;
+        private volatile int esperando;
+
+        Picos(PoolMetrics metricas) {
+            this.metricas = metricas;
+            muestreo.scheduleAtFixedRate(() -> {
+                hilos = Math.max(hilos, threads.getThreadCount());
+                if (metricas != null) {
+                    activas = Math.max(activas, metricas.acquiredSize());
+                    esperando = Math.max(esperando, metricas.pendingAcquireSize());
+                }
+            }, 0, 5, TimeUnit.MILLISECONDS);
+        }
+
+        void detener() throws InterruptedException {
+            muestreo.shutdown();
+            muestreo.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+}
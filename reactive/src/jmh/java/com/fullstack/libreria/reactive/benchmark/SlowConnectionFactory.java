@@ -0,0 +1,86 @@
+package com.fullstack.libreria.reactive.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Simula una BD remota: cada sentencia SQL demora
+ * "libreria.bench.db-latency-ms" antes de ejecutarse. Es la contraparte de
+ * SlowStatementInspector de la aplicación principal, pero sin bloquear: la
+ * espera es un temporizador (delaySubscription), no un Thread.sleep, igual
+ * que un driver R2DBC esperando la respuesta de la red.
+ *
+ * La conexión sigue tomada del pool durante la espera, como con una BD
+ * lenta de verdad.
+ */
+final class SlowConnectionFactory {
+
+    // Pool original, para leer sus métricas (conexiones en uso y en espera)
+    static volatile ConnectionPool pool;
+
+    private SlowConnectionFactory() {
+    }
+
+    /**
+     * Envuelve el ConnectionFactory de la aplicación al crearse el bean.
+     */
+    static BeanPostProcessor postProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nombre) {
+                if (bean instanceof ConnectionPool connectionPool) {
+                    pool = connectionPool;
+                    return envolver(connectionPool, ConnectionFactory.class);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Duration latencia() {
+        return Duration.ofMillis(Long.getLong("libreria.bench.db-latency-ms", 50));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T envolver(T objetivo, Class<T> tipo) {
+        InvocationHandler handler = (proxy, metodo, args) -> {
+            Object resultado = invocar(objetivo, metodo, args);
+            // Métodos encadenables (bind, add, ...) siguen devolviendo el proxy
+            if (resultado == objetivo) {
+                return proxy;
+            }
+            if (tipo == ConnectionFactory.class && metodo.getName().equals("create")) {
+                return Mono.from((Publisher<Connection>) resultado).map(c -> envolver(c, Connection.class));
+            }
+            if (tipo == Connection.class && metodo.getName().equals("createStatement")) {
+                return envolver((Statement) resultado, Statement.class);
+            }
+            if (tipo == Statement.class && metodo.getName().equals("execute")) {
+                return Flux.from((Publisher<?>) resultado).delaySubscription(latencia());
+            }
+            return resultado;
+        };
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, handler);
+    }
+
+    private static Object invocar(Object objetivo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(objetivo, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.fullstack.libreria.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+
+// Sin usuario/contraseña propios: la autenticación es solo por token
+@SpringBootApplication(exclude = ReactiveUserDetailsServiceAutoConfiguration.class)
+public class LibreriaReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(LibreriaReactiveApplication.class, args);
+	}
+
+}
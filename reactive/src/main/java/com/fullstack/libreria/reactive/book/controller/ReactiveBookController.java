@@ -0,0 +1,199 @@
+package com.fullstack.libreria.reactive.book.controller;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.libreria.reactive.book.model.Book;
+import com.fullstack.libreria.reactive.book.model.BookBulkDeleteRequest;
+import com.fullstack.libreria.reactive.book.model.BookPage;
+import com.fullstack.libreria.reactive.book.model.BookSearchCriteria;
+import com.fullstack.libreria.reactive.book.model.BookSummary;
+import com.fullstack.libreria.reactive.book.service.ReactiveBookService;
+import com.fullstack.libreria.reactive.web.ETags;
+import com.fullstack.libreria.reactive.web.MergePatch;
+import com.fullstack.libreria.reactive.web.RowVersion;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Clase ReactiveBookController
+ * ----------------------------
+ * Los mismos endpoints de BookController (rutas, parámetros, códigos y
+ * cabeceras), servidos por WebFlux sobre R2DBC: ningún endpoint bloquea
+ * un hilo mientras espera a la BD.
+ *
+ * Todas las rutas comienzan con /api/books.
+ */
+@RestController
+@RequestMapping("/api/books")
+@CrossOrigin(origins = "*")
+public class ReactiveBookController {
+
+    private final ReactiveBookService service;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveBookController(ReactiveBookService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * GET /api/books
+     * ----------------
+     * Retorna la lista completa de libros (BookSummary: id, título, autor,
+     * género, año y versión).
+     *
+     * La respuesta es un Flux que se escribe a medida que llegan las filas
+     * y solo pide más a la BD cuando el cliente consumió lo anterior
+     * (backpressure). Con Accept: application/x-ndjson se envía un libro
+     * JSON por línea en vez de un arreglo.
+     *
+     * Si el catálogo no cambió (If-None-Match / If-Modified-Since) responde
+     * 304 sin cuerpo, leyendo una sola fila (contador de cambios del catálogo).
+     */
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Mono<ResponseEntity<Flux<BookSummary>>> listar(ServerWebExchange exchange) {
+        return service.catalogVersion().flatMap(version -> {
+            Instant modificado = version.getLastModified() != null ? version.getLastModified() : Instant.EPOCH;
+            if (exchange.checkNotModified(version.etag(), modificado)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).<Flux<BookSummary>>build());
+            }
+            return Mono.just(ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(service.listar()));
+        });
+    }
+
+    /**
+     * GET /api/books/page?cursor=...&afterId=...&limit=...
+     * ------------------------------------------------------
+     * Retorna una página de libros usando paginación por keyset sobre el ID.
+     * Para avanzar, se reenvía el "nextCursor" recibido en el parámetro cursor.
+     */
+    @GetMapping("/page")
+    public Mono<BookPage> listarPagina(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return service.findPage(cursor, afterId, limit);
+    }
+
+    /**
+     * GET /api/books/search?author=&genre=&title=&fromYear=&toYear=&page=&size=
+     * ---------------------------------------------------------------------------
+     * Búsqueda en el servidor. Retorna la página solicitada junto al total de
+     * resultados (mismo formato que la aplicación principal).
+     */
+    @GetMapping("/search")
+    public Mono<PagedModel<Book>> buscar(BookSearchCriteria criteria,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return service.search(criteria, page, size).map(PagedModel::new);
+    }
+
+    /**
+     * GET /api/books/{id}
+     * ---------------------
+     * Retorna un solo libro por su ID, 404 si no existe, o 304 si el cliente
+     * ya tiene la versión actual (If-None-Match / If-Modified-Since).
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Book>> getById(@PathVariable Long id, ServerWebExchange exchange) {
+        return service.findRowVersion(id)
+                .flatMap(version -> noModificado(exchange, id, version)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).<Book>build())
+                        : service.findById(id).map(libro -> ResponseEntity.ok()
+                                .cacheControl(CacheControl.noCache())
+                                .eTag(ETags.of(id, libro.getVersion()))
+                                .body(libro))) // Si lo encuentra → 200 OK
+                .defaultIfEmpty(ResponseEntity.notFound().build()); // Si no → 404
+    }
+
+    /**
+     * POST /api/books
+     * -----------------
+     * Crea un nuevo libro y responde 201 con el libro guardado.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Book>> create(@RequestBody Book libro) {
+        return service.create(libro).map(nuevo -> ResponseEntity.status(201).body(nuevo));
+    }
+
+    /**
+     * PUT /api/books/{id}
+     * ---------------------
+     * Actualiza un libro existente. La versión esperada se toma de If-Match
+     * o del campo "version" del cuerpo; si el libro cambió → 409.
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Book>> update(@PathVariable Long id, @RequestBody Book libro,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versionEsperada = ifMatch != null ? ETags.parseIfMatch(ifMatch, id) : libro.getVersion();
+        return service.update(id, libro, versionEsperada)
+                .map(actualizado -> ResponseEntity.ok()
+                        .eTag(ETags.of(id, actualizado.getVersion()))
+                        .body(actualizado))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * PATCH /api/books/{id}   (Content-Type: application/merge-patch+json)
+     * ---------------------------------------------------------------------
+     * Modifica solo los campos enviados con un único UPDATE. Requiere la
+     * versión esperada en If-Match o en el campo "version". Responde 204
+     * con el nuevo ETag, 404 si no existe o 409 si la versión está
+     * desactualizada.
+     */
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    public Mono<ResponseEntity<Void>> patch(@PathVariable Long id, @RequestBody JsonNode documento,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long versionEsperada = MergePatch.versionEsperada(ifMatch, id, documento);
+        Map<String, Object> cambios = MergePatch.leer(documento, ReactiveBookService.CAMPOS_EDITABLES, Set.of(),
+                objectMapper);
+        return service.patch(id, cambios, versionEsperada)
+                .map(nuevaVersion -> ResponseEntity.noContent().eTag(ETags.of(id, nuevaVersion)).build());
+    }
+
+    /**
+     * DELETE /api/books/{id}
+     * ------------------------
+     * Elimina un libro por su ID: 204 si existía, 404 si no.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return service.delete(id).map(eliminado -> eliminado
+                ? ResponseEntity.noContent().<Void>build()
+                : ResponseEntity.notFound().<Void>build());
+    }
+
+    /**
+     * POST /api/books/bulk-delete
+     * -----------------------------
+     * Elimina muchos libros en una transacción, por lista de IDs o por
+     * género. Retorna la cantidad eliminada: {"deleted": 3}
+     */
+    @PostMapping("/bulk-delete")
+    public Mono<Map<String, Object>> bulkDelete(@RequestBody BookBulkDeleteRequest request) {
+        return service.deleteAll(request.getIds(), request.getGenre())
+                .map(eliminados -> Map.of("deleted", eliminados));
+    }
+
+    // Compara If-None-Match / If-Modified-Since con la versión actual; si
+    // coinciden deja la respuesta lista como 304
+    private static boolean noModificado(ServerWebExchange exchange, Long id, RowVersion version) {
+        Instant modificado = version.getUpdatedAt() != null ? version.getUpdatedAt() : Instant.EPOCH;
+        return exchange.checkNotModified(ETags.of(id, version.getVersion()), modificado);
+    }
+}
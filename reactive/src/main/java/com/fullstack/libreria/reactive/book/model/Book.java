@@ -0,0 +1,69 @@
+package com.fullstack.libreria.reactive.book.model;
+
+import java.time.Instant;
+import java.time.Year;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Clase Book
+ * ----------
+ * Fila de la tabla BOOK, la misma que crea y usa la aplicación principal
+ * (ver com.fullstack.libreria.book.model.Book). Las validaciones y el JSON
+ * son idénticos, así el FrontEnd puede usar cualquiera de las dos APIs.
+ *
+ * Sin Hibernate no hay @PrePersist: TITLE_KEY y UPDATED_AT los completa
+ * ReactiveBookService antes de cada escritura.
+ */
+@Data
+@Table("BOOK")
+public class Book {
+
+    @Id
+    @Column("ID")
+    private Long id;
+
+    @NotBlank(message = "El título no puede ser nulo")
+    @Size(min = 1, max = 50, message = "El título debe tener entre 1 y 50 caracteres")
+    @Column("TITLE")
+    private String title;
+
+    @NotBlank(message = "La autor es obligatorio")
+    @Size(min = 1, max = 50, message = "El autor debe tener entre 1 y 50 caracteres")
+    @Column("AUTHOR")
+    private String author;
+
+    @NotBlank(message = "El género es obligatorio")
+    @Size(min = 1, max = 50, message = "El género debe tener entre 1 y 50 caracteres")
+    @Column("GENRE")
+    private String genre;
+
+    @PastOrPresent(message = "El año de publicación no puede ser mayor que el año actual")
+    @Column("PUBLICATION")
+    private Year publication;
+
+    // Título en minúsculas para la búsqueda por prefijo (índice IDX_BOOK_TITLE_KEY)
+    @JsonIgnore
+    @Column("TITLE_KEY")
+    private String titleKey;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column("UPDATED_AT")
+    private Instant updatedAt;
+
+    // Bloqueo optimista: Spring Data agrega "and VERSION = ?" a cada UPDATE
+    @Version
+    @Column("VERSION")
+    private Long version;
+}
@@ -0,0 +1,18 @@
+package com.fullstack.libreria.reactive.book.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Clase BookBulkDeleteRequest
+ * ---------------------------
+ * Cuerpo de POST /api/books/bulk-delete: { "ids": [1, 2, 3] } o
+ * { "genre": "Ficción" } (no ambos).
+ */
+@Data
+public class BookBulkDeleteRequest {
+
+    private List<Long> ids;
+    private String genre;
+}
@@ -0,0 +1,21 @@
+package com.fullstack.libreria.reactive.book.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Clase BookPage
+ * --------------
+ * Página de libros por keyset sobre el ID (GET /api/books/page). El
+ * cursor tiene el mismo formato que en la aplicación principal, así un
+ * cliente puede seguir paginando contra cualquiera de las dos.
+ */
+@Data
+@AllArgsConstructor
+public class BookPage {
+
+    private List<Book> items;
+    private String nextCursor;
+}
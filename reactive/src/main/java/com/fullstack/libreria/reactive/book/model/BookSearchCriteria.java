@@ -0,0 +1,20 @@
+package com.fullstack.libreria.reactive.book.model;
+
+import lombok.Data;
+
+/**
+ * Clase BookSearchCriteria
+ * ------------------------
+ * Filtros opcionales de GET /api/books/search (se combinan con AND):
+ * autor y género exactos, prefijo del título sin distinguir mayúsculas y
+ * rango de años de publicación.
+ */
+@Data
+public class BookSearchCriteria {
+
+    private String author;
+    private String genre;
+    private String title;
+    private Integer fromYear;
+    private Integer toYear;
+}
@@ -0,0 +1,24 @@
+package com.fullstack.libreria.reactive.book.model;
+
+import java.time.Year;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Clase BookSummary
+ * -----------------
+ * Fila del listado completo del catálogo (GET /api/books): las mismas
+ * columnas que en la aplicación principal.
+ */
+@Data
+@AllArgsConstructor
+public class BookSummary {
+
+    private Long id;
+    private String title;
+    private String author;
+    private String genre;
+    private Year publication;
+    private Long version;
+}
@@ -0,0 +1,26 @@
+package com.fullstack.libreria.reactive.book.model;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Clase CatalogVersion
+ * --------------------
+ * Contador de cambios de los libros (ENTITY_VERSION "book") y momento del
+ * último cambio, para responder 304 en GET /api/books sin leer las filas.
+ * El ETag es el mismo que calcula la aplicación principal para el listado
+ * sin "fields".
+ */
+@Data
+@AllArgsConstructor
+public class CatalogVersion {
+
+    private long version;
+    private Instant lastModified;
+
+    public String etag() {
+        return "W/\"catalog-" + version + "\"";
+    }
+}
@@ -0,0 +1,54 @@
+package com.fullstack.libreria.reactive.book.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+import com.fullstack.libreria.reactive.book.model.Book;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Interfaz ReactiveBookRepository
+ * -------------------------------
+ * Acceso no bloqueante a la tabla BOOK: cada método devuelve un Mono o
+ * un Flux y la consulta se ejecuta recién al suscribirse, sin ocupar un
+ * hilo mientras la BD responde.
+ *
+ * Los borrados son un solo DELETE, igual que en BookRepository.
+ */
+public interface ReactiveBookRepository extends R2dbcRepository<Book, Long> {
+
+    /**
+     * Elimina un libro con un solo DELETE.
+     *
+     * @return cantidad de filas eliminadas (0 si no existía)
+     */
+    @Modifying
+    @Query("DELETE FROM BOOK WHERE ID = :id")
+    Mono<Integer> deleteRow(Long id);
+
+    /**
+     * Elimina los libros indicados (hasta 1000 IDs por llamada).
+     */
+    @Modifying
+    @Query("DELETE FROM BOOK WHERE ID IN (:ids)")
+    Mono<Integer> deleteRows(Collection<Long> ids);
+
+    /**
+     * IDs de la lista que existen (hasta 1000 por llamada), bloqueados hasta
+     * el fin de la transacción: nadie más los borra en paralelo.
+     */
+    @Query("SELECT ID FROM BOOK WHERE ID IN (:ids) FOR UPDATE")
+    Flux<Long> findExistingIdsForUpdate(Collection<Long> ids);
+
+    /**
+     * IDs de un género, bloqueados: el borrado por género se hace por estos
+     * IDs, así que un libro creado después no se toca.
+     */
+    @Query("SELECT ID FROM BOOK WHERE GENRE = :genre FOR UPDATE")
+    Flux<Long> findIdsByGenreForUpdate(String genre);
+}
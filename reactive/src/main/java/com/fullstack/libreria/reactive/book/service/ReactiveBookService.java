@@ -0,0 +1,453 @@
+package com.fullstack.libreria.reactive.book.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fullstack.libreria.reactive.book.model.Book;
+import com.fullstack.libreria.reactive.book.model.BookPage;
+import com.fullstack.libreria.reactive.book.model.BookSearchCriteria;
+import com.fullstack.libreria.reactive.book.model.BookSummary;
+import com.fullstack.libreria.reactive.book.model.CatalogVersion;
+import com.fullstack.libreria.reactive.book.repository.ReactiveBookRepository;
+import com.fullstack.libreria.reactive.events.ChangeEventWriter;
+import com.fullstack.libreria.reactive.events.ChangeEventWriter.Operation;
+import com.fullstack.libreria.reactive.exception.ResourceNotFoundException;
+import com.fullstack.libreria.reactive.web.RowVersion;
+
+import io.r2dbc.spi.Readable;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Clase ReactiveBookService
+ * -------------------------
+ * Las mismas reglas que BookService, pero sin bloquear: cada método
+ * devuelve un Mono o un Flux y ninguna consulta retiene un hilo mientras
+ * la BD responde. Con cientos de peticiones concurrentes alcanzan unos
+ * pocos hilos del event loop y las conexiones del pool R2DBC se ocupan
+ * solo mientras hay una consulta en curso.
+ *
+ * Cada escritura registra su evento en CHANGE_EVENT en la misma
+ * transacción (ver ChangeEventWriter).
+ */
+@Service
+public class ReactiveBookService {
+
+    // Máximo de elementos en una lista IN de Oracle
+    private static final int MAX_IDS_POR_SENTENCIA = 1000;
+
+    // Filas que el driver trae por viaje al recorrer el catálogo completo
+    private static final int FETCH_SIZE = 500;
+
+    // Campos que se pueden modificar con PATCH, su tipo y su columna
+    public static final Map<String, Class<?>> CAMPOS_EDITABLES = Map.of(
+            "title", String.class,
+            "author", String.class,
+            "genre", String.class,
+            "publication", Year.class);
+
+    private static final Map<String, String> COLUMNAS = Map.of(
+            "title", "TITLE",
+            "author", "AUTHOR",
+            "genre", "GENRE",
+            "publication", "PUBLICATION");
+
+    private static final String COLUMNAS_BOOK =
+            "ID, TITLE, AUTHOR, GENRE, PUBLICATION, TITLE_KEY, UPDATED_AT, VERSION";
+
+    private final ReactiveBookRepository repository;
+    private final R2dbcEntityTemplate template;
+    private final DatabaseClient databaseClient;
+    private final Validator validator;
+    private final ChangeEventWriter changeEvents;
+
+    // Tamaño máximo de página permitido en la paginación por keyset
+    private final int maxPageSize;
+
+    public ReactiveBookService(ReactiveBookRepository repository, R2dbcEntityTemplate template,
+            Validator validator, ChangeEventWriter changeEvents,
+            @Value("${libreria.books.page.max-size:500}") int maxPageSize) {
+        this.repository = repository;
+        this.template = template;
+        this.databaseClient = template.getDatabaseClient();
+        this.validator = validator;
+        this.changeEvents = changeEvents;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Recorre todo el catálogo como proyección BookSummary.
+     *
+     * El Flux respeta la demanda del suscriptor (backpressure): el driver
+     * pide a la BD bloques de FETCH_SIZE filas solo a medida que la
+     * respuesta HTTP consume las anteriores, así un cliente lento no hace
+     * crecer la memoria del servidor.
+     */
+    public Flux<BookSummary> listar() {
+        return databaseClient.sql("SELECT ID, TITLE, AUTHOR, GENRE, PUBLICATION, VERSION FROM BOOK ORDER BY ID")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(row -> new BookSummary(
+                        row.get("ID", Long.class),
+                        row.get("TITLE", String.class),
+                        row.get("AUTHOR", String.class),
+                        row.get("GENRE", String.class),
+                        anio(row),
+                        row.get("VERSION", Long.class)))
+                .all();
+    }
+
+    /**
+     * Contador de cambios y última modificación del catálogo (una fila de
+     * ENTITY_VERSION, sin leer libros).
+     */
+    public Mono<CatalogVersion> catalogVersion() {
+        return databaseClient.sql("SELECT VERSION, UPDATED_AT FROM ENTITY_VERSION WHERE ENTITY_TYPE = :entity")
+                .bind("entity", ChangeEventWriter.BOOK)
+                .map(row -> new CatalogVersion(row.get("VERSION", Long.class), instante(row, "UPDATED_AT")))
+                .one()
+                .defaultIfEmpty(new CatalogVersion(0, null));
+    }
+
+    /**
+     * Versión y última modificación de un libro, sin leer la fila completa.
+     */
+    public Mono<RowVersion> findRowVersion(Long id) {
+        return databaseClient.sql("SELECT VERSION, UPDATED_AT FROM BOOK WHERE ID = :id")
+                .bind("id", id)
+                .map(row -> new RowVersion(row.get("VERSION", Long.class), instante(row, "UPDATED_AT")))
+                .one();
+    }
+
+    /**
+     * Obtiene una página de libros usando paginación por keyset.
+     *
+     * @param cursor  cursor opaco entregado en la página anterior (o null)
+     * @param afterId alternativa explícita al cursor: ID desde el cual continuar
+     * @param limit   cantidad de libros solicitada (se acota a maxPageSize)
+     */
+    public Mono<BookPage> findPage(String cursor, Long afterId, int limit) {
+        if (limit < 1) {
+            return Mono.error(new IllegalArgumentException("El límite debe ser mayor a 0"));
+        }
+        int size = Math.min(limit, maxPageSize);
+        long desde;
+        try {
+            desde = cursor != null ? decodeCursor(cursor) : (afterId != null ? afterId : 0L);
+        } catch (IllegalArgumentException ex) {
+            return Mono.error(ex);
+        }
+        return template.select(Book.class)
+                .matching(Query.query(Criteria.where("id").greaterThan(desde)).sort(Sort.by("id")).limit(size))
+                .all()
+                .collectList()
+                .map(items -> {
+                    // Si la página vino completa puede haber más filas → entregamos cursor
+                    String next = items.size() == size ? encodeCursor(items.get(items.size() - 1).getId()) : null;
+                    return new BookPage(items, next);
+                });
+    }
+
+    /**
+     * Búsqueda paginada combinando autor, género, prefijo del título y rango
+     * de años de publicación (las mismas condiciones que BookSpecifications).
+     * La página y el total se consultan en paralelo.
+     */
+    public Mono<Page<Book>> search(BookSearchCriteria criteria, int page, int size) {
+        if (page < 0 || size < 1) {
+            return Mono.error(new IllegalArgumentException("Parámetros de paginación inválidos"));
+        }
+        if (criteria.getFromYear() != null && criteria.getToYear() != null
+                && criteria.getFromYear() > criteria.getToYear()) {
+            return Mono.error(new IllegalArgumentException("El año inicial no puede ser mayor que el año final"));
+        }
+        PageRequest pagina = PageRequest.of(page, Math.min(size, maxPageSize), Sort.by("id"));
+
+        List<String> condiciones = new ArrayList<>();
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        if (hasText(criteria.getAuthor())) {
+            condiciones.add("AUTHOR = :author");
+            parametros.put("author", criteria.getAuthor().trim());
+        }
+        if (hasText(criteria.getGenre())) {
+            condiciones.add("GENRE = :genre");
+            parametros.put("genre", criteria.getGenre().trim());
+        }
+        if (hasText(criteria.getTitle())) {
+            condiciones.add("TITLE_KEY LIKE :title ESCAPE '\\'");
+            parametros.put("title", escapeLike(criteria.getTitle().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (criteria.getFromYear() != null) {
+            condiciones.add("PUBLICATION >= :fromYear");
+            parametros.put("fromYear", criteria.getFromYear());
+        }
+        if (criteria.getToYear() != null) {
+            condiciones.add("PUBLICATION <= :toYear");
+            parametros.put("toYear", criteria.getToYear());
+        }
+        String where = condiciones.isEmpty() ? "" : " WHERE " + String.join(" AND ", condiciones);
+
+        DatabaseClient.GenericExecuteSpec select = databaseClient.sql("SELECT " + COLUMNAS_BOOK + " FROM BOOK"
+                + where + " ORDER BY ID OFFSET :offset ROWS FETCH NEXT :size ROWS ONLY")
+                .bindValues(parametros)
+                .bind("offset", pagina.getOffset())
+                .bind("size", pagina.getPageSize());
+        DatabaseClient.GenericExecuteSpec count = databaseClient.sql("SELECT COUNT(*) AS TOTAL FROM BOOK" + where)
+                .bindValues(parametros);
+
+        Mono<List<Book>> contenido = select.map((row, metadata) -> template.getConverter().read(Book.class, row, metadata))
+                .all()
+                .collectList();
+        Mono<Long> total = count.map(row -> row.get("TOTAL", Long.class)).one();
+        return Mono.zip(contenido, total).map(t -> new PageImpl<>(t.getT1(), pagina, t.getT2()));
+    }
+
+    /**
+     * Busca un libro por su ID (vacío si no existe).
+     */
+    public Mono<Book> findById(Long id) {
+        return repository.findById(id);
+    }
+
+    /**
+     * Crea un libro nuevo (el ID lo asigna la BD; si el cuerpo trae uno se
+     * ignora).
+     */
+    @Transactional
+    public Mono<Book> create(Book libro) {
+        return validar(libro)
+                .then(Mono.defer(() -> {
+                    libro.setId(null);
+                    libro.setVersion(null);
+                    antesDeGuardar(libro);
+                    return repository.save(libro);
+                }))
+                .flatMap(guardado -> changeEvents
+                        .registrar(guardado.getId(), Operation.CREATED, guardado.getVersion(), guardado)
+                        .thenReturn(guardado));
+    }
+
+    /**
+     * Reemplaza los datos de un libro existente (PUT).
+     *
+     * El UPDATE lleva la condición de versión (@Version): si otro cliente
+     * modificó el libro entre la lectura y la escritura, falla con 409.
+     *
+     * @param versionEsperada versión que el cliente leyó (null = no validar)
+     */
+    @Transactional
+    public Mono<Book> update(Long id, Book datos, Long versionEsperada) {
+        return validar(datos)
+                .then(repository.findById(id))
+                .flatMap(existente -> {
+                    if (versionEsperada != null && !versionEsperada.equals(existente.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Versión desactualizada del libro " + id));
+                    }
+                    existente.setTitle(datos.getTitle());
+                    existente.setAuthor(datos.getAuthor());
+                    existente.setGenre(datos.getGenre());
+                    existente.setPublication(datos.getPublication());
+                    antesDeGuardar(existente);
+                    return repository.save(existente);
+                })
+                .flatMap(guardado -> changeEvents
+                        .registrar(id, Operation.UPDATED, guardado.getVersion(), guardado)
+                        .thenReturn(guardado));
+    }
+
+    /**
+     * Modificación parcial (PATCH / JSON Merge Patch) en un solo UPDATE, sin
+     * leer el libro antes:
+     *
+     *   UPDATE BOOK SET TITLE = :title, ..., VERSION = VERSION + 1
+     *   WHERE ID = :id AND VERSION = :version
+     *
+     * Solo si no se actualizó ninguna fila se consulta la versión, para
+     * distinguir "no existe" (404) de "versión desactualizada" (409).
+     *
+     * @return la nueva versión del libro
+     */
+    @Transactional
+    public Mono<Long> patch(Long id, Map<String, Object> cambios, long versionEsperada) {
+        Set<String> errores = cambios.entrySet().stream()
+                .flatMap(e -> validator.validateValue(Book.class, e.getKey(), e.getValue()).stream())
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!errores.isEmpty()) {
+            return Mono.error(new IllegalArgumentException(String.join("; ", errores)));
+        }
+        Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        StringBuilder sql = new StringBuilder("UPDATE BOOK SET ");
+        cambios.keySet().forEach(campo -> sql.append(COLUMNAS.get(campo)).append(" = :").append(campo).append(", "));
+        if (cambios.containsKey("title")) {
+            sql.append("TITLE_KEY = :titleKey, ");
+        }
+        sql.append("UPDATED_AT = :updatedAt, VERSION = VERSION + 1 WHERE ID = :id AND VERSION = :version");
+
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> cambio : cambios.entrySet()) {
+            Object valor = cambio.getValue() instanceof Year anio ? anio.getValue() : cambio.getValue();
+            update = update.bind(cambio.getKey(), valor);
+        }
+        if (cambios.containsKey("title")) {
+            update = update.bind("titleKey", ((String) cambios.get("title")).toLowerCase(Locale.ROOT));
+        }
+        update = update.bind("updatedAt", OffsetDateTime.ofInstant(ahora, ZoneOffset.UTC))
+                .bind("id", id)
+                .bind("version", versionEsperada);
+
+        long nuevaVersion = versionEsperada + 1;
+        return update.fetch().rowsUpdated()
+                .flatMap(filas -> {
+                    if (filas > 0) {
+                        // El evento lleva solo lo que cambió (más la fecha de modificación)
+                        Map<String, Object> datos = new LinkedHashMap<>(cambios);
+                        datos.put("updatedAt", ahora);
+                        return changeEvents.registrar(id, Operation.UPDATED, nuevaVersion, datos)
+                                .thenReturn(nuevaVersion);
+                    }
+                    return findRowVersion(id)
+                            .switchIfEmpty(Mono.error(new ResourceNotFoundException("Libro no encontrado con ID: " + id)))
+                            .then(Mono.error(new OptimisticLockingFailureException(
+                                    "Versión desactualizada del libro " + id)));
+                });
+    }
+
+    /**
+     * Elimina un libro por su ID con un solo DELETE.
+     *
+     * @return false si el libro no existía
+     */
+    @Transactional
+    public Mono<Boolean> delete(Long id) {
+        return repository.deleteRow(id)
+                .flatMap(filas -> filas > 0
+                        ? changeEvents.registrarEliminados(List.of(id)).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    /**
+     * Borrado masivo en una sola transacción: por lista de IDs o por género.
+     * Las filas se bloquean (SELECT ... FOR UPDATE) y se borran por ID, de a
+     * bloques de 1000 (el máximo de Oracle para IN).
+     *
+     * @return cantidad de libros eliminados
+     */
+    @Transactional
+    public Mono<Integer> deleteAll(List<Long> ids, String genre) {
+        boolean porIds = ids != null && !ids.isEmpty();
+        boolean porGenero = genre != null && !genre.isBlank();
+        if (porIds == porGenero) {
+            return Mono.error(new IllegalArgumentException(
+                    "Debe indicar una lista de IDs o un género (solo uno de los dos)"));
+        }
+
+        // Las filas se bloquean antes de borrarlas por ID: los eventos DELETED
+        // son exactamente los de las filas que borra el DELETE
+        Flux<Long> bloqueados = porGenero
+                ? repository.findIdsByGenreForUpdate(genre)
+                : Flux.fromIterable(bloques(ids)).concatMap(repository::findExistingIdsForUpdate);
+        return bloqueados.collectList()
+                .flatMap(afectados -> Flux.fromIterable(bloques(afectados))
+                        .concatMap(repository::deleteRows)
+                        .reduce(0, Integer::sum)
+                        .flatMap(eliminados -> changeEvents.registrarEliminados(afectados).thenReturn(eliminados)));
+    }
+
+    // Bloques de hasta 1000 IDs (el máximo de Oracle para IN)
+    private static List<List<Long>> bloques(List<Long> ids) {
+        List<List<Long>> bloques = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_IDS_POR_SENTENCIA) {
+            bloques.add(ids.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, ids.size())));
+        }
+        return bloques;
+    }
+
+    // ============================================================
+    // Métodos de apoyo interno
+    // ============================================================
+
+    // Mismas reglas que la entidad de la aplicación principal (incluida la
+    // columna PUBLICATION obligatoria)
+    private Mono<Void> validar(Book libro) {
+        Set<String> errores = validator.validate(libro).stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (libro.getPublication() == null) {
+            errores.add("El año de publicación es obligatorio");
+        }
+        return errores.isEmpty() ? Mono.empty() : Mono.error(new IllegalArgumentException(String.join("; ", errores)));
+    }
+
+    // Lo que en la aplicación principal hace @PrePersist / @PreUpdate
+    private static void antesDeGuardar(Book libro) {
+        libro.setTitleKey(libro.getTitle() != null ? libro.getTitle().toLowerCase(Locale.ROOT) : null);
+        libro.setUpdatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private static Year anio(Readable row) {
+        Integer valor = row.get("PUBLICATION", Integer.class);
+        return valor != null ? Year.of(valor) : null;
+    }
+
+    private static Instant instante(Readable row, String columna) {
+        OffsetDateTime valor = row.get(columna, OffsetDateTime.class);
+        return valor != null ? valor.toInstant() : null;
+    }
+
+    private static boolean hasText(String valor) {
+        return valor != null && !valor.isBlank();
+    }
+
+    // Escapa los comodines de LIKE para que el texto se busque literalmente
+    private static String escapeLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // ============================================================
+    // Cursor opaco para la paginación (mismo formato que BookService)
+    // ============================================================
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(valor);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.fullstack.libreria.reactive.config;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * ===============================================================
+ * 📘 Clase: R2dbcConfig
+ * ---------------------------------------------------------------
+ * Conversiones para leer y escribir las columnas tal como las creó
+ * Hibernate en la aplicación principal:
+ *
+ * - PUBLICATION: número (Year ↔ Integer).
+ * - UPDATED_AT / CREATED_AT: TIMESTAMP WITH TIME ZONE (Instant ↔
+ *   OffsetDateTime en UTC), que es el tipo que entregan los drivers R2DBC.
+ * ===============================================================
+ */
+@Configuration
+public class R2dbcConfig {
+
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory), List.of(
+                new YearToInteger(), new NumberToYear(), new InstantToOffsetDateTime(), new OffsetDateTimeToInstant()));
+    }
+
+    @WritingConverter
+    static class YearToInteger implements Converter<Year, Integer> {
+        @Override
+        public Integer convert(Year year) {
+            return year.getValue();
+        }
+    }
+
+    // Oracle entrega NUMBER como BigDecimal; H2, como Integer
+    @ReadingConverter
+    static class NumberToYear implements Converter<Number, Year> {
+        @Override
+        public Year convert(Number numero) {
+            return Year.of(numero.intValue());
+        }
+    }
+
+    @WritingConverter
+    static class InstantToOffsetDateTime implements Converter<Instant, OffsetDateTime> {
+        @Override
+        public OffsetDateTime convert(Instant instante) {
+            return instante.atOffset(ZoneOffset.UTC);
+        }
+    }
+
+    @ReadingConverter
+    static class OffsetDateTimeToInstant implements Converter<OffsetDateTime, Instant> {
+        @Override
+        public Instant convert(OffsetDateTime fecha) {
+            return fecha.toInstant();
+        }
+    }
+}
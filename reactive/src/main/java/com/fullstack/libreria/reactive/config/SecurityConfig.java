@@ -0,0 +1,60 @@
+package com.fullstack.libreria.reactive.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import com.fullstack.libreria.reactive.security.TokenAuthenticationWebFilter;
+import com.fullstack.libreria.reactive.security.TokenProperties;
+import com.fullstack.libreria.reactive.security.TokenVerifier;
+
+/**
+ * ===============================================================
+ * 📘 Clase: SecurityConfig
+ * ---------------------------------------------------------------
+ * Las mismas reglas del catálogo que en la aplicación principal: lectura
+ * pública, escritura para ADMIN y BIBLIOTECARIO. Sin sesión: cada
+ * petición se autentica con su token.
+ * ===============================================================
+ */
+@Configuration
+@EnableConfigurationProperties(TokenProperties.class)
+public class SecurityConfig {
+
+  @Bean
+  public SecurityWebFilterChain filterChain(ServerHttpSecurity http, TokenVerifier verifier,
+      TokenProperties tokenProperties) {
+
+      http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+          .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+          .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+          .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+          .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+          .addFilterAt(new TokenAuthenticationWebFilter(verifier), SecurityWebFiltersOrder.AUTHENTICATION);
+
+      if (!tokenProperties.isEnforce()) {
+        http.authorizeExchange(auth -> auth.anyExchange().permitAll());
+        return http.build();
+      }
+
+      http.authorizeExchange(auth -> auth
+          .pathMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+          // Salud y métricas para el scraper de Prometheus; el resto de Actuator solo ADMIN
+          .pathMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+          .pathMatchers("/actuator/**").hasRole("ADMIN")
+          // Catálogo: lectura pública, escritura para ADMIN y BIBLIOTECARIO
+          .pathMatchers(HttpMethod.GET, "/api/books/**").permitAll()
+          .pathMatchers("/api/books/**").hasAnyRole("ADMIN", "BIBLIOTECARIO")
+          .anyExchange().permitAll()
+      );
+
+      return http.build();
+  }
+}
@@ -0,0 +1,141 @@
+package com.fullstack.libreria.reactive.events;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Clase ChangeEventWriter
+ * -----------------------
+ * Los cambios hechos por este módulo tienen que verse igual que los de la
+ * aplicación principal. Por eso cada alta, cambio o baja, dentro de la
+ * misma transacción:
+ *
+ * - Inserta su fila en CHANGE_EVENT (mismo formato que ChangeEventService):
+ *   GET /api/events de la aplicación principal la envía a sus clientes.
+ * - Incrementa el contador de cambios de los libros (ENTITY_VERSION), del
+ *   que sale el ETag de GET /api/books en ambas aplicaciones.
+ * - Con libreria.cache.invalidation.channel=jdbc, inserta un aviso en
+ *   CACHE_INVALIDATION para la tabla "book": las réplicas de la aplicación
+ *   principal vacían sus cachés de libros.
+ *
+ * Solo escribe; leer los eventos y limpiar las tablas sigue siendo tarea
+ * de la aplicación principal.
+ */
+@Slf4j
+@Component
+public class ChangeEventWriter {
+
+    public static final String BOOK = "book";
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    private static final String INSERT_EVENT_SQL = "INSERT INTO CHANGE_EVENT"
+            + " (ENTITY_TYPE, ENTITY_ID, OPERATION, ENTITY_VERSION, PAYLOAD, CREATED_AT)"
+            + " VALUES (:entity, :id, :operation, :version, :payload, :createdAt)";
+    private static final String UPDATE_VERSION_SQL =
+            "UPDATE ENTITY_VERSION SET VERSION = VERSION + 1, UPDATED_AT = :updatedAt WHERE ENTITY_TYPE = :entity";
+    private static final String INSERT_VERSION_SQL =
+            "INSERT INTO ENTITY_VERSION (ENTITY_TYPE, VERSION, UPDATED_AT) VALUES (:entity, 1, :updatedAt)";
+    private static final String INSERT_INVALIDATION_SQL =
+            "INSERT INTO CACHE_INVALIDATION (ORIGIN, TABLE_NAME, CREATED_AT) VALUES (:origin, :table, CURRENT_TIMESTAMP)";
+
+    private final DatabaseClient databaseClient;
+    private final ObjectWriter writer;
+    private final boolean invalidarReplicas;
+    // ORIGIN admite 36 caracteres: un UUID, como el de cada réplica principal
+    private final String origen = UUID.randomUUID().toString();
+
+    public ChangeEventWriter(DatabaseClient databaseClient, ObjectMapper objectMapper,
+            @Value("${libreria.cache.invalidation.channel:local}") String canal) {
+        this.databaseClient = databaseClient;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.invalidarReplicas = "jdbc".equalsIgnoreCase(canal);
+        if (invalidarReplicas) {
+            log.info("📡 Los cambios en BOOK se avisan por CACHE_INVALIDATION (instancia {})", origen);
+        }
+    }
+
+    /**
+     * Alta o cambio de un libro: datos = el libro guardado (o solo los
+     * campos modificados en un PATCH).
+     */
+    public Mono<Void> registrar(Long id, Operation operacion, Long version, Object datos) {
+        return insertar(id, operacion, version, datos).then(incrementarVersion()).then(invalidar());
+    }
+
+    /**
+     * Bajas: un evento DELETED por ID (y un solo aviso de invalidación).
+     */
+    public Mono<Void> registrarEliminados(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(ids)
+                .concatMap(id -> insertar(id, Operation.DELETED, null, null))
+                .then(incrementarVersion())
+                .then(invalidar());
+    }
+
+    private Mono<Void> insertar(Long id, Operation operacion, Long version, Object datos) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_EVENT_SQL)
+                .bind("entity", BOOK)
+                .bind("id", id)
+                .bind("operation", operacion.name())
+                .bind("createdAt", OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
+        insert = version != null ? insert.bind("version", version) : insert.bindNull("version", Long.class);
+        insert = datos != null ? insert.bind("payload", serializar(id, datos)) : insert.bindNull("payload", String.class);
+        return insert.then();
+    }
+
+    // La fila queda bloqueada hasta el commit: los cambios concurrentes se ordenan en ella
+    private Mono<Void> incrementarVersion() {
+        OffsetDateTime ahora = OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        Mono<Long> actualizar = Mono.defer(() -> databaseClient.sql(UPDATE_VERSION_SQL)
+                .bind("updatedAt", ahora)
+                .bind("entity", BOOK)
+                .fetch().rowsUpdated());
+        return actualizar.flatMap(filas -> filas > 0 ? Mono.<Void>empty() : databaseClient.sql(INSERT_VERSION_SQL)
+                .bind("entity", BOOK)
+                .bind("updatedAt", ahora)
+                .then()
+                // Otra transacción creó la fila primero
+                .onErrorResume(DataIntegrityViolationException.class, ex -> actualizar.then()));
+    }
+
+    private Mono<Void> invalidar() {
+        if (!invalidarReplicas) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(INSERT_INVALIDATION_SQL)
+                .bind("origin", origen)
+                .bind("table", BOOK)
+                .then();
+    }
+
+    private String serializar(Long id, Object datos) {
+        try {
+            return writer.writeValueAsString(datos);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el evento de " + BOOK + " " + id, ex);
+        }
+    }
+}
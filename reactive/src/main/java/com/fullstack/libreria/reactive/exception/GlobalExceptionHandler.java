@@ -0,0 +1,131 @@
+package com.fullstack.libreria.reactive.exception;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: GlobalExceptionHandler
+ * ---------------------------------------------------------------
+ * Traduce las excepciones a las mismas respuestas que la aplicación
+ * principal ({status, timestamp, error, path}), así el FrontEnd maneja
+ * los errores igual con cualquiera de las dos APIs.
+ *
+ * Cuenta cada error por rama en la métrica libreria.errors{branch=...}.
+ * ===============================================================
+ */
+@Slf4j
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Incrementa el contador de errores de la rama indicada
+    private void contar(String rama, HttpStatus status) {
+        meterRegistry.counter("libreria.errors", "branch", rama, "status", String.valueOf(status.value()))
+                .increment();
+    }
+
+    // ============================================================
+    // 🔸 1. Manejo de errores de validación (400 Bad Request)
+    // ============================================================
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, Object>> handleValidationErrors(WebExchangeBindException ex) {
+        Map<String, String> errores = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(error -> {
+            errores.put(error.getField(), error.getDefaultMessage());
+        });
+
+        log.warn("⚠️ Error de validación: {}", errores);
+        contar("validation", HttpStatus.BAD_REQUEST);
+
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("status", HttpStatus.BAD_REQUEST.value());
+        respuesta.put("timestamp", LocalDateTime.now());
+        respuesta.put("errores", errores);
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(respuesta);
+    }
+
+    // ============================================================
+    // 🔸 2. Manejo de recursos no encontrados (404 Not Found)
+    // ============================================================
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleResourceNotFound(ResourceNotFoundException ex,
+            ServerWebExchange exchange) {
+        log.error("❌ Recurso no encontrado: {}", ex.getMessage());
+        contar("not_found", HttpStatus.NOT_FOUND);
+        return respuesta(HttpStatus.NOT_FOUND, ex.getMessage(), exchange);
+    }
+
+    // ============================================================
+    // 🔸 3. Manejo de argumentos inválidos (400 Bad Request)
+    // ============================================================
+    // IllegalArgumentException de las reglas de negocio y cuerpos o
+    // parámetros que no se pudieron leer.
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex,
+            ServerWebExchange exchange) {
+        log.warn("⚠️ Petición inválida: {}", ex.getMessage());
+        contar("illegal_argument", HttpStatus.BAD_REQUEST);
+        return respuesta(HttpStatus.BAD_REQUEST, ex.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, Object>> handleServerWebInput(ServerWebInputException ex,
+            ServerWebExchange exchange) {
+        log.warn("⚠️ Petición inválida: {}", ex.getReason());
+        contar("illegal_argument", HttpStatus.BAD_REQUEST);
+        return respuesta(HttpStatus.BAD_REQUEST, ex.getReason(), exchange);
+    }
+
+    // ============================================================
+    // 🔸 4. Conflictos de versión (409 Conflict)
+    // ============================================================
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLocking(OptimisticLockingFailureException ex,
+            ServerWebExchange exchange) {
+        log.warn("🔁 Conflicto de versión: {}", ex.getMessage());
+        contar("conflict", HttpStatus.CONFLICT);
+        return respuesta(HttpStatus.CONFLICT,
+                "El recurso fue modificado por otro usuario; vuelva a cargarlo e intente nuevamente", exchange);
+    }
+
+    // ============================================================
+    // 🔸 5. Manejo de errores generales (500 Internal Server Error)
+    // ============================================================
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, Object>> handleGeneralException(Exception ex, ServerWebExchange exchange) {
+        log.error("💥 Error interno del servidor: {}", ex.getMessage());
+        contar("internal", HttpStatus.INTERNAL_SERVER_ERROR);
+        return respuesta(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor: " + ex.getMessage(),
+                exchange);
+    }
+
+    private static ResponseEntity<Map<String, Object>> respuesta(HttpStatus status, String mensaje,
+            ServerWebExchange exchange) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", status.value());
+        error.put("timestamp", LocalDateTime.now());
+        error.put("error", mensaje);
+        error.put("path", exchange.getRequest().getPath().value());
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.fullstack.libreria.reactive.exception;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ResourceNotFoundException
+ * ---------------------------------------------------------------
+ * Excepción para los errores "404 - No encontrado" (por ejemplo, un
+ * PATCH sobre un libro que no existe). GlobalExceptionHandler la
+ * traduce a la respuesta HTTP.
+ * ===============================================================
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
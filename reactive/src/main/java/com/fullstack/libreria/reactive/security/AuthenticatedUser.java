@@ -0,0 +1,12 @@
+package com.fullstack.libreria.reactive.security;
+
+/**
+ * ===============================================================
+ * 📘 Clase: AuthenticatedUser
+ * ---------------------------------------------------------------
+ * Usuario autenticado, reconstruido solo a partir del token firmado que
+ * emitió la aplicación principal (POST /api/users/login).
+ * ===============================================================
+ */
+public record AuthenticatedUser(Long id, String email, String rol) {
+}
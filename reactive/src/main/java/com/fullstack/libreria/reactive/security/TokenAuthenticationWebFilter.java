@@ -0,0 +1,50 @@
+package com.fullstack.libreria.reactive.security;
+
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * ===============================================================
+ * 📘 Clase: TokenAuthenticationWebFilter
+ * ---------------------------------------------------------------
+ * Versión WebFlux de TokenAuthenticationFilter: lee la cabecera
+ * "Authorization: Bearer <token>" y, si el token es válido, deja al
+ * usuario autenticado con su rol en el contexto reactivo (no hay
+ * ThreadLocal: la petición puede pasar por varios hilos).
+ *
+ * Sin token (o con uno inválido) la petición sigue como anónima y las
+ * reglas de SecurityConfig deciden si se permite.
+ * ===============================================================
+ */
+public class TokenAuthenticationWebFilter implements WebFilter {
+
+    private static final String PREFIJO = "Bearer ";
+
+    private final TokenVerifier verifier;
+
+    public TokenAuthenticationWebFilter(TokenVerifier verifier) {
+        this.verifier = verifier;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String cabecera = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (cabecera == null || !cabecera.startsWith(PREFIJO)) {
+            return chain.filter(exchange);
+        }
+        return verifier.verify(cabecera.substring(PREFIJO.length()).trim())
+                .map(usuario -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken(usuario, null,
+                                List.of(new SimpleGrantedAuthority("ROLE_" + usuario.rol()))))))
+                .orElseGet(() -> chain.filter(exchange));
+    }
+}
@@ -0,0 +1,30 @@
+package com.fullstack.libreria.reactive.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: TokenProperties
+ * ---------------------------------------------------------------
+ * Claves para verificar los tokens de sesión (prefijo
+ * libreria.security.token). Deben ser las mismas que usa la aplicación
+ * principal: este módulo no emite tokens, solo los verifica.
+ *
+ *   libreria.security.token.keys.k1=...   ← clave en Base64 (mín. 32 bytes)
+ * ===============================================================
+ */
+@Data
+@ConfigurationProperties(prefix = "libreria.security.token")
+public class TokenProperties {
+
+    // Si es false, la API sigue abierta (solo se lee el token si viene)
+    private boolean enforce = true;
+
+    // kid → clave HMAC en Base64
+    private Map<String, String> keys = new LinkedHashMap<>();
+}
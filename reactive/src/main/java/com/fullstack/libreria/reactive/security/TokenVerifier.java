@@ -0,0 +1,109 @@
+package com.fullstack.libreria.reactive.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: TokenVerifier
+ * ---------------------------------------------------------------
+ * Verifica los tokens (formato JWT, HS256) emitidos por el TokenService
+ * de la aplicación principal: misma cabecera con "kid", mismas claves y
+ * mismos datos (sub, email, rol, exp).
+ *
+ * Es solo cálculo en memoria, así que se puede llamar desde el hilo del
+ * event loop sin bloquearlo.
+ * ===============================================================
+ */
+@Slf4j
+@Service
+public class TokenVerifier {
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+    private static final TypeReference<Map<String, Object>> MAPA = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, byte[]> claves = new LinkedHashMap<>();
+
+    public TokenVerifier(ObjectMapper objectMapper, TokenProperties properties) {
+        this.objectMapper = objectMapper;
+        properties.getKeys().forEach((kid, valor) -> {
+            byte[] clave = Base64.getDecoder().decode(valor);
+            if (clave.length < 32) {
+                throw new IllegalStateException("La clave de token '" + kid + "' debe tener al menos 32 bytes");
+            }
+            claves.put(kid, clave);
+        });
+        if (claves.isEmpty()) {
+            // Sin claves compartidas no se puede verificar ningún token de la
+            // aplicación principal: solo sirve con enforce=false
+            log.warn("⚠️ Sin claves en libreria.security.token.keys: ningún token será aceptado");
+        }
+    }
+
+    /**
+     * Verifica firma y expiración. Retorna vacío si el token no es válido.
+     */
+    public Optional<AuthenticatedUser> verify(String token) {
+        try {
+            String[] partes = token.split("\\.");
+            if (partes.length != 3) {
+                return Optional.empty();
+            }
+            Map<String, Object> cabecera = decodificar(partes[0]);
+            byte[] clave = claves.get(String.valueOf(cabecera.get("kid")));
+            if (clave == null || !"HS256".equals(cabecera.get("alg"))) {
+                return Optional.empty();
+            }
+
+            byte[] esperada = firmar(clave, partes[0] + "." + partes[1]);
+            if (!MessageDigest.isEqual(esperada, B64_DECODER.decode(partes[2]))) {
+                return Optional.empty();
+            }
+
+            Map<String, Object> datos = decodificar(partes[1]);
+            long exp = ((Number) datos.get("exp")).longValue();
+            if (Instant.now().getEpochSecond() >= exp) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(Long.valueOf((String) datos.get("sub")),
+                    (String) datos.get("email"), (String) datos.get("rol")));
+        } catch (RuntimeException | IOException ex) {
+            log.debug("Token inválido: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Map<String, Object> decodificar(String parte) throws IOException {
+        return objectMapper.readValue(B64_DECODER.decode(parte), MAPA);
+    }
+
+    private static byte[] firmar(byte[] clave, String contenido) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(new SecretKeySpec(clave, ALGORITMO));
+            return mac.doFinal(contenido.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITMO + " no disponible", ex);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.fullstack.libreria.reactive.web;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ===============================================================
+ * 📘 Clase: MergePatch
+ * ---------------------------------------------------------------
+ * Lectura de un documento JSON Merge Patch (RFC 7386) para PATCH:
+ *
+ *   { "title": "Nuevo título", "phone": null }
+ *
+ * Solo los campos presentes se modifican; null significa "dejar vacío"
+ * (solo permitido en campos opcionales). Además de los campos editables
+ * se acepta "version" como versión esperada (alternativa a If-Match).
+ * ===============================================================
+ */
+public final class MergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+    public static final MediaType APPLICATION_MERGE_PATCH_JSON = MediaType.parseMediaType(MEDIA_TYPE);
+
+    private MergePatch() {
+    }
+
+    /**
+     * Convierte el documento en un mapa campo → valor (ya con el tipo Java
+     * del campo).
+     *
+     * @param editables campos que se pueden modificar y su tipo
+     * @param opcionales campos que aceptan null
+     * @throws IllegalArgumentException si el documento trae campos
+     *                                  desconocidos, de solo lectura o
+     *                                  valores inválidos
+     */
+    public static Map<String, Object> leer(JsonNode documento, Map<String, Class<?>> editables,
+            Set<String> opcionales, ObjectMapper objectMapper) {
+        if (documento == null || !documento.isObject()) {
+            throw new IllegalArgumentException("El cuerpo debe ser un objeto JSON");
+        }
+        Map<String, Object> cambios = new LinkedHashMap<>();
+        documento.fields().forEachRemaining(campo -> {
+            String nombre = campo.getKey();
+            JsonNode valor = campo.getValue();
+            if (nombre.equals("version")) {
+                return; // versión esperada: ver versionEsperada()
+            }
+            Class<?> tipo = editables.get(nombre);
+            if (tipo == null) {
+                throw new IllegalArgumentException("El campo '" + nombre + "' no se puede modificar");
+            }
+            if (valor.isNull()) {
+                if (!opcionales.contains(nombre)) {
+                    throw new IllegalArgumentException("El campo '" + nombre + "' es obligatorio");
+                }
+                cambios.put(nombre, null);
+                return;
+            }
+            try {
+                cambios.put(nombre, objectMapper.treeToValue(valor, tipo));
+            } catch (Exception ex) {
+                throw new IllegalArgumentException("Valor inválido para '" + nombre + "': " + valor);
+            }
+        });
+        if (cambios.isEmpty()) {
+            throw new IllegalArgumentException("El documento no contiene cambios");
+        }
+        return cambios;
+    }
+
+    /**
+     * Versión esperada: la de If-Match o, si no viene, el campo "version"
+     * del documento. Es obligatoria (PATCH nunca pisa cambios ajenos).
+     */
+    public static long versionEsperada(String ifMatch, Long id, JsonNode documento) {
+        Long version = ETags.parseIfMatch(ifMatch, id);
+        if (version == null && documento != null && documento.hasNonNull("version")) {
+            JsonNode nodo = documento.get("version");
+            if (!nodo.canConvertToLong()) {
+                throw new IllegalArgumentException("El campo 'version' debe ser numérico");
+            }
+            version = nodo.asLong();
+        }
+        if (version == null) {
+            throw new IllegalArgumentException("Se requiere la cabecera If-Match o el campo 'version'");
+        }
+        return version;
+    }
+}
@@ -0,0 +1,22 @@
+package com.fullstack.libreria.reactive.web;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: RowVersion
+ * ---------------------------------------------------------------
+ * Versión de una fila y su última modificación, leídas sin cargar la
+ * fila completa (GET condicionales e If-Match).
+ * ===============================================================
+ */
+@Data
+@AllArgsConstructor
+public class RowVersion {
+
+    private Long version;
+    private Instant updatedAt;
+}
@@ -0,0 +1,103 @@
+package com.fullstack.libreria.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.fullstack.libreria.reactive.book.model.Book;
+import com.fullstack.libreria.reactive.book.model.BookSummary;
+
+// Contra H2 en memoria (ver src/test/resources)
+@SpringBootTest
+@AutoConfigureWebTestClient
+class LibreriaReactiveApplicationTests {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	@Test
+	void crudDeLibros() {
+		Book creado = client.post().uri("/api/books").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("title", "Cien años de soledad", "author", "García Márquez",
+						"genre", "Novela", "publication", 1967))
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(Book.class).returnResult().getResponseBody();
+		assertThat(creado.getId()).isNotNull();
+		assertThat(creado.getVersion()).isZero();
+		Long id = creado.getId();
+
+		// GET condicional: mismo ETag → 304
+		String etag = client.get().uri("/api/books/{id}", id).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.title").isEqualTo("Cien años de soledad")
+				.returnResult().getResponseHeaders().getETag();
+		client.get().uri("/api/books/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+				.expectStatus().isNotModified();
+
+		// PATCH con la versión leída, y de nuevo con la misma → 409
+		client.patch().uri("/api/books/{id}", id).contentType(MediaType.parseMediaType("application/merge-patch+json"))
+				.header(HttpHeaders.IF_MATCH, etag).bodyValue("{\"genre\": \"Realismo\"}").exchange()
+				.expectStatus().isNoContent()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + id + "-1\"");
+		client.patch().uri("/api/books/{id}", id).contentType(MediaType.parseMediaType("application/merge-patch+json"))
+				.header(HttpHeaders.IF_MATCH, etag).bodyValue("{\"genre\": \"Otro\"}").exchange()
+				.expectStatus().isEqualTo(409);
+
+		// Búsqueda por prefijo del título (sin distinguir mayúsculas)
+		client.get().uri("/api/books/search?title=CIEN&genre=Realismo").exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.page.totalElements").isEqualTo(1);
+
+		client.delete().uri("/api/books/{id}", id).exchange().expectStatus().isNoContent();
+		client.delete().uri("/api/books/{id}", id).exchange().expectStatus().isNotFound();
+
+		// Un evento por cambio, en el mismo orden
+		List<String> operaciones = databaseClient
+				.sql("SELECT OPERATION FROM CHANGE_EVENT WHERE ENTITY_ID = :id ORDER BY ID")
+				.bind("id", id)
+				.map(row -> row.get("OPERATION", String.class))
+				.all().collectList().block();
+		assertThat(operaciones).containsExactly("CREATED", "UPDATED", "DELETED");
+	}
+
+	@Test
+	void listadoEnStreaming() {
+		for (int i = 0; i < 3; i++) {
+			client.post().uri("/api/books").contentType(MediaType.APPLICATION_JSON)
+					.bodyValue(Map.of("title", "Libro " + i, "author", "Autor", "genre", "Prueba", "publication", 2000))
+					.exchange().expectStatus().isCreated();
+		}
+
+		List<BookSummary> libros = client.get().uri("/api/books").accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk()
+				.returnResult(BookSummary.class).getResponseBody().collectList().block();
+		assertThat(libros).extracting(BookSummary::getTitle).contains("Libro 0", "Libro 1", "Libro 2");
+
+		String etag = client.get().uri("/api/books").exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+				.expectBody().jsonPath("$.length()").isEqualTo(libros.size())
+				.returnResult().getResponseHeaders().getETag();
+		client.get().uri("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+				.expectStatus().isNotModified();
+
+		client.post().uri("/api/books/bulk-delete").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("genre", "Prueba")).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.deleted").isEqualTo(3);
+	}
+}
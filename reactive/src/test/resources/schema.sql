@@ -0,0 +1,34 @@
+-- Tablas de la aplicación principal (tal como las crea Hibernate)
+CREATE TABLE IF NOT EXISTS BOOK (
+    ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    TITLE VARCHAR(100) NOT NULL,
+    AUTHOR VARCHAR(100) NOT NULL,
+    GENRE VARCHAR(20) NOT NULL,
+    PUBLICATION INTEGER NOT NULL,
+    TITLE_KEY VARCHAR(100),
+    UPDATED_AT TIMESTAMP(6) WITH TIME ZONE,
+    VERSION BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS CHANGE_EVENT (
+    ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    ENTITY_TYPE VARCHAR(20) NOT NULL,
+    ENTITY_ID BIGINT NOT NULL,
+    OPERATION VARCHAR(10) NOT NULL,
+    ENTITY_VERSION BIGINT,
+    PAYLOAD VARCHAR(4000),
+    CREATED_AT TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ENTITY_VERSION (
+    ENTITY_TYPE VARCHAR(20) PRIMARY KEY,
+    VERSION BIGINT NOT NULL,
+    UPDATED_AT TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS CACHE_INVALIDATION (
+    ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    ORIGIN VARCHAR(36) NOT NULL,
+    TABLE_NAME VARCHAR(128) NOT NULL,
+    CREATED_AT TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,66 @@
+package com.fullstack.libreria.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fullstack.libreria.LibreriaApplication;
+import com.fullstack.libreria.book.service.BookImportService;
+
+/**
+ * Arranca la aplicación completa sobre una BD H2 en memoria (modo Oracle)
+ * para los benchmarks. Cada llamada usa una BD nueva.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... propiedades) {
+        return startWithH2Options("", propiedades);
+    }
+
+    /**
+     * Igual que start(), agregando opciones a la URL de H2 (por ejemplo
+     * ";QUERY_CACHE_SIZE=0").
+     */
+    static ConfigurableApplicationContext startWithH2Options(String opcionesH2, String... propiedades) {
+        // DevTools reinicia la app en otro classloader: no sirve para medir
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=benchmark",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+                        + opcionesH2,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--libreria.security.token.enforce=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.fullstack.libreria=WARN"));
+        args.addAll(List.of(propiedades));
+        return SpringApplication.run(LibreriaApplication.class, args.toArray(new String[0]));
+    }
+
+    /**
+     * Inserta "cantidad" libros usando la importación masiva.
+     */
+    static void seedBooks(ConfigurableApplicationContext context, int cantidad) throws IOException {
+        StringBuilder csv = new StringBuilder("title,author,genre,publication\n");
+        for (int i = 1; i <= cantidad; i++) {
+            csv.append("Libro ").append(i).append(",Autor ").append(i % 500)
+                    .append(",Genero ").append(i % 20).append(',').append(1900 + i % 120).append('\n');
+        }
+        context.getBean(BookImportService.class).importar(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                BookImportService.TEXT_CSV);
+    }
+}
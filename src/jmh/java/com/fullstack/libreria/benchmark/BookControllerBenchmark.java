@@ -0,0 +1,84 @@
+package com.fullstack.libreria.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.fullstack.libreria.book.controller.BookController;
+
+/**
+ * BookController.listar: lectura del catálogo completo + serialización
+ * JSON, escrita a un flujo que solo cuenta bytes. "fields" vacío usa la
+ * proyección BookSummary; "id,title" la selección de campos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookControllerBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int catalogSize;
+
+    @Param({ "", "id,title" })
+    public String fields;
+
+    private ConfigurableApplicationContext context;
+    private BookController controller;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedBooks(context, catalogSize);
+        controller = context.getBean(BookController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long listar() throws IOException {
+        CountingOutputStream salida = new CountingOutputStream();
+        // Petición sin If-None-Match: siempre se serializa el catálogo
+        ServletWebRequest request = new ServletWebRequest(
+                new MockHttpServletRequest("GET", "/api/books"), new MockHttpServletResponse());
+        controller.listar(fields.isEmpty() ? null : fields, request).getBody().writeTo(salida);
+        return salida.bytes;
+    }
+
+    static final class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
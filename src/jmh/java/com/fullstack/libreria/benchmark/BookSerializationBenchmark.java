@@ -0,0 +1,91 @@
+package com.fullstack.libreria.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fullstack.libreria.book.model.Book;
+
+/**
+ * Serialización de listas grandes de Book (sin BD) en cada formato que
+ * ofrece la API: JSON con sangría (como antes), JSON compacto, Smile y
+ * CBOR, sin comprimir y con gzip (como server.compression).
+ *
+ * Además del tiempo, al iniciar cada combinación imprime los bytes
+ * resultantes ("Bytes: ..."), para elegir el formato por endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BookSerializationBenchmark {
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    @Param({ "json-indent", "json", "smile", "cbor" })
+    public String format;
+
+    @Param({ "false", "true" })
+    public boolean gzip;
+
+    private ObjectMapper mapper;
+    private List<Book> libros;
+
+    @Setup
+    public void setup() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        mapper = switch (format) {
+            case "json-indent" -> builder.indentOutput(true).build();
+            case "json" -> builder.build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> throw new IllegalArgumentException("Formato desconocido: " + format);
+        };
+        libros = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Book libro = new Book();
+            libro.setId((long) i);
+            libro.setTitle("Cien años de soledad " + i);
+            libro.setAuthor("Gabriel García Márquez");
+            libro.setGenre("Novela");
+            libro.setPublication(Year.of(1900 + i % 120));
+            libro.setVersion(0L);
+            libros.add(libro);
+        }
+        System.out.printf("%nBytes: %s size=%d gzip=%s = %d%n", format, size, gzip, writeList().length);
+    }
+
+    @Benchmark
+    public byte[] writeList() throws Exception {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(libros);
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream comprimido = new GZIPOutputStream(salida, 8192)) {
+            mapper.writeValue(comprimido, libros);
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,73 @@
+package com.fullstack.libreria.benchmark;
+
+import java.time.Year;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.service.BookService;
+
+/**
+ * BookService.findById (con y sin caché) y BookService.save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookServiceBenchmark {
+
+    // 0 = caché desactivada (cada lectura va a la BD)
+    @Param({ "0", "10000" })
+    public String cacheSize;
+
+    @Param({ "10000" })
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = BenchmarkContext.start("--libreria.books.cache.max-size=" + cacheSize);
+        BenchmarkContext.seedBooks(context, catalogSize);
+        service = context.getBean(BookService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Book> findById() {
+        return service.findById(ThreadLocalRandom.current().nextLong(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    public Book save() {
+        Book libro = new Book();
+        libro.setTitle("Benchmark");
+        libro.setAuthor("Autor");
+        libro.setGenre("Genero");
+        libro.setPublication(Year.of(2000));
+        return service.save(libro);
+    }
+}
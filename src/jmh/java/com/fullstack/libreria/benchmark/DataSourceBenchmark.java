@@ -0,0 +1,106 @@
+package com.fullstack.libreria.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.repository.BookRepository;
+import com.fullstack.libreria.user.model.User;
+import com.fullstack.libreria.user.repository.UserRepository;
+
+/**
+ * findById y findByEmail directo a la BD (sin la caché de libros ni la de
+ * segundo nivel), con el pool y el driver por defecto y con los ajustes
+ * del perfil "prod".
+ *
+ * H2 no tiene la caché implícita de sentencias de Oracle; su equivalente
+ * es la caché de SQL analizadas de cada sesión (QUERY_CACHE_SIZE), que se
+ * desactiva en "default" y se dimensiona como en "prod". Contra Oracle,
+ * además, cada fallo de esa caché es un viaje de red más.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DataSourceBenchmark {
+
+    @Param({ "default", "prod" })
+    public String pool;
+
+    @Param({ "10000" })
+    public int catalogSize;
+
+    @Param({ "1000" })
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository books;
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        List<String> propiedades = new ArrayList<>(List.of("--libreria.cache.enabled=false"));
+        String opcionesH2 = ";QUERY_CACHE_SIZE=0";
+        if (pool.equals("prod")) {
+            // Lo mismo que application-prod.properties, salvo las propiedades del driver Oracle
+            opcionesH2 = ";QUERY_CACHE_SIZE=100";
+            propiedades.addAll(List.of(
+                    "--spring.datasource.hikari.maximum-pool-size=20",
+                    "--spring.datasource.hikari.minimum-idle=20",
+                    "--spring.datasource.hikari.connection-timeout=3000",
+                    "--spring.datasource.hikari.leak-detection-threshold=30000",
+                    "--spring.jpa.properties.hibernate.jdbc.fetch_size=100",
+                    "--spring.jpa.properties.hibernate.jdbc.batch_size=50"));
+        }
+        context = BenchmarkContext.startWithH2Options(opcionesH2, propiedades.toArray(new String[0]));
+        BenchmarkContext.seedBooks(context, catalogSize);
+        books = context.getBean(BookRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+
+        List<User> usuarios = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User usuario = new User();
+            usuario.setFullName("Usuario Benchmark " + i);
+            usuario.setEmail("usuario" + i + "@biblioteca.cl");
+            usuario.setPassword("clave123");
+            usuario.setRol("CLIENTE");
+            usuarios.add(usuario);
+        }
+        userRepository.saveAll(usuarios);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Book> findById() {
+        return books.findById(ThreadLocalRandom.current().nextLong(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmailKey("usuario" + ThreadLocalRandom.current().nextInt(users) + "@biblioteca.cl");
+    }
+}
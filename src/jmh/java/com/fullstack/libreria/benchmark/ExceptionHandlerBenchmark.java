@@ -0,0 +1,88 @@
+package com.fullstack.libreria.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.exception.GlobalExceptionHandler;
+import com.fullstack.libreria.exception.ResourceNotFoundException;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Construcción del cuerpo de error en GlobalExceptionHandler para cada
+ * rama (400, 404 y 500). El log del handler se silencia para medir solo la
+ * respuesta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private WebRequest request;
+    private ResourceNotFoundException notFound;
+    private RuntimeException general;
+    private MethodArgumentNotValidException validation;
+
+    @Setup
+    public void setup() throws Exception {
+        ((Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class)).setLevel(Level.OFF);
+
+        handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/books/99"));
+        notFound = new ResourceNotFoundException("Libro no encontrado con ID: 99");
+        general = new IllegalStateException("Fallo inesperado");
+
+        BeanPropertyBindingResult errores = new BeanPropertyBindingResult(new Book(), "book");
+        errores.addError(new FieldError("book", "title", "El título no puede ser nulo"));
+        errores.addError(new FieldError("book", "genre", "El género es obligatorio"));
+        Method metodo = ExceptionHandlerBenchmark.class.getDeclaredMethod("objetivo", Book.class);
+        validation = new MethodArgumentNotValidException(new MethodParameter(metodo, 0), errores);
+    }
+
+    @SuppressWarnings("unused")
+    private void objetivo(Book book) {
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> validationError() {
+        return handler.handleValidationErrors(validation);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> notFound() {
+        return handler.handleResourceNotFound(notFound, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> internalError() {
+        return handler.handleGeneralException(general, request);
+    }
+}
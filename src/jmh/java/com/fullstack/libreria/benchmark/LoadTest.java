@@ -0,0 +1,218 @@
+package com.fullstack.libreria.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Prueba de carga: muchas peticiones concurrentes contra una BD lenta.
+ *
+ * Sin --url arranca la aplicación sobre H2 con una latencia simulada por
+ * sentencia SQL (SlowStatementInspector) y la mide en modo "platform"
+ * (pool de hilos de Tomcat) y, con Java 21+, en modo "virtual". Con --url
+ * solo mide el servidor indicado.
+ *
+ * Además de throughput y latencias informa el pico de hilos de la JVM y
+ * de conexiones del pool en uso / peticiones esperando una conexión, para
+ * comparar con el módulo reactivo (reactive/, ReactiveLoadTest), que mide
+ * lo mismo con la misma ruta, latencia y tamaño de pool.
+ *
+ * Ejecutar:
+ *   mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="--concurrency=2000 --requests=20000"
+ *
+ * Opciones: --url, --mode=platform|virtual, --concurrency, --requests,
+ * --db-latency-ms, --pool-size, --max-in-flight, --catalog-size
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] par = arg.replaceFirst("^--", "").split("=", 2);
+            opciones.put(par[0], par.length > 1 ? par[1] : "true");
+        }
+        int concurrencia = Integer.parseInt(opciones.getOrDefault("concurrency", "2000"));
+        int peticiones = Integer.parseInt(opciones.getOrDefault("requests", "20000"));
+
+        if (opciones.containsKey("url")) {
+            medir("externo", opciones.get("url"), concurrencia, peticiones, null);
+            return;
+        }
+
+        List<String> modos = new ArrayList<>();
+        if (opciones.containsKey("mode")) {
+            modos.add(opciones.get("mode"));
+        } else {
+            modos.add("platform");
+            if (Runtime.version().feature() >= 21) {
+                modos.add("virtual");
+            } else {
+                System.out.println("ℹ️ Java " + Runtime.version().feature()
+                        + ": el modo virtual requiere Java 21 (mvn -Pjava21 -Pbenchmarks ...)");
+            }
+        }
+
+        System.setProperty("libreria.bench.db-latency-ms", opciones.getOrDefault("db-latency-ms", "50"));
+        int catalogo = Integer.parseInt(opciones.getOrDefault("catalog-size", "1000"));
+        for (String modo : modos) {
+            ConfigurableApplicationContext context = BenchmarkContext.start(
+                    "--spring.threads.virtual.enabled=" + "virtual".equals(modo),
+                    "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                            + SlowStatementInspector.class.getName(),
+                    "--spring.datasource.hikari.maximum-pool-size=" + opciones.getOrDefault("pool-size", "30"),
+                    "--spring.datasource.hikari.connection-timeout=3000",
+                    "--libreria.concurrency.max-in-flight=" + opciones.getOrDefault("max-in-flight", "0"),
+                    "--libreria.concurrency.acquire-timeout=2s",
+                    // Todas las peticiones salen de la misma IP: sin límite por cliente
+                    "--libreria.rate-limit.enabled=false",
+                    "--server.tomcat.accept-count=" + concurrencia,
+                    "--server.tomcat.max-connections=" + (concurrencia * 2));
+            try {
+                BenchmarkContext.seedBooks(context, catalogo);
+                String puerto = context.getEnvironment().getProperty("local.server.port");
+                String url = "http://localhost:" + puerto + "/api/books/page?limit=20&afterId=";
+                HikariPoolMXBean pool = context.getBean(HikariDataSource.class).getHikariPoolMXBean();
+                Pool conexiones = new Pool() {
+                    @Override
+                    public int activas() {
+                        return pool.getActiveConnections();
+                    }
+
+                    @Override
+                    public int esperando() {
+                        return pool.getThreadsAwaitingConnection();
+                    }
+                };
+                // Ronda corta de calentamiento (JIT, pool de conexiones)
+                medir(modo + "*", url + "{random}", concurrencia, Math.min(peticiones, concurrencia), conexiones);
+                medir(modo, url + "{random}", concurrencia, peticiones, conexiones);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Lanza "total" peticiones manteniendo "concurrencia" en vuelo e imprime
+     * throughput y percentiles de latencia. "{random}" en la URL se reemplaza
+     * por un número al azar en cada petición.
+     *
+     * Mientras tanto muestrea cada 5 ms los hilos vivos de la JVM y, si se
+     * indica el pool, sus conexiones en uso y en espera (se informa el pico).
+     */
+    static void medir(String nombre, String url, int concurrencia, int total, Pool pool)
+            throws InterruptedException {
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Semaphore enVuelo = new Semaphore(concurrencia);
+        CountDownLatch fin = new CountDownLatch(total);
+        long[] latencias = new long[total];
+        AtomicInteger indice = new AtomicInteger();
+        ConcurrentMap<String, LongAdder> estados = new ConcurrentHashMap<>();
+
+        Picos picos = new Picos(pool);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            enVuelo.acquire();
+            String destino = url.replace("{random}", String.valueOf(ThreadLocalRandom.current().nextInt(1000)));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(destino))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long enviado = System.nanoTime();
+            cliente.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((respuesta, error) -> {
+                        latencias[indice.getAndIncrement()] = System.nanoTime() - enviado;
+                        String estado = error != null ? error.getClass().getSimpleName()
+                                : String.valueOf(respuesta.statusCode());
+                        estados.computeIfAbsent(estado, k -> new LongAdder()).increment();
+                        enVuelo.release();
+                        fin.countDown();
+                    });
+        }
+        fin.await();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        picos.detener();
+
+        Arrays.sort(latencias);
+        System.out.printf("%-9s concurrencia=%d peticiones=%d  %.0f req/s  p50=%.0f ms  p95=%.0f ms  p99=%.0f ms  max=%.0f ms  estados=%s%n",
+                nombre, concurrencia, total, total / segundos,
+                percentil(latencias, 0.50), percentil(latencias, 0.95), percentil(latencias, 0.99),
+                latencias[total - 1] / 1e6, estados);
+        System.out.printf("%-9s hilos JVM (pico)=%d%s%n", "", picos.hilos,
+                pool != null ? "  conexiones en uso (pico)=" + picos.activas
+                        + "  esperando conexión (pico)=" + picos.esperando : "");
+    }
+
+    /**
+     * Conexiones del pool de la aplicación: en uso y peticiones esperando
+     * una conexión libre.
+     */
+    interface Pool {
+        int activas();
+
+        int esperando();
+    }
+
+    // Muestreo periódico de hilos y conexiones mientras dura una medición
+    private static final class Picos {
+
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final ScheduledExecutorService muestreo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "load-test-muestreo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        private volatile int hilos;
+        private volatile int activas;
+        private volatile int esperando;
+
+        Picos(Pool pool) {
+            muestreo.scheduleAtFixedRate(() -> {
+                hilos = Math.max(hilos, threads.getThreadCount());
+                if (pool != null) {
+                    activas = Math.max(activas, pool.activas());
+                    esperando = Math.max(esperando, pool.esperando());
+                }
+            }, 0, 5, TimeUnit.MILLISECONDS);
+        }
+
+        void detener() throws InterruptedException {
+            muestreo.shutdown();
+            muestreo.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+    }
+}
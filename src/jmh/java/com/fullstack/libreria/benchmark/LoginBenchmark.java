@@ -0,0 +1,71 @@
+package com.fullstack.libreria.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fullstack.libreria.user.model.User;
+import com.fullstack.libreria.user.service.UserService;
+
+/**
+ * UserService.login con BCrypt: sin caché de credenciales (ttl 0s, cada
+ * login calcula BCrypt) y con caché (ttl 5m, solo el primero lo calcula).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoginBenchmark {
+
+    private static final String EMAIL = "bench@biblioteca.cl";
+    private static final String PASSWORD = "clave123";
+
+    @Param({ "0s", "5m" })
+    public String credentialCacheTtl;
+
+    @Param({ "10" })
+    public int bcryptStrength;
+
+    private ConfigurableApplicationContext context;
+    private UserService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start(
+                "--libreria.login.credential-cache.ttl=" + credentialCacheTtl,
+                "--libreria.security.bcrypt.strength=" + bcryptStrength);
+        service = context.getBean(UserService.class);
+
+        User usuario = new User();
+        usuario.setFullName("Usuario Benchmark");
+        usuario.setEmail(EMAIL);
+        usuario.setPassword(PASSWORD);
+        usuario.setRol("CLIENTE");
+        service.registrarUsuario(usuario);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User login() {
+        return service.login(EMAIL, PASSWORD);
+    }
+}
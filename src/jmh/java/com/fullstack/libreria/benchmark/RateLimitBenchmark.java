@@ -0,0 +1,66 @@
+package com.fullstack.libreria.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fullstack.libreria.config.TokenBucket;
+
+/**
+ * Costo de TokenBucket.tryConsume (lo que RateLimitFilter agrega a cada
+ * petición): un balde por hilo (clientes distintos) y un solo balde
+ * compartido por 4 hilos (el mismo cliente en paralelo, con contención
+ * en el compareAndSet).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RateLimitBenchmark {
+
+    // Capacidad y ritmo altos: se mide el camino que deja pasar la petición
+    private static final int CAPACIDAD = Integer.MAX_VALUE;
+    private static final double RITMO = 1e9;
+
+    @State(Scope.Thread)
+    public static class BaldePropio {
+        TokenBucket balde;
+
+        @Setup
+        public void setup() {
+            balde = new TokenBucket(CAPACIDAD, RITMO);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BaldeCompartido {
+        TokenBucket balde;
+
+        @Setup
+        public void setup() {
+            balde = new TokenBucket(CAPACIDAD, RITMO);
+        }
+    }
+
+    @Benchmark
+    public long unCliente(BaldePropio estado) {
+        return estado.balde.tryConsume(System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long mismoClienteEnParalelo(BaldeCompartido estado) {
+        return estado.balde.tryConsume(System.nanoTime());
+    }
+}
@@ -0,0 +1,23 @@
+package com.fullstack.libreria.benchmark;
+
+import com.fullstack.libreria.config.QueryCountInspector;
+
+/**
+ * Simula la latencia de red hacia Oracle: cada sentencia SQL espera
+ * "libreria.bench.db-latency-ms" milisegundos antes de ejecutarse, con la
+ * conexión del pool ya tomada (igual que un viaje de ida y vuelta real).
+ */
+public class SlowStatementInspector extends QueryCountInspector {
+
+    private static final long LATENCIA_MS = Long.getLong("libreria.bench.db-latency-ms", 50L);
+
+    @Override
+    public String inspect(String sql) {
+        try {
+            Thread.sleep(LATENCIA_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return super.inspect(sql);
+    }
+}
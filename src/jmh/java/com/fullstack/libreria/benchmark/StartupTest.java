@@ -0,0 +1,219 @@
+package com.fullstack.libreria.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+/**
+ * Prueba de arranque: tiempo desde que se lanza la JVM hasta la primera
+ * respuesta 200 de GET /api/books, con el jar empaquetado (como en la
+ * imagen Docker) sobre una BD H2 en archivo.
+ *
+ * Modos (cada uno suma una mejora al anterior):
+ * - update:    jar con ddl-auto=update (la configuración anterior)
+ * - validate:  jar con ddl-auto=validate
+ * - lazy:      + spring.main.lazy-initialization=true
+ * - aot:       validate + código AOT (-Dspring.aot.enabled=true)
+ * - cds:       aot + archivo CDS generado con un arranque de entrenamiento
+ * - cds-lazy:  cds + lazy
+ *
+ * Los modos aot, cds y cds-lazy necesitan el jar compilado con -Paot.
+ *
+ * Ejecutar:
+ *   mvn -Paot,benchmarks -DskipTests package exec:exec@startup-test -Dstartup.args="--runs=5"
+ *
+ * Opciones: --jar, --runs, --modes=update,validate,...
+ */
+public final class StartupTest {
+
+    private static final List<String> MODOS = List.of("update", "validate", "lazy", "aot", "cds", "cds-lazy");
+
+    private StartupTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] par = arg.replaceFirst("^--", "").split("=", 2);
+            opciones.put(par[0], par.length > 1 ? par[1] : "true");
+        }
+        Path jar = Paths.get(opciones.getOrDefault("jar", "target/libreria-0.0.1-SNAPSHOT.jar"));
+        int repeticiones = Integer.parseInt(opciones.getOrDefault("runs", "3"));
+        List<String> modos = opciones.containsKey("modes")
+                ? Arrays.asList(opciones.get("modes").split(","))
+                : MODOS;
+
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("No existe " + jar + ": ejecutar primero mvn -Paot package");
+        }
+        boolean conAot = tieneCodigoAot(jar);
+        if (!conAot) {
+            System.out.println("ℹ️ " + jar + " no tiene código AOT (compilar con -Paot): se omiten aot y cds");
+        }
+
+        // Mismo formato que la imagen: app.jar + lib/
+        Path trabajo = Paths.get("target", "startup");
+        Path app = trabajo.resolve("app");
+        ejecutar(List.of(java(), "-Djarmode=tools", "-jar", jar.toString(), "extract",
+                "--destination", app.toString(), "--application-filename", "app.jar", "--force"));
+        String classpath = app.resolve("app.jar") + File.pathSeparator + h2Jar();
+
+        // El esquema se crea una sola vez; las mediciones lo validan como en producción
+        Path bd = trabajo.resolve("db").toAbsolutePath();
+        Files.createDirectories(bd);
+        String url = "jdbc:h2:file:" + bd.resolve("libreria");
+        medirArranque(comando(classpath, List.of(), url, "update"));
+
+        Path archivoCds = app.resolve("application.jsa");
+        for (String modo : modos) {
+            if (!conAot && (modo.startsWith("aot") || modo.startsWith("cds"))) {
+                continue;
+            }
+            List<String> jvm = new ArrayList<>();
+            List<String> extra = new ArrayList<>();
+            if (modo.equals("aot") || modo.startsWith("cds")) {
+                jvm.add("-Dspring.aot.enabled=true");
+            }
+            if (modo.equals("lazy") || modo.endsWith("-lazy")) {
+                extra.add("--spring.main.lazy-initialization=true");
+            }
+            if (modo.startsWith("cds")) {
+                if (!Files.exists(archivoCds)) {
+                    entrenarCds(classpath, url, archivoCds);
+                }
+                jvm.add("-XX:SharedArchiveFile=" + archivoCds);
+            }
+            String ddl = modo.equals("update") ? "update" : "validate";
+
+            long[] tiempos = new long[repeticiones];
+            for (int i = 0; i < repeticiones; i++) {
+                List<String> cmd = comando(classpath, jvm, url, ddl);
+                cmd.addAll(extra);
+                tiempos[i] = medirArranque(cmd);
+            }
+            Arrays.sort(tiempos);
+            System.out.printf("%-9s primera respuesta de /api/books: mediana=%d ms  min=%d ms  max=%d ms  (%d arranques)%n",
+                    modo, tiempos[repeticiones / 2], tiempos[0], tiempos[repeticiones - 1], repeticiones);
+        }
+    }
+
+    /**
+     * Igual que el Dockerfile: arranca hasta crear el contexto y sale, y la
+     * JVM guarda en "destino" las clases que cargó.
+     */
+    private static void entrenarCds(String classpath, String url, Path destino)
+            throws IOException, InterruptedException {
+        List<String> cmd = comando(classpath,
+                List.of("-XX:ArchiveClassesAtExit=" + destino, "-Dspring.aot.enabled=true",
+                        "-Dspring.context.exit=onRefresh"),
+                url, "none");
+        cmd.add("--spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false");
+        ejecutar(cmd);
+    }
+
+    private static List<String> comando(String classpath, List<String> jvm, String url, String ddl) {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(java());
+        cmd.addAll(jvm);
+        cmd.addAll(List.of("-cp", classpath, "com.fullstack.libreria.LibreriaApplication",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--logging.level.root=WARN",
+                "--logging.level.com.fullstack.libreria=WARN"));
+        return cmd;
+    }
+
+    /**
+     * Lanza la aplicación, consulta GET /api/books cada 10 ms hasta recibir
+     * un 200 y la detiene. Retorna los milisegundos desde el lanzamiento.
+     */
+    private static long medirArranque(List<String> cmd) throws IOException, InterruptedException {
+        int puerto;
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        List<String> conPuerto = new ArrayList<>(cmd);
+        conPuerto.add("--server.port=" + puerto);
+
+        HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/books"))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(conPuerto)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                if (!proceso.isAlive()) {
+                    throw new IllegalStateException("La aplicación terminó con código " + proceso.exitValue()
+                            + ": " + String.join(" ", conPuerto));
+                }
+                try {
+                    if (cliente.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                    }
+                } catch (IOException e) {
+                    // Puerto aún cerrado
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            proceso.destroy();
+            if (!proceso.waitFor(30, TimeUnit.SECONDS)) {
+                proceso.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void ejecutar(List<String> cmd) throws IOException, InterruptedException {
+        int codigo = new ProcessBuilder(cmd)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start()
+                .waitFor();
+        if (codigo != 0) {
+            throw new IllegalStateException("Falló (código " + codigo + "): " + String.join(" ", cmd));
+        }
+    }
+
+    private static boolean tieneCodigoAot(Path jar) throws IOException {
+        try (JarFile archivo = new JarFile(jar.toFile())) {
+            return archivo.getEntry("BOOT-INF/classes/com/fullstack/libreria/"
+                    + "LibreriaApplication__ApplicationContextInitializer.class") != null;
+        }
+    }
+
+    // El driver H2 no va en el jar: se toma del classpath de la prueba
+    private static String h2Jar() {
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entrada -> new File(entrada).getName().startsWith("h2-"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("H2 no está en el classpath (perfil benchmarks)"));
+    }
+
+    private static String java() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
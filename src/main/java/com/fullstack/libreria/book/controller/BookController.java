@@ -1,13 +1,45 @@
 package com.fullstack.libreria.book.controller;
 
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fullstack.libreria.book.model.Book;
-import com.fullstack.libreria.book.repository.BookRepository;
+import com.fullstack.libreria.book.model.BookBulkDeleteRequest;
+import com.fullstack.libreria.book.model.BookImportReport;
+import com.fullstack.libreria.book.model.BookPage;
+import com.fullstack.libreria.book.model.BookSearchCriteria;
+import com.fullstack.libreria.book.model.BookSummary;
+import com.fullstack.libreria.book.model.CatalogVersion;
+import com.fullstack.libreria.book.service.BookExportService;
+import com.fullstack.libreria.book.service.BookImportService;
 import com.fullstack.libreria.book.service.BookService;
+import com.fullstack.libreria.web.ETags;
+import com.fullstack.libreria.web.FieldSelection;
+import com.fullstack.libreria.web.MergePatch;
+import com.fullstack.libreria.web.RowVersion;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Clase LibroController
@@ -25,23 +57,182 @@ import java.util.List;
 public class BookController {
 
     private final BookService service;
-    private final BookRepository repository;
+    private final BookImportService importService;
+    private final BookExportService exportService;
+    private final ObjectMapper objectMapper;
+
+    // Formatos del listado en streaming: JSON (por defecto), Smile y CBOR
+    private final List<Formato> formatos;
 
     // Inyección de dependencias: el controlador recibe el servicio listo para usar
-    public BookController(BookService service, BookRepository repository) {
+    public BookController(BookService service, BookImportService importService,
+            BookExportService exportService, ObjectMapper objectMapper,
+            MappingJackson2SmileHttpMessageConverter smile, MappingJackson2CborHttpMessageConverter cbor) {
         this.service = service;
-        this.repository = repository;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
+        this.formatos = List.of(
+                new Formato(MediaType.APPLICATION_JSON, objectMapper),
+                new Formato(MediaType.parseMediaType("application/x-jackson-smile"), smile.getObjectMapper()),
+                new Formato(MediaType.parseMediaType("application/cbor"), cbor.getObjectMapper()));
     }
 
     /**
-     * GET /api/books
+     * GET /api/books?fields=id,title
      * ----------------
      * Retorna la lista completa de libros almacenados.
+     *
+     * Cada fila se lee como proyección (BookSummary: id, título, autor,
+     * género, año y versión), sin cargar entidades. Con "fields" se eligen
+     * las columnas a traer y devolver (ver BookService.CAMPOS_LISTADO).
+     *
+     * La respuesta se escribe en streaming: cada libro se serializa apenas sale
+     * del cursor de la BD, sin armar una lista en memoria. El formato (un
+     * arreglo JSON) es el mismo de siempre para el FrontEnd.
+     *
+     * Con Accept: application/x-jackson-smile o application/cbor el mismo
+     * arreglo se escribe en ese formato binario.
+     *
+     * Antes de leer el catálogo se compara su versión (contador de cambios
+     * y "fields") con If-None-Match / If-Modified-Since: si no cambió se
+     * responde 304 sin cuerpo, leyendo una sola fila.
      */
     @GetMapping
-    public List<Book> listar() {
-        // return service.findAll();
-        return repository.findAllByOrderByIdAsc();
+    public ResponseEntity<StreamingResponseBody> listar(@RequestParam(required = false) String fields,
+            WebRequest request) {
+        List<String> campos = FieldSelection.parse(fields, BookService.CAMPOS_LISTADO);
+        Formato formato = elegirFormato(request.getHeader(HttpHeaders.ACCEPT));
+        CatalogVersion version = service.catalogVersion();
+        long modificado = version.getLastModified() != null ? version.getLastModified().toEpochMilli() : -1;
+        if (request.checkNotModified(version.etag(campos), modificado)) {
+            return null; // 304 Not Modified
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = formato.mapper().getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                if (campos.isEmpty()) {
+                    ObjectWriter writer = formato.writerFor(BookSummary.class);
+                    service.forEachSummary(libro -> escribir(json, writer, libro));
+                } else {
+                    ObjectWriter writer = formato.writerFor(Map.class);
+                    service.forEachRow(campos, fila -> escribir(json, writer, fila));
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(formato.tipo()).body(body);
+    }
+
+    // Primer formato binario aceptado, en el orden de Accept; si no, JSON
+    private Formato elegirFormato(String accept) {
+        if (accept != null) {
+            for (MediaType aceptado : MediaType.parseMediaTypes(accept)) {
+                for (Formato formato : formatos) {
+                    if (aceptado.equalsTypeAndSubtype(formato.tipo())) {
+                        return formato;
+                    }
+                }
+            }
+        }
+        return formatos.get(0);
+    }
+
+    // Writers para el streaming: no hacen flush por cada libro (lo hace el buffer)
+    private record Formato(MediaType tipo, ObjectMapper mapper) {
+        ObjectWriter writerFor(Class<?> tipoValor) {
+            return mapper.writerFor(tipoValor).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+    }
+
+    private static void escribir(JsonGenerator json, ObjectWriter writer, Object valor) {
+        try {
+            writer.writeValue(json, valor);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * GET /api/books/export?format=ndjson|csv&gzip=true|false
+     * ---------------------------------------------------------
+     * Exporta el catálogo completo en streaming desde un cursor JDBC.
+     * Con gzip=true la respuesta se comprime (Content-Encoding: gzip).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        BookExportService.Format formato = BookExportService.Format.from(format);
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream comprimido = new GZIPOutputStream(out, 8192, true)) {
+                    exportService.exportar(formato, comprimido);
+                }
+            } else {
+                exportService.exportar(formato, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"books." + formato.getExtension() + "\"");
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(body);
+    }
+
+    /**
+     * GET /api/books/page?cursor=...&afterId=...&limit=...
+     * ------------------------------------------------------
+     * Retorna una página de libros usando paginación por keyset sobre el ID.
+     * Para avanzar, se reenvía el "nextCursor" recibido en el parámetro cursor.
+     */
+    @GetMapping("/page")
+    public BookPage listarPagina(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return service.findPage(cursor, afterId, limit);
+    }
+
+    /**
+     * GET /api/books/search?author=&genre=&title=&fromYear=&toYear=&page=&size=
+     * ---------------------------------------------------------------------------
+     * Búsqueda en el servidor (antes el FrontEnd descargaba todo el catálogo
+     * para filtrar). Retorna la página solicitada junto al total de resultados.
+     */
+    @GetMapping("/search")
+    public PagedModel<Book> buscar(BookSearchCriteria criteria,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return new PagedModel<>(service.search(criteria, page, size));
+    }
+
+    /**
+     * GET /api/books/search/text?q=...&limit=...
+     * --------------------------------------------
+     * Búsqueda de texto libre en título, autor y género, sin distinguir
+     * tildes ni mayúsculas y aceptando prefijos ("cien años" → "Cien años de
+     * soledad"). Los resultados vienen ordenados por relevancia.
+     */
+    @GetMapping("/search/text")
+    public List<Book> buscarTexto(@RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.searchText(q, limit);
+    }
+
+    /**
+     * GET /api/books/cache/stats
+     * ----------------------------
+     * Métricas de la caché de lectura de libros por ID.
+     */
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return service.cacheStats();
     }
 
     /**
@@ -49,11 +240,20 @@ public class BookController {
      * ---------------------
      * Retorna un solo libro por su ID.
      * Si no existe, devuelve un código 404 (Not Found).
+     * Si el cliente ya tiene la versión actual (If-None-Match /
+     * If-Modified-Since) responde 304 sin cargar el libro. Sin esas
+     * cabeceras no se consulta la versión: el ETag sale del libro cargado.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getById(@PathVariable Long id) {
+    public ResponseEntity<Book> getById(@PathVariable Long id, WebRequest request) {
+        if (ETags.esCondicional(request)) {
+            Optional<RowVersion> version = service.findRowVersion(id);
+            if (version.isPresent() && noModificado(request, id, version.get())) {
+                return null; // 304 Not Modified
+            }
+        }
         return service.findById(id)
-                .map(ResponseEntity::ok) // Si lo encuentra → 200 OK
+                .map(libro -> conVersion(id, libro)) // Si lo encuentra → 200 OK
                 .orElse(ResponseEntity.notFound().build()); // Si no → 404
     }
 
@@ -69,21 +269,61 @@ public class BookController {
         return ResponseEntity.status(201).body(nuevo); // Devuelve 201 Created
     }
 
+    /**
+     * POST /api/books/import
+     * ------------------------
+     * Importación masiva de libros. El cuerpo puede ser:
+     * - application/json     → arreglo JSON de libros
+     * - application/x-ndjson → un libro JSON por línea
+     * - text/csv             → CSV con encabezado title,author,genre,publication
+     *
+     * Retorna un reporte con las filas insertadas y el error de cada fila
+     * rechazada.
+     */
+    @PostMapping(value = "/import", consumes = { "application/json", "application/x-ndjson", "text/csv" })
+    public BookImportReport importar(HttpServletRequest request) throws IOException {
+        return importService.importar(request.getInputStream(), MediaType.parseMediaType(request.getContentType()));
+    }
+
     /**
      * PUT /api/books/{id}
      * ---------------------
      * Actualiza un libro existente (mismo ID).
+     *
+     * La versión esperada se toma de If-Match (el ETag del GET) o del campo
+     * "version" del cuerpo. Si el libro cambió desde entonces → 409.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Book> update(@PathVariable Long id, @RequestBody Book libro) {
-        return service.findById(id)
-                .map(existente -> {
-                    libro.setId(id); // Mantenemos el mismo ID
-                    return ResponseEntity.ok(service.save(libro));
-                })
+    public ResponseEntity<Book> update(@PathVariable Long id, @RequestBody Book libro,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versionEsperada = ifMatch != null ? ETags.parseIfMatch(ifMatch, id) : libro.getVersion();
+        return service.update(id, libro, versionEsperada)
+                .map(actualizado -> ResponseEntity.ok()
+                        .eTag(ETags.of(id, actualizado.getVersion()))
+                        .body(actualizado))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * PATCH /api/books/{id}   (Content-Type: application/merge-patch+json)
+     * ---------------------------------------------------------------------
+     * Modifica solo los campos enviados, por ejemplo {"genre": "Historia"},
+     * con un único UPDATE y sin leer el libro antes.
+     *
+     * Requiere la versión esperada en If-Match o en el campo "version".
+     * Responde 204 con el nuevo ETag, 404 si no existe o 409 si la versión
+     * está desactualizada.
+     */
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody JsonNode documento,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long versionEsperada = MergePatch.versionEsperada(ifMatch, id, documento);
+        Map<String, Object> cambios = MergePatch.leer(documento, BookService.CAMPOS_EDITABLES, Set.of(),
+                objectMapper);
+        long nuevaVersion = service.patch(id, cambios, versionEsperada);
+        return ResponseEntity.noContent().eTag(ETags.of(id, nuevaVersion)).build();
+    }
+
     /**
      * DELETE /api/books/{id}
      * ------------------------
@@ -92,10 +332,40 @@ public class BookController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        if (service.findById(id).isEmpty()) {
+        // Un solo DELETE: si no afectó filas, el libro no existía
+        if (!service.delete(id)) {
             return ResponseEntity.notFound().build(); // No existe → 404
         }
-        service.delete(id);
         return ResponseEntity.noContent().build(); // Eliminado → 204
     }
+
+    /**
+     * POST /api/books/bulk-delete
+     * -----------------------------
+     * Elimina muchos libros en una transacción, por lista de IDs
+     * ({"ids": [1, 2, 3]}) o por género ({"genre": "Ficción"}).
+     * Retorna la cantidad eliminada: {"deleted": 3}
+     */
+    @PostMapping("/bulk-delete")
+    public Map<String, Object> bulkDelete(@RequestBody BookBulkDeleteRequest request) {
+        return Map.of("deleted", service.deleteAll(request.getIds(), request.getGenre()));
+    }
+
+    // Compara If-None-Match / If-Modified-Since con la versión actual; si
+    // coinciden deja la respuesta lista como 304
+    private static boolean noModificado(WebRequest request, Long id, RowVersion version) {
+        long modificado = version.getUpdatedAt() != null ? version.getUpdatedAt().toEpochMilli() : -1;
+        return request.checkNotModified(ETags.of(id, version.getVersion()), modificado);
+    }
+
+    // 200 con ETag y Last-Modified tomados del libro
+    private static ResponseEntity<Book> conVersion(Long id, Book libro) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ETags.of(id, libro.getVersion()));
+        if (libro.getUpdatedAt() != null) {
+            respuesta.lastModified(libro.getUpdatedAt());
+        }
+        return respuesta.body(libro);
+    }
 }
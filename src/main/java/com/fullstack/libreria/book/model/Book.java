@@ -1,6 +1,16 @@
 package com.fullstack.libreria.book.model;
 
+import java.time.Instant;
 import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.*; // Librería JPA (maneja las entidades y mapeo a tablas)
 import jakarta.validation.constraints.NotBlank;
@@ -17,8 +27,18 @@ import lombok.Data; // Anotación de Lombok: genera getters, setters, toString,
 @Data // Lombok genera automáticamente todos los getters y setters (ahorra código
       // repetitivo)
 @Entity // Indica que esta clase es una entidad de JPA (se mapeará a una tabla)
-@Table(name = "BOOK") // Nombre de la tabla en Oracle (opcional, si no se pone, toma el nombre de la
+@DynamicUpdate // Los UPDATE solo incluyen las columnas que cambiaron
+@Cacheable // Caché de segundo nivel de Hibernate (región "book", ver SecondLevelCacheConfig)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
+@Table(name = "BOOK", // Nombre de la tabla en Oracle (opcional, si no se pone, toma el nombre de la
                        // clase)
+        indexes = { // Índices usados por la búsqueda GET /api/books/search
+                @Index(name = "IDX_BOOK_AUTHOR", columnList = "AUTHOR"),
+                @Index(name = "IDX_BOOK_GENRE_PUB", columnList = "GENRE, PUBLICATION"),
+                @Index(name = "IDX_BOOK_PUBLICATION", columnList = "PUBLICATION"),
+                @Index(name = "IDX_BOOK_TITLE_KEY", columnList = "TITLE_KEY"),
+                @Index(name = "IDX_BOOK_UPDATED_AT", columnList = "UPDATED_AT")
+        })
 public class Book {
 
     /**
@@ -65,4 +85,44 @@ public class Book {
     @PastOrPresent(message = "El año de publicación no puede ser mayor que el año actual")
     @Column(nullable = false, length = 20)
     private Year publication;
+
+    /**
+     * Título normalizado en minúsculas.
+     * Permite buscar por prefijo sin distinguir mayúsculas usando el índice
+     * IDX_BOOK_TITLE_KEY (LIKE 'prefijo%'), en vez de aplicar LOWER() a toda
+     * la tabla. Se calcula automáticamente y no se expone en el JSON.
+     */
+    @JsonIgnore
+    @Column(name = "TITLE_KEY", length = 100)
+    private String titleKey;
+
+    /**
+     * Momento de la última modificación (con precisión de milisegundos).
+     * Se actualiza en cada insert/update y da origen al ETag y al
+     * Last-Modified de GET /api/books y GET /api/books/{id}. El cliente no
+     * puede modificarlo.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "UPDATED_AT")
+    private Instant updatedAt;
+
+    /**
+     * Versión para el bloqueo optimista: cada UPDATE exige la versión leída
+     * y la incrementa. Si otro cliente modificó el libro entre medio, la
+     * escritura falla con 409 (Conflict) en vez de pisar sus cambios.
+     */
+    @Version
+    @Column(name = "VERSION")
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void antesDeGuardar() {
+        normalizarTitulo();
+        this.updatedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    void normalizarTitulo() {
+        this.titleKey = title != null ? title.toLowerCase(Locale.ROOT) : null;
+    }
 }
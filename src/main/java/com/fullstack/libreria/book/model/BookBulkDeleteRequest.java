@@ -0,0 +1,21 @@
+package com.fullstack.libreria.book.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Clase BookBulkDeleteRequest
+ * ---------------------------
+ * Cuerpo de POST /api/books/bulk-delete. Se indica una lista de IDs o un
+ * género (no ambos):
+ *
+ * { "ids": [1, 2, 3] }
+ * { "genre": "Ficción" }
+ */
+@Data
+public class BookBulkDeleteRequest {
+
+    private List<Long> ids;
+    private String genre;
+}
@@ -0,0 +1,43 @@
+package com.fullstack.libreria.book.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase BookImportReport
+ * ----------------------
+ * Resultado de una importación masiva de libros (POST /api/books/import).
+ *
+ * Informa cuántas filas se recibieron, cuántas se insertaron, cuántas
+ * fallaron (con el número de fila y el motivo) y el rendimiento logrado en
+ * filas por segundo.
+ */
+@Data
+public class BookImportReport {
+
+    private long received;
+    private long imported;
+    private long failed;
+    private long elapsedMs;
+    private double rowsPerSecond;
+
+    // true si hubo más errores que los que se incluyen en "errors"
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Error de una fila puntual del archivo importado (la primera fila de
+     * datos es la número 1).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String message;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fullstack.libreria.book.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Clase BookPage
+ * --------------
+ * Página de libros obtenida con paginación por "keyset" (seek) sobre el ID.
+ *
+ * En lugar de usar OFFSET (que obliga a la BD a recorrer todas las filas
+ * anteriores), cada página continúa desde el último ID entregado.
+ *
+ * Ejemplo de respuesta:
+ * {
+ *   "items": [ ... ],
+ *   "nextCursor": "MTI1"
+ * }
+ *
+ * nextCursor es opaco para el cliente: solo debe reenviarlo tal cual en el
+ * parámetro "cursor" para obtener la página siguiente. Es null en la última
+ * página.
+ */
+@Data
+@AllArgsConstructor
+public class BookPage {
+
+    private List<Book> items;
+    private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package com.fullstack.libreria.book.model;
+
+import lombok.Data;
+
+/**
+ * Clase BookSearchCriteria
+ * ------------------------
+ * Filtros opcionales de la búsqueda GET /api/books/search.
+ *
+ * Todos los filtros se combinan con AND; los que vienen vacíos se ignoran.
+ *
+ * - author:   autor exacto (índice IDX_BOOK_AUTHOR)
+ * - genre:    género exacto (índice IDX_BOOK_GENRE_PUB)
+ * - title:    prefijo del título, sin distinguir mayúsculas (IDX_BOOK_TITLE_KEY)
+ * - fromYear: año de publicación mínimo (inclusive)
+ * - toYear:   año de publicación máximo (inclusive)
+ */
+@Data
+public class BookSearchCriteria {
+
+    private String author;
+    private String genre;
+    private String title;
+    private Integer fromYear;
+    private Integer toYear;
+}
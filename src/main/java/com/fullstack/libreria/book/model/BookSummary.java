@@ -0,0 +1,27 @@
+package com.fullstack.libreria.book.model;
+
+import java.time.Year;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Clase BookSummary
+ * -----------------
+ * Fila del listado completo del catálogo (GET /api/books).
+ *
+ * Se obtiene con una proyección JPQL (select new ...), así que solo viajan
+ * estas columnas y Hibernate no arma entidades ni las guarda en el contexto
+ * de persistencia. Incluye la versión para poder editar desde el listado.
+ */
+@Data
+@AllArgsConstructor
+public class BookSummary {
+
+    private Long id;
+    private String title;
+    private String author;
+    private String genre;
+    private Year publication;
+    private Long version;
+}
@@ -0,0 +1,34 @@
+package com.fullstack.libreria.book.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Clase CatalogVersion
+ * --------------------
+ * Estado del catálogo: el contador de cambios de los libros
+ * (ENTITY_VERSION "book") y el momento del último cambio. Altas, cambios y
+ * bajas lo incrementan en la misma transacción, por lo que nunca retrocede
+ * y basta una lectura de una fila para saber si GET /api/books cambió.
+ */
+@Data
+@AllArgsConstructor
+public class CatalogVersion {
+
+    private long version;
+    private Instant lastModified;
+
+    /**
+     * ETag del listado, por ejemplo W/"catalog-120" o, con fields,
+     * W/"catalog-120-id,title": cada selección de columnas es otra
+     * representación del catálogo.
+     * Es débil porque el mismo catálogo se entrega en varios formatos y
+     * comprimido o no (Tomcat no comprime respuestas con ETag fuerte).
+     */
+    public String etag(List<String> campos) {
+        return "W/\"catalog-" + version + (campos.isEmpty() ? "" : "-" + String.join(",", campos)) + "\"";
+    }
+}
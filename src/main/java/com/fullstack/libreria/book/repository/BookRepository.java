@@ -1,29 +1,188 @@
 package com.fullstack.libreria.book.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.model.BookSummary;
+import com.fullstack.libreria.web.RowVersion;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 /**
  * Interfaz LibroRepository
  * ------------------------
  * Capa de acceso a datos (DAO).
- * 
+ *
  * Al extender JpaRepository, automáticamente tenemos disponibles todos los
  * métodos CRUD:
  * - findAll() → listar todos los registros
  * - findById() → buscar un registro por su ID
  * - save() → guardar o actualizar un registro
  * - deleteById() → eliminar un registro por su ID
- * 
+ *
  * NO es necesario implementar nada manualmente.
  * Spring Data JPA genera todo el código internamente.
+ *
+ * Las consultas declaradas aquí corren en una transacción de solo lectura
+ * (igual que las heredadas de JpaRepository), así que con la réplica de
+ * lectura activa van a ella; las @Modifying se unen a la transacción de
+ * escritura del servicio.
  */
-public interface BookRepository extends JpaRepository<Book, Long> {
+@Transactional(readOnly = true)
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
     // Si en el futuro queremos buscar por "autor", por ejemplo:
     // List<Libro> findByAutor(String autor);
-        // Ordenar por ID ascendente
+
+    /**
+     * Todos los libros ordenados por ID. El resultado queda en la caché de
+     * consultas (región "book-queries") hasta la próxima escritura en BOOK,
+     * y cada libro en la región "book".
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "book-queries")
+    })
     List<Book> findAllByOrderByIdAsc();
-}
\ No newline at end of file
+
+    /**
+     * Paginación por keyset: libros con ID mayor a "afterId", ordenados por ID.
+     * Usa el índice de la clave primaria (range scan), sin OFFSET.
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Recorre todo el catálogo con un cursor de solo avance (forward-only).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAllByOrderByIdAsc();
+
+    /**
+     * Igual que streamAllByOrderByIdAsc, pero solo con las columnas de
+     * BookSummary (sin armar entidades). Lo usa el listado GET /api/books.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.fullstack.libreria.book.model.BookSummary(b.id, b.title, b.author, b.genre,"
+            + " b.publication, b.version) from Book b order by b.id")
+    Stream<BookSummary> streamSummaries();
+
+    /**
+     * ID y versión de cada libro ([id, version]), para poner al día el
+     * índice de búsqueda sin leer las filas completas.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.id, b.version from Book b")
+    Stream<Object[]> streamIdsAndVersions();
+
+    /**
+     * Completa el título normalizado de las filas creadas antes de que
+     * existiera la columna TITLE_KEY (necesario para la búsqueda por prefijo).
+     */
+    @Transactional
+    @Modifying
+    @Query("update Book b set b.titleKey = lower(b.title) where b.titleKey is null")
+    int backfillTitleKeys();
+
+    /**
+     * Solo la versión y la fecha de modificación de un libro (para responder
+     * 304 o validar If-Match sin cargar la entidad).
+     */
+    @Query("select new com.fullstack.libreria.web.RowVersion(b.version, b.updatedAt) from Book b where b.id = :id")
+    Optional<RowVersion> findRowVersionById(Long id);
+
+    /**
+     * Fecha de modificación para las filas creadas antes de que existiera la
+     * columna UPDATED_AT.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Book b set b.updatedAt = :ahora where b.updatedAt is null")
+    int backfillUpdatedAt(Instant ahora);
+
+    /**
+     * Elimina un libro con un solo DELETE (deleteById lo carga antes).
+     *
+     * @return filas eliminadas (0 si no existía)
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Book b where b.id = :id")
+    int deleteRow(Long id);
+
+    /**
+     * Elimina varios libros por ID en un solo DELETE (máx. 1000 IDs por
+     * llamada: límite de Oracle para IN).
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Book b where b.id in :ids")
+    int deleteRows(Collection<Long> ids);
+
+    /**
+     * IDs de los libros de un género, bloqueados (SELECT ... FOR UPDATE)
+     * antes de un borrado masivo por género: se borran por ID, así que uno
+     * creado por otra transacción después de esta lectura no se toca.
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id from Book b where b.genre = :genre")
+    List<Long> findIdsByGenreForUpdate(String genre);
+
+    /**
+     * De una lista de IDs (máx. 1000), los que existen, bloqueados antes de
+     * borrarlos: otra transacción no puede borrarlos en paralelo (y emitir
+     * también su evento DELETED o descontarlos otra vez).
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id from Book b where b.id in :ids")
+    List<Long> findExistingIdsForUpdate(Collection<Long> ids);
+
+    /**
+     * Cantidad de libros por género, autor y año dentro de una lista de IDs
+     * (máx. 1000, antes de un borrado masivo), sin cargar las entidades.
+     */
+    @Query("select b.genre, b.author, b.publication, count(b) from Book b where b.id in :ids"
+            + " group by b.genre, b.author, b.publication")
+    List<Object[]> countByGenreAuthorPublicationForIds(Collection<Long> ids);
+
+    // ============================================================
+    // Conteos para las estadísticas del catálogo (reconciliación)
+    // ============================================================
+
+    @Query("select b.genre, count(b) from Book b group by b.genre")
+    List<Object[]> countByGenre();
+
+    @Query("select b.author, count(b) from Book b group by b.author")
+    List<Object[]> countByAuthor();
+
+    @Query("select b.publication, count(b) from Book b group by b.publication")
+    List<Object[]> countByPublication();
+
+    /**
+     * Versión inicial (0) para las filas creadas antes de la columna VERSION.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Book b set b.version = 0 where b.version is null")
+    int backfillVersions();
+}
@@ -0,0 +1,62 @@
+package com.fullstack.libreria.book.repository;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.model.BookSearchCriteria;
+
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Clase BookSpecifications
+ * ------------------------
+ * Construye la consulta dinámica de la búsqueda de libros a partir de los
+ * filtros recibidos.
+ *
+ * Cada filtro se traduce en una condición que Oracle puede resolver con un
+ * índice (igualdad, rango o LIKE por prefijo), nunca con LIKE '%x%'.
+ */
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> matching(BookSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> condiciones = new ArrayList<>();
+
+            if (hasText(criteria.getAuthor())) {
+                condiciones.add(cb.equal(root.get("author"), criteria.getAuthor().trim()));
+            }
+            if (hasText(criteria.getGenre())) {
+                condiciones.add(cb.equal(root.get("genre"), criteria.getGenre().trim()));
+            }
+            if (hasText(criteria.getTitle())) {
+                String prefijo = escapeLike(criteria.getTitle().trim().toLowerCase(Locale.ROOT)) + "%";
+                condiciones.add(cb.like(root.get("titleKey"), prefijo, '\\'));
+            }
+            if (criteria.getFromYear() != null) {
+                condiciones.add(cb.greaterThanOrEqualTo(root.get("publication"), Year.of(criteria.getFromYear())));
+            }
+            if (criteria.getToYear() != null) {
+                condiciones.add(cb.lessThanOrEqualTo(root.get("publication"), Year.of(criteria.getToYear())));
+            }
+
+            return cb.and(condiciones.toArray(new Predicate[0]));
+        };
+    }
+
+    private static boolean hasText(String valor) {
+        return valor != null && !valor.isBlank();
+    }
+
+    // Escapa los comodines de LIKE para que el texto se busque literalmente
+    private static String escapeLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
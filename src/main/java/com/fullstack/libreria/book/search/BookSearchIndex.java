@@ -0,0 +1,267 @@
+package com.fullstack.libreria.book.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.fullstack.libreria.book.model.Book;
+
+/**
+ * ===============================================================
+ * 📘 Clase: BookSearchIndex
+ * ---------------------------------------------------------------
+ * Índice invertido en memoria sobre título, autor y género.
+ *
+ * - Cada palabra (token) apunta a los IDs de los libros que la contienen.
+ * - Los tokens se guardan sin tildes y en minúsculas ("Canción" → "cancion"),
+ *   así una búsqueda sin tildes encuentra títulos en español con tildes.
+ * - Los tokens están ordenados, por lo que buscar por prefijo ("cien" →
+ *   "cien", "ciencia", ...) es un rango del mapa, no un recorrido completo.
+ * - El resultado se ordena por relevancia: pesa más coincidir en el título
+ *   que en el autor o el género, y una palabra completa más que un prefijo.
+ *
+ * BookService lo mantiene al día en cada save/delete (una vez confirmada
+ * la transacción) y se reconstruye completo al iniciar la aplicación
+ * (BookStartupTasks). Los cambios de otras réplicas se aplican con
+ * BookService.refrescarIndice.
+ * ===============================================================
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final int PESO_TITULO = 3;
+    private static final int PESO_AUTOR = 2;
+    private static final int PESO_GENERO = 1;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    // Palabras demasiado comunes en títulos en español que no aportan a la búsqueda
+    private static final Set<String> STOP_WORDS = Set.of(
+            "el", "la", "los", "las", "un", "una", "unos", "unas", "de", "del",
+            "y", "o", "en", "a", "al", "por", "para", "con", "the", "of", "and");
+
+    // token → (ID del libro → peso acumulado)
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+
+    // Copia de cada libro indexado (se usa para responder sin ir a la BD)
+    private final ConcurrentHashMap<Long, Book> documentos = new ConcurrentHashMap<>();
+
+    // Revisión del índice en que se escribió cada libro (ver retener)
+    private final Map<Long, Long> revisiones = new HashMap<>();
+    private long revision;
+
+    /**
+     * Agrega o reemplaza un libro en el índice. Si ya está indexada una
+     * versión más nueva del libro, no hace nada (dos confirmaciones seguidas
+     * pueden llegar en otro orden).
+     */
+    public synchronized void index(Book libro) {
+        if (libro == null || libro.getId() == null) {
+            return;
+        }
+        Book actual = documentos.get(libro.getId());
+        if (actual != null && actual.getVersion() != null && libro.getVersion() != null
+                && actual.getVersion() > libro.getVersion()) {
+            return;
+        }
+        remove(libro.getId());
+
+        Book copia = copiar(libro);
+        documentos.put(copia.getId(), copia);
+        revisiones.put(copia.getId(), ++revision);
+
+        agregarTokens(copia.getId(), copia.getTitle(), PESO_TITULO);
+        agregarTokens(copia.getId(), copia.getAuthor(), PESO_AUTOR);
+        agregarTokens(copia.getId(), copia.getGenre(), PESO_GENERO);
+    }
+
+    /**
+     * Quita un libro del índice (si no estaba, no hace nada).
+     */
+    public synchronized void remove(Long id) {
+        Book anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        revisiones.remove(id);
+        revision++;
+        Set<String> tokens = new LinkedHashSet<>();
+        tokens.addAll(tokenize(anterior.getTitle()));
+        tokens.addAll(tokenize(anterior.getAuthor()));
+        tokens.addAll(tokenize(anterior.getGenre()));
+        for (String token : tokens) {
+            postings.computeIfPresent(token, (t, libros) -> {
+                libros.remove(id);
+                return libros.isEmpty() ? null : libros;
+            });
+        }
+    }
+
+    /**
+     * Vacía el índice completo (antes de reconstruirlo).
+     */
+    public synchronized void clear() {
+        postings.clear();
+        documentos.clear();
+        revisiones.clear();
+        revision++;
+    }
+
+    /**
+     * Quita los libros que no están en "ids", salvo los indexados después
+     * de "hastaRevision" (los agregó una escritura de esta instancia
+     * mientras se leían los IDs de la BD).
+     *
+     * @return cantidad de libros quitados
+     */
+    public synchronized int retener(Set<Long> ids, long hastaRevision) {
+        List<Long> sobrantes = new ArrayList<>();
+        revisiones.forEach((id, escrito) -> {
+            if (escrito <= hastaRevision && !ids.contains(id)) {
+                sobrantes.add(id);
+            }
+        });
+        sobrantes.forEach(this::remove);
+        return sobrantes.size();
+    }
+
+    /**
+     * Revisión actual: aumenta con cada libro agregado o quitado.
+     */
+    public synchronized long revision() {
+        return revision;
+    }
+
+    /**
+     * Busca libros que contengan TODAS las palabras de la consulta (cada una
+     * como palabra completa o como prefijo), ordenados por relevancia.
+     */
+    public List<Book> search(String consulta, int limite) {
+        List<String> terminos = tokenize(consulta);
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> puntajes = null;
+        for (String termino : terminos) {
+            Map<Long, Integer> coincidencias = buscarTermino(termino);
+            if (puntajes == null) {
+                puntajes = coincidencias;
+            } else {
+                // Intersección: solo sobreviven los libros que calzan con todos los términos
+                Map<Long, Integer> acumulado = puntajes;
+                coincidencias.keySet().retainAll(acumulado.keySet());
+                coincidencias.replaceAll((id, puntaje) -> puntaje + acumulado.get(id));
+                puntajes = coincidencias;
+            }
+            if (puntajes.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Book> resultado = new ArrayList<>();
+        puntajes.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limite)
+                .forEach(e -> {
+                    Book libro = documentos.get(e.getKey());
+                    if (libro != null) {
+                        resultado.add(copiar(libro));
+                    }
+                });
+        return resultado;
+    }
+
+    /**
+     * Retorna la copia indexada de un libro (o null si no está indexado).
+     */
+    public Book get(Long id) {
+        Book libro = documentos.get(id);
+        return libro != null ? copiar(libro) : null;
+    }
+
+    /**
+     * ¿Está indexado el libro con esta versión?
+     */
+    public boolean contiene(Long id, Long version) {
+        Book libro = documentos.get(id);
+        return libro != null && Objects.equals(libro.getVersion(), version);
+    }
+
+    /**
+     * Cantidad de libros indexados.
+     */
+    public int size() {
+        return documentos.size();
+    }
+
+    /**
+     * Divide un texto en palabras normalizadas: sin tildes, en minúsculas y
+     * sin palabras vacías ("el", "de", ...).
+     */
+    public static List<String> tokenize(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADORES.split(normalizado)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // ============================================================
+    // Métodos de apoyo interno
+    // ============================================================
+
+    private void agregarTokens(Long id, String texto, int peso) {
+        for (String token : tokenize(texto)) {
+            postings.computeIfAbsent(token, t -> new ConcurrentHashMap<>()).merge(id, peso, Integer::sum);
+        }
+    }
+
+    // Recorre solo el rango de tokens que empiezan con el término buscado
+    private Map<Long, Integer> buscarTermino(String termino) {
+        ConcurrentNavigableMap<String, Map<Long, Integer>> rango =
+                postings.subMap(termino, true, termino + Character.MAX_VALUE, true);
+
+        Map<Long, Integer> puntajes = new HashMap<>();
+        rango.forEach((token, libros) -> {
+            // Palabra completa vale el doble que un prefijo
+            int factor = token.equals(termino) ? 2 : 1;
+            libros.forEach((id, peso) -> puntajes.merge(id, peso * factor, Math::max));
+        });
+        return puntajes;
+    }
+
+    private static Book copiar(Book libro) {
+        Book copia = new Book();
+        copia.setId(libro.getId());
+        copia.setTitle(libro.getTitle());
+        copia.setAuthor(libro.getAuthor());
+        copia.setGenre(libro.getGenre());
+        copia.setPublication(libro.getPublication());
+        copia.setUpdatedAt(libro.getUpdatedAt());
+        copia.setVersion(libro.getVersion());
+        return copia;
+    }
+}
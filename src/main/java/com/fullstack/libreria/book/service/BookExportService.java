@@ -0,0 +1,201 @@
+package com.fullstack.libreria.book.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: BookExportService
+ * ---------------------------------------------------------------
+ * Exportación completa del catálogo para sistemas externos.
+ *
+ * - Lee la tabla BOOK con un cursor JDBC de solo avance y un fetch size
+ *   configurable (filas que trae Oracle por cada viaje de red).
+ * - Escribe cada fila directamente en la respuesta, sin crear entidades ni
+ *   listas: la memoria usada es constante sin importar el tamaño del
+ *   catálogo y los primeros bytes salen de inmediato.
+ * - Formatos: NDJSON (un libro JSON por línea) o CSV con encabezado.
+ * ===============================================================
+ */
+@Slf4j
+@Service
+public class BookExportService {
+
+    /**
+     * Formatos de exportación soportados.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String valor) {
+            try {
+                return Format.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Formato de exportación no soportado: " + valor);
+            }
+        }
+    }
+
+    private static final String SELECT_SQL =
+            "SELECT ID, TITLE, AUTHOR, GENRE, PUBLICATION FROM BOOK ORDER BY ID";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public BookExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            @Value("${libreria.books.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Escribe el catálogo completo en el flujo de salida indicado.
+     *
+     * @return cantidad de libros exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Format formato, OutputStream salida) throws IOException {
+        long inicio = System.currentTimeMillis();
+        long total;
+        if (formato == Format.CSV) {
+            total = exportarCsv(salida);
+        } else {
+            total = exportarNdjson(salida);
+        }
+        log.info("📤 Exportación {} terminada: {} libros en {} ms", formato, total,
+                System.currentTimeMillis() - inicio);
+        return total;
+    }
+
+    // ============================================================
+    // Escritores por formato
+    // ============================================================
+
+    private long exportarNdjson(OutputStream salida) throws IOException {
+        // Generador compacto: sin sangría aunque la API use indent-output
+        JsonGenerator json = objectMapper.getFactory().createGenerator(salida);
+        json.setRootValueSeparator(null); // el separador entre libros es el salto de línea
+        long total = recorrer((rs, fila) -> {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong(1));
+            json.writeStringField("title", rs.getString(2));
+            json.writeStringField("author", rs.getString(3));
+            json.writeStringField("genre", rs.getString(4));
+            // Número, como en la API y en la importación
+            int publicacion = rs.getInt(5);
+            if (rs.wasNull()) {
+                json.writeNullField("publication");
+            } else {
+                json.writeNumberField("publication", publicacion);
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            if (fila == 1) {
+                json.flush(); // primer byte inmediato para el cliente
+            }
+        });
+        json.flush();
+        return total;
+    }
+
+    private long exportarCsv(OutputStream salida) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        csv.write("id,title,author,genre,publication\n");
+        csv.flush();
+        long total = recorrer((rs, fila) -> {
+            csv.write(Long.toString(rs.getLong(1)));
+            csv.write(',');
+            csv.write(campoCsv(rs.getString(2)));
+            csv.write(',');
+            csv.write(campoCsv(rs.getString(3)));
+            csv.write(',');
+            csv.write(campoCsv(rs.getString(4)));
+            csv.write(',');
+            csv.write(campoCsv(rs.getString(5)));
+            csv.write('\n');
+        });
+        csv.flush();
+        return total;
+    }
+
+    // Agrega comillas solo cuando el valor las necesita (coma, comilla o salto de línea)
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    // ============================================================
+    // Cursor JDBC de solo avance
+    // ============================================================
+
+    @FunctionalInterface
+    private interface EscritorFila {
+        void escribir(ResultSet rs, long fila) throws SQLException, IOException;
+    }
+
+    private long recorrer(EscritorFila escritor) {
+        long[] total = { 0 };
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SELECT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, rs -> {
+                try {
+                    escritor.escribir(rs, ++total[0]);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            // El cliente cortó la conexión: se detiene la exportación
+            log.warn("⚠️ Exportación interrumpida tras {} libros: {}", total[0], ex.getCause().getMessage());
+            throw ex;
+        }
+        return total[0];
+    }
+}
@@ -0,0 +1,380 @@
+package com.fullstack.libreria.book.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.model.BookImportReport;
+import com.fullstack.libreria.cache.SecondLevelCacheInvalidator;
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.service.ChangeEventService;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: BookImportService
+ * ---------------------------------------------------------------
+ * Importación masiva de libros (por ejemplo, el catálogo de un proveedor).
+ *
+ * - Acepta un arreglo JSON, NDJSON (un libro JSON por línea) o CSV con
+ *   encabezado (title,author,genre,publication).
+ * - Lee la entrada en streaming: nunca se carga el archivo completo.
+ * - Valida cada fila con las mismas reglas de la entidad Book.
+ * - Inserta en lotes JDBC (batch) de tamaño configurable, un lote por
+ *   transacción. Si un lote falla, se reintenta fila por fila para reportar
+ *   exactamente qué filas fallaron sin perder las demás.
+ *
+ * El ID lo sigue generando Oracle (columna IDENTITY): el INSERT no envía la
+ * columna ID y el batch devuelve las claves generadas (getGeneratedKeys),
+ * una por fila y en el mismo orden. Con ellas se arman los eventos CREATED
+ * (GET /api/events), el índice de búsqueda y las estadísticas, sin volver
+ * a leer la tabla: solo cuentan las filas que insertó este lote.
+ * ===============================================================
+ */
+@Slf4j
+@Service
+public class BookImportService {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String INSERT_SQL =
+            "INSERT INTO BOOK (TITLE, AUTHOR, GENRE, PUBLICATION, TITLE_KEY, UPDATED_AT, VERSION) VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    private static final Set<String> COLUMNAS_CSV = Set.of("title", "author", "genre", "publication");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BookService bookService;
+    private final SecondLevelCacheInvalidator cacheInvalidator;
+    private final ChangeEventService changeEvents;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public BookImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            Validator validator, ObjectMapper objectMapper, BookService bookService,
+            SecondLevelCacheInvalidator cacheInvalidator, ChangeEventService changeEvents,
+            @Value("${libreria.books.import.batch-size:500}") int batchSize,
+            @Value("${libreria.books.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.bookService = bookService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.changeEvents = changeEvents;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Importa los libros del flujo de entrada según su tipo de contenido.
+     */
+    public BookImportReport importar(InputStream entrada, MediaType tipo) throws IOException {
+        long inicio = System.nanoTime();
+
+        Importacion importacion = new Importacion();
+        if (TEXT_CSV.isCompatibleWith(tipo)) {
+            leerCsv(entrada, importacion);
+        } else if (APPLICATION_NDJSON.isCompatibleWith(tipo)) {
+            leerNdjson(entrada, importacion);
+        } else if (MediaType.APPLICATION_JSON.isCompatibleWith(tipo)) {
+            leerArregloJson(entrada, importacion);
+        } else {
+            throw new IllegalArgumentException("Formato no soportado: " + tipo);
+        }
+        importacion.vaciarLote();
+
+        // Los INSERT por JDBC no pasan por Hibernate: las consultas de libros
+        // en caché (aquí y en las demás réplicas) se invalidan a mano
+        if (importacion.reporte.getImported() > 0) {
+            cacheInvalidator.invalidarEntidad(Book.class);
+        }
+
+        BookImportReport reporte = importacion.reporte;
+        reporte.setElapsedMs((System.nanoTime() - inicio) / 1_000_000);
+        reporte.setRowsPerSecond(reporte.getElapsedMs() > 0
+                ? reporte.getImported() * 1000.0 / reporte.getElapsedMs()
+                : reporte.getImported());
+        log.info("📦 Importación terminada: {} recibidos, {} insertados, {} con error en {} ms ({} filas/s)",
+                reporte.getReceived(), reporte.getImported(), reporte.getFailed(),
+                reporte.getElapsedMs(), Math.round(reporte.getRowsPerSecond()));
+        return reporte;
+    }
+
+    // ============================================================
+    // Lectores por formato (todos en streaming)
+    // ============================================================
+
+    private void leerArregloJson(InputStream entrada, Importacion importacion) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(entrada)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Se esperaba un arreglo JSON de libros");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode nodo = parser.readValueAsTree();
+                importacion.agregar(() -> objectMapper.treeToValue(nodo, Book.class));
+            }
+        }
+    }
+
+    private void leerNdjson(InputStream entrada, Importacion importacion) throws IOException {
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                String json = linea;
+                importacion.agregar(() -> objectMapper.readValue(json, Book.class));
+            }
+        }
+    }
+
+    private void leerCsv(InputStream entrada, Importacion importacion) throws IOException {
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            String encabezado = lector.readLine();
+            if (encabezado == null) {
+                return;
+            }
+            // Posición de cada columna según el encabezado (el orden es libre)
+            List<String> nombres = parsearLineaCsv(encabezado.replace("\uFEFF", ""));
+            Map<String, Integer> columnas = new HashMap<>();
+            for (int i = 0; i < nombres.size(); i++) {
+                columnas.put(nombres.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columnas.keySet().containsAll(COLUMNAS_CSV)) {
+                throw new IllegalArgumentException("El CSV debe tener las columnas " + COLUMNAS_CSV);
+            }
+
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                List<String> valores = parsearLineaCsv(linea);
+                importacion.agregar(() -> {
+                    Book libro = new Book();
+                    libro.setTitle(valorCsv(valores, columnas.get("title")));
+                    libro.setAuthor(valorCsv(valores, columnas.get("author")));
+                    libro.setGenre(valorCsv(valores, columnas.get("genre")));
+                    String anio = valorCsv(valores, columnas.get("publication"));
+                    try {
+                        libro.setPublication(anio == null ? null : Year.of(Integer.parseInt(anio.trim())));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Año de publicación inválido: " + anio);
+                    }
+                    return libro;
+                });
+            }
+        }
+    }
+
+    private static String valorCsv(List<String> valores, int indice) {
+        if (indice >= valores.size()) {
+            return null;
+        }
+        String valor = valores.get(indice);
+        return valor.isEmpty() ? null : valor;
+    }
+
+    // Separa una línea CSV respetando comillas dobles ("a,b" y "" como comilla escapada)
+    static List<String> parsearLineaCsv(String linea) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                valores.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        valores.add(actual.toString());
+        return valores;
+    }
+
+    // ============================================================
+    // Estado de una importación en curso
+    // ============================================================
+
+    @FunctionalInterface
+    private interface LectorFila {
+        Book leer() throws Exception;
+    }
+
+    private final class Importacion {
+
+        private final BookImportReport reporte = new BookImportReport();
+        private final List<Book> lote = new ArrayList<>(batchSize);
+        private final List<Long> filasDelLote = new ArrayList<>(batchSize);
+
+        void agregar(LectorFila lector) {
+            long fila = reporte.getReceived() + 1;
+            reporte.setReceived(fila);
+
+            Book libro;
+            try {
+                libro = lector.leer();
+            } catch (Exception ex) {
+                registrarError(fila, "Fila mal formada: " + mensaje(ex));
+                return;
+            }
+
+            Set<ConstraintViolation<Book>> violaciones = validator.validate(libro);
+            if (!violaciones.isEmpty()) {
+                registrarError(fila, violaciones.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            // La columna PUBLICATION es NOT NULL aunque la entidad no lo valide
+            if (libro.getPublication() == null) {
+                registrarError(fila, "publication: El año de publicación es obligatorio");
+                return;
+            }
+
+            lote.add(libro);
+            filasDelLote.add(fila);
+            if (lote.size() >= batchSize) {
+                vaciarLote();
+            }
+        }
+
+        void vaciarLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertar(lote));
+                reporte.setImported(reporte.getImported() + lote.size());
+            } catch (DataAccessException ex) {
+                // El lote completo se revirtió: reintentamos fila por fila para aislar las que fallan
+                log.warn("⚠️ Falló un lote de {} libros, reintentando fila por fila: {}", lote.size(), mensaje(ex));
+                for (int i = 0; i < lote.size(); i++) {
+                    Book libro = lote.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> insertar(List.of(libro)));
+                        reporte.setImported(reporte.getImported() + 1);
+                    } catch (DataAccessException filaEx) {
+                        registrarError(filasDelLote.get(i), "Error al insertar: " + mensaje(filaEx));
+                    }
+                }
+            }
+            lote.clear();
+            filasDelLote.clear();
+        }
+
+        private void insertar(List<Book> libros) {
+            Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            List<Long> ids = jdbcTemplate.execute(
+                    (Connection conexion) -> conexion.prepareStatement(INSERT_SQL, new String[] { "ID" }),
+                    (PreparedStatement ps) -> {
+                        for (Book libro : libros) {
+                            ps.setString(1, libro.getTitle());
+                            ps.setString(2, libro.getAuthor());
+                            ps.setString(3, libro.getGenre());
+                            ps.setInt(4, libro.getPublication().getValue());
+                            ps.setString(5, libro.getTitle().toLowerCase(Locale.ROOT));
+                            ps.setTimestamp(6, Timestamp.from(ahora));
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                        List<Long> generados = new ArrayList<>(libros.size());
+                        try (ResultSet claves = ps.getGeneratedKeys()) {
+                            while (claves.next()) {
+                                generados.add(claves.getLong(1));
+                            }
+                        }
+                        return generados;
+                    });
+            if (ids == null || ids.size() != libros.size()) {
+                // Sin una clave por fila no se sabe qué libros son de este lote: se revierte
+                throw new IllegalStateException("El driver no devolvió las claves generadas del lote ("
+                        + (ids == null ? 0 : ids.size()) + " de " + libros.size() + ")");
+            }
+
+            // Las filas de este lote: un evento CREATED por libro, en la misma transacción
+            List<Book> insertados = new ArrayList<>(libros.size());
+            for (int i = 0; i < libros.size(); i++) {
+                Book libro = new Book();
+                libro.setId(ids.get(i));
+                libro.setTitle(libros.get(i).getTitle());
+                libro.setAuthor(libros.get(i).getAuthor());
+                libro.setGenre(libros.get(i).getGenre());
+                libro.setPublication(libros.get(i).getPublication());
+                libro.setUpdatedAt(ahora);
+                libro.setVersion(0L);
+                insertados.add(libro);
+            }
+            changeEvents.registrarCreados(ChangeEvent.BOOK, insertados, Book::getId, Book::getVersion);
+            // Índice de búsqueda y estadísticas: solo las filas de este lote
+            bookService.indexImported(insertados);
+        }
+
+        private void registrarError(long fila, String mensaje) {
+            reporte.setFailed(reporte.getFailed() + 1);
+            if (reporte.getErrors().size() < maxErrors) {
+                reporte.getErrors().add(new BookImportReport.RowError(fila, mensaje));
+            } else {
+                reporte.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    private static String mensaje(Throwable ex) {
+        Throwable causa = ex;
+        while (causa.getCause() != null && causa.getCause() != causa) {
+            causa = causa.getCause();
+        }
+        return causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName();
+    }
+}
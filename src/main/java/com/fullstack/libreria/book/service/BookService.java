@@ -1,41 +1,405 @@
 package com.fullstack.libreria.book.service;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.model.BookPage;
+import com.fullstack.libreria.book.model.BookSearchCriteria;
+import com.fullstack.libreria.book.model.BookSummary;
+import com.fullstack.libreria.book.model.CatalogVersion;
 import com.fullstack.libreria.book.repository.BookRepository;
+import com.fullstack.libreria.book.repository.BookSpecifications;
+import com.fullstack.libreria.book.search.BookSearchIndex;
+import com.fullstack.libreria.cache.CacheInvalidationChannel;
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.model.ChangeEvent.Operation;
+import com.fullstack.libreria.events.service.ChangeEventService;
+import com.fullstack.libreria.exception.ResourceNotFoundException;
+import com.fullstack.libreria.stats.service.StatsService;
+import com.fullstack.libreria.web.FieldSelection;
+import com.fullstack.libreria.web.RowVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Clase LibroService
  * ------------------
  * Capa intermedia entre el controlador (API REST) y el repositorio (Base de
  * Datos).
- * 
+ *
  * Aquí podemos aplicar reglas de negocio, validaciones o lógica adicional.
- * 
+ *
  * Por ejemplo: impedir guardar libros sin título o eliminar registros
  * inexistentes.
  */
 @Service // Marca esta clase como un "servicio" dentro del contexto de Spring
 public class BookService {
 
+    // Máximo de elementos en una lista IN de Oracle
+    private static final int MAX_IDS_POR_SENTENCIA = 1000;
+
+    // Campos que se pueden modificar con PATCH y su tipo
+    public static final Map<String, Class<?>> CAMPOS_EDITABLES = Map.of(
+            "title", String.class,
+            "author", String.class,
+            "genre", String.class,
+            "publication", Year.class);
+
+    // Campos que cuentan en las estadísticas (por género, autor y década)
+    private static final Set<String> CAMPOS_ESTADISTICAS = Set.of("genre", "author", "publication");
+
+    // Campos que se pueden pedir con GET /api/books?fields=...
+    public static final Set<String> CAMPOS_LISTADO = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(
+            "id", "title", "author", "genre", "publication", "updatedAt", "version")));
+
     // Inyección automática del repositorio para acceder a la base de datos
     private final BookRepository repository;
 
+    // Índice de texto completo en memoria (se mantiene al día en save/delete,
+    // una vez confirmada la transacción)
+    private final BookSearchIndex searchIndex;
+
+    // Tamaño máximo de página permitido en la paginación por keyset
+    private final int maxPageSize;
+
+    // Valida los campos de un PATCH con las mismas reglas de la entidad
+    private final Validator validator;
+
+    // Conteos por género/autor/década: se avisa cada alta, cambio o baja
+    private final StatsService statsService;
+
+    // Outbox de cambios (GET /api/events): un evento por alta, cambio o baja,
+    // en la misma transacción
+    private final ChangeEventService changeEvents;
+
+    // Caché de lectura para findById: acotada por tamaño y por tiempo de vida.
+    // save/delete invalidan la entrada correspondiente una vez confirmada la
+    // transacción (antes, una lectura concurrente podría volver a guardar la
+    // versión vieja), y los cambios en BOOK hechos por otras réplicas la
+    // vacían completa.
+    //
+    // Book también está en la caché de segundo nivel (región "book"); se
+    // mantienen las dos a propósito. Un acierto aquí responde GET
+    // /api/books/{id} sin abrir transacción ni pedir conexión al pool (ni
+    // elegir entre principal y réplica), mientras que un acierto en la de
+    // segundo nivel pasa igual por la transacción de solo lectura del
+    // repositorio y arma una entidad nueva. La de segundo nivel sigue
+    // sirviendo a lo demás: listados cacheados, update y PATCH.
+    private final Cache<Long, Book> cache;
+
+    // Generación de cada entrada (por franja de IDs) y de la caché completa:
+    // cada invalidación la incrementa. findById solo guarda lo que leyó si
+    // nadie invalidó ese ID mientras consultaba la BD; si no, una lectura
+    // lenta podría volver a dejar en caché la versión anterior a un cambio
+    // ya confirmado. Dos IDs en la misma franja solo se pierden un put.
+    private final AtomicLongArray generaciones = new AtomicLongArray(1024);
+    private final AtomicLong generacionGlobal = new AtomicLong();
+
+    // Usado para liberar cada libro del contexto de persistencia al recorrer
+    // el catálogo (así la memoria no crece con el número de filas)
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // Constructor: Spring inyectará automáticamente una instancia de
     // LibroRepository
-    public BookService(BookRepository repository) {
+    public BookService(BookRepository repository, BookSearchIndex searchIndex, Validator validator,
+            StatsService statsService, ChangeEventService changeEvents, CacheInvalidationChannel invalidationChannel,
+            @Value("${libreria.books.page.max-size:500}") int maxPageSize,
+            @Value("${libreria.books.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${libreria.books.cache.ttl:10m}") Duration cacheTtl) {
         this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.validator = validator;
+        this.statsService = statsService;
+        this.changeEvents = changeEvents;
+        this.maxPageSize = maxPageSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        invalidationChannel.subscribe(tablas -> {
+            if (tablas.stream().anyMatch("BOOK"::equalsIgnoreCase)) {
+                invalidarTodo();
+            }
+        });
     }
 
     /**
-     * Obtiene todos los libros de la base de datos.
+     * Obtiene todos los libros de la base de datos (desde la caché de
+     * consultas de Hibernate si no hubo cambios desde la última vez).
      */
     public List<Book> findAll() {
-        return repository.findAll();
+        return repository.findAllByOrderByIdAsc();
+    }
+
+    /**
+     * Obtiene una página de libros usando paginación por keyset.
+     *
+     * @param cursor  cursor opaco entregado en la página anterior (o null)
+     * @param afterId alternativa explícita al cursor: ID desde el cual continuar
+     * @param limit   cantidad de libros solicitada (se acota a maxPageSize)
+     */
+    public BookPage findPage(String cursor, Long afterId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor a 0");
+        }
+        int size = Math.min(limit, maxPageSize);
+        long desde = cursor != null ? decodeCursor(cursor) : (afterId != null ? afterId : 0L);
+
+        List<Book> items = repository.findByIdGreaterThanOrderByIdAsc(desde, Limit.of(size));
+
+        // Si la página vino completa puede haber más filas → entregamos cursor
+        String next = items.size() == size ? encodeCursor(items.get(items.size() - 1).getId()) : null;
+        return new BookPage(items, next);
+    }
+
+    /**
+     * Búsqueda paginada combinando autor, género, prefijo del título y rango
+     * de años de publicación. El filtrado lo resuelve la BD con índices, y la
+     * respuesta incluye el total de coincidencias.
+     */
+    @Transactional(readOnly = true)
+    public Page<Book> search(BookSearchCriteria criteria, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Parámetros de paginación inválidos");
+        }
+        if (criteria.getFromYear() != null && criteria.getToYear() != null
+                && criteria.getFromYear() > criteria.getToYear()) {
+            throw new IllegalArgumentException("El año inicial no puede ser mayor que el año final");
+        }
+        PageRequest pagina = PageRequest.of(page, Math.min(size, maxPageSize), Sort.by("id"));
+        return repository.findAll(BookSpecifications.matching(criteria), pagina);
+    }
+
+    /**
+     * Búsqueda de texto completo (título, autor y género) sobre el índice en
+     * memoria. No consulta la BD, por lo que la latencia no depende del tamaño
+     * del catálogo.
+     */
+    public List<Book> searchText(String consulta, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor a 0");
+        }
+        return searchIndex.search(consulta, Math.min(limit, maxPageSize));
+    }
+
+    /**
+     * Completa TITLE_KEY en libros antiguos (se ejecuta al iniciar la app).
+     */
+    @Transactional
+    public int backfillTitleKeys() {
+        return repository.backfillTitleKeys();
+    }
+
+    /**
+     * Completa UPDATED_AT en libros antiguos (se ejecuta al iniciar la app).
+     */
+    @Transactional
+    public int backfillUpdatedAt() {
+        return repository.backfillUpdatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Versión inicial en libros creados antes de la columna VERSION.
+     */
+    @Transactional
+    public int backfillVersions() {
+        return repository.backfillVersions();
+    }
+
+    /**
+     * Contador de cambios y última modificación del catálogo (una fila de
+     * ENTITY_VERSION, sin leer libros).
+     */
+    public CatalogVersion catalogVersion() {
+        return changeEvents.version(ChangeEvent.BOOK)
+                .map(version -> new CatalogVersion(version.getVersion(), version.getUpdatedAt()))
+                .orElseGet(() -> new CatalogVersion(0, null));
+    }
+
+    /**
+     * Versión y última modificación de un libro, sin cargar la entidad: se
+     * toman de la caché si está, o de una consulta de dos columnas.
+     */
+    public Optional<RowVersion> findRowVersion(Long id) {
+        Book enCache = cache.getIfPresent(id);
+        if (enCache != null && enCache.getVersion() != null) {
+            return Optional.of(new RowVersion(enCache.getVersion(), enCache.getUpdatedAt()));
+        }
+        return repository.findRowVersionById(id);
+    }
+
+    /**
+     * Recorre todo el catálogo fila por fila con un cursor de solo avance,
+     * como proyección BookSummary: no se arman entidades ni se guardan en el
+     * contexto de persistencia, así que el uso de memoria es constante sin
+     * importar el tamaño de la tabla.
+     */
+    @Transactional(readOnly = true)
+    public void forEachSummary(Consumer<BookSummary> consumer) {
+        try (Stream<BookSummary> libros = repository.streamSummaries()) {
+            libros.forEach(consumer);
+        }
+    }
+
+    /**
+     * Recorre el catálogo trayendo solo los campos indicados (ya validados
+     * contra CAMPOS_LISTADO), cada fila como mapa campo → valor.
+     */
+    @Transactional(readOnly = true)
+    public void forEachRow(List<String> campos, Consumer<Map<String, Object>> consumer) {
+        try (Stream<Tuple> filas = FieldSelection.query(entityManager, Book.class, campos, Map.of())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                .getResultStream()) {
+            filas.forEach(fila -> consumer.accept(FieldSelection.toMap(fila, campos)));
+        }
+    }
+
+    /**
+     * Recorre todo el catálogo como entidades (para reconstruir el índice
+     * de búsqueda). Cada libro se libera del contexto de persistencia una
+     * vez procesado.
+     */
+    @Transactional(readOnly = true)
+    public void forEachBook(Consumer<Book> consumer) {
+        try (Stream<Book> libros = repository.streamAllByOrderByIdAsc()) {
+            libros.forEach(libro -> {
+                consumer.accept(libro);
+                entityManager.detach(libro);
+            });
+        }
+    }
+
+    /**
+     * Agrega al índice de búsqueda y a las estadísticas los libros que
+     * insertó un lote de la importación masiva (por JDBC, sin pasar por
+     * save()). Se llama dentro de la transacción del lote, con las filas que
+     * ese mismo lote insertó: los save() concurrentes no se cuentan dos veces.
+     */
+    public void indexImported(List<Book> insertados) {
+        insertados.forEach(libro -> statsService.libroCambiado(null, libro));
+        alConfirmar(() -> insertados.forEach(searchIndex::index));
+    }
+
+    /**
+     * Aplica al índice de búsqueda los eventos de libros leídos de
+     * CHANGE_EVENT (cambios de otras réplicas): quita los eliminados y
+     * vuelve a leer, de a bloques, solo los que no están indexados con la
+     * versión del evento. Los eventos de esta misma instancia ya están
+     * aplicados y se saltan.
+     *
+     * @return cantidad de libros reindexados o quitados
+     */
+    @Transactional(readOnly = true)
+    public int aplicarEventosAlIndice(List<ChangeEvent> eventos) {
+        Set<Long> cambiados = new LinkedHashSet<>();
+        int quitados = 0;
+        for (ChangeEvent evento : eventos) {
+            if (!ChangeEvent.BOOK.equals(evento.getEntity())) {
+                continue;
+            }
+            Long id = evento.getEntityId();
+            if (evento.getOperation() == Operation.DELETED) {
+                cambiados.remove(id);
+                if (searchIndex.get(id) != null) {
+                    searchIndex.remove(id);
+                    quitados++;
+                }
+            } else if (!searchIndex.contiene(id, evento.getVersion())) {
+                cambiados.add(id);
+            }
+        }
+        List<Long> ids = new ArrayList<>(cambiados);
+        for (int i = 0; i < ids.size(); i += MAX_IDS_POR_SENTENCIA) {
+            List<Long> bloque = ids.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, ids.size()));
+            Set<Long> faltantes = new HashSet<>(bloque);
+            for (Book libro : repository.findAllById(bloque)) {
+                searchIndex.index(libro);
+                faltantes.remove(libro.getId());
+                entityManager.detach(libro);
+            }
+            // Eliminado después del evento: su DELETED puede no estar leído todavía
+            faltantes.forEach(searchIndex::remove);
+        }
+        return ids.size() + quitados;
+    }
+
+    /**
+     * Pone al día el índice de búsqueda con la BD completa, para cuando los
+     * eventos no alcanzan (ya se eliminaron por antigüedad o hubo demasiados
+     * huecos): recorre solo el ID y la versión de cada libro, vuelve a leer
+     * los que no están indexados con esa versión y quita los que ya no
+     * existen.
+     *
+     * @return cantidad de libros reindexados o quitados
+     */
+    @Transactional(readOnly = true)
+    public int refrescarIndice() {
+        long revision = searchIndex.revision();
+        Set<Long> existentes = new HashSet<>();
+        List<Long> cambiados = new ArrayList<>();
+        try (Stream<Object[]> filas = repository.streamIdsAndVersions()) {
+            filas.forEach(fila -> {
+                Long id = (Long) fila[0];
+                existentes.add(id);
+                if (!searchIndex.contiene(id, (Long) fila[1])) {
+                    cambiados.add(id);
+                }
+            });
+        }
+        for (int i = 0; i < cambiados.size(); i += MAX_IDS_POR_SENTENCIA) {
+            List<Long> bloque = cambiados.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, cambiados.size()));
+            for (Book libro : repository.findAllById(bloque)) {
+                searchIndex.index(libro);
+                entityManager.detach(libro);
+            }
+        }
+        return cambiados.size() + searchIndex.retener(existentes, revision);
     }
 
     /**
@@ -43,7 +407,40 @@ public class BookService {
      * Retorna un Optional (puede o no existir).
      */
     public Optional<Book> findById(Long id) {
-        return repository.findById(id);
+        Book enCache = cache.getIfPresent(id);
+        if (enCache != null) {
+            return Optional.of(enCache);
+        }
+        // Solo se guardan en caché los libros que existen, y solo si no se
+        // invalidaron durante la consulta ni hay una versión más nueva
+        long generacion = generacion(id);
+        Optional<Book> libro = repository.findById(id);
+        libro.ifPresent(leido -> cache.asMap().compute(id, (clave, actual) -> {
+            if (generacion(id) != generacion) {
+                return actual;
+            }
+            if (actual != null && actual.getVersion() != null && leido.getVersion() != null
+                    && actual.getVersion() > leido.getVersion()) {
+                return actual;
+            }
+            return leido;
+        }));
+        return libro;
+    }
+
+    private long generacion(Long id) {
+        return generacionGlobal.get() + generaciones.get(Math.floorMod(id.hashCode(), generaciones.length()));
+    }
+
+    // Primero la generación: un findById en curso ya no guarda lo que leyó
+    private void invalidar(Long id) {
+        generaciones.incrementAndGet(Math.floorMod(id.hashCode(), generaciones.length()));
+        cache.invalidate(id);
+    }
+
+    private void invalidarTodo() {
+        generacionGlobal.incrementAndGet();
+        cache.invalidateAll();
     }
 
     /**
@@ -51,14 +448,302 @@ public class BookService {
      * Si el ID es null → crea uno nuevo.
      * Si el ID existe → actualiza.
      */
+    @Transactional
     public Book save(Book libro) {
-        return repository.save(libro);
+        // Estado anterior (leído de la BD en esta transacción) para ajustar las
+        // estadísticas. Es una copia: el merge de saveAndFlush modifica la
+        // entidad administrada
+        Long idPrevio = libro.getId();
+        Book anterior = idPrevio != null ? repository.findById(idPrevio).map(BookService::copiar).orElse(null) : null;
+        // El flush asigna la versión definitiva antes de registrar el evento
+        Book guardado = repository.saveAndFlush(libro);
+        Operation operacion = guardado.getId().equals(idPrevio) ? Operation.UPDATED : Operation.CREATED;
+        changeEvents.registrar(ChangeEvent.BOOK, guardado.getId(), operacion, guardado.getVersion(), guardado);
+        alConfirmar(() -> {
+            invalidar(guardado.getId());
+            searchIndex.index(guardado);
+        });
+        statsService.libroCambiado(anterior, guardado);
+        return guardado;
+    }
+
+    /**
+     * Reemplaza los datos de un libro existente (PUT).
+     *
+     * El libro se lee una vez dentro de la transacción y se modifica en
+     * memoria: al confirmar, Hibernate emite un solo UPDATE con las columnas
+     * que cambiaron y la condición de versión.
+     *
+     * @param versionEsperada versión que el cliente leyó (null = no validar)
+     * @throws ObjectOptimisticLockingFailureException si el libro cambió
+     */
+    @Transactional
+    public Optional<Book> update(Long id, Book datos, Long versionEsperada) {
+        Optional<Book> encontrado = repository.findById(id);
+        if (encontrado.isEmpty()) {
+            return encontrado;
+        }
+        Book existente = encontrado.get();
+        if (versionEsperada != null && !versionEsperada.equals(existente.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Book.class, id);
+        }
+        Book anterior = copiar(existente);
+        existente.setTitle(datos.getTitle());
+        existente.setAuthor(datos.getAuthor());
+        existente.setGenre(datos.getGenre());
+        existente.setPublication(datos.getPublication());
+        // El flush ejecuta el UPDATE aquí: si otro cliente ganó la carrera,
+        // falla antes de registrar el evento
+        repository.flush();
+        changeEvents.registrar(ChangeEvent.BOOK, id, Operation.UPDATED, existente.getVersion(), existente);
+
+        alConfirmar(() -> {
+            invalidar(id);
+            searchIndex.index(existente);
+        });
+        statsService.libroCambiado(anterior, existente);
+        return Optional.of(existente);
     }
 
     /**
-     * Elimina un libro por su ID.
+     * Modificación parcial (PATCH / JSON Merge Patch) en un solo UPDATE, sin
+     * leer el libro antes:
+     *
+     *   update BOOK set TITLE=?, ..., VERSION=VERSION+1
+     *   where ID=? and VERSION=?
+     *
+     * Solo si no se actualizó ninguna fila se consulta la versión, para
+     * distinguir "no existe" (404) de "versión desactualizada" (409).
+     *
+     * @param cambios campo → valor (solo campos de CAMPOS_EDITABLES)
+     * @return la nueva versión del libro
      */
-    public void delete(Long id) {
-        repository.deleteById(id);
+    @Transactional
+    public long patch(Long id, Map<String, Object> cambios, long versionEsperada) {
+        validarCambios(cambios);
+        Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        // Si cambia un campo de las estadísticas se lee antes el libro (en esta
+        // transacción) para descontar su estado anterior
+        Book anterior = null;
+        if (cambios.keySet().stream().anyMatch(CAMPOS_ESTADISTICAS::contains)) {
+            Book actual = repository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Libro no encontrado con ID: " + id));
+            if (!Objects.equals(actual.getVersion(), versionEsperada)) {
+                throw new ObjectOptimisticLockingFailureException(Book.class, id);
+            }
+            anterior = copiar(actual);
+            // El UPDATE masivo no actualiza la entidad administrada
+            entityManager.detach(actual);
+        }
+
+        StringBuilder jpql = new StringBuilder("update Book b set ");
+        cambios.keySet().forEach(campo -> jpql.append("b.").append(campo).append(" = :").append(campo).append(", "));
+        if (cambios.containsKey("title")) {
+            jpql.append("b.titleKey = :titleKey, ");
+        }
+        jpql.append("b.updatedAt = :updatedAt, b.version = b.version + 1 where b.id = :id and b.version = :version");
+
+        Query update = entityManager.createQuery(jpql.toString());
+        cambios.forEach(update::setParameter);
+        if (cambios.containsKey("title")) {
+            update.setParameter("titleKey", ((String) cambios.get("title")).toLowerCase(Locale.ROOT));
+        }
+        update.setParameter("updatedAt", ahora)
+                .setParameter("id", id)
+                .setParameter("version", versionEsperada);
+
+        if (update.executeUpdate() == 0) {
+            repository.findRowVersionById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Libro no encontrado con ID: " + id));
+            throw new ObjectOptimisticLockingFailureException(Book.class, id);
+        }
+
+        long nuevaVersion = versionEsperada + 1;
+        // El evento lleva solo lo que cambió (más la fecha de modificación)
+        Map<String, Object> datos = new LinkedHashMap<>(cambios);
+        datos.put("updatedAt", ahora);
+        changeEvents.registrar(ChangeEvent.BOOK, id, Operation.UPDATED, nuevaVersion, datos);
+        // El índice guarda su propia copia: se le aplican los mismos cambios al
+        // estado anterior (el leído o el indexado). Si no es la versión
+        // anterior, se lee el libro ya modificado
+        Book base = anterior != null ? copiar(anterior) : searchIndex.get(id);
+        Book indexado;
+        if (base != null && Objects.equals(base.getVersion(), versionEsperada)) {
+            indexado = base;
+            cambios.forEach((campo, valor) -> aplicar(indexado, campo, valor));
+            indexado.setUpdatedAt(ahora);
+            indexado.setVersion(nuevaVersion);
+        } else {
+            indexado = repository.findById(id).orElseThrow();
+        }
+        alConfirmar(() -> {
+            invalidar(id);
+            searchIndex.index(indexado);
+        });
+        if (anterior != null) {
+            statsService.libroCambiado(anterior, indexado);
+        }
+        return nuevaVersion;
+    }
+
+    /**
+     * Elimina un libro por su ID con un solo DELETE.
+     *
+     * @return false si el libro no existía
+     */
+    @Transactional
+    public boolean delete(Long id) {
+        // Estado anterior (de la BD) para descontarlo de las estadísticas
+        Book anterior = repository.findById(id).map(BookService::copiar).orElse(null);
+        boolean eliminado = anterior != null && repository.deleteRow(id) > 0;
+        if (eliminado) {
+            changeEvents.registrarEliminados(ChangeEvent.BOOK, List.of(id));
+        }
+        alConfirmar(() -> {
+            invalidar(id);
+            if (eliminado) {
+                searchIndex.remove(id);
+            }
+        });
+        if (eliminado) {
+            statsService.libroCambiado(anterior, null);
+        }
+        return eliminado;
+    }
+
+    /**
+     * Borrado masivo en una sola transacción: por lista de IDs o por género.
+     *
+     * Primero se bloquean las filas a borrar (SELECT ID ... FOR UPDATE) y
+     * luego se borran por ID, de a bloques de 1000 (el máximo de Oracle para
+     * IN). Los libros no se cargan: las estadísticas salen de un conteo
+     * GROUP BY de cada bloque. Los eventos DELETED, las estadísticas, la
+     * caché y el índice salen de esas mismas filas: un libro creado por otra transacción en medio no se
+     * borra, y uno que otra transacción borra en paralelo no se cuenta dos
+     * veces.
+     *
+     * @return cantidad de libros eliminados
+     */
+    @Transactional
+    public int deleteAll(List<Long> ids, String genre) {
+        boolean porIds = ids != null && !ids.isEmpty();
+        boolean porGenero = genre != null && !genre.isBlank();
+        if (porIds == porGenero) {
+            throw new IllegalArgumentException("Debe indicar una lista de IDs o un género (solo uno de los dos)");
+        }
+
+        List<Long> afectados = new ArrayList<>();
+        if (porIds) {
+            for (int i = 0; i < ids.size(); i += MAX_IDS_POR_SENTENCIA) {
+                afectados.addAll(repository.findExistingIdsForUpdate(
+                        ids.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, ids.size()))));
+            }
+        } else {
+            afectados.addAll(repository.findIdsByGenreForUpdate(genre));
+        }
+
+        int eliminados = 0;
+        for (int i = 0; i < afectados.size(); i += MAX_IDS_POR_SENTENCIA) {
+            List<Long> bloque = afectados.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, afectados.size()));
+            // Conteos del bloque para las estadísticas (sin cargar libros) y luego el DELETE
+            for (Object[] fila : repository.countByGenreAuthorPublicationForIds(bloque)) {
+                statsService.librosEliminados((String) fila[0], (String) fila[1], (Year) fila[2], (Long) fila[3]);
+            }
+            eliminados += repository.deleteRows(bloque);
+        }
+        changeEvents.registrarEliminados(ChangeEvent.BOOK, afectados);
+        alConfirmar(() -> {
+            afectados.forEach(this::invalidar);
+            afectados.forEach(searchIndex::remove);
+        });
+        return eliminados;
+    }
+
+    /**
+     * Registra las métricas de la caché (cache.gets, cache.evictions, ...)
+     * con el nombre "books".
+     */
+    public void bindCacheMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "books");
+    }
+
+    /**
+     * Estadísticas de la caché de libros (aciertos, fallos, desalojos).
+     */
+    public Map<String, Object> cacheStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("size", cache.estimatedSize());
+        resultado.put("hits", stats.hitCount());
+        resultado.put("misses", stats.missCount());
+        resultado.put("hitRate", stats.hitRate());
+        resultado.put("evictions", stats.evictionCount());
+        return resultado;
+    }
+
+    private void validarCambios(Map<String, Object> cambios) {
+        Set<String> errores = cambios.entrySet().stream()
+                .flatMap(e -> validator.validateValue(Book.class, e.getKey(), e.getValue()).stream())
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!errores.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errores));
+        }
+    }
+
+    // Ejecuta el cambio cuando la transacción actual se confirma (o de
+    // inmediato si no hay transacción): un rollback no deja rastros
+    private static void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    private static Book copiar(Book libro) {
+        Book copia = new Book();
+        copia.setId(libro.getId());
+        copia.setTitle(libro.getTitle());
+        copia.setAuthor(libro.getAuthor());
+        copia.setGenre(libro.getGenre());
+        copia.setPublication(libro.getPublication());
+        copia.setUpdatedAt(libro.getUpdatedAt());
+        copia.setVersion(libro.getVersion());
+        return copia;
+    }
+
+    private static void aplicar(Book libro, String campo, Object valor) {
+        switch (campo) {
+            case "title" -> libro.setTitle((String) valor);
+            case "author" -> libro.setAuthor((String) valor);
+            case "genre" -> libro.setGenre((String) valor);
+            case "publication" -> libro.setPublication((Year) valor);
+            default -> throw new IllegalArgumentException("Campo no editable: " + campo);
+        }
+    }
+
+    // ============================================================
+    // Cursor opaco para la paginación
+    // ============================================================
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(valor);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
     }
 }
@@ -0,0 +1,193 @@
+package com.fullstack.libreria.book.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fullstack.libreria.book.search.BookSearchIndex;
+import com.fullstack.libreria.cache.CacheInvalidationChannel;
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.service.ChangeEventService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clase BookStartupTasks
+ * ----------------------
+ * Tareas de mantenimiento del catálogo que se ejecutan una vez que la
+ * aplicación terminó de iniciar.
+ *
+ * También mantiene el índice de búsqueda al día con los cambios en BOOK
+ * hechos por otras réplicas (avisos del CacheInvalidationChannel): cada
+ * aviso programa un refresco en un hilo propio ("search-index"), y los
+ * avisos que llegan mientras tanto se juntan en un solo refresco más.
+ *
+ * El refresco lee solo los eventos de CHANGE_EVENT posteriores al último
+ * aplicado. Los IDs saltados (transacciones que confirman tarde) se
+ * vuelven a leer durante libreria.events.gap-recheck, como en
+ * ChangeEventRelay. Si los eventos que faltan ya se eliminaron por
+ * antigüedad, o los huecos en revisión superan el máximo, se recorre el
+ * catálogo completo (BookService.refrescarIndice).
+ */
+@Slf4j
+@Component
+public class BookStartupTasks {
+
+    private static final int MAX_SALTADOS = 1000;
+
+    private final BookService service;
+    private final BookSearchIndex searchIndex;
+    private final ChangeEventService changeEvents;
+    private final int pageSize;
+    private final long gapRecheckNanos;
+
+    private final ExecutorService refrescos = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "search-index");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    // Hay un refresco programado que todavía no empieza
+    private final AtomicBoolean refrescoPendiente = new AtomicBoolean();
+
+    // Hasta la primera reconstrucción no hay nada que refrescar
+    private volatile boolean indiceListo;
+
+    // Último evento aplicado al índice y los IDs saltados en revisión
+    // (ID → desde cuándo, en System.nanoTime); solo los usa el hilo de refresco
+    private volatile long ultimoEvento;
+    private final Map<Long, Long> saltados = new LinkedHashMap<>();
+
+    public BookStartupTasks(BookService service, BookSearchIndex searchIndex, ChangeEventService changeEvents,
+            CacheInvalidationChannel invalidationChannel,
+            @Value("${libreria.events.page-size:500}") int pageSize,
+            @Value("${libreria.events.gap-recheck:10m}") Duration gapRecheck) {
+        this.service = service;
+        this.searchIndex = searchIndex;
+        this.changeEvents = changeEvents;
+        this.pageSize = pageSize;
+        this.gapRecheckNanos = gapRecheck.toNanos();
+        invalidationChannel.subscribe(tablas -> {
+            if (tablas.stream().anyMatch("BOOK"::equalsIgnoreCase)) {
+                programarRefresco();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        int actualizados = service.backfillTitleKeys();
+        if (actualizados > 0) {
+            log.info("🔤 Título normalizado completado en {} libros", actualizados);
+        }
+        int fechados = service.backfillUpdatedAt();
+        if (fechados > 0) {
+            log.info("🕒 Fecha de modificación completada en {} libros", fechados);
+        }
+        int versionados = service.backfillVersions();
+        if (versionados > 0) {
+            log.info("🔢 Versión inicial asignada a {} libros", versionados);
+        }
+        reconstruirIndice();
+    }
+
+    /**
+     * Reconstruye el índice de texto completo recorriendo el catálogo con un
+     * cursor (sin cargar la tabla entera en memoria).
+     */
+    private void reconstruirIndice() {
+        long inicio = System.currentTimeMillis();
+        // Los eventos que se confirmen durante el recorrido se vuelven a aplicar después
+        ultimoEvento = changeEvents.ultimoId();
+        searchIndex.clear();
+        service.forEachBook(searchIndex::index);
+        indiceListo = true;
+        log.info("🔎 Índice de búsqueda reconstruido: {} libros en {} ms",
+                searchIndex.size(), System.currentTimeMillis() - inicio);
+    }
+
+    private void programarRefresco() {
+        if (indiceListo && refrescoPendiente.compareAndSet(false, true)) {
+            refrescos.execute(this::refrescarIndice);
+        }
+    }
+
+    void refrescarIndice() {
+        refrescoPendiente.set(false);
+        long inicio = System.currentTimeMillis();
+        try {
+            int cambiados = faltanEventos() ? refrescarCompleto() : aplicarEventos();
+            log.debug("🔎 Índice de búsqueda refrescado por cambios de otra réplica: {} libros en {} ms",
+                    cambiados, System.currentTimeMillis() - inicio);
+        } catch (RuntimeException ex) {
+            // El próximo aviso (o el próximo arranque) lo vuelve a intentar
+            log.warn("⚠️ No se pudo refrescar el índice de búsqueda: {}", ex.getMessage());
+        }
+    }
+
+    // Los eventos siguientes al último aplicado ya se eliminaron por antigüedad
+    private boolean faltanEventos() {
+        Long primero = changeEvents.primerId();
+        return primero != null && primero > ultimoEvento + 1;
+    }
+
+    private int refrescarCompleto() {
+        long hasta = changeEvents.ultimoId();
+        int cambiados = service.refrescarIndice();
+        ultimoEvento = hasta;
+        saltados.clear();
+        return cambiados;
+    }
+
+    // Eventos nuevos por páginas, y luego los IDs saltados que ya se confirmaron
+    private int aplicarEventos() {
+        long hasta = changeEvents.ultimoId();
+        long desde = ultimoEvento;
+        int cambiados = 0;
+        List<ChangeEvent> eventos;
+        do {
+            eventos = changeEvents.leer(desde, hasta, pageSize);
+            long ahora = System.nanoTime();
+            for (ChangeEvent evento : eventos) {
+                for (long id = desde + 1; id < evento.getId(); id++) {
+                    saltados.put(id, ahora);
+                }
+                desde = evento.getId();
+            }
+            if (saltados.size() > MAX_SALTADOS) {
+                log.warn("⚠️ Demasiados IDs de eventos sin confirmar: se refresca el índice completo");
+                return refrescarCompleto();
+            }
+            if (!eventos.isEmpty()) {
+                cambiados += service.aplicarEventosAlIndice(eventos);
+            }
+        } while (eventos.size() == pageSize);
+        ultimoEvento = Math.max(desde, hasta);
+
+        long ahora = System.nanoTime();
+        saltados.values().removeIf(desdeCuando -> ahora - desdeCuando > gapRecheckNanos);
+        if (!saltados.isEmpty()) {
+            List<ChangeEvent> tardios = changeEvents.leerIds(saltados.keySet());
+            if (!tardios.isEmpty()) {
+                tardios.forEach(evento -> saltados.remove(evento.getId()));
+                cambiados += service.aplicarEventosAlIndice(tardios);
+            }
+        }
+        return cambiados;
+    }
+
+    @PreDestroy
+    public void detener() {
+        refrescos.shutdownNow();
+    }
+}
@@ -0,0 +1,38 @@
+package com.fullstack.libreria.cache;
+
+import java.time.OffsetDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: CacheInvalidation
+ * ---------------------------------------------------------------
+ * Fila de la tabla CACHE_INVALIDATION: "la instancia ORIGIN modificó la
+ * tabla TABLE_NAME". La escribe y la lee JdbcCacheInvalidationChannel con
+ * JDBC; la entidad solo existe para que Hibernate cree la tabla.
+ * ===============================================================
+ */
+@Data
+@Entity
+@Table(name = "CACHE_INVALIDATION", indexes = {
+        @Index(name = "IDX_CACHE_INV_CREATED_AT", columnList = "CREATED_AT")
+})
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Identificador de la réplica que hizo el cambio
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    @Column(name = "TABLE_NAME", nullable = false, length = 128)
+    private String tableName;
+
+    // Hora de la BD (igual para todas las réplicas)
+    @Column(name = "CREATED_AT", nullable = false)
+    private OffsetDateTime createdAt;
+}
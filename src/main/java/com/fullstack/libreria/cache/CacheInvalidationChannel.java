@@ -0,0 +1,28 @@
+package com.fullstack.libreria.cache;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * ===============================================================
+ * 📘 Interfaz: CacheInvalidationChannel
+ * ---------------------------------------------------------------
+ * Avisos de "estas tablas cambiaron" entre réplicas de la aplicación.
+ *
+ * - publish: tablas que modificó esta instancia (las publica Hibernate al
+ *   terminar cada transacción, ver ReplicatedTimestampsCacheFactory).
+ * - subscribe: recibe solo las tablas modificadas por OTRAS instancias;
+ *   SecondLevelCacheInvalidator las usa para descartar lo que tenga en
+ *   caché de esas tablas.
+ *
+ * Implementaciones: LocalCacheInvalidationChannel (dentro de la JVM) y
+ * JdbcCacheInvalidationChannel (tabla CACHE_INVALIDATION compartida).
+ * ===============================================================
+ */
+public interface CacheInvalidationChannel {
+
+    void publish(Collection<String> tablas);
+
+    void subscribe(Consumer<Set<String>> listener);
+}
@@ -0,0 +1,166 @@
+package com.fullstack.libreria.cache;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: JdbcCacheInvalidationChannel
+ * ---------------------------------------------------------------
+ * Canal de invalidación entre réplicas a través de la tabla
+ * CACHE_INVALIDATION (la misma BD que ya comparten todas).
+ *
+ * Cada poll-interval, en un solo paso:
+ * 1. Inserta las tablas pendientes de avisar (un lote; los avisos
+ *    repetidos dentro del intervalo se envían una sola vez).
+ * 2. Lee los avisos nuevos de otras réplicas y los entrega a los
+ *    suscriptores.
+ *
+ * Los avisos se leen por CREATED_AT (hora de la BD) con un margen hacia
+ * atrás (lookback): un INSERT confirmado tarde no se pierde, y los ya
+ * procesados se reconocen por ID. Un aviso tarda a lo sumo unos dos
+ * poll-interval en llegar a las demás réplicas.
+ * ===============================================================
+ */
+@Slf4j
+public class JdbcCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO CACHE_INVALIDATION (ORIGIN, TABLE_NAME, CREATED_AT) VALUES (?, ?, CURRENT_TIMESTAMP)";
+    private static final String SELECT_SQL =
+            "SELECT ID, ORIGIN, TABLE_NAME, CREATED_AT FROM CACHE_INVALIDATION WHERE CREATED_AT >= ? ORDER BY ID";
+    private static final String DELETE_SQL = "DELETE FROM CACHE_INVALIDATION WHERE CREATED_AT < ?";
+
+    private static final OffsetDateTime INICIO = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String origen;
+    private final Duration lookback;
+    private final Duration retention;
+
+    private final Set<String> pendientes = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    // Solo los usa sincronizar(): avisos ya leídos dentro del margen y la
+    // hora del aviso más reciente visto
+    private final Map<Long, OffsetDateTime> leidos = new HashMap<>();
+    private OffsetDateTime ultimaHora;
+
+    public JdbcCacheInvalidationChannel(JdbcTemplate jdbcTemplate, String origen,
+            SecondLevelCacheProperties.Invalidation config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.origen = origen;
+        this.lookback = config.getLookback();
+        this.retention = config.getRetention();
+        log.info("📡 Invalidación de caché entre réplicas por la tabla CACHE_INVALIDATION (instancia {}, cada {})",
+                origen, config.getPollInterval());
+    }
+
+    @Override
+    public void publish(Collection<String> tablas) {
+        pendientes.addAll(tablas);
+    }
+
+    @Override
+    public void subscribe(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${libreria.cache.invalidation.poll-interval:1s}")
+    public synchronized void sincronizar() {
+        enviar();
+        try {
+            Set<String> tablas = leer();
+            if (!tablas.isEmpty()) {
+                log.debug("📡 Tablas modificadas por otras réplicas: {}", tablas);
+                listeners.forEach(listener -> listener.accept(tablas));
+            }
+        } catch (DataAccessException ex) {
+            log.warn("⚠️ No se pudieron leer los avisos de invalidación: {}", ex.getMessage());
+        }
+    }
+
+    private void enviar() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        List<String> lote = new ArrayList<>(pendientes);
+        pendientes.removeAll(lote);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, lote, lote.size(), (ps, tabla) -> {
+                ps.setString(1, origen);
+                ps.setString(2, tabla);
+            });
+        } catch (DataAccessException ex) {
+            // Se reintenta en la próxima pasada
+            pendientes.addAll(lote);
+            log.warn("⚠️ No se pudieron publicar los avisos de invalidación {}: {}", lote, ex.getMessage());
+        }
+    }
+
+    private Set<String> leer() {
+        if (ultimaHora == null) {
+            ultimaHora = jdbcTemplate.queryForObject("SELECT MAX(CREATED_AT) FROM CACHE_INVALIDATION",
+                    OffsetDateTime.class);
+        }
+        OffsetDateTime desde = ultimaHora != null ? ultimaHora.minus(lookback) : INICIO;
+
+        Set<String> tablas = new HashSet<>();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            long id = rs.getLong("ID");
+            OffsetDateTime hora = rs.getObject("CREATED_AT", OffsetDateTime.class);
+            if (ultimaHora == null || hora.isAfter(ultimaHora)) {
+                ultimaHora = hora;
+            }
+            if (leidos.putIfAbsent(id, hora) == null && !origen.equals(rs.getString("ORIGIN"))) {
+                tablas.add(rs.getString("TABLE_NAME"));
+            }
+        }, desde);
+
+        // Lo que ya quedó fuera del margen no se vuelve a leer
+        if (ultimaHora != null) {
+            OffsetDateTime limite = ultimaHora.minus(lookback);
+            leidos.values().removeIf(hora -> hora.isBefore(limite));
+        }
+        return tablas;
+    }
+
+    /**
+     * Borra los avisos más antiguos que retention (cualquier réplica puede
+     * hacerlo; ya los leyeron todas).
+     */
+    @Scheduled(fixedDelayString = "${libreria.cache.invalidation.retention:1h}",
+            initialDelayString = "${libreria.cache.invalidation.retention:1h}")
+    public void limpiar() {
+        OffsetDateTime referencia;
+        synchronized (this) {
+            referencia = ultimaHora;
+        }
+        if (referencia == null) {
+            return;
+        }
+        try {
+            int borrados = jdbcTemplate.update(DELETE_SQL, referencia.minus(retention));
+            log.debug("🧹 Avisos de invalidación antiguos eliminados: {}", borrados);
+        } catch (DataAccessException ex) {
+            log.warn("⚠️ No se pudieron limpiar los avisos de invalidación: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.fullstack.libreria.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * ===============================================================
+ * 📘 Clase: LocalCacheInvalidationChannel
+ * ---------------------------------------------------------------
+ * Canal de invalidación dentro de la misma JVM.
+ *
+ * Todas las instancias del canal comparten un bus estático: lo que
+ * publica una se entrega de inmediato a las demás (nunca a sí misma).
+ * Con una sola aplicación no entrega nada; con varios contextos de Spring
+ * en la misma JVM (pruebas) se comporta como varias réplicas.
+ * ===============================================================
+ */
+public class LocalCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private static final List<LocalCacheInvalidationChannel> BUS = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    public LocalCacheInvalidationChannel() {
+        BUS.add(this);
+    }
+
+    @Override
+    public void publish(Collection<String> tablas) {
+        Set<String> copia = Set.copyOf(tablas);
+        for (LocalCacheInvalidationChannel otro : BUS) {
+            if (otro != this) {
+                otro.listeners.forEach(listener -> listener.accept(copia));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    // Al cerrar el contexto deja de recibir y de entregar avisos
+    public void close() {
+        BUS.remove(this);
+    }
+}
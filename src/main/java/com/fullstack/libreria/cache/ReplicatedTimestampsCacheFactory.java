@@ -0,0 +1,118 @@
+package com.fullstack.libreria.cache;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.cache.internal.StandardTimestampsCacheFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.TimestampsCacheFactory;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ReplicatedTimestampsCacheFactory
+ * ---------------------------------------------------------------
+ * Hibernate guarda, por tabla, la hora de la última modificación
+ * (región default-update-timestamps-region) y descarta los resultados de
+ * consultas en caché más antiguos. Después de cada transacción que
+ * escribe (save, delete, UPDATE/DELETE masivos en JPQL) llama a
+ * TimestampsCache.invalidate con las tablas modificadas.
+ *
+ * Esta fábrica envuelve el TimestampsCache estándar para que, además,
+ * esas tablas se publiquen en el CacheInvalidationChannel. Así las demás
+ * réplicas se enteran de cualquier escritura hecha con Hibernate sin
+ * tocar cada servicio.
+ *
+ * Se registra con hibernate.cache.query_cache_factory
+ * (SecondLevelCacheConfig).
+ * ===============================================================
+ */
+public class ReplicatedTimestampsCacheFactory implements TimestampsCacheFactory {
+
+    private final CacheInvalidationChannel channel;
+
+    // El que creó Hibernate (uno por SessionFactory)
+    private volatile ReplicatedTimestampsCache cache;
+
+    public ReplicatedTimestampsCacheFactory(CacheInvalidationChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public TimestampsCache buildTimestampsCache(CacheImplementor cacheManager, TimestampsRegion timestampsRegion) {
+        ReplicatedTimestampsCache nuevo = new ReplicatedTimestampsCache(
+                StandardTimestampsCacheFactory.INSTANCE.buildTimestampsCache(cacheManager, timestampsRegion),
+                channel);
+        cache = nuevo;
+        return nuevo;
+    }
+
+    /**
+     * null si Hibernate no usa caché de consultas.
+     */
+    ReplicatedTimestampsCache getCache() {
+        return cache;
+    }
+
+    /**
+     * TimestampsCache que publica las tablas invalidadas localmente.
+     */
+    static final class ReplicatedTimestampsCache implements TimestampsCache {
+
+        private final TimestampsCache delegate;
+        private final CacheInvalidationChannel channel;
+
+        ReplicatedTimestampsCache(TimestampsCache delegate, CacheInvalidationChannel channel) {
+            this.delegate = delegate;
+            this.channel = channel;
+        }
+
+        @Override
+        public TimestampsRegion getRegion() {
+            return delegate.getRegion();
+        }
+
+        @Override
+        public void preInvalidate(String[] spaces, SharedSessionContractImplementor session) {
+            delegate.preInvalidate(spaces, session);
+        }
+
+        // Fin de una transacción de esta instancia: se invalida y se avisa
+        @Override
+        public void invalidate(String[] spaces, SharedSessionContractImplementor session) {
+            delegate.invalidate(spaces, session);
+            if (spaces.length > 0) {
+                channel.publish(List.of(spaces));
+            }
+        }
+
+        /**
+         * Cambios hechos por otra réplica: se invalida sin volver a avisar.
+         */
+        void invalidateRemote(String[] spaces, SharedSessionContractImplementor session) {
+            delegate.invalidate(spaces, session);
+        }
+
+        @Override
+        public boolean isUpToDate(String[] spaces, Long timestamp, SharedSessionContractImplementor session) {
+            return delegate.isUpToDate(spaces, timestamp, session);
+        }
+
+        @Override
+        public boolean isUpToDate(Collection<String> spaces, Long timestamp, SharedSessionContractImplementor session) {
+            return delegate.isUpToDate(spaces, timestamp, session);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public void destroy() {
+            delegate.destroy();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.fullstack.libreria.cache;
+
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: SecondLevelCacheConfig
+ * ---------------------------------------------------------------
+ * Caché de segundo nivel y de consultas de Hibernate para Book y User,
+ * guardada en memoria con JCache (Caffeine).
+ *
+ * - Regiones: una caché por región de libreria.cache.regions, con su
+ *   máximo de entradas y tiempo de vida.
+ * - Qué se guarda: las entidades marcadas con @Cache y las consultas con
+ *   el hint HINT_CACHEABLE (BookRepository, UserRepository).
+ * - Coherencia entre réplicas: cada transacción publica las tablas que
+ *   modificó en el CacheInvalidationChannel (libreria.cache.invalidation.channel)
+ *   y las demás réplicas descartan lo que tengan de esas tablas.
+ *
+ * GET /api/books/{id} tiene además su propia caché en BookService, delante
+ * de esta (ver el comentario del campo "cache" ahí).
+ * ===============================================================
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    // Identifica a esta instancia en los avisos de invalidación
+    private final String instancia = UUID.randomUUID().toString();
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "libreria.cache.invalidation.channel", havingValue = "local", matchIfMissing = true)
+    public LocalCacheInvalidationChannel localCacheInvalidationChannel() {
+        return new LocalCacheInvalidationChannel();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "libreria.cache.invalidation.channel", havingValue = "jdbc")
+    public JdbcCacheInvalidationChannel jdbcCacheInvalidationChannel(JdbcTemplate jdbcTemplate,
+            SecondLevelCacheProperties properties) {
+        return new JdbcCacheInvalidationChannel(jdbcTemplate, instancia, properties.getInvalidation());
+    }
+
+    @Bean
+    public ReplicatedTimestampsCacheFactory replicatedTimestampsCacheFactory(CacheInvalidationChannel channel) {
+        return new ReplicatedTimestampsCacheFactory(channel);
+    }
+
+    /**
+     * CacheManager de JCache propio de esta aplicación (URI única, así
+     * varios contextos en la misma JVM no comparten regiones).
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager manager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("libreria-hibernate-" + instancia), getClass().getClassLoader());
+        properties.getRegions().forEach((nombre, region) -> {
+            CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+            config.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+            if (region.getTtl() != null) {
+                config.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+            }
+            // Hibernate ya guarda el estado desarmado (no la entidad): copiar
+            // cada entrada por serialización solo agregaría costo
+            config.setStoreByValue(false);
+            config.setStatisticsEnabled(true);
+            manager.createCache(nombre, config);
+        });
+        if (properties.isEnabled()) {
+            log.info("🗃️ Caché de segundo nivel de Hibernate: regiones {}", properties.getRegions().keySet());
+        }
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(SecondLevelCacheProperties properties,
+            CacheManager hibernateCacheManager, ReplicatedTimestampsCacheFactory timestampsFactory) {
+        return hibernate -> {
+            hibernate.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, properties.isEnabled());
+            hibernate.put(AvailableSettings.USE_QUERY_CACHE, properties.isEnabled());
+            if (properties.isEnabled()) {
+                hibernate.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+                hibernate.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                // Una región sin declarar en libreria.cache.regions es un error de configuración
+                hibernate.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+                hibernate.put(AvailableSettings.QUERY_CACHE_FACTORY, timestampsFactory);
+            }
+        };
+    }
+
+    @Bean
+    public SecondLevelCacheInvalidator secondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory,
+            ReplicatedTimestampsCacheFactory timestampsFactory, CacheInvalidationChannel channel,
+            MeterRegistry registry) {
+        return new SecondLevelCacheInvalidator(entityManagerFactory, timestampsFactory, channel, registry);
+    }
+}
@@ -0,0 +1,117 @@
+package com.fullstack.libreria.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import com.fullstack.libreria.cache.ReplicatedTimestampsCacheFactory.ReplicatedTimestampsCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: SecondLevelCacheInvalidator
+ * ---------------------------------------------------------------
+ * Aplica en esta instancia los cambios de tablas hechos en otras
+ * réplicas (recibidos por el CacheInvalidationChannel):
+ *
+ * - Descarta la región de cada entidad en caché mapeada a esa tabla
+ *   (completa: el aviso no dice qué filas cambiaron).
+ * - Actualiza la hora de modificación de la tabla, así los resultados de
+ *   consultas en caché que la usan dejan de ser válidos.
+ *
+ * También ofrece invalidarEntidad para las escrituras que no pasan por
+ * Hibernate (JDBC directo), que de otro modo nadie invalidaría.
+ * ===============================================================
+ */
+@Slf4j
+public class SecondLevelCacheInvalidator {
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final ReplicatedTimestampsCacheFactory timestampsFactory;
+    private final MeterRegistry registry;
+
+    // Tabla → entidades en caché mapeadas a ella (se arma al primer uso)
+    private volatile Map<String, List<String>> entidadesPorTabla;
+
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory,
+            ReplicatedTimestampsCacheFactory timestampsFactory, CacheInvalidationChannel channel,
+            MeterRegistry registry) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.timestampsFactory = timestampsFactory;
+        this.registry = registry;
+        channel.subscribe(this::aplicarRemotas);
+    }
+
+    /**
+     * Tablas de una entidad modificadas sin Hibernate (JDBC directo): se
+     * invalidan en esta instancia y se avisa a las demás.
+     */
+    public void invalidarEntidad(Class<?> entidad) {
+        String[] tablas = Arrays.stream(sessionFactory.getMappingMetamodel().getEntityDescriptor(entidad)
+                .getQuerySpaces()).map(Object::toString).toArray(String[]::new);
+        descartarEntidades(tablas);
+        ReplicatedTimestampsCache cache = timestampsFactory.getCache();
+        if (cache != null) {
+            try (SessionImplementor session = (SessionImplementor) sessionFactory.openSession()) {
+                cache.invalidate(tablas, session);
+            }
+        }
+    }
+
+    // Avisos de otras réplicas
+    private void aplicarRemotas(Set<String> tablas) {
+        String[] espacios = tablas.toArray(String[]::new);
+        descartarEntidades(espacios);
+        ReplicatedTimestampsCache cache = timestampsFactory.getCache();
+        if (cache != null) {
+            try (SessionImplementor session = (SessionImplementor) sessionFactory.openSession()) {
+                cache.invalidateRemote(espacios, session);
+            }
+        }
+        for (String tabla : espacios) {
+            Counter.builder("libreria.cache.remote.invalidations")
+                    .description("Tablas invalidadas en la caché por cambios de otras réplicas")
+                    .tag("table", tabla)
+                    .register(registry)
+                    .increment();
+        }
+        log.debug("🔄 Caché invalidada por cambios en otra réplica: {}", tablas);
+    }
+
+    private void descartarEntidades(String[] tablas) {
+        Map<String, List<String>> mapa = entidadesPorTabla();
+        for (String tabla : tablas) {
+            for (String entidad : mapa.getOrDefault(tabla, List.of())) {
+                sessionFactory.getCache().evictEntityData(entidad);
+            }
+        }
+    }
+
+    private Map<String, List<String>> entidadesPorTabla() {
+        Map<String, List<String>> mapa = entidadesPorTabla;
+        if (mapa == null) {
+            Map<String, List<String>> nuevo = new HashMap<>();
+            sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+                if (persister.canReadFromCache()) {
+                    for (Serializable tabla : persister.getQuerySpaces()) {
+                        nuevo.computeIfAbsent(tabla.toString(), t -> new ArrayList<>()).add(persister.getEntityName());
+                    }
+                }
+            });
+            mapa = Map.copyOf(nuevo);
+            entidadesPorTabla = mapa;
+        }
+        return mapa;
+    }
+}
@@ -0,0 +1,68 @@
+package com.fullstack.libreria.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: SecondLevelCacheProperties
+ * ---------------------------------------------------------------
+ * Configuración de la caché de segundo nivel de Hibernate (prefijo
+ * libreria.cache).
+ *
+ * Ejemplo:
+ *
+ *   libreria.cache.regions.book.max-size=20000   ← máximo de entradas
+ *   libreria.cache.regions.book.ttl=30m          ← sin ttl no vencen
+ *   libreria.cache.invalidation.channel=jdbc     ← local | jdbc
+ *
+ * Cada región que use Hibernate debe estar declarada (si falta, la
+ * aplicación no arranca): book, user, book-queries, user-queries,
+ * default-query-results-region y default-update-timestamps-region.
+ * ===============================================================
+ */
+@Data
+@ConfigurationProperties(prefix = "libreria.cache")
+public class SecondLevelCacheProperties {
+
+    // Si es false Hibernate no usa caché de segundo nivel ni de consultas
+    private boolean enabled = true;
+
+    // Nombre de la región → tamaño y tiempo de vida
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Region {
+        private long maxSize = 10_000;
+
+        // null = sin vencimiento
+        private Duration ttl;
+    }
+
+    /**
+     * Canal por el que cada réplica avisa a las demás qué tablas cambió.
+     */
+    @Data
+    public static class Invalidation {
+
+        // local: solo dentro de la JVM (una instancia, pruebas); jdbc: tabla CACHE_INVALIDATION
+        private String channel = "local";
+
+        // Cada cuánto se envían los avisos pendientes y se leen los de otras réplicas (jdbc)
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        // Margen con que se vuelven a leer avisos recientes, por si una réplica
+        // confirmó su INSERT después de que otra ya leyó filas posteriores (jdbc)
+        private Duration lookback = Duration.ofSeconds(10);
+
+        // Antigüedad a partir de la cual se borran los avisos ya leídos (jdbc)
+        private Duration retention = Duration.ofHours(1);
+    }
+}
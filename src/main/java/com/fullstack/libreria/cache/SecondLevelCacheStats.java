@@ -0,0 +1,58 @@
+package com.fullstack.libreria.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * ===============================================================
+ * 📘 Clase: SecondLevelCacheStats
+ * ---------------------------------------------------------------
+ * Estadísticas por región de la caché de segundo nivel (GET
+ * /api/stats/cache): entradas en memoria según Caffeine y aciertos,
+ * fallos y escrituras según Hibernate.
+ *
+ * Las mismas cifras se publican en /actuator/prometheus como
+ * hibernate_second_level_cache_*{region} y cache_*{cache=región}.
+ * ===============================================================
+ */
+@Component
+public class SecondLevelCacheStats {
+
+    private final Statistics statistics;
+    private final CacheManager cacheManager;
+
+    public SecondLevelCacheStats(EntityManagerFactory entityManagerFactory, CacheManager hibernateCacheManager) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.cacheManager = hibernateCacheManager;
+    }
+
+    public Map<String, Map<String, Object>> porRegion() {
+        Map<String, Map<String, Object>> resultado = new LinkedHashMap<>();
+        for (String region : cacheManager.getCacheNames()) {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("size", cacheManager.getCache(region).unwrap(Cache.class).estimatedSize());
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats != null) {
+                long hits = stats.getHitCount();
+                long misses = stats.getMissCount();
+                datos.put("hits", hits);
+                datos.put("misses", misses);
+                datos.put("puts", stats.getPutCount());
+                datos.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+            }
+            resultado.put(region, datos);
+        }
+        return resultado;
+    }
+}
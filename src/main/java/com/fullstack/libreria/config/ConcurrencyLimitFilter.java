@@ -0,0 +1,101 @@
+package com.fullstack.libreria.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ConcurrencyLimitFilter
+ * ---------------------------------------------------------------
+ * Limita cuántas peticiones a /api/** se atienden al mismo tiempo.
+ *
+ * Con hilos de plataforma el límite lo pone el pool de Tomcat. Con hilos
+ * virtuales (perfil "virtual") ese tope desaparece: miles de peticiones
+ * pueden quedar esperando una conexión de Hikari hasta agotar el
+ * connection-timeout. Este filtro deja pasar como máximo "max-in-flight"
+ * peticiones; las demás esperan hasta "acquire-timeout" y, si no hay
+ * cupo, reciben 429 con Retry-After.
+ *
+ * Con max-in-flight=0 (valor por defecto) el filtro no hace nada.
+ * ===============================================================
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permisos;
+    private final long esperaMaximaMs;
+    private final ObjectMapper objectMapper;
+    private final Counter rechazadas;
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper, MeterRegistry registry,
+            @Value("${libreria.concurrency.max-in-flight:0}") int maxEnCurso,
+            @Value("${libreria.concurrency.acquire-timeout:0ms}") Duration esperaMaxima) {
+        this.objectMapper = objectMapper;
+        this.permisos = maxEnCurso > 0 ? new Semaphore(maxEnCurso) : null;
+        this.esperaMaximaMs = esperaMaxima.toMillis();
+        this.rechazadas = Counter.builder("libreria.concurrency.rejected")
+                .description("Peticiones rechazadas por el límite de concurrencia")
+                .register(registry);
+        if (permisos != null) {
+            Gauge.builder("libreria.concurrency.in-flight", permisos, s -> maxEnCurso - s.availablePermits())
+                    .description("Peticiones a /api/** en curso")
+                    .register(registry);
+            log.info("🚦 Límite de concurrencia: {} peticiones (espera máxima {} ms)", maxEnCurso, esperaMaximaMs);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return permisos == null || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            adquirido = false;
+        }
+        if (!adquirido) {
+            rechazar(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        rechazadas.increment();
+        log.warn("⏳ Petición rechazada por límite de concurrencia: {} {}", request.getMethod(),
+                request.getRequestURI());
+        TooManyRequestsResponse.escribir(objectMapper, request, response,
+                "Servidor saturado, intente nuevamente en unos segundos", 1);
+    }
+}
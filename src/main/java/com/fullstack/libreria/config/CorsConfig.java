@@ -48,7 +48,7 @@ public class CorsConfig {
                         .allowedOrigins("http://localhost:4200")
 
                         // 3️⃣ Métodos HTTP permitidos
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                        .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
 
                         // 4️⃣ Cabeceras permitidas
                         .allowedHeaders("*")
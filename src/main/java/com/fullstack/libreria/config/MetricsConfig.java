@@ -0,0 +1,56 @@
+package com.fullstack.libreria.config;
+
+import javax.cache.CacheManager;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fullstack.libreria.book.service.BookService;
+import com.fullstack.libreria.user.service.LoginExecutor;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * ===============================================================
+ * 📘 Clase: MetricsConfig
+ * ---------------------------------------------------------------
+ * Métricas propias de la aplicación, publicadas junto a las que Spring
+ * Boot ya entrega (http.server.requests, hikaricp.*, hibernate.*) en
+ * /actuator/prometheus:
+ *
+ * - executor.*{name="login"}: capacidad del pool de login (activos, cola,
+ *   completados, rechazados).
+ * - cache.*{cache="books"}: aciertos, fallos y desalojos de la caché de
+ *   libros por ID.
+ * - cache.*{cache="book", "user", ...}: por región de la caché de segundo
+ *   nivel (aciertos, fallos, escrituras y desalojos por tamaño o tiempo de
+ *   vida); Hibernate agrega hibernate.second.level.cache.*{region}.
+ *
+ * Las consultas SQL por petición (libreria.db.queries) las publica
+ * QueryCountFilter, y los errores por rama (libreria.errors) el
+ * GlobalExceptionHandler.
+ * ===============================================================
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder loginExecutorMetrics(LoginExecutor loginExecutor) {
+        return registry -> new ExecutorServiceMetrics(loginExecutor.getThreadPool(), "login", Tags.empty())
+                .bindTo(registry);
+    }
+
+    @Bean
+    public MeterBinder bookCacheMetrics(BookService bookService) {
+        return bookService::bindCacheMetrics;
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> hibernateCacheManager.getCacheNames()
+                .forEach(region -> JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region)));
+    }
+}
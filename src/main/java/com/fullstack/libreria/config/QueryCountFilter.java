@@ -0,0 +1,75 @@
+package com.fullstack.libreria.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: QueryCountFilter
+ * ---------------------------------------------------------------
+ * Publica cuántas consultas SQL hizo cada petición, por endpoint:
+ *
+ *   libreria.db.queries{method="GET", uri="/api/books/{id}"}
+ *
+ * Si una petición supera el umbral configurado se deja un warning en el
+ * log (síntoma típico de un N+1).
+ *
+ * Nota: solo cuenta el trabajo hecho en el hilo de la petición (no el de
+ * respuestas asíncronas como el login o el streaming del catálogo).
+ * ===============================================================
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+    private final int umbralAviso;
+
+    public QueryCountFilter(MeterRegistry registry,
+            @Value("${libreria.metrics.query-count.warn-threshold:20}") int umbralAviso) {
+        this.registry = registry;
+        this.umbralAviso = umbralAviso;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCountInspector.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int consultas = QueryCountInspector.current();
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = patron != null ? patron.toString() : "UNKNOWN";
+
+            DistributionSummary.builder("libreria.db.queries")
+                    .description("Consultas SQL ejecutadas por petición")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(200.0)
+                    .register(registry)
+                    .record(consultas);
+
+            if (consultas > umbralAviso) {
+                log.warn("🐢 {} {} ejecutó {} consultas SQL", request.getMethod(), uri, consultas);
+            }
+        }
+    }
+}
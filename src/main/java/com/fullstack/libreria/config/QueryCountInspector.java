@@ -0,0 +1,34 @@
+package com.fullstack.libreria.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * ===============================================================
+ * 📘 Clase: QueryCountInspector
+ * ---------------------------------------------------------------
+ * Cuenta las sentencias SQL que Hibernate ejecuta en el hilo actual.
+ *
+ * Hibernate lo llama antes de preparar cada sentencia (se registra en
+ * hibernate.session_factory.statement_inspector). QueryCountFilter
+ * reinicia el contador al empezar cada petición y lo publica al terminar,
+ * así un N+1 se ve como un salto en las consultas por petición.
+ * ===============================================================
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        CONTADOR.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        CONTADOR.get()[0] = 0;
+    }
+
+    public static int current() {
+        return CONTADOR.get()[0];
+    }
+}
@@ -0,0 +1,221 @@
+package com.fullstack.libreria.config;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.libreria.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: RateLimitFilter
+ * ---------------------------------------------------------------
+ * Límite de peticiones a /api/** por cliente y grupo de endpoints, para
+ * que un cliente que repite peticiones en bucle no agote las conexiones
+ * de Hikari de todos los demás.
+ *
+ * - Cliente: el usuario del token si viene (el mismo balde desde cualquier
+ *   IP); si no, la IP. Login, registro (incluida la verificación de email)
+ *   y recuperación siempre se cuentan por IP. Detrás del balanceador la IP
+ *   es la del cliente y no la del proxy: server.forward-headers-strategy=
+ *   native hace que Tomcat la tome de X-Forwarded-For cuando la petición
+ *   llega desde un proxy interno.
+ * - Cada cliente tiene un TokenBucket por grupo (catalog, read, write,
+ *   login, recover), configurado en libreria.rate-limit.groups.*.
+ * - Descarte de carga: si hay hilos esperando una conexión del pool, los
+ *   grupos de libreria.rate-limit.shed.groups se descartan con una
+ *   probabilidad que crece con la espera (0 en waiting-threshold, todo al
+ *   doble), antes de tocar la BD.
+ *
+ * En ambos casos se responde 429 con Retry-After. Corre después de
+ * Spring Security, así el usuario del token ya está en el contexto.
+ * ===============================================================
+ */
+@Slf4j
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+    private final MeterRegistry registry;
+
+    // System.nanoTime() (en las pruebas, un reloj fijo)
+    private final LongSupplier reloj;
+
+    // "grupo|cliente" → balde; los clientes inactivos se olvidan solos
+    private final Cache<String, TokenBucket> baldes;
+
+    private final Map<String, Counter> rechazadas = new HashMap<>();
+    private final Map<String, Counter> descartadas = new HashMap<>();
+
+    // Se obtiene cuando el pool ya está iniciado (Hikari lo crea al primer uso)
+    private volatile HikariPoolMXBean pool;
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, DataSource dataSource,
+            MeterRegistry registry) {
+        this(properties, objectMapper, dataSource, registry, System::nanoTime);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, DataSource dataSource,
+            MeterRegistry registry, LongSupplier reloj) {
+        this.properties = properties;
+        this.reloj = reloj;
+        this.objectMapper = objectMapper;
+        this.dataSource = dataSource;
+        this.registry = registry;
+        this.baldes = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxClients())
+                .build();
+        for (String grupo : new String[] { "catalog", "read", "write", "login", "recover" }) {
+            rechazadas.put(grupo, contador("quota", grupo));
+            descartadas.put(grupo, contador("shed", grupo));
+        }
+        if (properties.isEnabled()) {
+            log.info("🚦 Límite por cliente: {} (descarte desde {} hilos esperando conexión)",
+                    properties.getGroups().keySet(), properties.getShed().getWaitingThreshold());
+        }
+    }
+
+    private Counter contador(String motivo, String grupo) {
+        return Counter.builder("libreria.ratelimit.rejected")
+                .description("Peticiones rechazadas por el límite por cliente (quota) o por saturación del pool (shed)")
+                .tag("reason", motivo)
+                .tag("group", grupo)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/")
+                || HttpMethod.OPTIONS.matches(request.getMethod()); // preflight de CORS
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String grupo = grupo(request);
+
+        if (descartar(grupo)) {
+            descartadas.get(grupo).increment();
+            log.warn("🔻 Petición descartada (pool de conexiones saturado): {} {}", request.getMethod(),
+                    request.getRequestURI());
+            TooManyRequestsResponse.escribir(objectMapper, request, response,
+                    "Servidor saturado, intente nuevamente en unos segundos", 1);
+            return;
+        }
+
+        RateLimitProperties.Budget presupuesto = properties.getGroups().get(grupo);
+        if (presupuesto != null) {
+            String clave = grupo + "|" + cliente(request, grupo);
+            TokenBucket balde = baldes.get(clave, k -> new TokenBucket(presupuesto.getCapacity(),
+                    presupuesto.getRate()));
+            long espera = balde.tryConsume(reloj.getAsLong());
+            if (espera > 0) {
+                rechazadas.get(grupo).increment();
+                log.warn("🚦 Límite de peticiones superado: {} ({} {})", clave, request.getMethod(),
+                        request.getRequestURI());
+                TooManyRequestsResponse.escribir(objectMapper, request, response,
+                        "Demasiadas peticiones, intente nuevamente más tarde",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999L)));
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    // Grupo de endpoints de la petición
+    static String grupo(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String metodo = request.getMethod();
+        if (uri.startsWith("/api/users/recover/")) {
+            return "recover";
+        }
+        if (HttpMethod.POST.matches(metodo)
+                && (uri.equals("/api/users/login") || uri.equals("/api/users/register"))
+                || uri.equals("/api/users/email-available")) {
+            return "login";
+        }
+        if (HttpMethod.GET.matches(metodo) || HttpMethod.HEAD.matches(metodo)) {
+            return uri.startsWith("/api/books") ? "catalog" : "read";
+        }
+        return "write";
+    }
+
+    // Usuario del token o, si no hay (o es login/recuperación), la IP del
+    // cliente (ya resuelta desde X-Forwarded-For si pasó por el balanceador)
+    private static String cliente(HttpServletRequest request, String grupo) {
+        if (!grupo.equals("login") && !grupo.equals("recover")) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser usuario) {
+                return "u:" + usuario.id();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Probabilidad de descarte: 0 en waiting-threshold, 1 en el doble
+    private boolean descartar(String grupo) {
+        RateLimitProperties.Shed shed = properties.getShed();
+        if (!shed.isEnabled() || !shed.getGroups().contains(grupo)) {
+            return false;
+        }
+        HikariPoolMXBean mxBean = pool();
+        if (mxBean == null) {
+            return false;
+        }
+        int umbral = Math.max(1, shed.getWaitingThreshold());
+        int esperando = mxBean.getThreadsAwaitingConnection();
+        if (esperando < umbral) {
+            return false;
+        }
+        double probabilidad = (double) (esperando - umbral) / umbral;
+        return probabilidad >= 1 || ThreadLocalRandom.current().nextDouble() < probabilidad;
+    }
+
+    private HikariPoolMXBean pool() {
+        HikariPoolMXBean actual = pool;
+        if (actual == null) {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    actual = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                    pool = actual;
+                }
+            } catch (SQLException ex) {
+                log.debug("No se pudo obtener el pool de Hikari: {}", ex.getMessage());
+            }
+        }
+        return actual;
+    }
+}
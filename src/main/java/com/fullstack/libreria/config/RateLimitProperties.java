@@ -0,0 +1,68 @@
+package com.fullstack.libreria.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: RateLimitProperties
+ * ---------------------------------------------------------------
+ * Configuración del límite de peticiones por cliente (prefijo
+ * libreria.rate-limit).
+ *
+ * Ejemplo:
+ *
+ *   libreria.rate-limit.groups.login.capacity=10   ← ráfaga máxima
+ *   libreria.rate-limit.groups.login.rate=0.2      ← tokens por segundo
+ *   libreria.rate-limit.shed.waiting-threshold=10
+ *
+ * Grupos: catalog (GET /api/books/**), read (otros GET), write
+ * (POST/PUT/PATCH/DELETE), login (login, registro y verificación de
+ * email) y recover.
+ * ===============================================================
+ */
+@Data
+@ConfigurationProperties(prefix = "libreria.rate-limit")
+public class RateLimitProperties {
+
+    // Si es false no se limita ni se descarta ninguna petición
+    private boolean enabled = true;
+
+    // Grupo → presupuesto por cliente
+    private Map<String, Budget> groups = new LinkedHashMap<>();
+
+    // Tiempo sin peticiones tras el cual se olvida el balde de un cliente
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // Máximo de baldes en memoria (clientes × grupos)
+    private long maxClients = 100_000;
+
+    private Shed shed = new Shed();
+
+    @Data
+    public static class Budget {
+        private int capacity = 50;
+        private double rate = 10;
+    }
+
+    /**
+     * Descarte de carga según la saturación del pool de Hikari.
+     */
+    @Data
+    public static class Shed {
+        private boolean enabled = true;
+
+        // Hilos esperando conexión a partir de los cuales se empieza a
+        // descartar; con el doble se descarta todo lo de "groups"
+        private int waitingThreshold = 10;
+
+        // Grupos que se sacrifican primero
+        private List<String> groups = List.of("catalog", "read");
+    }
+}
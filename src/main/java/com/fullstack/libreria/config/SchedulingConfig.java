@@ -0,0 +1,39 @@
+package com.fullstack.libreria.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * ===============================================================
+ * 📘 Clase: SchedulingConfig
+ * ---------------------------------------------------------------
+ * Habilita las tareas periódicas (@Scheduled), por ejemplo la
+ * reconciliación de las estadísticas del catálogo.
+ * ===============================================================
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Con spring.main.lazy-initialization=true los beans que tienen métodos
+     * @Scheduled se crean igual al arrancar: las tareas se programan al
+     * crear el bean, y si no nadie lo usa (p. ej. la lectura periódica de
+     * CACHE_INVALIDATION) nunca correrían.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter tareasProgramadasAlArrancar() {
+        return (nombre, definicion, tipo) -> tipo != null
+                && AnnotationUtils.isCandidateClass(tipo, Scheduled.class)
+                && !MethodIntrospector.selectMethods(tipo,
+                        (MethodIntrospector.MetadataLookup<Boolean>) metodo -> AnnotatedElementUtils
+                                .hasAnnotation(metodo, Scheduled.class) ? Boolean.TRUE : null)
+                        .isEmpty();
+    }
+}
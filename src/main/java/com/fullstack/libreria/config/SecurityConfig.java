@@ -1,28 +1,102 @@
 package com.fullstack.libreria.config;
 
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import com.fullstack.libreria.security.AuthenticatedUser;
+import com.fullstack.libreria.security.TokenAuthenticationFilter;
+import com.fullstack.libreria.security.TokenProperties;
+import com.fullstack.libreria.security.TokenService;
+
+import jakarta.servlet.DispatcherType;
 
 @Configuration
+@EnableConfigurationProperties({ TokenProperties.class, RateLimitProperties.class })
 public class SecurityConfig {
 
+  // Costo de BCrypt (cada +1 duplica el tiempo de hash y de verificación)
   @Bean
-  public BCryptPasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public BCryptPasswordEncoder passwordEncoder(@Value("${libreria.security.bcrypt.strength:10}") int strength) {
+    return new BCryptPasswordEncoder(strength);
   }
 
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService,
+      TokenProperties tokenProperties) throws Exception {
 
+      // Sin sesión en el servidor: cada petición se autentica con su token
       http.csrf(csrf -> csrf.disable())
-          .authorizeHttpRequests(auth -> auth
-              .requestMatchers("/api/**").permitAll()  // LIBERAR API REST
-              .anyRequest().permitAll()
-          );
+          .cors(Customizer.withDefaults())
+          .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+          .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+          .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class);
+
+      if (!tokenProperties.isEnforce()) {
+        http.authorizeHttpRequests(auth -> auth
+            .requestMatchers("/api/**").permitAll()  // LIBERAR API REST
+            .anyRequest().permitAll()
+        );
+        return http.build();
+      }
+
+      http.authorizeHttpRequests(auth -> auth
+          .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+          // Fin de una respuesta asíncrona (SSE de /api/events): la petición ya se autorizó
+          // al empezar, y en este despacho el token no se vuelve a leer
+          .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+          // Salud y métricas para el scraper de Prometheus; el resto de Actuator solo ADMIN
+          .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+          .requestMatchers("/actuator/**").hasRole("ADMIN")
+          // Acceso público: login, registro y disponibilidad de email. La recuperación de
+          // contraseña devuelve la temporal, así que queda con el resto de la administración (ADMIN)
+          .requestMatchers(HttpMethod.POST, "/api/users/login", "/api/users/register").permitAll()
+          .requestMatchers(HttpMethod.GET, "/api/users/email-available").permitAll()
+          // Cualquier usuario autenticado
+          .requestMatchers(HttpMethod.GET, "/api/users/me").authenticated()
+          // Perfil: el propio usuario o un ADMIN
+          .requestMatchers("/api/users/profile/{id}").access(SecurityConfig::propioOAdmin)
+          // Resto de la administración de usuarios: solo ADMIN
+          .requestMatchers("/api/users/**").hasRole("ADMIN")
+          // Estadísticas del dashboard
+          .requestMatchers("/api/stats/**").hasAnyRole("ADMIN", "BIBLIOTECARIO")
+          // Flujo de cambios: el del catálogo también para BIBLIOTECARIO, el resto solo ADMIN
+          .requestMatchers("/api/events/books").hasAnyRole("ADMIN", "BIBLIOTECARIO")
+          .requestMatchers("/api/events/**").hasRole("ADMIN")
+          // Catálogo: lectura pública, escritura para ADMIN y BIBLIOTECARIO
+          .requestMatchers(HttpMethod.GET, "/api/books/**").permitAll()
+          .requestMatchers("/api/books/**").hasAnyRole("ADMIN", "BIBLIOTECARIO")
+          .anyRequest().permitAll()
+      );
 
       return http.build();
   }
-}
\ No newline at end of file
+
+  // Permite el acceso si el ID de la ruta es el del usuario del token, o si es ADMIN
+  private static AuthorizationDecision propioOAdmin(Supplier<Authentication> autenticacion,
+      RequestAuthorizationContext contexto) {
+    Authentication auth = autenticacion.get();
+    if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser usuario)) {
+      return new AuthorizationDecision(false);
+    }
+    Map<String, String> variables = contexto.getVariables();
+    boolean propio = String.valueOf(usuario.id()).equals(variables.get("id"));
+    return new AuthorizationDecision(propio || "ADMIN".equals(usuario.rol()));
+  }
+}
@@ -0,0 +1,40 @@
+package com.fullstack.libreria.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * ===============================================================
+ * 📘 Clase: SerializationConfig
+ * ---------------------------------------------------------------
+ * Formatos de respuesta además de JSON, elegidos por la cabecera
+ * Accept:
+ *
+ * - application/x-jackson-smile (Smile: JSON binario)
+ * - application/cbor (CBOR, RFC 8949)
+ *
+ * Ambos usan la misma configuración de Jackson que JSON (módulos,
+ * fechas, spring.jackson.*), así que los campos y valores son los
+ * mismos; solo cambia la codificación. Sin Accept (o con
+ * application/json) todo sigue igual.
+ * ===============================================================
+ */
+@Configuration
+public class SerializationConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,52 @@
+package com.fullstack.libreria.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ===============================================================
+ * 📘 Clase: TokenBucket
+ * ---------------------------------------------------------------
+ * Balde de tokens sin bloqueos: admite ráfagas de hasta "capacity"
+ * peticiones y se recarga a "rate" tokens por segundo.
+ *
+ * Todo el estado es un solo long (el "momento teórico de llegada" de
+ * GCRA): cada petición lo adelanta un intervalo (1 / rate) con un
+ * compareAndSet, así que no hay locks ni objetos por petición. Si el
+ * momento quedaría más allá de "capacity" intervalos en el futuro, el
+ * balde está vacío y se informa cuánto falta para el próximo token.
+ * ===============================================================
+ */
+public final class TokenBucket {
+
+    private final long intervaloNanos;
+    private final long rafagaNanos;
+    private final AtomicLong llegadaTeorica = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(int capacity, double rate) {
+        if (capacity < 1 || rate <= 0) {
+            throw new IllegalArgumentException("capacity y rate deben ser positivos");
+        }
+        this.intervaloNanos = Math.max(1L, (long) (1_000_000_000L / rate));
+        this.rafagaNanos = intervaloNanos * capacity;
+    }
+
+    /**
+     * Intenta tomar un token.
+     *
+     * @param ahora System.nanoTime()
+     * @return 0 si se tomó el token; si no, nanosegundos hasta que haya uno
+     */
+    public long tryConsume(long ahora) {
+        while (true) {
+            long actual = llegadaTeorica.get();
+            long siguiente = Math.max(actual, ahora) + intervaloNanos;
+            long exceso = siguiente - ahora - rafagaNanos;
+            if (exceso > 0) {
+                return exceso;
+            }
+            if (llegadaTeorica.compareAndSet(actual, siguiente)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.fullstack.libreria.config;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Respuesta 429 escrita directamente desde un filtro (antes de llegar a
+ * los controladores), con la misma forma que la de GlobalExceptionHandler.
+ */
+final class TooManyRequestsResponse {
+
+    private TooManyRequestsResponse() {
+    }
+
+    static void escribir(ObjectMapper objectMapper, HttpServletRequest request, HttpServletResponse response,
+            String mensaje, long retryAfterSegundos) throws IOException {
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        error.put("timestamp", LocalDateTime.now());
+        error.put("error", mensaje);
+        error.put("path", request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
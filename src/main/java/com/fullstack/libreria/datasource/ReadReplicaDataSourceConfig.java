@@ -0,0 +1,101 @@
+package com.fullstack.libreria.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.fullstack.libreria.cache.CacheInvalidationChannel;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ReadReplicaDataSourceConfig
+ * ---------------------------------------------------------------
+ * Con libreria.datasource.read.enabled=true la aplicación usa dos pools:
+ *
+ * - primary: spring.datasource.* (y spring.datasource.hikari.*), para
+ *   escrituras y todo lo que no es de solo lectura.
+ * - read: libreria.datasource.read.* (y libreria.datasource.read.hikari.*),
+ *   para las transacciones @Transactional(readOnly = true).
+ *
+ * El DataSource que ven JPA, JdbcTemplate y el resto de la aplicación es
+ * un LazyConnectionDataSourceProxy sobre ReadWriteRoutingDataSource.
+ * Hibernate crea y actualiza el esquema solo en la principal.
+ * ===============================================================
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "libreria.datasource.read", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("libreria.datasource.read.hikari")
+    public HikariDataSource readDataSource(ReadReplicaProperties read, DataSourceProperties principal) {
+        if (read.getUrl() == null || read.getUrl().isBlank()) {
+            throw new IllegalStateException("Falta libreria.datasource.read.url");
+        }
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(read.getUrl())
+                .username(read.getUsername() != null ? read.getUsername() : principal.determineUsername())
+                .password(read.getPassword() != null ? read.getPassword() : principal.determinePassword())
+                .driverClassName(read.getDriverClassName() != null ? read.getDriverClassName()
+                        : principal.determineDriverClassName())
+                .build();
+        dataSource.setPoolName("read");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReadReplicaProperties read) {
+        return new ReadYourWrites(read.getScope(), read.getStickiness(), read.getMaxClients());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource readDataSource,
+            ReadYourWrites readYourWrites, ReadReplicaProperties read, MeterRegistry registry) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, readDataSource,
+                readYourWrites, registry);
+        routing.afterPropertiesSet();
+        log.info("📚 Lecturas (@Transactional(readOnly = true)) en la réplica {}; escrituras en {} (stickiness {}, {})",
+                readDataSource.getJdbcUrl(), primaryDataSource.getJdbcUrl(), read.getStickiness(), read.getScope());
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Los cambios avisados por otras réplicas de la aplicación también
+    // cuentan como escrituras recientes (scope GLOBAL). Se suscribe al
+    // final: el canal JDBC depende a su vez del DataSource.
+    @Bean
+    public SmartInitializingSingleton readYourWritesRemoteListener(ObjectProvider<CacheInvalidationChannel> channel,
+            ReadYourWrites readYourWrites) {
+        return () -> channel.ifAvailable(canal -> canal.subscribe(tablas -> readYourWrites.escrituraRemota()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.fullstack.libreria.datasource;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ReadReplicaProperties
+ * ---------------------------------------------------------------
+ * Configuración de la BD de solo lectura (prefijo
+ * libreria.datasource.read).
+ *
+ * Ejemplo:
+ *
+ *   libreria.datasource.read.enabled=true
+ *   libreria.datasource.read.url=jdbc:oracle:thin:@<servicio>_low?TNS_ADMIN=/app/wallet
+ *   libreria.datasource.read.stickiness=2s
+ *   libreria.datasource.read.hikari.maximum-pool-size=20
+ *
+ * Usuario, contraseña y driver, si no se indican, son los de
+ * spring.datasource.
+ * ===============================================================
+ */
+@Data
+@ConfigurationProperties(prefix = "libreria.datasource.read")
+public class ReadReplicaProperties {
+
+    // Si es false todas las consultas van a spring.datasource, como siempre
+    private boolean enabled = false;
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+
+    // Después de un cambio, durante este tiempo las lecturas siguen en la
+    // BD principal (la réplica puede no tenerlo todavía). 0 = sin espera.
+    private Duration stickiness = Duration.ofSeconds(2);
+
+    // A quién aplica la espera: GLOBAL (todas las lecturas de esta
+    // instancia) o CLIENT (solo las del usuario/IP que hizo el cambio)
+    private Scope scope = Scope.GLOBAL;
+
+    // Máximo de clientes recordados con scope=CLIENT
+    private long maxClients = 100_000;
+
+    public enum Scope {
+        GLOBAL, CLIENT
+    }
+}
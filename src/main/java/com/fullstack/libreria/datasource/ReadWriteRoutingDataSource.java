@@ -0,0 +1,88 @@
+package com.fullstack.libreria.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ReadWriteRoutingDataSource
+ * ---------------------------------------------------------------
+ * Elige la BD de cada conexión según la transacción en curso:
+ *
+ * - @Transactional(readOnly = true) → réplica de lectura (findAll,
+ *   findById, búsquedas, recorridos del catálogo, ...), salvo que
+ *   ReadYourWrites indique que el cliente acaba de modificar datos.
+ * - Transacción de escritura o sin transacción → BD principal.
+ *
+ * La decisión necesita saber si la transacción es de solo lectura, y eso
+ * recién se conoce después de que JpaTransactionManager pide la conexión:
+ * por eso se usa siempre envuelta en un LazyConnectionDataSourceProxy, que
+ * demora la conexión real hasta la primera sentencia.
+ *
+ * Métrica: libreria.datasource.routed{target, reason}.
+ * ===============================================================
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRINCIPAL = "primary";
+    static final String LECTURA = "read";
+
+    private final ReadYourWrites readYourWrites;
+
+    private final Counter lectura;
+    private final Counter escritura;
+    private final Counter sinTransaccion;
+    private final Counter reciente;
+
+    public ReadWriteRoutingDataSource(DataSource principal, DataSource replica, ReadYourWrites readYourWrites,
+            MeterRegistry registry) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(PRINCIPAL, principal, LECTURA, replica));
+        setDefaultTargetDataSource(principal);
+        this.lectura = contador(registry, LECTURA, "read_only");
+        this.escritura = contador(registry, PRINCIPAL, "write");
+        this.sinTransaccion = contador(registry, PRINCIPAL, "no_transaction");
+        this.reciente = contador(registry, PRINCIPAL, "recent_write");
+    }
+
+    private static Counter contador(MeterRegistry registry, String destino, String motivo) {
+        return Counter.builder("libreria.datasource.routed")
+                .description("Conexiones entregadas por BD (principal o réplica de lectura) y motivo")
+                .tag("target", destino)
+                .tag("reason", motivo)
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            sinTransaccion.increment();
+            return PRINCIPAL;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Al confirmar, las lecturas siguientes del cliente van a la principal
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.escrituraConfirmada();
+                }
+            });
+            escritura.increment();
+            return PRINCIPAL;
+        }
+        if (readYourWrites.debeLeerDePrincipal()) {
+            reciente.increment();
+            return PRINCIPAL;
+        }
+        lectura.increment();
+        return LECTURA;
+    }
+}
@@ -0,0 +1,85 @@
+package com.fullstack.libreria.datasource;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ReadYourWrites
+ * ---------------------------------------------------------------
+ * Recuerda quién modificó datos hace menos de "stickiness", para que sus
+ * lecturas sigan yendo a la BD principal mientras la réplica se pone al
+ * día.
+ *
+ * - Scope GLOBAL: un cambio (de esta instancia o avisado por otra réplica
+ *   por el CacheInvalidationChannel) manda todas las lecturas a la
+ *   principal. Así las cachés compartidas (findById, segundo nivel) no se
+ *   vuelven a llenar con la versión anterior leída de la réplica.
+ * - Scope CLIENT: solo el usuario (o la IP) de la petición que hizo el
+ *   cambio; el resto sigue leyendo de la réplica.
+ *
+ * El cliente de la petición en curso lo fija ReadYourWritesFilter.
+ * ===============================================================
+ */
+public class ReadYourWrites {
+
+    private static final String TODOS = "*";
+
+    private static final ThreadLocal<String> CLIENTE = new ThreadLocal<>();
+
+    private final boolean global;
+    private final Cache<String, Boolean> recientes;
+
+    public ReadYourWrites(ReadReplicaProperties.Scope scope, Duration stickiness, long maxClients) {
+        this.global = scope == ReadReplicaProperties.Scope.GLOBAL;
+        this.recientes = stickiness.isZero() ? null
+                : Caffeine.newBuilder()
+                        .expireAfterWrite(stickiness)
+                        .maximumSize(maxClients)
+                        .build();
+    }
+
+    static void setCliente(String cliente) {
+        CLIENTE.set(cliente);
+    }
+
+    static void limpiarCliente() {
+        CLIENTE.remove();
+    }
+
+    /**
+     * Se confirmó un cambio hecho por el cliente actual.
+     */
+    public void escrituraConfirmada() {
+        if (recientes == null) {
+            return;
+        }
+        String clave = global ? TODOS : CLIENTE.get();
+        if (clave != null) {
+            recientes.put(clave, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Otra réplica de la aplicación avisó un cambio (solo cuenta con scope
+     * GLOBAL: no se sabe qué cliente lo hizo).
+     */
+    public void escrituraRemota() {
+        if (recientes != null && global) {
+            recientes.put(TODOS, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * true si las lecturas del cliente actual deben ir a la BD principal.
+     */
+    public boolean debeLeerDePrincipal() {
+        if (recientes == null) {
+            return false;
+        }
+        String clave = global ? TODOS : CLIENTE.get();
+        return clave != null && recientes.getIfPresent(clave) != null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.fullstack.libreria.datasource;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fullstack.libreria.security.AuthenticatedUser;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ReadYourWritesFilter
+ * ---------------------------------------------------------------
+ * Identifica al cliente de cada petición (usuario del token o, sin token,
+ * su IP) para ReadYourWrites con scope=CLIENT. Va después de la cadena de
+ * seguridad, cuando el token ya fue leído.
+ * ===============================================================
+ */
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 2)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.setCliente(cliente(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.limpiarCliente();
+        }
+    }
+
+    private static String cliente(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser usuario) {
+            return "u:" + usuario.id();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
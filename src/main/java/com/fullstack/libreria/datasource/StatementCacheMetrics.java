@@ -0,0 +1,98 @@
+package com.fullstack.libreria.datasource;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: StatementCacheMetrics
+ * ---------------------------------------------------------------
+ * Mide la caché implícita de sentencias del driver Oracle
+ * (oracle.jdbc.implicitStatementCacheSize, perfil "prod") con las
+ * estadísticas del propio servidor (V$SYSSTAT): una sentencia que el
+ * driver toma de su caché se ejecuta sin volver a analizarse, así que
+ * cada análisis ("parse count (total)") es un fallo y el resto de las
+ * ejecuciones ("execute count"), aciertos. Si los análisis crecen al
+ * ritmo de las ejecuciones con tráfico estable, la caché es chica para la
+ * cantidad de SQL distintas.
+ *
+ * No envuelve las conexiones del pool: los valores se leen al publicar
+ * las métricas, como mucho una vez cada LECTURA_MINIMA. Son de toda la
+ * base (todas las réplicas de la aplicación y otros clientes), no solo de
+ * esta instancia. El usuario de la aplicación necesita SELECT sobre
+ * V$SYSSTAT; sin él (o con otro motor, como H2) no se publica nada.
+ *
+ * Métrica: libreria.datasource.statements{call=execute|parse}
+ * ===============================================================
+ */
+@Slf4j
+public class StatementCacheMetrics implements MeterBinder {
+
+    static final String EJECUCIONES = "execute count";
+    static final String ANALISIS = "parse count (total)";
+
+    private static final String SQL =
+            "SELECT NAME, VALUE FROM V$SYSSTAT WHERE NAME IN ('" + EJECUCIONES + "', '" + ANALISIS + "')";
+
+    private static final long LECTURA_MINIMA = Duration.ofSeconds(10).toNanos();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private Map<String, Long> valores = Map.of();
+    private long leidoEn;
+
+    public StatementCacheMetrics(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        try {
+            leer();
+        } catch (DataAccessException ex) {
+            log.warn("⚠️ Sin acceso a V$SYSSTAT: no se mide la caché de sentencias ({})", ex.getMessage());
+            return;
+        }
+        contador(registry, "execute", EJECUCIONES);
+        contador(registry, "parse", ANALISIS);
+        log.info("📈 Midiendo la caché implícita de sentencias de Oracle (libreria.datasource.statements)");
+    }
+
+    private void contador(MeterRegistry registry, String llamada, String estadistica) {
+        FunctionCounter.builder("libreria.datasource.statements", this, m -> m.valor(estadistica))
+                .description("Sentencias ejecutadas (execute) y analizadas de nuevo por Oracle (parse), en toda la base")
+                .tag("call", llamada)
+                .register(registry);
+    }
+
+    private synchronized double valor(String estadistica) {
+        if (System.nanoTime() - leidoEn > LECTURA_MINIMA) {
+            try {
+                leer();
+            } catch (DataAccessException ex) {
+                // Se publica el último valor leído; se vuelve a intentar en la próxima lectura
+                log.debug("No se pudo leer V$SYSSTAT: {}", ex.getMessage());
+            }
+        }
+        Long valor = valores.get(estadistica);
+        return valor != null ? valor : Double.NaN;
+    }
+
+    private synchronized void leer() {
+        Map<String, Long> leidos = new HashMap<>();
+        jdbcTemplate.query(SQL, rs -> {
+            leidos.put(rs.getString(1), rs.getLong(2));
+        });
+        valores = leidos;
+        leidoEn = System.nanoTime();
+    }
+}
@@ -0,0 +1,25 @@
+package com.fullstack.libreria.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * ===============================================================
+ * 📘 Clase: StatementCacheMetricsConfig
+ * ---------------------------------------------------------------
+ * Con libreria.datasource.statement-cache.metrics=true (perfil "prod")
+ * registra StatementCacheMetrics. Desactivado por defecto: solo tiene
+ * sentido con Oracle y requiere SELECT sobre V$SYSSTAT.
+ * ===============================================================
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "libreria.datasource.statement-cache", name = "metrics", havingValue = "true")
+public class StatementCacheMetricsConfig {
+
+    @Bean
+    StatementCacheMetrics statementCacheMetrics(JdbcTemplate jdbcTemplate) {
+        return new StatementCacheMetrics(jdbcTemplate);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fullstack.libreria.events.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.service.ChangeEventRelay;
+
+/**
+ * Clase ChangeEventController
+ * ---------------------------
+ * Flujo de cambios de libros y usuarios como Server-Sent Events.
+ *
+ * Cada evento SSE tiene id = posición en el flujo, event = "book" o
+ * "user", y data = el ChangeEvent en JSON. Para continuar donde se quedó,
+ * el cliente envía el último id recibido en la cabecera Last-Event-ID (lo
+ * hace solo EventSource al reconectar) o en ?since=. Sin ninguno de los
+ * dos, recibe solo los cambios a partir de la conexión.
+ */
+@RestController
+@RequestMapping("/api/events")
+public class ChangeEventController {
+
+    private final ChangeEventRelay relay;
+
+    public ChangeEventController(ChangeEventRelay relay) {
+        this.relay = relay;
+    }
+
+    /**
+     * GET /api/events
+     * ----------------
+     * Todos los cambios (libros y usuarios). Solo ADMIN.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter todos(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long since) {
+        return relay.suscribir(null, desde(lastEventId, since));
+    }
+
+    /**
+     * GET /api/events/books
+     * ----------------------
+     * Solo los cambios del catálogo (ADMIN y BIBLIOTECARIO).
+     */
+    @GetMapping(value = "/books", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter libros(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long since) {
+        return relay.suscribir(ChangeEvent.BOOK, desde(lastEventId, since));
+    }
+
+    /**
+     * GET /api/events/users
+     * ----------------------
+     * Solo los cambios de usuarios. Solo ADMIN.
+     */
+    @GetMapping(value = "/users", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter usuarios(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long since) {
+        return relay.suscribir(ChangeEvent.USER, desde(lastEventId, since));
+    }
+
+    // La cabecera manda: al reconectar, EventSource repite la URL original con el ?since= inicial
+    private static Long desde(Long lastEventId, Long since) {
+        Long desde = lastEventId != null ? lastEventId : since;
+        if (desde != null && desde < 0) {
+            throw new IllegalArgumentException("La posición inicial no puede ser negativa");
+        }
+        return desde;
+    }
+}
@@ -0,0 +1,67 @@
+package com.fullstack.libreria.events.model;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Clase ChangeEvent
+ * -----------------
+ * Un cambio de un libro o usuario, tal como se publica en GET /api/events.
+ *
+ * Se guarda en la tabla CHANGE_EVENT (outbox) dentro de la misma
+ * transacción que el cambio: si la transacción se revierte, el evento
+ * tampoco existe. El ID es la posición del evento en el flujo (creciente)
+ * y es el que el consumidor envía en Last-Event-ID para continuar.
+ *
+ * "data" es un JSON Merge Patch sobre el estado anterior: el objeto
+ * completo en CREATED y en los reemplazos, solo los campos modificados en
+ * un PATCH, y null en DELETED.
+ *
+ * La tabla la escribe y la lee ChangeEventService con JDBC; la entidad
+ * sirve para que Hibernate la cree y como forma del evento en JSON.
+ */
+@Data
+@Entity
+@Table(name = "CHANGE_EVENT", indexes = {
+        @Index(name = "IDX_CHANGE_EVENT_CREATED_AT", columnList = "CREATED_AT")
+})
+public class ChangeEvent {
+
+    public static final String BOOK = "book";
+    public static final String USER = "user";
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // "book" o "user"
+    @Column(name = "ENTITY_TYPE", nullable = false, length = 20)
+    private String entity;
+
+    @Column(name = "ENTITY_ID", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Operation operation;
+
+    // Versión del registro después del cambio (null en DELETED)
+    @Column(name = "ENTITY_VERSION")
+    private Long version;
+
+    // JSON ya serializado: se escribe tal cual en la respuesta
+    @JsonRawValue
+    @Column(name = "PAYLOAD", length = 4000)
+    private String data;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,38 @@
+package com.fullstack.libreria.events.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Clase EntityVersion
+ * -------------------
+ * Contador de cambios por tipo de entidad ("book", "user"): se incrementa
+ * en la misma transacción que cada evento de CHANGE_EVENT.
+ *
+ * A diferencia del ID máximo de CHANGE_EVENT, una transacción que confirma
+ * más tarde no puede dejar un valor menor: la fila queda bloqueada hasta el
+ * commit, así que los incrementos se ven en el orden en que se confirman.
+ * Sirve para saber si un listado completo cambió (ETag de GET /api/books).
+ *
+ * La tabla la escribe y la lee ChangeEventService con JDBC; la entidad
+ * sirve para que Hibernate la cree.
+ */
+@Data
+@Entity
+@Table(name = "ENTITY_VERSION")
+public class EntityVersion {
+
+    // "book" o "user"
+    @Id
+    @Column(name = "ENTITY_TYPE", length = 20)
+    private String entity;
+
+    @Column(nullable = false)
+    private Long version;
+
+    // Momento del último cambio (Last-Modified del listado)
+    @Column(name = "UPDATED_AT", nullable = false)
+    private Instant updatedAt;
+}
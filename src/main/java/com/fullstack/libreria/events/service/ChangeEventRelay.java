@@ -0,0 +1,413 @@
+package com.fullstack.libreria.events.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullstack.libreria.events.model.ChangeEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ChangeEventRelay
+ * ---------------------------------------------------------------
+ * Lleva los eventos de la tabla CHANGE_EVENT a los clientes conectados a
+ * GET /api/events (Server-Sent Events), en orden de ID.
+ *
+ * - Un hilo propio ("change-events") lee la tabla cada
+ *   libreria.events.poll-interval y deja los eventos nuevos en la cola de
+ *   cada cliente; nada de esto ocupa el hilo de @Scheduled ni los de Tomcat.
+ * - Envío: cada cliente tiene su cola (libreria.events.subscriber-queue) y
+ *   un solo envío a la vez en el pool "change-events-send". Un cliente
+ *   lento no frena la lectura ni a los demás: con la cola llena deja de
+ *   recibir en vivo y se pone al día desde la tabla cuando se vacía.
+ * - Orden: los IDs se asignan al insertar pero las transacciones pueden
+ *   confirmarse en otro orden. Los eventos se envían solo de forma
+ *   contigua; si falta un ID se espera hasta libreria.events.gap-timeout
+ *   (transacción todavía abierta) y luego se sigue sin él. Los IDs
+ *   saltados se vuelven a leer en cada ciclo durante
+ *   libreria.events.gap-recheck: si aparecen (transacción larga) se envían
+ *   tarde, sin "id" para no retroceder el Last-Event-ID del cliente; si
+ *   no, se dan por perdidos (rollback).
+ * - Reanudación: cada evento lleva su ID como "id" del SSE; el cliente lo
+ *   envía en Last-Event-ID (o ?since=) al reconectar y recibe primero los
+ *   eventos pendientes desde la tabla, de a libreria.events.page-size por
+ *   ciclo, y después los nuevos. Si lo pedido ya no se conserva
+ *   (libreria.events.retention) recibe un evento "reset" con el ID más
+ *   antiguo disponible.
+ * - Un comentario cada libreria.events.heartbeat mantiene viva la conexión
+ *   a través de proxies.
+ *
+ * Cada réplica lee la misma tabla, así que un cliente puede reconectarse a
+ * cualquiera con el mismo Last-Event-ID.
+ * ===============================================================
+ */
+@Slf4j
+@Component
+public class ChangeEventRelay {
+
+    // Máximo de IDs saltados en revisión (también el límite de Oracle para IN)
+    private static final int MAX_SALTADOS = 1000;
+
+    private final ChangeEventService service;
+    private final ObjectWriter writer;
+    private final MeterRegistry registry;
+    private final Duration pollInterval;
+    private final int pageSize;
+    private final long gapTimeoutNanos;
+    private final long gapRecheckNanos;
+    private final int capacidadCola;
+    private final Duration heartbeat;
+    private final Duration connectionTimeout;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "change-events");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    // Envíos a los clientes: a lo sumo una tarea por cliente a la vez
+    private final AtomicInteger hilosEnvio = new AtomicInteger();
+    private final ExecutorService envios = Executors.newCachedThreadPool(tarea -> {
+        Thread hilo = new Thread(tarea, "change-events-send-" + hilosEnvio.incrementAndGet());
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+
+    // Último ID enviado en vivo (todo lo anterior ya se leyó en orden)
+    private volatile long confirmado = -1;
+
+    // Hueco en espera: posición donde falta el siguiente ID y desde cuándo
+    private long huecoEn = -1;
+    private long huecoDesde;
+
+    // IDs saltados que se vuelven a leer: ID → desde cuándo (System.nanoTime)
+    private final Map<Long, Long> saltados = new LinkedHashMap<>();
+
+    public ChangeEventRelay(ChangeEventService service, ObjectMapper objectMapper, MeterRegistry registry,
+            @Value("${libreria.events.poll-interval:250ms}") Duration pollInterval,
+            @Value("${libreria.events.page-size:500}") int pageSize,
+            @Value("${libreria.events.gap-timeout:5s}") Duration gapTimeout,
+            @Value("${libreria.events.gap-recheck:10m}") Duration gapRecheck,
+            @Value("${libreria.events.subscriber-queue:1000}") int capacidadCola,
+            @Value("${libreria.events.heartbeat:15s}") Duration heartbeat,
+            @Value("${libreria.events.connection-timeout:30m}") Duration connectionTimeout) {
+        this.service = service;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.registry = registry;
+        this.pollInterval = pollInterval;
+        this.pageSize = pageSize;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.gapRecheckNanos = gapRecheck.toNanos();
+        this.capacidadCola = capacidadCola;
+        this.heartbeat = heartbeat;
+        this.connectionTimeout = connectionTimeout;
+        Gauge.builder("libreria.events.subscribers", suscriptores, List::size)
+                .description("Clientes conectados a GET /api/events")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        posicionInicial();
+        executor.scheduleWithFixedDelay(this::ciclo, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::latido, heartbeat.toMillis(), heartbeat.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("📡 Eventos de cambios: desde el ID {}, lectura cada {} ms", confirmado, pollInterval.toMillis());
+    }
+
+    /**
+     * Conecta un cliente.
+     *
+     * @param entidad "book", "user" o null para todos
+     * @param desde   último ID que recibió el cliente (null = solo eventos nuevos)
+     */
+    public SseEmitter suscribir(String entidad, Long desde) {
+        SseEmitter emitter = new SseEmitter(connectionTimeout.toMillis());
+        long cursor = desde != null ? desde : posicionInicial();
+
+        if (desde != null) {
+            // Sin eventos conservados, el próximo será posterior al último leído
+            Long conservado = service.primerId();
+            long primero = conservado != null ? conservado : posicionInicial() + 1;
+            if (desde < primero - 1) {
+                // Lo que pidió ya se eliminó: se avisa y se continúa desde lo más antiguo
+                try {
+                    emitter.send(SseEmitter.event().name("reset").data(Map.of("oldestId", primero),
+                            MediaType.APPLICATION_JSON));
+                } catch (IOException ex) {
+                    emitter.completeWithError(ex);
+                    return emitter;
+                }
+                cursor = primero - 1;
+            }
+        }
+
+        Suscriptor suscriptor = new Suscriptor(emitter, entidad, cursor);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        // Al vencer la conexión se cierra normalmente: el cliente se reconecta con Last-Event-ID
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> suscriptores.remove(suscriptor));
+        suscriptores.add(suscriptor);
+        log.debug("📡 Cliente conectado a eventos de {} desde el ID {}", entidad != null ? entidad : "todo", cursor);
+        return emitter;
+    }
+
+    // Primer ciclo o primer cliente antes del ApplicationReadyEvent: el flujo empieza en el último evento
+    private synchronized long posicionInicial() {
+        if (confirmado < 0) {
+            confirmado = service.ultimoId();
+        }
+        return confirmado;
+    }
+
+    // ============================================================
+    // Ciclo de lectura (hilo "change-events")
+    // ============================================================
+
+    void ciclo() {
+        try {
+            long anterior = confirmado;
+            List<ChangeEvent> tardios = releerSaltados();
+            List<ChangeEvent> nuevos = contiguos(service.leer(anterior, Long.MAX_VALUE, pageSize), anterior);
+            if (!nuevos.isEmpty()) {
+                confirmado = nuevos.get(nuevos.size() - 1).getId();
+            }
+            for (Suscriptor suscriptor : suscriptores) {
+                // Antes de avanzar el cursor: solo los que ya pasaron por ese ID lo reciben tarde
+                encolarTardios(suscriptor, tardios);
+                if (suscriptor.cursor < anterior) {
+                    ponerAlDia(suscriptor, anterior);
+                }
+                if (suscriptor.cursor >= anterior) {
+                    encolar(suscriptor, nuevos);
+                }
+                programarEnvio(suscriptor);
+            }
+        } catch (RuntimeException ex) {
+            // Un error (por ejemplo, la BD caída) no debe detener el hilo: se reintenta en el próximo ciclo
+            log.warn("⚠️ No se pudieron leer los eventos de cambios: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Deja solo el tramo sin huecos a partir de "anterior".
+     */
+    private List<ChangeEvent> contiguos(List<ChangeEvent> leidos, long anterior) {
+        List<ChangeEvent> listos = new ArrayList<>(leidos.size());
+        long esperado = anterior + 1;
+        for (ChangeEvent evento : leidos) {
+            if (evento.getId() != esperado) {
+                long ahora = System.nanoTime();
+                if (huecoEn != esperado) {
+                    huecoEn = esperado;
+                    huecoDesde = ahora;
+                    break;
+                }
+                if (ahora - huecoDesde < gapTimeoutNanos) {
+                    break;
+                }
+                saltar(esperado, evento.getId() - 1, ahora);
+            }
+            listos.add(evento);
+            esperado = evento.getId() + 1;
+        }
+        return listos;
+    }
+
+    // El flujo sigue sin los IDs desde..hasta, que quedan en revisión
+    private void saltar(long desde, long hasta, long ahora) {
+        log.debug("⏭️ IDs de eventos {}..{} saltados (sin confirmar tras la espera)", desde, hasta);
+        Counter.builder("libreria.events.gaps")
+                .description("Huecos de IDs en CHANGE_EVENT saltados tras la espera")
+                .register(registry)
+                .increment();
+        long id = desde;
+        for (; id <= hasta && saltados.size() < MAX_SALTADOS; id++) {
+            saltados.put(id, ahora);
+        }
+        if (id <= hasta) {
+            log.warn("⚠️ Demasiados IDs de eventos en revisión: {}..{} se dan por perdidos", id, hasta);
+        }
+    }
+
+    // IDs saltados que ya se confirmaron; los que superan gap-recheck se dan por perdidos
+    private List<ChangeEvent> releerSaltados() {
+        long ahora = System.nanoTime();
+        saltados.values().removeIf(desde -> ahora - desde > gapRecheckNanos);
+        if (saltados.isEmpty()) {
+            return List.of();
+        }
+        List<ChangeEvent> tardios = service.leerIds(saltados.keySet());
+        for (ChangeEvent evento : tardios) {
+            saltados.remove(evento.getId());
+        }
+        if (!tardios.isEmpty()) {
+            log.debug("🐢 {} eventos confirmados después de saltarlos", tardios.size());
+            Counter.builder("libreria.events.late")
+                    .description("Eventos de CHANGE_EVENT enviados después de saltar su ID")
+                    .register(registry)
+                    .increment(tardios.size());
+        }
+        return tardios;
+    }
+
+    // Eventos que el cliente no recibió y ya no están en el ciclo en vivo: lo que quepa en su cola
+    private void ponerAlDia(Suscriptor suscriptor, long hasta) {
+        int limite = Math.min(pageSize, capacidadCola - suscriptor.cola.size());
+        if (limite <= 0) {
+            return;
+        }
+        List<ChangeEvent> pendientes = service.leer(suscriptor.cursor, hasta, limite);
+        encolar(suscriptor, pendientes);
+        if (pendientes.size() < limite) {
+            suscriptor.cursor = Math.max(suscriptor.cursor, hasta);
+        }
+    }
+
+    /**
+     * Deja los eventos en la cola del cliente, en orden. Si la cola se
+     * llena, el cursor queda en el último encolado y el resto se lee de la
+     * tabla en los próximos ciclos (ponerAlDia).
+     */
+    private void encolar(Suscriptor suscriptor, List<ChangeEvent> eventos) {
+        for (ChangeEvent evento : eventos) {
+            if (evento.getId() <= suscriptor.cursor) {
+                continue;
+            }
+            if (suscriptor.quiere(evento)) {
+                if (suscriptor.cola.size() >= capacidadCola) {
+                    return;
+                }
+                suscriptor.cola.add(sse(evento, true));
+            }
+            suscriptor.cursor = evento.getId();
+        }
+    }
+
+    // Los tardíos no esperan lugar en la cola: el cursor ya pasó y no se volverían a leer
+    private void encolarTardios(Suscriptor suscriptor, List<ChangeEvent> tardios) {
+        for (ChangeEvent evento : tardios) {
+            if (evento.getId() <= suscriptor.cursor && suscriptor.quiere(evento)) {
+                suscriptor.cola.add(sse(evento, false));
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder sse(ChangeEvent evento, boolean conId) {
+        SseEmitter.SseEventBuilder sse = SseEmitter.event();
+        if (conId) {
+            sse.id(String.valueOf(evento.getId()));
+        }
+        try {
+            return sse.name(evento.getEntity()).data(writer.writeValueAsString(evento), MediaType.APPLICATION_JSON);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el evento", ex);
+        }
+    }
+
+    private void latido() {
+        for (Suscriptor suscriptor : suscriptores) {
+            // Con la cola llena el cliente ya tiene tráfico: el ping sobra
+            if (suscriptor.cola.size() < capacidadCola) {
+                suscriptor.cola.add(SseEmitter.event().comment("ping"));
+                programarEnvio(suscriptor);
+            }
+        }
+    }
+
+    // ============================================================
+    // Envío (pool "change-events-send")
+    // ============================================================
+
+    private void programarEnvio(Suscriptor suscriptor) {
+        if (!suscriptor.cola.isEmpty() && suscriptor.enviando.compareAndSet(false, true)) {
+            envios.execute(() -> vaciar(suscriptor));
+        }
+    }
+
+    // Envía la cola del cliente; un send lento solo ocupa el hilo de este cliente
+    private void vaciar(Suscriptor suscriptor) {
+        try {
+            SseEmitter.SseEventBuilder sse;
+            while ((sse = suscriptor.cola.poll()) != null) {
+                suscriptor.emitter.send(sse);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // Cliente desconectado: se libera la conexión
+            desconectar(suscriptor, ex);
+            return;
+        }
+        suscriptor.enviando.set(false);
+        // Lo encolado entre el último poll y el set(false) no debe quedar esperando
+        if (suscriptores.contains(suscriptor)) {
+            programarEnvio(suscriptor);
+        }
+    }
+
+    private void desconectar(Suscriptor suscriptor, Exception ex) {
+        suscriptores.remove(suscriptor);
+        suscriptor.cola.clear();
+        suscriptor.emitter.completeWithError(ex);
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+        envios.shutdownNow();
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.emitter.complete();
+        }
+        suscriptores.clear();
+    }
+
+    // Un cliente conectado: qué eventos quiere, hasta cuál se encoló y lo pendiente de envío
+    private static final class Suscriptor {
+
+        private final SseEmitter emitter;
+        private final String entidad;
+        private volatile long cursor;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> cola = new LinkedBlockingQueue<>();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private Suscriptor(SseEmitter emitter, String entidad, long cursor) {
+            this.emitter = emitter;
+            this.entidad = entidad;
+            this.cursor = cursor;
+        }
+
+        private boolean quiere(ChangeEvent evento) {
+            return entidad == null || entidad.equals(evento.getEntity());
+        }
+    }
+}
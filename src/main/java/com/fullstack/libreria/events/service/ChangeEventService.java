@@ -0,0 +1,238 @@
+package com.fullstack.libreria.events.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.model.ChangeEvent.Operation;
+import com.fullstack.libreria.events.model.EntityVersion;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clase ChangeEventService
+ * ------------------------
+ * Outbox de cambios (tabla CHANGE_EVENT).
+ *
+ * - Escritura: BookService, UserService y la importación masiva registran
+ *   cada alta, cambio o baja. Los métodos exigen una transacción en curso
+ *   (Propagation.MANDATORY): el evento se confirma o se revierte junto con
+ *   el cambio. Se insertan con JDBC en lote, sin pasar por Hibernate, y
+ *   cada lote incrementa el contador de su entidad (ENTITY_VERSION).
+ * - Lectura: ChangeEventRelay lee los eventos en orden de ID para
+ *   enviarlos por GET /api/events.
+ * - Limpieza: los eventos más antiguos que libreria.events.retention se
+ *   eliminan periódicamente.
+ */
+@Slf4j
+@Service
+public class ChangeEventService {
+
+    private static final String INSERT_SQL = "INSERT INTO CHANGE_EVENT"
+            + " (ENTITY_TYPE, ENTITY_ID, OPERATION, ENTITY_VERSION, PAYLOAD, CREATED_AT) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_SQL = "SELECT ID, ENTITY_TYPE, ENTITY_ID, OPERATION, ENTITY_VERSION,"
+            + " PAYLOAD, CREATED_AT FROM CHANGE_EVENT WHERE ID > ? AND ID <= ? ORDER BY ID FETCH FIRST ? ROWS ONLY";
+    private static final String SELECT_IDS_SQL = "SELECT ID, ENTITY_TYPE, ENTITY_ID, OPERATION, ENTITY_VERSION,"
+            + " PAYLOAD, CREATED_AT FROM CHANGE_EVENT WHERE ID IN (%s) ORDER BY ID";
+    private static final String UPDATE_VERSION_SQL =
+            "UPDATE ENTITY_VERSION SET VERSION = VERSION + 1, UPDATED_AT = ? WHERE ENTITY_TYPE = ?";
+    private static final String INSERT_VERSION_SQL =
+            "INSERT INTO ENTITY_VERSION (ENTITY_TYPE, VERSION, UPDATED_AT) VALUES (?, 1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter writer;
+    private final Duration retention;
+
+    public ChangeEventService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            @Value("${libreria.events.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        // El payload se guarda compacto aunque el perfil active la sangría
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.retention = retention;
+    }
+
+    // ============================================================
+    // Registro (dentro de la transacción del cambio)
+    // ============================================================
+
+    /**
+     * Alta o reemplazo completo: datos = el objeto guardado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String entidad, Long id, Operation operacion, Long version, Object datos) {
+        insertar(List.of(evento(entidad, id, operacion, version, datos)));
+    }
+
+    /**
+     * Altas de varios objetos a la vez (importación masiva).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void registrarCreados(String entidad, List<T> objetos, Function<T, Long> id,
+            Function<T, Long> version) {
+        List<ChangeEvent> eventos = new ArrayList<>(objetos.size());
+        for (T objeto : objetos) {
+            eventos.add(evento(entidad, id.apply(objeto), Operation.CREATED, version.apply(objeto), objeto));
+        }
+        insertar(eventos);
+    }
+
+    /**
+     * Bajas: un evento DELETED por ID.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEliminados(String entidad, Collection<Long> ids) {
+        List<ChangeEvent> eventos = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            eventos.add(evento(entidad, id, Operation.DELETED, null, null));
+        }
+        insertar(eventos);
+    }
+
+    private ChangeEvent evento(String entidad, Long id, Operation operacion, Long version, Object datos) {
+        ChangeEvent evento = new ChangeEvent();
+        evento.setEntity(entidad);
+        evento.setEntityId(id);
+        evento.setOperation(operacion);
+        evento.setVersion(version);
+        try {
+            evento.setData(datos != null ? writer.writeValueAsString(datos) : null);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el evento de " + entidad + " " + id, ex);
+        }
+        evento.setCreatedAt(Instant.now());
+        return evento;
+    }
+
+    private void insertar(List<ChangeEvent> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, eventos, eventos.size(), (ps, evento) -> {
+            ps.setString(1, evento.getEntity());
+            ps.setLong(2, evento.getEntityId());
+            ps.setString(3, evento.getOperation().name());
+            if (evento.getVersion() != null) {
+                ps.setLong(4, evento.getVersion());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setString(5, evento.getData());
+            ps.setTimestamp(6, Timestamp.from(evento.getCreatedAt()));
+        });
+        incrementarVersion(eventos.get(0).getEntity(), eventos.get(0).getCreatedAt());
+    }
+
+    // La fila queda bloqueada hasta el commit: los cambios concurrentes se ordenan en ella
+    private void incrementarVersion(String entidad, Instant momento) {
+        Timestamp cuando = Timestamp.from(momento);
+        if (jdbcTemplate.update(UPDATE_VERSION_SQL, cuando, entidad) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_VERSION_SQL, entidad, cuando);
+        } catch (DuplicateKeyException ex) {
+            // Otra transacción creó la fila primero
+            jdbcTemplate.update(UPDATE_VERSION_SQL, cuando, entidad);
+        }
+    }
+
+    /**
+     * Contador de cambios de una entidad (vacío si nunca cambió).
+     */
+    public Optional<EntityVersion> version(String entidad) {
+        return jdbcTemplate.query("SELECT ENTITY_TYPE, VERSION, UPDATED_AT FROM ENTITY_VERSION WHERE ENTITY_TYPE = ?",
+                (rs, fila) -> {
+                    EntityVersion version = new EntityVersion();
+                    version.setEntity(rs.getString("ENTITY_TYPE"));
+                    version.setVersion(rs.getLong("VERSION"));
+                    version.setUpdatedAt(rs.getTimestamp("UPDATED_AT").toInstant());
+                    return version;
+                }, entidad).stream().findFirst();
+    }
+
+    // ============================================================
+    // Lectura (ChangeEventRelay)
+    // ============================================================
+
+    /**
+     * Eventos con ID en (desde, hasta], en orden, como máximo "limite".
+     */
+    public List<ChangeEvent> leer(long desde, long hasta, int limite) {
+        return jdbcTemplate.query(SELECT_SQL, ChangeEventService::mapear, desde, hasta, limite);
+    }
+
+    /**
+     * Eventos con los IDs indicados que ya existen, en orden (como máximo
+     * 1000 IDs, el límite de Oracle para IN).
+     */
+    public List<ChangeEvent> leerIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String marcas = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query(SELECT_IDS_SQL.formatted(marcas), ChangeEventService::mapear, ids.toArray());
+    }
+
+    /**
+     * ID del último evento (0 si no hay ninguno).
+     */
+    public long ultimoId() {
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(ID) FROM CHANGE_EVENT", Long.class);
+        return id != null ? id : 0L;
+    }
+
+    /**
+     * ID del evento más antiguo que se conserva (null si no hay ninguno).
+     */
+    public Long primerId() {
+        return jdbcTemplate.queryForObject("SELECT MIN(ID) FROM CHANGE_EVENT", Long.class);
+    }
+
+    private static ChangeEvent mapear(ResultSet rs, int fila) throws SQLException {
+        ChangeEvent evento = new ChangeEvent();
+        evento.setId(rs.getLong("ID"));
+        evento.setEntity(rs.getString("ENTITY_TYPE"));
+        evento.setEntityId(rs.getLong("ENTITY_ID"));
+        evento.setOperation(Operation.valueOf(rs.getString("OPERATION")));
+        long version = rs.getLong("ENTITY_VERSION");
+        evento.setVersion(rs.wasNull() ? null : version);
+        evento.setData(rs.getString("PAYLOAD"));
+        evento.setCreatedAt(rs.getTimestamp("CREATED_AT").toInstant());
+        return evento;
+    }
+
+    // ============================================================
+    // Limpieza
+    // ============================================================
+
+    @Scheduled(fixedDelayString = "${libreria.events.cleanup-interval:1h}")
+    public void limpiar() {
+        int borrados = jdbcTemplate.update("DELETE FROM CHANGE_EVENT WHERE CREATED_AT < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+        if (borrados > 0) {
+            log.info("🧹 Eventos de cambios eliminados por antigüedad: {}", borrados);
+        }
+    }
+}
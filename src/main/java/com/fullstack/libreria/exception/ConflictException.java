@@ -0,0 +1,23 @@
+package com.fullstack.libreria.exception;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ConflictException
+ * ---------------------------------------------------------------
+ * Excepción para indicar que la operación choca con datos existentes
+ * ("409 - Conflict"), por ejemplo un email ya registrado.
+ *
+ * - Se lanza desde los servicios al detectar la violación de una
+ *   restricción única (la BD es la que decide, sin consultar antes).
+ * - GlobalExceptionHandler la traduce a 409.
+ * ===============================================================
+ */
+public class ConflictException extends RuntimeException {
+
+    /**
+     * @param message Descripción del error (ej: "El email ya está registrado").
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,15 @@
 package com.fullstack.libreria.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -19,14 +23,27 @@ import java.util.Map;
  *
  * 🔹 Semana 2:
  * - Captura y traduce excepciones a respuestas HTTP limpias y comprensibles.
- * - Centraliza el manejo de errores (400, 404 y 500).
+ * - Centraliza el manejo de errores (400, 404, 409, 429 y 500).
  * - Integra logs para seguimiento profesional.
+ * - Cuenta cada error por rama en la métrica libreria.errors{branch=...}.
  * ===============================================================
  */
 @Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Incrementa el contador de errores de la rama indicada
+    private void contar(String rama, HttpStatus status) {
+        meterRegistry.counter("libreria.errors", "branch", rama, "status", String.valueOf(status.value()))
+                .increment();
+    }
+
     // ============================================================
     // 🔸 1. Manejo de errores de validación (400 Bad Request)
     // ============================================================
@@ -38,6 +55,7 @@ public class GlobalExceptionHandler {
         });
 
         log.warn("⚠️ Error de validación: {}", errores);
+        contar("validation", HttpStatus.BAD_REQUEST);
 
         Map<String, Object> respuesta = new HashMap<>();
         respuesta.put("status", HttpStatus.BAD_REQUEST.value());
@@ -54,6 +72,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<Map<String, Object>> handleResourceNotFound(ResourceNotFoundException ex,
             WebRequest request) {
         log.error("❌ Recurso no encontrado: {}", ex.getMessage());
+        contar("not_found", HttpStatus.NOT_FOUND);
 
         Map<String, Object> error = new HashMap<>();
         error.put("status", HttpStatus.NOT_FOUND.value());
@@ -65,11 +84,97 @@ public class GlobalExceptionHandler {
     }
 
     // ============================================================
-    // 🔸 3. Manejo de errores generales (500 Internal Server Error)
+    // 🔸 3. Manejo de argumentos inválidos (400 Bad Request)
+    // ============================================================
+    // Reglas de negocio que lanzan IllegalArgumentException (cursor inválido,
+    // credenciales inválidas, etc.) se informan como error del cliente.
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex,
+            WebRequest request) {
+        log.warn("⚠️ Petición inválida: {}", ex.getMessage());
+        contar("illegal_argument", HttpStatus.BAD_REQUEST);
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", HttpStatus.BAD_REQUEST.value());
+        error.put("timestamp", LocalDateTime.now());
+        error.put("error", ex.getMessage());
+        error.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    // ============================================================
+    // 🔸 4. Servidor saturado (429 Too Many Requests)
+    // ============================================================
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequests(TooManyRequestsException ex,
+            WebRequest request) {
+        log.warn("⏳ Petición rechazada por saturación: {}", ex.getMessage());
+        contar("too_many_requests", HttpStatus.TOO_MANY_REQUESTS);
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        error.put("timestamp", LocalDateTime.now());
+        error.put("error", ex.getMessage());
+        error.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    // ============================================================
+    // 🔸 5. Conflictos de versión (409 Conflict)
+    // ============================================================
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLocking(OptimisticLockingFailureException ex,
+            WebRequest request) {
+        log.warn("🔁 Conflicto de versión: {}", ex.getMessage());
+        contar("conflict", HttpStatus.CONFLICT);
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", HttpStatus.CONFLICT.value());
+        error.put("timestamp", LocalDateTime.now());
+        error.put("error", "El recurso fue modificado por otro usuario; vuelva a cargarlo e intente nuevamente");
+        error.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // ============================================================
+    // 🔸 6. Conflictos con datos existentes (409 Conflict)
+    // ============================================================
+    // Por ejemplo, un email que ya está registrado (restricción única).
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(ConflictException ex, WebRequest request) {
+        log.warn("⚠️ Conflicto: {}", ex.getMessage());
+        contar("conflict", HttpStatus.CONFLICT);
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", HttpStatus.CONFLICT.value());
+        error.put("timestamp", LocalDateTime.now());
+        error.put("error", ex.getMessage());
+        error.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // ============================================================
+    // 🔸 7. Cliente desconectado (por ejemplo, de GET /api/events)
+    // ============================================================
+    // La respuesta ya no se puede escribir: no es un error del servidor.
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleClienteDesconectado(AsyncRequestNotUsableException ex) {
+        log.debug("🔌 Cliente desconectado: {}", ex.getMessage());
+    }
+
+    // ============================================================
+    // 🔸 8. Manejo de errores generales (500 Internal Server Error)
     // ============================================================
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneralException(Exception ex, WebRequest request) {
         log.error("💥 Error interno del servidor: {}", ex.getMessage());
+        contar("internal", HttpStatus.INTERNAL_SERVER_ERROR);
 
         Map<String, Object> error = new HashMap<>();
         error.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
@@ -0,0 +1,31 @@
+package com.fullstack.libreria.exception;
+
+/**
+ * ===============================================================
+ * 📘 Clase: TooManyRequestsException
+ * ---------------------------------------------------------------
+ * Excepción para indicar que el servidor está saturado y el cliente debe
+ * reintentar más tarde ("429 - Too Many Requests").
+ *
+ * - Se lanza cuando una cola de trabajo está llena (por ejemplo, la de
+ *   verificación de login).
+ * - GlobalExceptionHandler la traduce a 429 con la cabecera Retry-After.
+ * ===============================================================
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param message           Descripción del error.
+     * @param retryAfterSeconds Segundos sugeridos antes de reintentar.
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.fullstack.libreria.security;
+
+/**
+ * ===============================================================
+ * 📘 Clase: AuthenticatedUser
+ * ---------------------------------------------------------------
+ * Usuario autenticado, reconstruido solo a partir del token firmado (sin
+ * consultar la BD). Es el "principal" que queda en el SecurityContext.
+ * ===============================================================
+ */
+public record AuthenticatedUser(Long id, String email, String rol) {
+}
@@ -0,0 +1,53 @@
+package com.fullstack.libreria.security;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ===============================================================
+ * 📘 Clase: TokenAuthenticationFilter
+ * ---------------------------------------------------------------
+ * Lee la cabecera "Authorization: Bearer <token>" de cada petición y, si
+ * el token es válido, deja al usuario autenticado con su rol
+ * (ROLE_ADMIN, ROLE_BIBLIOTECARIO o ROLE_CLIENTE).
+ *
+ * Todo se resuelve en memoria con TokenService: sin BD y sin BCrypt.
+ * Si no hay token (o no es válido) la petición sigue como anónima y las
+ * reglas de SecurityConfig deciden si se permite.
+ * ===============================================================
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String PREFIJO = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecera != null && cabecera.startsWith(PREFIJO)) {
+            tokenService.verify(cabecera.substring(PREFIJO.length()).trim()).ifPresent(usuario -> {
+                UsernamePasswordAuthenticationToken autenticacion = new UsernamePasswordAuthenticationToken(
+                        usuario, null, List.of(new SimpleGrantedAuthority("ROLE_" + usuario.rol())));
+                SecurityContextHolder.getContext().setAuthentication(autenticacion);
+            });
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,47 @@
+package com.fullstack.libreria.security;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: TokenProperties
+ * ---------------------------------------------------------------
+ * Configuración de los tokens de sesión (prefijo libreria.security.token).
+ *
+ * Ejemplo (claves en Base64, mínimo 32 bytes):
+ *
+ *   libreria.security.token.active-key=k2
+ *   libreria.security.token.keys.k1=...   ← clave anterior (solo verifica)
+ *   libreria.security.token.keys.k2=...   ← clave vigente (firma y verifica)
+ *
+ * Rotación: se agrega la clave nueva, se cambia active-key y, cuando los
+ * tokens firmados con la clave anterior expiran (ttl), se elimina.
+ * ===============================================================
+ */
+@Data
+@ConfigurationProperties(prefix = "libreria.security.token")
+public class TokenProperties {
+
+    // Si es false, la API sigue abierta (solo se lee el token si viene)
+    private boolean enforce = true;
+
+    // Duración de cada token emitido en el login
+    private Duration ttl = Duration.ofHours(1);
+
+    // Identificador (kid) de la clave con la que se firman los tokens nuevos
+    private String activeKey;
+
+    // kid → clave HMAC en Base64 (los valores vacíos se ignoran)
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    // Sin claves, firmar con una aleatoria por proceso en vez de no arrancar.
+    // Solo para desarrollo (perfil local): con enforce=true y varias
+    // instancias, cada una rechazaría los tokens de las otras
+    private boolean allowRandomKey = false;
+}
@@ -0,0 +1,183 @@
+package com.fullstack.libreria.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullstack.libreria.user.model.User;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: TokenService
+ * ---------------------------------------------------------------
+ * Emite y verifica tokens firmados (formato JWT, algoritmo HS256).
+ *
+ * El token lleva el ID, email y rol del usuario. Como está firmado, basta
+ * con verificar la firma y la expiración en memoria para confiar en él:
+ * ninguna petición autenticada necesita ir a la BD ni recalcular BCrypt.
+ *
+ * La cabecera incluye el "kid" de la clave usada, así se pueden tener
+ * varias claves vigentes a la vez (rotación sin cerrar sesiones).
+ * ===============================================================
+ */
+@Slf4j
+@Service
+public class TokenService {
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+    private static final TypeReference<Map<String, Object>> MAPA = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final TokenProperties properties;
+    private final Map<String, byte[]> claves = new LinkedHashMap<>();
+    private final String claveActiva;
+
+    public TokenService(ObjectMapper objectMapper, TokenProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+
+        properties.getKeys().forEach((kid, valor) -> {
+            if (valor == null || valor.isBlank()) {
+                return; // por ejemplo ${TOKEN_KEY_K1:} sin la variable definida
+            }
+            byte[] clave = Base64.getDecoder().decode(valor);
+            if (clave.length < 32) {
+                throw new IllegalStateException("La clave de token '" + kid + "' debe tener al menos 32 bytes");
+            }
+            claves.put(kid, clave);
+        });
+
+        if (claves.isEmpty()) {
+            if (properties.isEnforce() && !properties.isAllowRandomKey()) {
+                throw new IllegalStateException("Sin claves en libreria.security.token.keys (variable TOKEN_KEY_K1):"
+                        + " configure al menos una o, solo en desarrollo, allow-random-key=true");
+            }
+            // Sin claves configuradas: se genera una para este proceso. Sirve en
+            // desarrollo, pero con varias instancias cada una rechazaría los
+            // tokens de las otras.
+            log.warn("⚠️ Sin claves en libreria.security.token.keys: se usa una clave aleatoria temporal");
+            byte[] clave = new byte[32];
+            new SecureRandom().nextBytes(clave);
+            claves.put("local", clave);
+            this.claveActiva = "local";
+        } else {
+            this.claveActiva = properties.getActiveKey() != null && !properties.getActiveKey().isBlank()
+                    ? properties.getActiveKey()
+                    : claves.keySet().iterator().next();
+            if (!claves.containsKey(claveActiva)) {
+                throw new IllegalStateException("active-key '" + claveActiva + "' no está en libreria.security.token.keys");
+            }
+        }
+    }
+
+    /**
+     * Emite un token para el usuario autenticado.
+     */
+    public String issue(User usuario) {
+        long ahora = Instant.now().getEpochSecond();
+
+        Map<String, Object> cabecera = new LinkedHashMap<>();
+        cabecera.put("alg", "HS256");
+        cabecera.put("typ", "JWT");
+        cabecera.put("kid", claveActiva);
+
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("sub", String.valueOf(usuario.getId()));
+        datos.put("email", usuario.getEmail());
+        datos.put("rol", usuario.getRol());
+        datos.put("iat", ahora);
+        datos.put("exp", ahora + properties.getTtl().getSeconds());
+
+        String contenido = codificar(cabecera) + "." + codificar(datos);
+        return contenido + "." + B64.encodeToString(firmar(claves.get(claveActiva), contenido));
+    }
+
+    /**
+     * Segundos de validez de los tokens emitidos.
+     */
+    public long getTtlSeconds() {
+        return properties.getTtl().getSeconds();
+    }
+
+    /**
+     * Verifica firma y expiración. Retorna vacío si el token no es válido.
+     */
+    public Optional<AuthenticatedUser> verify(String token) {
+        try {
+            String[] partes = token.split("\\.");
+            if (partes.length != 3) {
+                return Optional.empty();
+            }
+            Map<String, Object> cabecera = decodificar(partes[0]);
+            byte[] clave = claves.get(String.valueOf(cabecera.get("kid")));
+            if (clave == null || !"HS256".equals(cabecera.get("alg"))) {
+                return Optional.empty();
+            }
+
+            byte[] esperada = firmar(clave, partes[0] + "." + partes[1]);
+            if (!MessageDigest.isEqual(esperada, B64_DECODER.decode(partes[2]))) {
+                return Optional.empty();
+            }
+
+            Map<String, Object> datos = decodificar(partes[1]);
+            long exp = ((Number) datos.get("exp")).longValue();
+            if (Instant.now().getEpochSecond() >= exp) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(Long.valueOf((String) datos.get("sub")),
+                    (String) datos.get("email"), (String) datos.get("rol")));
+        } catch (RuntimeException | IOException ex) {
+            log.debug("Token inválido: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // ============================================================
+    // Métodos de apoyo interno
+    // ============================================================
+
+    private String codificar(Map<String, Object> valor) {
+        try {
+            return B64.encodeToString(objectMapper.writer()
+                    .without(SerializationFeature.INDENT_OUTPUT)
+                    .writeValueAsBytes(valor));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo generar el token", ex);
+        }
+    }
+
+    private Map<String, Object> decodificar(String parte) throws IOException {
+        return objectMapper.readValue(B64_DECODER.decode(parte), MAPA);
+    }
+
+    private static byte[] firmar(byte[] clave, String contenido) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(new SecretKeySpec(clave, ALGORITMO));
+            return mac.doFinal(contenido.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITMO + " no disponible", ex);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.fullstack.libreria.stats.controller;
+
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fullstack.libreria.cache.SecondLevelCacheStats;
+import com.fullstack.libreria.stats.model.CatalogStats;
+import com.fullstack.libreria.stats.service.StatsService;
+
+/**
+ * Clase StatsController
+ * ---------------------
+ * Estadísticas para el dashboard (ADMIN y BIBLIOTECARIO).
+ */
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final StatsService service;
+    private final SecondLevelCacheStats cacheStats;
+
+    public StatsController(StatsService service, SecondLevelCacheStats cacheStats) {
+        this.service = service;
+        this.cacheStats = cacheStats;
+    }
+
+    /**
+     * GET /api/stats
+     * ----------------
+     * Libros por género, autor y década, y usuarios por rol. Se responde
+     * desde memoria, sin consultar la BD.
+     */
+    @GetMapping
+    public CatalogStats obtener() {
+        return service.snapshot();
+    }
+
+    /**
+     * GET /api/stats/cache
+     * ----------------------
+     * Caché de segundo nivel de Hibernate por región: entradas, aciertos,
+     * fallos y escrituras.
+     */
+    @GetMapping("/cache")
+    public Map<String, Map<String, Object>> cache() {
+        return cacheStats.porRegion();
+    }
+}
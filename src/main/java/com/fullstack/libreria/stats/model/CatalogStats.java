@@ -0,0 +1,39 @@
+package com.fullstack.libreria.stats.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Clase CatalogStats
+ * ------------------
+ * Respuesta de GET /api/stats: conteos del catálogo y de usuarios.
+ *
+ * Ejemplo:
+ * {
+ *   "totalBooks": 120,
+ *   "booksByGenre": { "Ficción": 80, "Historia": 40 },
+ *   "booksByAuthor": { ... },
+ *   "booksByDecade": { "1960s": 12, "2000s": 108 },
+ *   "totalUsers": 15,
+ *   "usersByRol": { "ADMIN": 1, "CLIENTE": 14 },
+ *   "reconciledAt": "2025-06-10T15:00:00Z"
+ * }
+ *
+ * reconciledAt indica la última vez que los contadores se compararon con
+ * la BD (entre medio se actualizan con cada alta, cambio o baja).
+ */
+@Data
+@AllArgsConstructor
+public class CatalogStats {
+
+    private long totalBooks;
+    private Map<String, Long> booksByGenre;
+    private Map<String, Long> booksByAuthor;
+    private Map<String, Long> booksByDecade;
+    private long totalUsers;
+    private Map<String, Long> usersByRol;
+    private Instant reconciledAt;
+}
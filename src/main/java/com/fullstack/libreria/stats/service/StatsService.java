@@ -0,0 +1,239 @@
+package com.fullstack.libreria.stats.service;
+
+import java.time.Instant;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.repository.BookRepository;
+import com.fullstack.libreria.stats.model.CatalogStats;
+import com.fullstack.libreria.user.repository.UserRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clase StatsService
+ * ------------------
+ * Conteos del catálogo (libros por género, autor y década de publicación)
+ * y de usuarios por rol, mantenidos en memoria.
+ *
+ * - BookService y UserService avisan cada alta, cambio o baja, y los
+ *   contadores se ajustan en +1/-1 una vez confirmada la transacción.
+ * - Cada cierto tiempo (libreria.stats.reconcile-interval) se recalculan
+ *   con consultas GROUP BY, lo que corrige cualquier diferencia (por
+ *   ejemplo, cambios hechos por otra instancia o directamente en la BD).
+ *
+ * Consultar las estadísticas no toca la BD: el costo no depende del
+ * tamaño de las tablas.
+ */
+@Slf4j
+@Service
+public class StatsService {
+
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+
+    // Se reemplaza completo en cada reconciliación
+    private volatile Contadores contadores = new Contadores();
+
+    public StatsService(BookRepository bookRepository, UserRepository userRepository) {
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+    }
+
+    // ============================================================
+    // Actualización incremental
+    // ============================================================
+
+    /**
+     * Registra el cambio de un libro: antes = null para un alta, despues =
+     * null para una baja.
+     */
+    public void libroCambiado(Book antes, Book despues) {
+        alConfirmar(() -> {
+            Contadores c = contadores;
+            if (antes != null) {
+                c.sumarLibro(antes, -1);
+            }
+            if (despues != null) {
+                c.sumarLibro(despues, 1);
+            }
+        });
+    }
+
+    /**
+     * Registra la baja de varios libros con el mismo género, autor y año.
+     */
+    public void librosEliminados(String genero, String autor, Year publicacion, long cantidad) {
+        if (cantidad > 0) {
+            alConfirmar(() -> contadores.sumarLibros(genero, autor, publicacion, -cantidad));
+        }
+    }
+
+    /**
+     * Registra el cambio de rol de un usuario: rolAntes = null para un
+     * alta, rolDespues = null para una baja.
+     */
+    public void usuarioCambiado(String rolAntes, String rolDespues) {
+        if (Objects.equals(rolAntes, rolDespues)) {
+            return;
+        }
+        alConfirmar(() -> {
+            Contadores c = contadores;
+            if (rolAntes != null) {
+                c.sumarUsuarios(rolAntes, -1);
+            }
+            if (rolDespues != null) {
+                c.sumarUsuarios(rolDespues, 1);
+            }
+        });
+    }
+
+    /**
+     * Registra la baja de varios usuarios de un mismo rol.
+     */
+    public void usuariosEliminados(String rol, long cantidad) {
+        if (cantidad > 0) {
+            alConfirmar(() -> contadores.sumarUsuarios(rol, -cantidad));
+        }
+    }
+
+    // ============================================================
+    // Consulta y reconciliación
+    // ============================================================
+
+    /**
+     * Copia de los contadores actuales (ordenados por clave).
+     */
+    public CatalogStats snapshot() {
+        Contadores c = contadores;
+        return new CatalogStats(
+                c.totalLibros.get(),
+                new TreeMap<>(c.librosPorGenero),
+                new TreeMap<>(c.librosPorAutor),
+                new TreeMap<>(c.librosPorDecada),
+                c.totalUsuarios.get(),
+                new TreeMap<>(c.usuariosPorRol),
+                c.reconciliadoEn);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reconciliar();
+    }
+
+    /**
+     * Recalcula todos los contadores con consultas GROUP BY y reemplaza los
+     * que están en memoria.
+     */
+    @Scheduled(initialDelayString = "${libreria.stats.reconcile-interval:5m}",
+            fixedDelayString = "${libreria.stats.reconcile-interval:5m}")
+    public void reconciliar() {
+        long inicio = System.currentTimeMillis();
+        Contadores nuevos = new Contadores();
+        cargar(bookRepository.countByGenre(), nuevos.librosPorGenero);
+        cargar(bookRepository.countByAuthor(), nuevos.librosPorAutor);
+        for (Object[] fila : bookRepository.countByPublication()) {
+            if (fila[0] != null) {
+                nuevos.librosPorDecada.merge(decada((Year) fila[0]), (Long) fila[1], Long::sum);
+            }
+        }
+        nuevos.totalLibros.set(nuevos.librosPorGenero.values().stream().mapToLong(Long::longValue).sum());
+        cargar(userRepository.countByRol(), nuevos.usuariosPorRol);
+        nuevos.totalUsuarios.set(nuevos.usuariosPorRol.values().stream().mapToLong(Long::longValue).sum());
+        nuevos.reconciliadoEn = Instant.now();
+
+        Contadores anteriores = contadores;
+        contadores = nuevos;
+
+        if (anteriores.reconciliadoEn != null
+                && (anteriores.totalLibros.get() != nuevos.totalLibros.get()
+                        || anteriores.totalUsuarios.get() != nuevos.totalUsuarios.get())) {
+            log.info("📊 Estadísticas corregidas en la reconciliación: libros {} → {}, usuarios {} → {}",
+                    anteriores.totalLibros.get(), nuevos.totalLibros.get(),
+                    anteriores.totalUsuarios.get(), nuevos.totalUsuarios.get());
+        }
+        log.debug("📊 Estadísticas reconciliadas en {} ms", System.currentTimeMillis() - inicio);
+    }
+
+    private static void cargar(List<Object[]> filas, Map<String, Long> destino) {
+        for (Object[] fila : filas) {
+            if (fila[0] != null) {
+                destino.put(String.valueOf(fila[0]), (Long) fila[1]);
+            }
+        }
+    }
+
+    static String decada(Year anio) {
+        return (Math.floorDiv(anio.getValue(), 10) * 10) + "s";
+    }
+
+    // Aplica el cambio cuando la transacción actual se confirma (o de
+    // inmediato si no hay transacción)
+    private static void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    /**
+     * Contadores en memoria. Cada clave se actualiza de forma atómica y se
+     * elimina al llegar a cero.
+     */
+    private static final class Contadores {
+        final Map<String, Long> librosPorGenero = new ConcurrentHashMap<>();
+        final Map<String, Long> librosPorAutor = new ConcurrentHashMap<>();
+        final Map<String, Long> librosPorDecada = new ConcurrentHashMap<>();
+        final Map<String, Long> usuariosPorRol = new ConcurrentHashMap<>();
+        final AtomicLong totalLibros = new AtomicLong();
+        final AtomicLong totalUsuarios = new AtomicLong();
+        volatile Instant reconciliadoEn;
+
+        void sumarLibro(Book libro, long delta) {
+            sumarLibros(libro.getGenre(), libro.getAuthor(), libro.getPublication(), delta);
+        }
+
+        void sumarLibros(String genero, String autor, Year publicacion, long delta) {
+            sumar(librosPorGenero, genero, delta);
+            sumar(librosPorAutor, autor, delta);
+            if (publicacion != null) {
+                sumar(librosPorDecada, decada(publicacion), delta);
+            }
+            totalLibros.addAndGet(delta);
+        }
+
+        void sumarUsuarios(String rol, long delta) {
+            sumar(usuariosPorRol, rol, delta);
+            totalUsuarios.addAndGet(delta);
+        }
+
+        private static void sumar(Map<String, Long> mapa, String clave, long delta) {
+            if (clave == null) {
+                return;
+            }
+            mapa.compute(clave, (k, actual) -> {
+                long nuevo = (actual != null ? actual : 0L) + delta;
+                return nuevo > 0 ? nuevo : null;
+            });
+        }
+    }
+}
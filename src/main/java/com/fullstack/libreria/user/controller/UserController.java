@@ -3,19 +3,33 @@ package com.fullstack.libreria.user.controller;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fullstack.libreria.exception.ResourceNotFoundException;
+import com.fullstack.libreria.security.AuthenticatedUser;
+import com.fullstack.libreria.security.TokenService;
 import com.fullstack.libreria.user.model.LoginRequest;
+import com.fullstack.libreria.user.model.LoginResponse;
 import com.fullstack.libreria.user.model.User;
-import com.fullstack.libreria.user.repository.UserRepository;
+import com.fullstack.libreria.user.model.UserBulkDeleteRequest;
 import com.fullstack.libreria.user.service.UserService;
+import com.fullstack.libreria.web.ETags;
+import com.fullstack.libreria.web.FieldSelection;
+import com.fullstack.libreria.web.MergePatch;
+import com.fullstack.libreria.web.RowVersion;
 
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ===============================================================
@@ -35,27 +49,43 @@ import java.util.UUID;
 public class UserController {
 
     private final UserService service;
-    private final PasswordEncoder passwordEncoder;
-    private final UserRepository repository;
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService service, PasswordEncoder passwordEncoder, UserRepository repository) {
+    public UserController(UserService service, TokenService tokenService, ObjectMapper objectMapper) {
         this.service = service;
-        this.passwordEncoder = passwordEncoder;
-        this.repository = repository;
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
     }
 
     //API uso administrativo
 
+    // Proyección sin contraseña; ?fields=id,email elige las columnas
     @GetMapping
-    public ResponseEntity<List<User>> listar() {
+    public ResponseEntity<List<?>> listar(@RequestParam(required = false) String fields) {
         log.info("👥 [GET] Listar usuarios");
-        return ResponseEntity.ok(service.listar());
+        return ResponseEntity.ok(service.listar(FieldSelection.parse(fields, UserService.CAMPOS_LISTADO)));
     }
 
+    // GET condicional: 304 sin cargar el usuario si el cliente tiene la versión actual.
+    // Sin If-None-Match / If-Modified-Since el ETag sale del usuario cargado
     @GetMapping("/id/{id}")
-    public ResponseEntity<User> obtener(@PathVariable Long id) {
+    public ResponseEntity<User> obtener(@PathVariable Long id, WebRequest request) {
         log.info("🔍 [GET] Obtener ID usuario: {}", id);
-        return ResponseEntity.ok(service.buscarPorId(id));
+        if (ETags.esCondicional(request)) {
+            Optional<RowVersion> version = service.buscarVersion(id);
+            if (version.isPresent() && noModificado(request, id, version.get())) {
+                return null; // 304 Not Modified
+            }
+        }
+        User usuario = service.buscarPorId(id);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ETags.of(id, usuario.getVersion()));
+        if (usuario.getUpdatedAt() != null) {
+            respuesta.lastModified(usuario.getUpdatedAt());
+        }
+        return respuesta.body(usuario);
     }
 
     @PostMapping
@@ -65,11 +95,26 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(creado);
     }
 
+    // Versión esperada: If-Match o campo "version" del cuerpo (409 si cambió)
     @PutMapping("/id/{id}")
     public ResponseEntity<User> actualizar(@PathVariable Long id,
-            @Valid @RequestBody User user) {
+            @Valid @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("✏️ [PUT] Actualizar usuario ID: {}", id);
-        return ResponseEntity.ok(service.actualizar(id, user));
+        User actualizado = service.actualizar(id, user, versionEsperada(ifMatch, id, user));
+        return ResponseEntity.ok().eTag(ETags.of(id, actualizado.getVersion())).body(actualizado);
+    }
+
+    // JSON Merge Patch: un solo UPDATE con los campos enviados (204 + nuevo ETag)
+    @PatchMapping(value = "/id/{id}", consumes = MergePatch.MEDIA_TYPE)
+    public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody JsonNode documento,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("🩹 [PATCH] Modificar usuario ID: {}", id);
+        long versionEsperada = MergePatch.versionEsperada(ifMatch, id, documento);
+        Map<String, Object> cambios = MergePatch.leer(documento, UserService.CAMPOS_EDITABLES,
+                UserService.CAMPOS_OPCIONALES, objectMapper);
+        long nuevaVersion = service.patch(id, cambios, versionEsperada);
+        return ResponseEntity.noContent().eTag(ETags.of(id, nuevaVersion)).build();
     }
 
     @DeleteMapping("/id/{id}")
@@ -79,6 +124,14 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    // Borrado masivo por lista de IDs o por rol, en una transacción
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<Map<String, Object>> eliminarVarios(@RequestBody UserBulkDeleteRequest request) {
+        log.info("🗑️ [POST] Borrado masivo de usuarios (ids: {}, rol: {})",
+                request.getIds() != null ? request.getIds().size() : 0, request.getRol());
+        return ResponseEntity.ok(Map.of("deleted", service.eliminarVarios(request.getIds(), request.getRol())));
+    }
+
     //API adicionales
 
     @GetMapping("/email/{email}")
@@ -88,9 +141,10 @@ public class UserController {
     }
 
     @GetMapping("/rol/{rol}")
-    public ResponseEntity<List<User>> listarPorRol(@PathVariable String rol) {
+    public ResponseEntity<List<?>> listarPorRol(@PathVariable String rol,
+            @RequestParam(required = false) String fields) {
         log.info("🎯 [GET] Usuarios por rol: {}", rol);
-        List<User> usuarios = service.listarPorRol(rol);
+        List<?> usuarios = service.listarPorRol(rol, FieldSelection.parse(fields, UserService.CAMPOS_LISTADO));
         if (usuarios.isEmpty()) {
             return ResponseEntity.noContent().build(); // 204 No Content
         }
@@ -106,38 +160,62 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(creado);
     }
 
+    // La verificación BCrypt corre en el pool de login; el hilo de Tomcat
+    // queda libre mientras tanto (respuesta asíncrona).
+    // Retorna un token firmado para autenticar las siguientes peticiones.
     @PostMapping("/login")
-    public ResponseEntity<User> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@RequestBody LoginRequest request) {
         log.info("🔐 [POST] Login para email: {}", request.getEmail());
-        User user = service.login(request.getEmail(), request.getPassword());
-        return ResponseEntity.ok(user);
+        return service.loginAsync(request.getEmail(), request.getPassword())
+                .thenApply(user -> ResponseEntity.ok(new LoginResponse(
+                        tokenService.issue(user), "Bearer", tokenService.getTtlSeconds(), user)));
+    }
+
+    // Datos del usuario según su token (sin consultar la BD)
+    @GetMapping("/me")
+    public ResponseEntity<AuthenticatedUser> me(@AuthenticationPrincipal AuthenticatedUser usuario) {
+        return ResponseEntity.ok(usuario);
+    }
+
+    // Verificación del formulario de registro: casi siempre sin consultar la BD
+    @GetMapping("/email-available")
+    public ResponseEntity<Map<String, Object>> emailDisponible(@RequestParam String email) {
+        return ResponseEntity.ok(Map.of("email", email, "available", service.emailDisponible(email)));
     }
 
+    // Solo ADMIN (SecurityConfig): la contraseña temporal se entrega al usuario por otra vía
     @GetMapping("/recover/{email}")
     public ResponseEntity<String> recuperarPorEmail(@PathVariable String email) {
         log.info("📧 [GET] Recuperar usuario por email: {}", email);
         try {
-            User user = service.buscarPorEmail(email);
-
-            // Generar contraseña temporal (8 caracteres aleatorios)
-            String tempPassword = UUID.randomUUID().toString().substring(0, 8);
-
-            // Guardar hash de la contraseña temporal
-            user.setPassword(passwordEncoder.encode(tempPassword));
-            repository.save(user);
-
-            // Retornar la contraseña temporal para mostrar en Angular
-            return ResponseEntity.ok(tempPassword);
-
+            // Contraseña temporal para que el ADMIN se la entregue al usuario
+            return ResponseEntity.ok(service.recuperarContrasena(email));
         } catch (ResourceNotFoundException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
         }
     }
 
+    // El rol del cuerpo solo se aplica si quien llama es ADMIN
     @PutMapping("/profile/{id}")
-    public ResponseEntity<User> actualizarPerfil(@PathVariable Long id, @RequestBody User user) {
+    public ResponseEntity<User> actualizarPerfil(@PathVariable Long id, @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser usuario) {
         log.info("👤 [PUT] Actualizar perfil de usuario ID: {}", id);
-        return ResponseEntity.ok(service.actualizarPerfil(id, user));
+        boolean esAdmin = usuario != null && "ADMIN".equals(usuario.rol());
+        User actualizado = service.actualizarPerfil(id, user, versionEsperada(ifMatch, id, user), esAdmin);
+        return ResponseEntity.ok().eTag(ETags.of(id, actualizado.getVersion())).body(actualizado);
+    }
+
+    // PATCH del propio perfil: solo nombre y teléfono
+    @PatchMapping(value = "/profile/{id}", consumes = MergePatch.MEDIA_TYPE)
+    public ResponseEntity<Void> patchPerfil(@PathVariable Long id, @RequestBody JsonNode documento,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("🩹 [PATCH] Modificar perfil de usuario ID: {}", id);
+        long versionEsperada = MergePatch.versionEsperada(ifMatch, id, documento);
+        Map<String, Object> cambios = MergePatch.leer(documento, UserService.CAMPOS_PERFIL,
+                UserService.CAMPOS_OPCIONALES, objectMapper);
+        long nuevaVersion = service.patch(id, cambios, versionEsperada);
+        return ResponseEntity.noContent().eTag(ETags.of(id, nuevaVersion)).build();
     }
 
     @DeleteMapping("/delete/{id}")
@@ -146,4 +224,15 @@ public class UserController {
         service.eliminar(id);
         return ResponseEntity.noContent().build();
     }
+
+    // If-Match tiene prioridad; si no viene se usa la versión del cuerpo
+    private static Long versionEsperada(String ifMatch, Long id, User user) {
+        return ifMatch != null ? ETags.parseIfMatch(ifMatch, id) : user.getVersion();
+    }
+
+    // Compara If-None-Match / If-Modified-Since con la versión actual
+    private static boolean noModificado(WebRequest request, Long id, RowVersion version) {
+        long modificado = version.getUpdatedAt() != null ? version.getUpdatedAt().toEpochMilli() : -1;
+        return request.checkNotModified(ETags.of(id, version.getVersion()), modificado);
+    }
 }
@@ -0,0 +1,29 @@
+package com.fullstack.libreria.user.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: LoginResponse
+ * ---------------------------------------------------------------
+ * Respuesta del login: el token firmado que el FrontEnd debe enviar en
+ * cada petición ("Authorization: Bearer <token>") y los datos del usuario.
+ *
+ * {
+ *   "token": "eyJhbGciOi...",
+ *   "tokenType": "Bearer",
+ *   "expiresIn": 3600,
+ *   "user": { ... }
+ * }
+ * ===============================================================
+ */
+@Data
+@AllArgsConstructor
+public class LoginResponse {
+
+    private String token;
+    private String tokenType;
+    private long expiresIn;
+    private User user;
+}
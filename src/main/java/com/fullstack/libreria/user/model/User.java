@@ -1,17 +1,35 @@
 package com.fullstack.libreria.user.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.*; // JPA: mapeo objeto–relacional
 import jakarta.validation.constraints.*; // Semana 2 → Bean Validation
 import lombok.Data; // Lombok: getters/setters/toString
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
 
 @Data
 @Entity
+@DynamicUpdate // Los UPDATE solo incluyen las columnas que cambiaron
+@Cacheable // Caché de segundo nivel de Hibernate (región "user", ver SecondLevelCacheConfig)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Table(name = "USERL", uniqueConstraints = {
-        @UniqueConstraint(name = "UK_USERC_EMAIL", columnNames = "EMAIL")
+        @UniqueConstraint(name = User.UK_EMAIL, columnNames = "EMAIL"),
+        @UniqueConstraint(name = User.UK_EMAIL_KEY, columnNames = "EMAIL_KEY")
 })
 public class User {
 
+    // Restricciones únicas del email (una violación de cualquiera de las dos → 409)
+    public static final String UK_EMAIL = "UK_USERC_EMAIL";
+    public static final String UK_EMAIL_KEY = "UK_USERL_EMAIL_KEY";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,6 +39,8 @@ public class User {
     @Column(nullable = false, length = 100)
     private String fullName;
 
+    // Solo se recibe: el hash nunca se incluye en las respuestas
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @NotBlank(message = "La contraseña es obligatoria")
     @Size(min = 6, max = 100, message = "La contraseña debe tener al menos 6 caracteres")
     @Column(nullable = false, length = 200)
@@ -29,9 +49,16 @@ public class User {
 
     @NotBlank(message = "El email es obligatorio")
     @Email(message = "El email no tiene un formato válido")
-    @Column(nullable = false, length = 120, unique = true)
+    // Único por UK_USERC_EMAIL (con nombre, para reconocer la violación y responder 409)
+    @Column(nullable = false, length = 120)
     private String email;
 
+    // Email en minúsculas: la búsqueda y la unicidad no distinguen mayúsculas
+    // (índice único UK_USERL_EMAIL_KEY). Se calcula al guardar.
+    @JsonIgnore
+    @Column(name = "EMAIL_KEY", length = 120)
+    private String emailKey;
+
     @Pattern(regexp = "^$|^[0-9]{9,15}$", message = "El teléfono debe contener entre 9 y 15 dígitos")
     @Column(length = 20)
     private String phone;
@@ -43,4 +70,25 @@ public class User {
     @Pattern(regexp = "ADMIN|BIBLIOTECARIO|CLIENTE", message = "Rol inválido. Solo se permite ADMIN, BIBLIOTECARIO o USUARIO")
     @Column(nullable = false, length = 20)
     private String rol;
+
+    // Última modificación: origen del ETag/Last-Modified de GET /api/users/id/{id}
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "UPDATED_AT")
+    private Instant updatedAt;
+
+    // Bloqueo optimista: un UPDATE con versión desactualizada responde 409
+    @Version
+    @Column(name = "VERSION")
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void antesDeGuardar() {
+        this.emailKey = normalizarEmail(email);
+        this.updatedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    public static String normalizarEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
 }
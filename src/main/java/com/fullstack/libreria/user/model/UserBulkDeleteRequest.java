@@ -0,0 +1,23 @@
+package com.fullstack.libreria.user.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: UserBulkDeleteRequest
+ * ---------------------------------------------------------------
+ * Cuerpo de POST /api/users/bulk-delete: una lista de IDs o un rol
+ * (no ambos).
+ *
+ * { "ids": [10, 11] }
+ * { "rol": "CLIENTE" }
+ * ===============================================================
+ */
+@Data
+public class UserBulkDeleteRequest {
+
+    private List<Long> ids;
+    private String rol;
+}
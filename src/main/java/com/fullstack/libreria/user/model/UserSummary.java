@@ -0,0 +1,21 @@
+package com.fullstack.libreria.user.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Clase UserSummary
+ * -----------------
+ * Fila de los listados de usuarios (GET /api/users y /api/users/rol/{rol}).
+ * Se obtiene con una proyección JPQL: solo estas columnas viajan desde la
+ * BD y nunca incluye la contraseña.
+ */
+@Data
+@AllArgsConstructor
+public class UserSummary {
+
+    private Long id;
+    private String fullName;
+    private String email;
+    private String rol;
+}
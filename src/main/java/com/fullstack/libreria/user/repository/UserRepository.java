@@ -1,23 +1,184 @@
 package com.fullstack.libreria.user.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fullstack.libreria.user.model.User;
+import com.fullstack.libreria.user.model.UserSummary;
+import com.fullstack.libreria.web.RowVersion;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Las consultas corren en transacciones de solo lectura (y van a la réplica
+ * de lectura si está activa), salvo las de login y unicidad del email, que
+ * siempre leen la BD principal.
+ */
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
-     * Busca un usuario por email (debe ser único).
+     * Busca un usuario por email normalizado (User.normalizarEmail), con el
+     * índice único de EMAIL_KEY. En caché de consultas (región
+     * "user-queries") hasta la próxima escritura en USERL.
+     *
+     * Sin transacción propia (→ BD principal): el login no puede fallar por
+     * una réplica atrasada que aún no tiene el registro o la nueva
+     * contraseña.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-queries")
+    })
+    Optional<User> findByEmailKey(String emailKey);
+
+    /**
+     * ¿Existe un usuario con ese email normalizado? Contra la BD principal,
+     * como findByEmailKey.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    boolean existsByEmailKey(String emailKey);
+
+    /**
+     * Todos los emails normalizados (para cargar el filtro de emails).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.emailKey from User u where u.emailKey is not null")
+    Stream<String> streamEmailKeys();
+
+    /**
+     * Email normalizado para usuarios creados antes de la columna EMAIL_KEY.
      */
-    Optional<User> findByEmail(String email);
+    @Transactional
+    @Modifying
+    @Query("update User u set u.emailKey = lower(trim(u.email)) where u.emailKey is null")
+    int backfillEmailKeys();
 
     /**
-     * Lista usuarios por rol (ADMIN o TECNICO).
+     * Lista usuarios por rol (ADMIN o TECNICO). En caché de consultas.
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-queries")
+    })
     List<User> findByRol(String rol);
+
+    /**
+     * Listado de usuarios: solo las columnas de UserSummary (sin contraseña).
+     * En caché de consultas (GET /api/users).
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-queries")
+    })
+    @Query("select new com.fullstack.libreria.user.model.UserSummary(u.id, u.fullName, u.email, u.rol)"
+            + " from User u order by u.id")
+    List<UserSummary> findAllSummaries();
+
+    /**
+     * Listado de usuarios de un rol: solo las columnas de UserSummary.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-queries")
+    })
+    @Query("select new com.fullstack.libreria.user.model.UserSummary(u.id, u.fullName, u.email, u.rol)"
+            + " from User u where u.rol = :rol order by u.id")
+    List<UserSummary> findSummariesByRol(String rol);
+
+    /**
+     * Solo versión y fecha de modificación (para responder 304 o validar
+     * If-Match sin cargar el usuario).
+     */
+    @Query("select new com.fullstack.libreria.web.RowVersion(u.version, u.updatedAt) from User u where u.id = :id")
+    Optional<RowVersion> findRowVersionById(Long id);
+
+    /**
+     * Fecha de modificación para usuarios creados antes de la columna UPDATED_AT.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.updatedAt = :ahora where u.updatedAt is null")
+    int backfillUpdatedAt(Instant ahora);
+
+    /**
+     * Elimina un usuario con un solo DELETE (deleteById lo carga antes).
+     *
+     * @return filas eliminadas (0 si no existía)
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteRow(Long id);
+
+    /**
+     * Elimina varios usuarios por ID en un solo DELETE (máx. 1000 IDs).
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id in :ids")
+    int deleteRows(Collection<Long> ids);
+
+    /**
+     * De una lista de IDs (máx. 1000), los que existen, bloqueados (SELECT
+     * ... FOR UPDATE) antes de borrarlos: otra transacción no puede borrarlos
+     * en paralelo y registrar también su evento DELETED.
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIdsForUpdate(Collection<Long> ids);
+
+    /**
+     * IDs de los usuarios de un rol, bloqueados antes de un borrado masivo
+     * por rol: se borran por ID, así que uno creado después no se toca.
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u.id from User u where u.rol = :rol")
+    List<Long> findIdsByRolForUpdate(String rol);
+
+    /**
+     * Solo el rol de un usuario (para mantener las estadísticas por rol).
+     */
+    @Query("select u.rol from User u where u.id = :id")
+    Optional<String> findRolById(Long id);
+
+    /**
+     * Cantidad de usuarios por rol (reconciliación de estadísticas).
+     */
+    @Query("select u.rol, count(u) from User u group by u.rol")
+    List<Object[]> countByRol();
+
+    /**
+     * Cantidad de usuarios por rol dentro de una lista de IDs (antes de un
+     * borrado masivo).
+     */
+    @Query("select u.rol, count(u) from User u where u.id in :ids group by u.rol")
+    List<Object[]> countByRolForIds(Collection<Long> ids);
+
+    /**
+     * Versión inicial (0) para usuarios creados antes de la columna VERSION.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.version = 0 where u.version is null")
+    int backfillVersions();
 }
@@ -0,0 +1,187 @@
+package com.fullstack.libreria.user.service;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fullstack.libreria.cache.CacheInvalidationChannel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: EmailBloomFilter
+ * ---------------------------------------------------------------
+ * Filtro de Bloom con los emails registrados (normalizados).
+ *
+ * Responde "seguro que no existe" o "puede existir":
+ * - Si no existe (el caso normal al registrarse con un email nuevo), la
+ *   verificación de disponibilidad no consulta la BD.
+ * - Si puede existir, se confirma en la BD (falsos positivos ≈ fpp).
+ *
+ * Las altas se agregan al momento. Las bajas y los cambios de email no
+ * se pueden quitar de un filtro de Bloom (solo suben los falsos
+ * positivos). Las altas hechas por otra instancia no están en el filtro
+ * hasta la próxima reconstrucción (libreria.users.email-filter.rebuild-interval):
+ * por eso, desde que llega un aviso de cambios en USERL de otra réplica
+ * (CacheInvalidationChannel) hasta esa reconstrucción, todo "puede
+ * existir" y se confirma en la BD. La unicidad la sigue garantizando la
+ * restricción UK_USERL_EMAIL_KEY.
+ *
+ * Sin bloqueos: los bits viven en un AtomicLongArray.
+ * ===============================================================
+ */
+@Slf4j
+@Component
+public class EmailBloomFilter {
+
+    private final long bitsEsperados;
+    private final int funciones;
+
+    private final Counter ausentes;
+    private final Counter posibles;
+
+    // null hasta la primera carga: mientras tanto todo "puede existir"
+    private volatile Bits actual;
+    // Filtro que se está reconstruyendo (recibe también las altas nuevas)
+    private volatile Bits enConstruccion;
+
+    // Avisos de cambios en USERL hechos por otras réplicas, y cuántos de
+    // ellos ya cubre el filtro actual (los anteriores a su reconstrucción)
+    private final AtomicLong avisosRemotos = new AtomicLong();
+    private volatile long avisosCubiertos;
+
+    public EmailBloomFilter(MeterRegistry registry, CacheInvalidationChannel invalidationChannel,
+            @Value("${libreria.users.email-filter.expected-insertions:100000}") long esperados,
+            @Value("${libreria.users.email-filter.fpp:0.01}") double fpp) {
+        long n = Math.max(1, esperados);
+        this.bitsEsperados = Math.max(64, (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        this.funciones = Math.max(1, (int) Math.round((double) bitsEsperados / n * Math.log(2)));
+        this.ausentes = Counter.builder("libreria.users.email-filter")
+                .description("Verificaciones de email resueltas por el filtro (absent) o enviadas a la BD (maybe)")
+                .tag("result", "absent")
+                .register(registry);
+        this.posibles = Counter.builder("libreria.users.email-filter")
+                .description("Verificaciones de email resueltas por el filtro (absent) o enviadas a la BD (maybe)")
+                .tag("result", "maybe")
+                .register(registry);
+        invalidationChannel.subscribe(tablas -> {
+            if (tablas.stream().anyMatch("USERL"::equalsIgnoreCase)) {
+                avisosRemotos.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * false solo si el email seguro no está registrado (ni otra réplica
+     * pudo registrarlo después de la última reconstrucción).
+     */
+    public boolean puedeExistir(String emailKey) {
+        Bits bits = actual;
+        boolean puede = bits == null || emailKey == null || avisosRemotos.get() != avisosCubiertos
+                || bits.contiene(emailKey, funciones);
+        (puede ? posibles : ausentes).increment();
+        return puede;
+    }
+
+    public void agregar(String emailKey) {
+        if (emailKey == null) {
+            return;
+        }
+        Bits bits = actual;
+        if (bits != null) {
+            bits.agregar(emailKey, funciones);
+        }
+        Bits nuevo = enConstruccion;
+        if (nuevo != null) {
+            nuevo.agregar(emailKey, funciones);
+        }
+    }
+
+    /**
+     * Arma un filtro nuevo con todos los emails y reemplaza al actual.
+     */
+    public void reconstruir(Iterator<String> emailKeys) {
+        // Los avisos que lleguen durante la lectura quedan pendientes
+        long avisos = avisosRemotos.get();
+        Bits nuevo = new Bits(bitsEsperados);
+        enConstruccion = nuevo;
+        long total = 0;
+        try {
+            while (emailKeys.hasNext()) {
+                nuevo.agregar(emailKeys.next(), funciones);
+                total++;
+            }
+            actual = nuevo;
+            avisosCubiertos = avisos;
+        } finally {
+            enConstruccion = null;
+        }
+        log.info("📧 Filtro de emails cargado: {} emails ({} KB, {} funciones hash)", total,
+                bitsEsperados / 8 / 1024, funciones);
+    }
+
+    /**
+     * Arreglo de bits; posiciones por doble hash (h1 + i·h2) de un FNV-1a
+     * de 64 bits con la mezcla final de MurmurHash3.
+     */
+    private static final class Bits {
+        private final AtomicLongArray palabras;
+        private final long tamano;
+
+        Bits(long bits) {
+            this.palabras = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, (bits + 63) / 64));
+            this.tamano = (long) palabras.length() * 64;
+        }
+
+        void agregar(String clave, int funciones) {
+            long hash = hash(clave);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= funciones; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % tamano;
+                int palabra = (int) (bit >>> 6);
+                long mascara = 1L << bit;
+                long valor;
+                do {
+                    valor = palabras.get(palabra);
+                    if ((valor & mascara) != 0) {
+                        break;
+                    }
+                } while (!palabras.compareAndSet(palabra, valor, valor | mascara));
+            }
+        }
+
+        boolean contiene(String clave, int funciones) {
+            long hash = hash(clave);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= funciones; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % tamano;
+                if ((palabras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String clave) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < clave.length(); i++) {
+                h ^= clave.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
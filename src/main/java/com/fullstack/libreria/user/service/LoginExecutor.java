@@ -0,0 +1,81 @@
+package com.fullstack.libreria.user.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fullstack.libreria.exception.TooManyRequestsException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ===============================================================
+ * 📘 Clase: LoginExecutor
+ * ---------------------------------------------------------------
+ * Pool de hilos dedicado a verificar contraseñas (BCrypt).
+ *
+ * BCrypt es intencionalmente lento (~80 ms por verificación con costo 10).
+ * Si se ejecutara en los hilos de Tomcat, una ráfaga de logins dejaría sin
+ * hilos al resto de la API (por ejemplo, /api/books).
+ *
+ * - Cantidad de hilos y tamaño de la cola acotados y configurables.
+ * - Si la cola está llena se rechaza el login con 429 (backpressure) en
+ *   lugar de acumular trabajo sin límite.
+ * ===============================================================
+ */
+@Slf4j
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public LoginExecutor(@Value("${libreria.login.threads:0}") int threads,
+            @Value("${libreria.login.queue-capacity:100}") int queueCapacity) {
+        // 0 = un hilo por núcleo (BCrypt es trabajo de CPU)
+        int hilos = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "login-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("🔐 Pool de login: {} hilos, cola de {}", hilos, queueCapacity);
+    }
+
+    /**
+     * Ejecuta la verificación en el pool de login.
+     *
+     * @throws TooManyRequestsException si el pool y su cola están llenos
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> tarea) {
+        try {
+            return CompletableFuture.supplyAsync(tarea, executor);
+        } catch (RejectedExecutionException ex) {
+            log.warn("⏳ [Login] Pool saturado ({} en cola), se rechaza el intento", executor.getQueue().size());
+            throw new TooManyRequestsException("Demasiados intentos de inicio de sesión, intente nuevamente", 1);
+        }
+    }
+
+    /**
+     * Pool subyacente (para exponer métricas de capacidad).
+     */
+    public ThreadPoolExecutor getThreadPool() {
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
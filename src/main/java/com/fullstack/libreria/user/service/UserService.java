@@ -1,18 +1,65 @@
 package com.fullstack.libreria.user.service;
 
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.model.ChangeEvent.Operation;
+import com.fullstack.libreria.events.service.ChangeEventService;
+import com.fullstack.libreria.exception.ConflictException;
 import com.fullstack.libreria.exception.ResourceNotFoundException;
+import com.fullstack.libreria.stats.service.StatsService;
 import com.fullstack.libreria.user.model.User;
+import com.fullstack.libreria.user.model.UserSummary;
 import com.fullstack.libreria.user.repository.UserRepository;
+import com.fullstack.libreria.web.FieldSelection;
+import com.fullstack.libreria.web.RowVersion;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * ===============================================================
@@ -31,24 +78,96 @@ import java.util.List;
 @Service
 public class UserService {
 
+    // Máximo de elementos en una lista IN de Oracle
+    private static final int MAX_IDS_POR_SENTENCIA = 1000;
+
+    // Rol de toda cuenta creada desde el registro público
+    private static final String ROL_REGISTRO = "CLIENTE";
+
+    // Campos que se pueden pedir con GET /api/users?fields=... (nunca la contraseña)
+    public static final Set<String> CAMPOS_LISTADO = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(
+            "id", "fullName", "email", "phone", "registerDate", "rol", "updatedAt", "version")));
+
+    // Campos que un ADMIN puede modificar con PATCH /api/users/id/{id}
+    public static final Map<String, Class<?>> CAMPOS_EDITABLES = Map.of(
+            "fullName", String.class,
+            "email", String.class,
+            "phone", String.class,
+            "registerDate", LocalDate.class,
+            "rol", String.class);
+
+    // Campos que el propio usuario puede modificar con PATCH /api/users/profile/{id}
+    public static final Map<String, Class<?>> CAMPOS_PERFIL = Map.of(
+            "fullName", String.class,
+            "phone", String.class);
+
+    // Campos que aceptan null en un PATCH
+    public static final Set<String> CAMPOS_OPCIONALES = Set.of("phone", "registerDate");
+
     @Autowired
     private BCryptPasswordEncoder encoder;
 
     private final UserRepository repository;
     private final PasswordEncoder passwordEncoder;
+    private final LoginExecutor loginExecutor;
+    private final Validator validator;
 
-    public UserService(UserRepository repository, PasswordEncoder passwordEncoder) {
+    // Conteo de usuarios por rol: se avisa cada alta, cambio de rol o baja
+    private final StatsService statsService;
+
+    // Emails registrados: verifica disponibilidad sin ir a la BD en el caso normal
+    private final EmailBloomFilter emailFilter;
+
+    // Outbox de cambios (GET /api/events): un evento por alta, cambio o baja
+    private final ChangeEventService changeEvents;
+
+    // Para los UPDATE parciales (PATCH)
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Credenciales verificadas recientemente: digest(email, contraseña) → hash
+    // BCrypt con el que se verificó. Evita repetir BCrypt en logins seguidos.
+    private final Cache<String, String> credencialesVerificadas;
+
+    // Clave aleatoria por proceso para el digest: la caché nunca guarda la
+    // contraseña, y el digest no sirve fuera de esta instancia
+    private final byte[] claveDigest = new byte[32];
+
+    public UserService(UserRepository repository, PasswordEncoder passwordEncoder, LoginExecutor loginExecutor,
+            Validator validator, StatsService statsService, EmailBloomFilter emailFilter,
+            ChangeEventService changeEvents,
+            @Value("${libreria.login.credential-cache.ttl:5m}") Duration ttlCredenciales,
+            @Value("${libreria.login.credential-cache.max-size:10000}") long maxCredenciales) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
+        this.loginExecutor = loginExecutor;
+        this.validator = validator;
+        this.statsService = statsService;
+        this.emailFilter = emailFilter;
+        this.changeEvents = changeEvents;
+        this.credencialesVerificadas = Caffeine.newBuilder()
+                .maximumSize(maxCredenciales)
+                .expireAfterWrite(ttlCredenciales)
+                .build();
+        new SecureRandom().nextBytes(claveDigest);
     }
 
     // ============================================================
     // 🔸 CRUD básico (con logs) — Semana 2
     // ============================================================
 
-    public List<User> listar() {
+    /**
+     * Listado de usuarios: sin "campos" se devuelve UserSummary; con
+     * "campos" (ya validados contra CAMPOS_LISTADO), un mapa por usuario
+     * con solo esas columnas.
+     */
+    @Transactional(readOnly = true)
+    public List<?> listar(List<String> campos) {
         log.info("👥 Listando todos los usuarios");
-        return repository.findAll();
+        if (campos.isEmpty()) {
+            return repository.findAllSummaries();
+        }
+        return seleccionar(campos, Map.of());
     }
 
     public User buscarPorId(Long id) {
@@ -57,20 +176,81 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + id));
     }
 
+    /**
+     * Versión y última modificación del usuario, sin cargarlo (para los GET
+     * condicionales y If-Match). Vacío si no existe.
+     */
+    public Optional<RowVersion> buscarVersion(Long id) {
+        return repository.findRowVersionById(id);
+    }
+
+    /**
+     * Completa UPDATED_AT en usuarios antiguos (se ejecuta al iniciar la app).
+     */
+    @Transactional
+    public int backfillUpdatedAt() {
+        return repository.backfillUpdatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Versión inicial en usuarios creados antes de la columna VERSION.
+     */
+    @Transactional
+    public int backfillVersions() {
+        return repository.backfillVersions();
+    }
+
+    /**
+     * Completa EMAIL_KEY en usuarios antiguos (se ejecuta al iniciar la app).
+     */
+    @Transactional
+    public int backfillEmailKeys() {
+        return repository.backfillEmailKeys();
+    }
+
+    /**
+     * Recarga el filtro de emails desde la BD (al iniciar y cada
+     * libreria.users.email-filter.rebuild-interval, para olvidar los
+     * emails eliminados y agregar los registrados por otras instancias;
+     * mientras tanto, esos se confirman en la BD).
+     */
+    @Transactional(readOnly = true)
+    @Scheduled(initialDelayString = "${libreria.users.email-filter.rebuild-interval:1h}",
+            fixedDelayString = "${libreria.users.email-filter.rebuild-interval:1h}")
+    public void cargarFiltroEmails() {
+        try (Stream<String> emails = repository.streamEmailKeys()) {
+            emailFilter.reconstruir(emails.iterator());
+        }
+    }
+
+    /**
+     * ¿El email está libre? Sin consultar la BD si el filtro asegura que no
+     * está registrado; solo los "puede existir" se confirman con un EXISTS.
+     */
+    public boolean emailDisponible(String email) {
+        String clave = User.normalizarEmail(email);
+        return !emailFilter.puedeExistir(clave) || !repository.existsByEmailKey(clave);
+    }
+
     /**
      * Crea un nuevo usuario aplicando reglas de negocio.
      * Reglas Semana 2:
-     * - El email debe ser único.
+     * - El email debe ser único (sin distinguir mayúsculas): se inserta
+     *   directamente y, si la restricción única lo rechaza, 409.
      */
+    @Transactional
     public User crear(User u) {
         log.info("📝 Creando usuario: {}", u.getEmail());
 
-        repository.findByEmail(u.getEmail()).ifPresent(existing -> {
-            log.warn("⚠️ Intento de duplicar email: {}", u.getEmail());
-            throw new IllegalArgumentException("El email ya está registrado");
-        });
-
-        User guardado = repository.save(u);
+        User guardado;
+        try {
+            guardado = repository.saveAndFlush(u);
+        } catch (DataIntegrityViolationException ex) {
+            throw conflictoSiEmailDuplicado(ex, u.getEmail());
+        }
+        changeEvents.registrar(ChangeEvent.USER, guardado.getId(), Operation.CREATED, guardado.getVersion(), guardado);
+        emailFilter.agregar(guardado.getEmailKey());
+        statsService.usuarioCambiado(null, guardado.getRol());
         log.info("✅ Usuario creado con ID: {}", guardado.getId());
         return guardado;
     }
@@ -78,53 +258,130 @@ public class UserService {
     /**
      * Actualiza un usuario existente.
      * Reglas:
-     * - Si cambia el email, validar que no esté usado por otro registro.
+     * - Si cambia el email y ya lo usa otro registro → 409 (lo detecta la
+     *   restricción única al hacer el UPDATE, sin consultar antes).
+     * - Si se indica la versión leída por el cliente y el usuario cambió
+     *   desde entonces → 409 (bloqueo optimista).
+     *
+     * Se lee una sola vez dentro de la transacción; el UPDATE final solo
+     * incluye las columnas modificadas.
      */
-    public User actualizar(Long id, User data) {
+    @Transactional
+    public User actualizar(Long id, User data, Long versionEsperada) {
         log.info("✏️ Actualizando usuario ID: {}", id);
         User existente = buscarPorId(id);
+        verificarVersion(existente, versionEsperada);
 
-        // Si el email cambia, validar unicidad
-        if (!existente.getEmail().equalsIgnoreCase(data.getEmail())) {
-            repository.findByEmail(data.getEmail()).ifPresent(other -> {
-                log.warn("⚠️ Email ya registrado por otro usuario: {}", data.getEmail());
-                throw new IllegalArgumentException("El email ya está registrado por otro usuario");
-            });
-        }
-
+        String rolAnterior = existente.getRol();
+        boolean emailCambiado = !Objects.equals(existente.getEmailKey(), User.normalizarEmail(data.getEmail()));
         existente.setFullName(data.getFullName());
         existente.setEmail(data.getEmail());
         existente.setPhone(data.getPhone());
         existente.setRegisterDate(data.getRegisterDate());
         existente.setRol(data.getRol());
 
-        User actualizado = repository.save(existente);
+        User actualizado;
+        try {
+            actualizado = repository.saveAndFlush(existente);
+        } catch (DataIntegrityViolationException ex) {
+            throw conflictoSiEmailDuplicado(ex, data.getEmail());
+        }
+        changeEvents.registrar(ChangeEvent.USER, id, Operation.UPDATED, actualizado.getVersion(), actualizado);
+        if (emailCambiado) {
+            emailFilter.agregar(actualizado.getEmailKey());
+        }
+        statsService.usuarioCambiado(rolAnterior, actualizado.getRol());
         log.info("✅ Usuario actualizado ID: {}", actualizado.getId());
         return actualizado;
     }
 
+    /**
+     * Elimina un usuario con un solo DELETE. Antes se lee solo su rol (para
+     * las estadísticas), lo que también indica si existe.
+     */
+    @Transactional
     public void eliminar(Long id) {
         log.info("🗑️ Eliminando usuario ID: {}", id);
-        if (!repository.existsById(id)) {
+        String rol = repository.findRolById(id).orElse(null);
+        if (rol == null || repository.deleteRow(id) == 0) {
             log.error("❌ No se puede eliminar. Usuario no existe: {}", id);
             throw new ResourceNotFoundException("Usuario no existe: " + id);
         }
-        repository.deleteById(id);
+        changeEvents.registrarEliminados(ChangeEvent.USER, List.of(id));
+        statsService.usuarioCambiado(rol, null);
         log.info("✅ Usuario eliminado ID: {}", id);
     }
 
+    /**
+     * Borrado masivo en una sola transacción: por lista de IDs o por rol.
+     * Los usuarios a borrar se bloquean (SELECT ... FOR UPDATE) y se borran
+     * por ID, de a bloques de 1000 (el máximo de Oracle para IN): uno creado
+     * por otra transacción en medio no se borra sin su evento, y uno borrado
+     * en paralelo no se descuenta dos veces.
+     *
+     * @return cantidad de usuarios eliminados
+     */
+    @Transactional
+    public int eliminarVarios(List<Long> ids, String rol) {
+        boolean porIds = ids != null && !ids.isEmpty();
+        boolean porRol = rol != null && !rol.isBlank();
+        if (porIds == porRol) {
+            throw new IllegalArgumentException("Debe indicar una lista de IDs o un rol (solo uno de los dos)");
+        }
+
+        // Las filas se bloquean antes de borrarlas por ID: eventos y
+        // estadísticas salen de las mismas filas que borra el DELETE
+        List<Long> bloqueados = new ArrayList<>();
+        if (porIds) {
+            for (int i = 0; i < ids.size(); i += MAX_IDS_POR_SENTENCIA) {
+                bloqueados.addAll(repository.findExistingIdsForUpdate(
+                        ids.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, ids.size()))));
+            }
+        } else {
+            bloqueados.addAll(repository.findIdsByRolForUpdate(rol));
+        }
+
+        int eliminados = 0;
+        for (int i = 0; i < bloqueados.size(); i += MAX_IDS_POR_SENTENCIA) {
+            List<Long> bloque = bloqueados.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, bloqueados.size()));
+            // Conteo por rol del bloque (para las estadísticas) y luego el DELETE
+            if (porIds) {
+                for (Object[] fila : repository.countByRolForIds(bloque)) {
+                    statsService.usuariosEliminados((String) fila[0], (Long) fila[1]);
+                }
+            }
+            eliminados += repository.deleteRows(bloque);
+        }
+        if (porRol) {
+            statsService.usuariosEliminados(rol, eliminados);
+        }
+        changeEvents.registrarEliminados(ChangeEvent.USER, bloqueados);
+        log.info("🗑️ Borrado masivo: {} usuarios eliminados", eliminados);
+        return eliminados;
+    }
+
     // ============================================================
     // Consultas personalizadas
     // ============================================================
     public User buscarPorEmail(String email) {
         log.info("📧 Buscando usuario por email: {}", email);
-        return repository.findByEmail(email)
+        return repository.findByEmailKey(User.normalizarEmail(email))
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con email: " + email));
     }
 
-    public List<User> listarPorRol(String rol) {
+    @Transactional(readOnly = true)
+    public List<?> listarPorRol(String rol, List<String> campos) {
         log.info("🎯 Listando usuarios por rol: {}", rol);
-        return repository.findByRol(rol);
+        if (campos.isEmpty()) {
+            return repository.findSummariesByRol(rol);
+        }
+        return seleccionar(campos, Map.of("rol", rol));
+    }
+
+    private List<Map<String, Object>> seleccionar(List<String> campos, Map<String, Object> filtros) {
+        return FieldSelection.query(entityManager, User.class, campos, filtros).getResultList().stream()
+                .map(fila -> FieldSelection.toMap(fila, campos))
+                .toList();
     }
 
     // ============================================================
@@ -138,10 +395,16 @@ public class UserService {
      * - Todo usuario que se registra desde la aplicación web tendrá
      *   rol TECNICO por defecto.
      */
+    @Transactional
     public User registrarUsuario(User data) {
         log.info("📝 [Registro] Registrando nuevo usuario: {}", data.getEmail());
 
-        validarEmailUnico(data.getEmail(), null);
+        // Solo si el filtro dice que el email puede existir se confirma antes de
+        // calcular BCrypt; un email nuevo va directo al INSERT
+        if (!emailDisponible(data.getEmail())) {
+            log.warn("⚠️ Email ya registrado: {}", data.getEmail());
+            throw new ConflictException("El email ya está registrado");
+        }
 
         User nuevo = new User();
         nuevo.setFullName(data.getFullName());
@@ -150,9 +413,18 @@ public class UserService {
         nuevo.setPassword(encoder.encode(data.getPassword()));
         nuevo.setPhone(data.getPhone());
         nuevo.setRegisterDate(LocalDate.now());
-        nuevo.setRol(data.getRol()); // rol por defecto para registro web
-
-        User guardado = repository.save(nuevo);
+        // El registro web siempre crea clientes: el rol del cuerpo se ignora
+        nuevo.setRol(ROL_REGISTRO);
+
+        User guardado;
+        try {
+            guardado = repository.saveAndFlush(nuevo);
+        } catch (DataIntegrityViolationException ex) {
+            throw conflictoSiEmailDuplicado(ex, data.getEmail());
+        }
+        changeEvents.registrar(ChangeEvent.USER, guardado.getId(), Operation.CREATED, guardado.getVersion(), guardado);
+        emailFilter.agregar(guardado.getEmailKey());
+        statsService.usuarioCambiado(null, guardado.getRol());
         log.info("✅ [Registro] Usuario registrado con ID: {}", guardado.getId());
         return guardado;
     }
@@ -169,12 +441,26 @@ public class UserService {
     public User login(String email, String password) {
         log.info("🔐 [Login] Intento de login con email: {}", email);
 
+        // Sin contraseña no hay nada que verificar (ni que buscar en la caché
+        // de credenciales: el digest no distingue null de "null")
+        if (password == null || password.isBlank()) {
+            log.warn("❌ [Login] Contraseña vacía para email: {}", email);
+            throw new IllegalArgumentException("Credenciales inválidas");
+        }
+
         User usuario = buscarPorEmail(email);
 
-        // 🔐 Validar contraseña usando BCrypt
-        if (!encoder.matches(password, usuario.getPassword())) {
-            log.warn("❌ [Login] Contraseña incorrecta para email: {}", email);
-            throw new IllegalArgumentException("Credenciales inválidas");
+        // Si estas mismas credenciales se verificaron hace poco contra el mismo
+        // hash, no hace falta repetir BCrypt. Si la contraseña cambió, el hash
+        // guardado ya no coincide y se verifica normalmente.
+        String digest = digestCredenciales(email, password);
+        if (!usuario.getPassword().equals(credencialesVerificadas.getIfPresent(digest))) {
+            // 🔐 Validar contraseña usando BCrypt
+            if (!encoder.matches(password, usuario.getPassword())) {
+                log.warn("❌ [Login] Contraseña incorrecta para email: {}", email);
+                throw new IllegalArgumentException("Credenciales inválidas");
+            }
+            credencialesVerificadas.put(digest, usuario.getPassword());
         }
 
         log.info("✅ [Login] Usuario autenticado: {} con rol {}", usuario.getEmail(), usuario.getRol());
@@ -182,43 +468,186 @@ public class UserService {
     }
 
     /**
-     * Actualización de perfil (nombre y teléfono principalmente).
+     * Igual que login(), pero la verificación se ejecuta en el pool dedicado
+     * de login, liberando el hilo de Tomcat mientras se calcula BCrypt.
+     * Si el pool está saturado se lanza TooManyRequestsException (429).
+     */
+    public CompletableFuture<User> loginAsync(String email, String password) {
+        return loginExecutor.submit(() -> login(email, password));
+    }
+
+    /**
+     * Recuperación de contraseña (solo ADMIN): asigna una contraseña temporal de 8
+     * caracteres y la devuelve para que el ADMIN se la entregue al usuario.
+     *
+     * Como cualquier otro cambio del usuario pasa por saveAndFlush y deja
+     * su evento UPDATED en el outbox, con la nueva versión.
      */
-    public User actualizarPerfil(Long id, User data) {
+    @Transactional
+    public String recuperarContrasena(String email) {
+        log.info("🔑 [Recuperar] Contraseña temporal para email: {}", email);
+        User usuario = buscarPorEmail(email);
+
+        String temporal = UUID.randomUUID().toString().substring(0, 8);
+        usuario.setPassword(passwordEncoder.encode(temporal));
+
+        User actualizado = repository.saveAndFlush(usuario);
+        changeEvents.registrar(ChangeEvent.USER, actualizado.getId(), Operation.UPDATED, actualizado.getVersion(),
+                actualizado);
+        log.info("✅ [Recuperar] Contraseña temporal asignada al usuario ID: {}", actualizado.getId());
+        return temporal;
+    }
+
+    /**
+     * Actualización de perfil (nombre, teléfono y contraseña).
+     *
+     * @param cambiarRol true solo si quien llama es ADMIN; en otro caso el
+     *                   rol enviado se ignora (un cliente no puede ascenderse)
+     */
+    @Transactional
+    public User actualizarPerfil(Long id, User data, Long versionEsperada, boolean cambiarRol) {
         log.info("👤 [Perfil] Actualizando perfil del usuario ID: {}", id);
         User existente = buscarPorId(id);
+        verificarVersion(existente, versionEsperada);
 
+        String rolAnterior = existente.getRol();
         existente.setFullName(data.getFullName());
         existente.setPhone(data.getPhone());
-        existente.setRol(data.getRol() != null ? data.getRol() : existente.getRol());
+        if (cambiarRol && data.getRol() != null) {
+            existente.setRol(data.getRol());
+        }
 
         if (data.getPassword() != null && !data.getPassword().isBlank()) {
             String hashed = passwordEncoder.encode(data.getPassword());
             existente.setPassword(hashed);
         }
 
-        User actualizado = repository.save(existente);
+        User actualizado = repository.saveAndFlush(existente);
+        changeEvents.registrar(ChangeEvent.USER, id, Operation.UPDATED, actualizado.getVersion(), actualizado);
+        statsService.usuarioCambiado(rolAnterior, actualizado.getRol());
         log.info("✅ [Perfil] Perfil actualizado ID: {}", actualizado.getId());
         return actualizado;
     }
 
+    /**
+     * Modificación parcial (PATCH / JSON Merge Patch) en un solo UPDATE con
+     * condición de versión, sin leer el usuario antes. Solo si no se
+     * actualizó ninguna fila se consulta para distinguir 404 de 409.
+     *
+     * @param cambios campo → valor (ya filtrados por CAMPOS_EDITABLES o
+     *                CAMPOS_PERFIL)
+     * @return la nueva versión del usuario
+     */
+    @Transactional
+    public long patch(Long id, Map<String, Object> cambios, long versionEsperada) {
+        log.info("🩹 [PATCH] Usuario ID: {} campos {}", id, cambios.keySet());
+        Set<String> errores = cambios.entrySet().stream()
+                .flatMap(e -> validator.validateValue(User.class, e.getKey(), e.getValue()).stream())
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!errores.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errores));
+        }
+        // Solo si cambia el rol se lee el anterior (para las estadísticas)
+        String rolAnterior = cambios.containsKey("rol") ? repository.findRolById(id).orElse(null) : null;
+        Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        StringBuilder jpql = new StringBuilder("update User u set ");
+        cambios.keySet().forEach(campo -> jpql.append("u.").append(campo).append(" = :").append(campo).append(", "));
+        if (cambios.containsKey("email")) {
+            jpql.append("u.emailKey = :emailKey, ");
+        }
+        jpql.append("u.updatedAt = :updatedAt, u.version = u.version + 1 where u.id = :id and u.version = :version");
+
+        Query update = entityManager.createQuery(jpql.toString());
+        cambios.forEach(update::setParameter);
+        String emailKey = User.normalizarEmail((String) cambios.get("email"));
+        if (emailKey != null) {
+            update.setParameter("emailKey", emailKey);
+        }
+        update.setParameter("updatedAt", ahora)
+                .setParameter("id", id)
+                .setParameter("version", versionEsperada);
+
+        int filas;
+        try {
+            filas = update.executeUpdate();
+        } catch (PersistenceException ex) {
+            throw conflictoSiEmailDuplicado(ex, (String) cambios.get("email"));
+        }
+        if (filas == 0) {
+            repository.findRowVersionById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + id));
+            throw new ObjectOptimisticLockingFailureException(User.class, id);
+        }
+        long nuevaVersion = versionEsperada + 1;
+        // El evento lleva solo lo que cambió (más la fecha de modificación)
+        Map<String, Object> datos = new LinkedHashMap<>(cambios);
+        datos.put("updatedAt", ahora);
+        changeEvents.registrar(ChangeEvent.USER, id, Operation.UPDATED, nuevaVersion, datos);
+        // Solo si el PATCH cambió el email hay uno nuevo para el filtro
+        if (emailKey != null) {
+            emailFilter.agregar(emailKey);
+        }
+        if (cambios.containsKey("rol")) {
+            statsService.usuarioCambiado(rolAnterior, (String) cambios.get("rol"));
+        }
+        log.info("✅ [PATCH] Usuario actualizado ID: {}", id);
+        return nuevaVersion;
+    }
+
     // ============================================================
     // Método de apoyo interno
     // ============================================================
 
+    private String digestCredenciales(String email, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(claveDigest, "HmacSHA256"));
+            mac.update(String.valueOf(email).getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 no disponible", ex);
+        }
+    }
+
+    private void verificarVersion(User existente, Long versionEsperada) {
+        if (versionEsperada != null && !versionEsperada.equals(existente.getVersion())) {
+            log.warn("⚠️ Versión desactualizada para usuario ID: {}", existente.getId());
+            throw new ObjectOptimisticLockingFailureException(User.class, existente.getId());
+        }
+    }
+
     /**
-     * Valida que el email no esté registrado por otro usuario.
-     *
-     * @param email   email a validar
-     * @param idActual id del usuario actual (para actualizaciones),
-     *                 puede ser null en creaciones.
-     */
-    private void validarEmailUnico(String email, Long idActual) {
-        repository.findByEmail(email).ifPresent(existing -> {
-            if (idActual == null || !existing.getId().equals(idActual)) {
-                log.warn("⚠️ Email ya registrado: {}", email);
-                throw new IllegalArgumentException("El email ya está registrado");
+     * Traduce la violación de la restricción única del email a 409; otros
+     * errores se relanzan tal cual.
+     */
+    // 409 solo si la restricción violada es una de las del email (por nombre
+    // exacto); cualquier otra se relanza
+    private RuntimeException conflictoSiEmailDuplicado(RuntimeException ex, String email) {
+        for (Throwable causa = ex; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion) {
+                String restriccion = nombreSinEsquema(violacion.getConstraintName());
+                if (User.UK_EMAIL.equals(restriccion) || User.UK_EMAIL_KEY.equals(restriccion)) {
+                    log.warn("⚠️ Email ya registrado: {}", email);
+                    return new ConflictException("El email ya está registrado");
+                }
+                break;
             }
-        });
+        }
+        return ex;
+    }
+
+    // Oracle antepone el esquema ("LIBRERIA.UK_USERL_EMAIL_KEY") y H2 informa
+    // el índice de la restricción ("PUBLIC.UK_USERL_EMAIL_KEY_INDEX_4")
+    private static String nombreSinEsquema(String restriccion) {
+        if (restriccion == null) {
+            return null;
+        }
+        String nombre = restriccion.replace("\"", "");
+        nombre = nombre.substring(nombre.lastIndexOf('.') + 1).toUpperCase(Locale.ROOT);
+        return nombre.replaceFirst("_INDEX_\\d+$", "");
     }
 }
@@ -0,0 +1,47 @@
+package com.fullstack.libreria.user.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clase UserStartupTasks
+ * ----------------------
+ * Tareas de mantenimiento de usuarios que se ejecutan una vez que la
+ * aplicación terminó de iniciar.
+ */
+@Slf4j
+@Component
+public class UserStartupTasks {
+
+    private final UserService service;
+
+    public UserStartupTasks(UserService service) {
+        this.service = service;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        int fechados = service.backfillUpdatedAt();
+        if (fechados > 0) {
+            log.info("🕒 Fecha de modificación completada en {} usuarios", fechados);
+        }
+        int versionados = service.backfillVersions();
+        if (versionados > 0) {
+            log.info("🔢 Versión inicial asignada a {} usuarios", versionados);
+        }
+        try {
+            int normalizados = service.backfillEmailKeys();
+            if (normalizados > 0) {
+                log.info("📧 Email normalizado completado en {} usuarios", normalizados);
+            }
+        } catch (DataIntegrityViolationException ex) {
+            log.error("❌ Hay emails repetidos que solo difieren en mayúsculas; corregirlos y reiniciar: {}",
+                    ex.getMostSpecificCause().getMessage());
+        }
+        service.cargarFiltroEmails();
+    }
+}
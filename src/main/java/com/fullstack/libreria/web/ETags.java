@@ -0,0 +1,59 @@
+package com.fullstack.libreria.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * ===============================================================
+ * 📘 Clase: ETags
+ * ---------------------------------------------------------------
+ * Formato de los ETag de libros y usuarios: "<id>-<version>".
+ *
+ * El mismo valor sirve para GET condicionales (If-None-Match) y para
+ * escrituras condicionales (If-Match en PUT y PATCH).
+ * ===============================================================
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long id, Long version) {
+        return id + "-" + version;
+    }
+
+    /**
+     * true si la petición trae If-None-Match o If-Modified-Since: solo en ese
+     * caso vale la pena consultar la versión antes de cargar el recurso.
+     */
+    public static boolean esCondicional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Versión esperada a partir de la cabecera If-Match.
+     *
+     * @return null si no viene la cabecera o es "*"
+     * @throws IllegalArgumentException si el ETag no corresponde al recurso
+     */
+    public static Long parseIfMatch(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        valor = valor.replace("\"", "");
+        String prefijo = id + "-";
+        if (!valor.startsWith(prefijo)) {
+            throw new IllegalArgumentException("If-Match no corresponde al recurso " + id + ": " + ifMatch);
+        }
+        try {
+            return Long.parseLong(valor.substring(prefijo.length()));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("If-Match inválido: " + ifMatch);
+        }
+    }
+}
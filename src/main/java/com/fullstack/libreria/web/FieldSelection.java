@@ -0,0 +1,97 @@
+package com.fullstack.libreria.web;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * ===============================================================
+ * 📘 Clase: FieldSelection
+ * ---------------------------------------------------------------
+ * Selección de campos con el parámetro "fields" de los listados:
+ *
+ *   GET /api/users?fields=id,email
+ *   → [ { "id": 1, "email": "ana@correo.cl" }, ... ]
+ *
+ * La consulta (Criteria con Tuple) trae solo esas columnas, sin
+ * cargar entidades. Cada listado define qué campos se pueden pedir;
+ * uno desconocido responde 400.
+ * ===============================================================
+ */
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    /**
+     * Lee "fields" (separados por coma) respetando el orden pedido.
+     *
+     * @return los campos, o una lista vacía si no se envió el parámetro
+     * @throws IllegalArgumentException si algún campo no está permitido
+     */
+    public static List<String> parse(String fields, Set<String> permitidos) {
+        if (fields == null || fields.isBlank()) {
+            return List.of();
+        }
+        Set<String> campos = new LinkedHashSet<>();
+        for (String campo : fields.split(",")) {
+            String nombre = campo.trim();
+            if (nombre.isEmpty()) {
+                continue;
+            }
+            if (!permitidos.contains(nombre)) {
+                throw new IllegalArgumentException("Campo desconocido en 'fields': '" + nombre
+                        + "'. Permitidos: " + String.join(", ", permitidos));
+            }
+            campos.add(nombre);
+        }
+        if (campos.isEmpty()) {
+            throw new IllegalArgumentException("El parámetro 'fields' no contiene campos");
+        }
+        return new ArrayList<>(campos);
+    }
+
+    /**
+     * Consulta que trae solo los campos indicados, filtrando por igualdad
+     * (atributo = valor) y ordenada por ID.
+     */
+    public static TypedQuery<Tuple> query(EntityManager entityManager, Class<?> entidad, List<String> campos,
+            Map<String, Object> filtros) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<?> root = cq.from(entidad);
+        List<Selection<?>> columnas = new ArrayList<>();
+        for (String campo : campos) {
+            columnas.add(root.get(campo).alias(campo));
+        }
+        cq.multiselect(columnas);
+        List<Predicate> condiciones = new ArrayList<>();
+        filtros.forEach((atributo, valor) -> condiciones.add(cb.equal(root.get(atributo), valor)));
+        cq.where(condiciones.toArray(Predicate[]::new));
+        cq.orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(cq);
+    }
+
+    /**
+     * Fila → mapa campo → valor (en el orden pedido), lista para serializar.
+     */
+    public static Map<String, Object> toMap(Tuple fila, List<String> campos) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        for (String campo : campos) {
+            mapa.put(campo, fila.get(campo));
+        }
+        return mapa;
+    }
+}
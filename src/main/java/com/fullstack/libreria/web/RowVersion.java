@@ -0,0 +1,25 @@
+package com.fullstack.libreria.web;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * ===============================================================
+ * 📘 Clase: RowVersion
+ * ---------------------------------------------------------------
+ * Versión de una fila (columna @Version) y su última modificación.
+ *
+ * Los repositorios la obtienen leyendo solo esas dos columnas, para
+ * responder GET condicionales y validar If-Match sin cargar la fila
+ * completa.
+ * ===============================================================
+ */
+@Data
+@AllArgsConstructor
+public class RowVersion {
+
+    private Long version;
+    private Instant updatedAt;
+}
@@ -0,0 +1,166 @@
+-- =========================================================
+-- V1: columnas de versión, outbox de cambios e invalidación de caché
+-- ---------------------------------------------------------
+-- La imagen Docker arranca con DDL_AUTO=validate: Hibernate solo comprueba
+-- el esquema y no lo modifica. Este script lleva un esquema creado por
+-- versiones anteriores (ddl-auto=update) al que esperan las entidades, y
+-- se ejecuta una vez, ANTES de desplegar, con el usuario dueño de las tablas:
+--
+--   sql libreria@u0g12ofrwn43uj0p_high @src/main/resources/db/oracle/V1__version_outbox_invalidacion.sql
+--
+-- (SQLcl o SQL*Plus, con TNS_ADMIN apuntando a la wallet.)
+--
+-- Se puede repetir: lo que ya existe se omite. Si se detiene (por ejemplo,
+-- por emails repetidos), se corrige el motivo y se vuelve a ejecutar.
+--
+-- Cubre:
+-- - BOOK:  TITLE_KEY, UPDATED_AT, VERSION e índices IDX_BOOK_*.
+-- - USERL: EMAIL_KEY, UPDATED_AT, VERSION y las restricciones únicas
+--          UK_USERC_EMAIL (EMAIL) y UK_USERL_EMAIL_KEY (EMAIL_KEY), cuyos
+--          nombres usa UserService para responder 409.
+-- - Tablas CHANGE_EVENT y CACHE_INVALIDATION con sus índices.
+-- =========================================================
+
+SET SERVEROUTPUT ON
+WHENEVER SQLERROR EXIT SQL.SQLCODE ROLLBACK
+
+-- =========================================================
+-- 1. Columnas nuevas (ORA-01430: la columna ya existe)
+-- =========================================================
+DECLARE
+    PROCEDURE columna(p_tabla VARCHAR2, p_definicion VARCHAR2) IS
+    BEGIN
+        EXECUTE IMMEDIATE 'ALTER TABLE ' || p_tabla || ' ADD (' || p_definicion || ')';
+        DBMS_OUTPUT.PUT_LINE('Creado: ' || p_tabla || '.' || p_definicion);
+    EXCEPTION
+        WHEN OTHERS THEN
+            IF SQLCODE != -1430 THEN
+                RAISE;
+            END IF;
+            DBMS_OUTPUT.PUT_LINE('Ya existe: ' || p_tabla || '.' || p_definicion);
+    END;
+BEGIN
+    columna('BOOK', 'TITLE_KEY VARCHAR2(100 CHAR)');
+    columna('BOOK', 'UPDATED_AT TIMESTAMP(6) WITH TIME ZONE');
+    columna('BOOK', 'VERSION NUMBER(19,0)');
+
+    columna('USERL', 'EMAIL_KEY VARCHAR2(120 CHAR)');
+    columna('USERL', 'UPDATED_AT TIMESTAMP(6) WITH TIME ZONE');
+    columna('USERL', 'VERSION NUMBER(19,0)');
+END;
+/
+
+-- =========================================================
+-- 2. Datos de las columnas nuevas
+-- ---------------------------------------------------------
+-- Lo mismo que completan los backfill* al iniciar la app: aquí se hace
+-- antes para que la restricción única de EMAIL_KEY se valide con todos
+-- los usuarios.
+-- =========================================================
+UPDATE BOOK SET TITLE_KEY = LOWER(TITLE) WHERE TITLE_KEY IS NULL;
+UPDATE BOOK SET UPDATED_AT = SYSTIMESTAMP WHERE UPDATED_AT IS NULL;
+UPDATE BOOK SET VERSION = 0 WHERE VERSION IS NULL;
+
+UPDATE USERL SET EMAIL_KEY = LOWER(TRIM(EMAIL)) WHERE EMAIL_KEY IS NULL;
+UPDATE USERL SET UPDATED_AT = SYSTIMESTAMP WHERE UPDATED_AT IS NULL;
+UPDATE USERL SET VERSION = 0 WHERE VERSION IS NULL;
+
+COMMIT;
+
+-- =========================================================
+-- 3. Restricciones únicas de USERL
+-- ---------------------------------------------------------
+-- Si la columna ya tiene una restricción única con otro nombre (la que
+-- creó ddl-auto=update con unique=true), se renombra: Oracle no admite
+-- dos sobre la misma columna.
+-- =========================================================
+DECLARE
+    v_repetidos PLS_INTEGER;
+
+    PROCEDURE unica(p_columna VARCHAR2, p_nombre VARCHAR2) IS
+        v_actual USER_CONSTRAINTS.CONSTRAINT_NAME%TYPE;
+    BEGIN
+        SELECT c.CONSTRAINT_NAME INTO v_actual
+          FROM USER_CONSTRAINTS c
+          JOIN USER_CONS_COLUMNS cc
+            ON cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME AND cc.TABLE_NAME = c.TABLE_NAME
+         WHERE c.TABLE_NAME = 'USERL'
+           AND c.CONSTRAINT_TYPE = 'U'
+           AND cc.COLUMN_NAME = p_columna
+           AND (SELECT COUNT(*) FROM USER_CONS_COLUMNS o
+                 WHERE o.CONSTRAINT_NAME = c.CONSTRAINT_NAME AND o.TABLE_NAME = c.TABLE_NAME) = 1
+         FETCH FIRST 1 ROWS ONLY;
+
+        IF v_actual = p_nombre THEN
+            DBMS_OUTPUT.PUT_LINE('Ya existe: ' || p_nombre);
+        ELSE
+            EXECUTE IMMEDIATE 'ALTER TABLE USERL RENAME CONSTRAINT "' || v_actual || '" TO ' || p_nombre;
+            DBMS_OUTPUT.PUT_LINE('Renombrado: ' || v_actual || ' a ' || p_nombre);
+        END IF;
+    EXCEPTION
+        WHEN NO_DATA_FOUND THEN
+            EXECUTE IMMEDIATE 'ALTER TABLE USERL ADD CONSTRAINT ' || p_nombre || ' UNIQUE (' || p_columna || ')';
+            DBMS_OUTPUT.PUT_LINE('Creado: ' || p_nombre);
+    END;
+BEGIN
+    -- Emails que solo difieren en mayúsculas o espacios: hay que resolverlos a mano
+    SELECT COUNT(*) INTO v_repetidos
+      FROM (SELECT EMAIL_KEY FROM USERL WHERE EMAIL_KEY IS NOT NULL GROUP BY EMAIL_KEY HAVING COUNT(*) > 1);
+    IF v_repetidos > 0 THEN
+        RAISE_APPLICATION_ERROR(-20001, v_repetidos || ' emails repetidos en USERL sin distinguir mayúsculas.'
+                || ' Ver: SELECT EMAIL_KEY, COUNT(*) FROM USERL GROUP BY EMAIL_KEY HAVING COUNT(*) > 1');
+    END IF;
+
+    unica('EMAIL', 'UK_USERC_EMAIL');
+    unica('EMAIL_KEY', 'UK_USERL_EMAIL_KEY');
+END;
+/
+
+-- =========================================================
+-- 4. Tablas nuevas e índices
+-- (ORA-00955: el nombre ya existe; ORA-01408: ya hay un índice con esas columnas)
+-- =========================================================
+DECLARE
+    PROCEDURE crear(p_sql VARCHAR2) IS
+    BEGIN
+        EXECUTE IMMEDIATE p_sql;
+        DBMS_OUTPUT.PUT_LINE('Creado: ' || SUBSTR(p_sql, 1, 60));
+    EXCEPTION
+        WHEN OTHERS THEN
+            IF SQLCODE NOT IN (-955, -1408) THEN
+                RAISE;
+            END IF;
+            DBMS_OUTPUT.PUT_LINE('Ya existe: ' || SUBSTR(p_sql, 1, 60));
+    END;
+BEGIN
+    -- Outbox de cambios (GET /api/events)
+    crear('CREATE TABLE CHANGE_EVENT ('
+            || ' ID NUMBER(19,0) GENERATED BY DEFAULT AS IDENTITY,'
+            || ' ENTITY_TYPE VARCHAR2(20 CHAR) NOT NULL,'
+            || ' ENTITY_ID NUMBER(19,0) NOT NULL,'
+            || ' OPERATION VARCHAR2(10 CHAR) NOT NULL CHECK (OPERATION IN (''CREATED'', ''UPDATED'', ''DELETED'')),'
+            || ' ENTITY_VERSION NUMBER(19,0),'
+            || ' PAYLOAD VARCHAR2(4000 CHAR),'
+            || ' CREATED_AT TIMESTAMP(6) WITH TIME ZONE NOT NULL,'
+            || ' PRIMARY KEY (ID))');
+    crear('CREATE INDEX IDX_CHANGE_EVENT_CREATED_AT ON CHANGE_EVENT (CREATED_AT)');
+
+    -- Avisos de tablas modificadas entre réplicas (libreria.cache.invalidation.channel=jdbc)
+    crear('CREATE TABLE CACHE_INVALIDATION ('
+            || ' ID NUMBER(19,0) GENERATED BY DEFAULT AS IDENTITY,'
+            || ' ORIGIN VARCHAR2(36 CHAR) NOT NULL,'
+            || ' TABLE_NAME VARCHAR2(128 CHAR) NOT NULL,'
+            || ' CREATED_AT TIMESTAMP(6) WITH TIME ZONE NOT NULL,'
+            || ' PRIMARY KEY (ID))');
+    crear('CREATE INDEX IDX_CACHE_INV_CREATED_AT ON CACHE_INVALIDATION (CREATED_AT)');
+
+    -- Catálogo: filtros, orden, búsqueda por título y cambios recientes
+    crear('CREATE INDEX IDX_BOOK_AUTHOR ON BOOK (AUTHOR)');
+    crear('CREATE INDEX IDX_BOOK_GENRE_PUB ON BOOK (GENRE, PUBLICATION)');
+    crear('CREATE INDEX IDX_BOOK_PUBLICATION ON BOOK (PUBLICATION)');
+    crear('CREATE INDEX IDX_BOOK_TITLE_KEY ON BOOK (TITLE_KEY)');
+    crear('CREATE INDEX IDX_BOOK_UPDATED_AT ON BOOK (UPDATED_AT)');
+END;
+/
+
+EXIT
@@ -0,0 +1,33 @@
+-- =========================================================
+-- V2: contador de cambios por entidad (ETag de GET /api/books)
+-- ---------------------------------------------------------
+-- Se ejecuta después de V1, antes de desplegar, con el usuario dueño de
+-- las tablas:
+--
+--   sql libreria@u0g12ofrwn43uj0p_high @src/main/resources/db/oracle/V2__contador_de_cambios.sql
+--
+-- Se puede repetir: si la tabla ya existe se omite. No hace falta cargar
+-- datos: la primera alta, cambio o baja crea la fila de su entidad.
+-- =========================================================
+
+SET SERVEROUTPUT ON
+WHENEVER SQLERROR EXIT SQL.SQLCODE ROLLBACK
+
+-- (ORA-00955: el nombre ya existe)
+BEGIN
+    EXECUTE IMMEDIATE 'CREATE TABLE ENTITY_VERSION ('
+            || ' ENTITY_TYPE VARCHAR2(20 CHAR) NOT NULL,'
+            || ' VERSION NUMBER(19,0) NOT NULL,'
+            || ' UPDATED_AT TIMESTAMP(6) WITH TIME ZONE NOT NULL,'
+            || ' PRIMARY KEY (ENTITY_TYPE))';
+    DBMS_OUTPUT.PUT_LINE('Creado: ENTITY_VERSION');
+EXCEPTION
+    WHEN OTHERS THEN
+        IF SQLCODE != -955 THEN
+            RAISE;
+        END IF;
+        DBMS_OUTPUT.PUT_LINE('Ya existe: ENTITY_VERSION');
+END;
+/
+
+EXIT
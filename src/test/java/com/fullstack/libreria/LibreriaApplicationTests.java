@@ -1,9 +1,11 @@
 package com.fullstack.libreria;
 
 import org.junit.jupiter.api.Test;
-// import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-// @SpringBootTest
+@SpringBootTest
+@ActiveProfiles("test")
 class LibreriaApplicationTests {
 
 	@Test
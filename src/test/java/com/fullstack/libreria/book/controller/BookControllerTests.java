@@ -0,0 +1,121 @@
+package com.fullstack.libreria.book.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.service.BookService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoSpyBean
+	private BookService service;
+
+	private Book libro;
+
+	@BeforeEach
+	void crearLibro() {
+		Book nuevo = new Book();
+		nuevo.setTitle("Rayuela");
+		nuevo.setAuthor("Julio Cortázar");
+		nuevo.setGenre("Novela");
+		nuevo.setPublication(Year.of(1963));
+		libro = service.save(nuevo);
+		clearInvocations(service);
+	}
+
+	@Test
+	void sinCabecerasCondicionalesNoConsultaLaVersion() throws Exception {
+		mockMvc.perform(get("/api/books/{id}", libro.getId()))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag(libro.getVersion())))
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andExpect(jsonPath("$.title").value("Rayuela"));
+
+		verify(service, never()).findRowVersion(any());
+	}
+
+	@Test
+	void conElEtagActualResponde304SinCargarElLibro() throws Exception {
+		mockMvc.perform(get("/api/books/{id}", libro.getId())
+				.header(HttpHeaders.IF_NONE_MATCH, etag(libro.getVersion())))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag(libro.getVersion())));
+
+		verify(service).findRowVersion(libro.getId());
+		verify(service, never()).findById(any());
+	}
+
+	@Test
+	void conUnEtagViejoResponde200ConElEtagNuevo() throws Exception {
+		mockMvc.perform(get("/api/books/{id}", libro.getId())
+				.header(HttpHeaders.IF_NONE_MATCH, etag(libro.getVersion() - 1)))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag(libro.getVersion())));
+	}
+
+	@Test
+	void ifModifiedSinceDesdeLaUltimaModificacionResponde304() throws Exception {
+		String fecha = DateTimeFormatter.RFC_1123_DATE_TIME.format(libro.getUpdatedAt().plusSeconds(1).atOffset(ZoneOffset.UTC));
+
+		mockMvc.perform(get("/api/books/{id}", libro.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, fecha))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void unLibroInexistenteResponde404ConOSinCabeceras() throws Exception {
+		mockMvc.perform(get("/api/books/{id}", Long.MAX_VALUE))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/books/{id}", Long.MAX_VALUE).header(HttpHeaders.IF_NONE_MATCH, "\"1-0\""))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void elEtagDelListadoCambiaConCadaBajaYDependeDeFields() throws Exception {
+		String completo = mockMvc.perform(get("/api/books")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String conCampos = mockMvc.perform(get("/api/books").param("fields", "id,title"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(conCampos).isNotEqualTo(completo);
+
+		mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, completo))
+				.andExpect(status().isNotModified());
+
+		// Una baja no deja una fecha de modificación mayor: igual cambia el ETag
+		service.delete(libro.getId());
+		mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, completo))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, not(completo)));
+	}
+
+	private String etag(Long version) {
+		return "\"" + libro.getId() + "-" + version + "\"";
+	}
+}
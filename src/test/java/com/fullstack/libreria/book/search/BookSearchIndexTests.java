@@ -0,0 +1,123 @@
+package com.fullstack.libreria.book.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Year;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.fullstack.libreria.book.model.Book;
+
+class BookSearchIndexTests {
+
+	private final BookSearchIndex index = new BookSearchIndex();
+
+	@Test
+	void tokenizaSinTildesNiMayusculasNiPalabrasVacias() {
+		assertThat(BookSearchIndex.tokenize("El Amor en los Tiempos del Cólera"))
+				.containsExactly("amor", "tiempos", "colera");
+		assertThat(BookSearchIndex.tokenize("Canción de hielo y fuego, vol. 2"))
+				.containsExactly("cancion", "hielo", "fuego", "vol", "2");
+		assertThat(BookSearchIndex.tokenize("  de la  ")).isEmpty();
+		assertThat(BookSearchIndex.tokenize(null)).isEmpty();
+	}
+
+	@Test
+	void buscaSinDistinguirTildes() {
+		index.index(libro(1L, "Canción de cuna", "Gregorio Martínez Sierra", "Teatro"));
+
+		assertThat(ids("cancion")).containsExactly(1L);
+		assertThat(ids("MARTINEZ")).containsExactly(1L);
+		assertThat(ids("canción martínez")).containsExactly(1L);
+	}
+
+	@Test
+	void lasPalabrasVaciasNoSeIndexanNiSeBuscan() {
+		index.index(libro(1L, "La casa de los espíritus", "Isabel Allende", "Novela"));
+
+		// "de" no está en el índice: la consulta queda solo con "casa"
+		assertThat(ids("casa de")).containsExactly(1L);
+		assertThat(ids("de la los")).isEmpty();
+	}
+
+	@Test
+	void todasLasPalabrasDebenCoincidir() {
+		index.index(libro(1L, "Cien años de soledad", "Gabriel García Márquez", "Novela"));
+		index.index(libro(2L, "El otoño del patriarca", "Gabriel García Márquez", "Novela"));
+		index.index(libro(3L, "Cien sonetos de amor", "Pablo Neruda", "Poesía"));
+
+		assertThat(ids("cien")).containsExactlyInAnyOrder(1L, 3L);
+		assertThat(ids("cien garcia")).containsExactly(1L);
+		assertThat(ids("cien patriarca")).isEmpty();
+		assertThat(ids("gabriel novela")).containsExactlyInAnyOrder(1L, 2L);
+	}
+
+	@Test
+	void palabraCompletaPesaMasQuePrefijoYTituloMasQueAutor() {
+		// "sol" completo en el título > "sol" completo en el autor > prefijo en el título
+		index.index(libro(1L, "Soledades", "Antonio Machado", "Poesía"));
+		index.index(libro(2L, "Cuentos", "Juan Sol", "Cuento"));
+		index.index(libro(3L, "El sol de Breda", "Arturo Pérez-Reverte", "Novela"));
+
+		assertThat(ids("sol")).containsExactly(3L, 2L, 1L);
+		// Con un límite se quedan los más relevantes
+		assertThat(index.search("sol", 2)).extracting(Book::getId).containsExactly(3L, 2L);
+	}
+
+	@Test
+	void reemplazarYQuitarActualizanLosTerminos() {
+		index.index(libro(1L, "Rayuela", "Julio Cortázar", "Novela"));
+		Book editado = libro(1L, "Historias de cronopios", "Julio Cortázar", "Cuento");
+		editado.setVersion(1L);
+		index.index(editado);
+
+		assertThat(ids("rayuela")).isEmpty();
+		assertThat(ids("cronopios")).containsExactly(1L);
+
+		index.remove(1L);
+		assertThat(ids("cortazar")).isEmpty();
+		assertThat(index.size()).isZero();
+	}
+
+	@Test
+	void noVuelveAUnaVersionAnterior() {
+		Book nuevo = libro(1L, "Ficciones", "Jorge Luis Borges", "Cuento");
+		nuevo.setVersion(2L);
+		index.index(nuevo);
+		Book viejo = libro(1L, "El Aleph", "Jorge Luis Borges", "Cuento");
+		viejo.setVersion(1L);
+		index.index(viejo);
+
+		assertThat(ids("ficciones")).containsExactly(1L);
+		assertThat(ids("aleph")).isEmpty();
+		assertThat(index.contiene(1L, 2L)).isTrue();
+	}
+
+	@Test
+	void retenerQuitaSoloLosIndexadosAntesDeLaRevision() {
+		index.index(libro(1L, "Pedro Páramo", "Juan Rulfo", "Novela"));
+		index.index(libro(2L, "El llano en llamas", "Juan Rulfo", "Cuento"));
+		long revision = index.revision();
+		// Agregado después de leer los IDs de la BD: no se quita aunque no esté en la lista
+		index.index(libro(3L, "El gallo de oro", "Juan Rulfo", "Novela"));
+
+		assertThat(index.retener(Set.of(1L), revision)).isEqualTo(1);
+		assertThat(ids("rulfo")).containsExactlyInAnyOrder(1L, 3L);
+	}
+
+	private Long[] ids(String consulta) {
+		return index.search(consulta, 10).stream().map(Book::getId).toArray(Long[]::new);
+	}
+
+	private static Book libro(Long id, String titulo, String autor, String genero) {
+		Book libro = new Book();
+		libro.setId(id);
+		libro.setTitle(titulo);
+		libro.setAuthor(autor);
+		libro.setGenre(genero);
+		libro.setPublication(Year.of(2000));
+		libro.setVersion(0L);
+		return libro;
+	}
+}
@@ -0,0 +1,185 @@
+package com.fullstack.libreria.book.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.fullstack.libreria.book.model.Book;
+import com.fullstack.libreria.book.repository.BookRepository;
+import com.fullstack.libreria.book.search.BookSearchIndex;
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.service.ChangeEventService;
+import com.fullstack.libreria.stats.service.StatsService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookServiceTests {
+
+	@Autowired
+	private BookService service;
+
+	@Autowired
+	private BookImportService importService;
+
+	@Autowired
+	private BookExportService exportService;
+
+	@MockitoSpyBean
+	private BookRepository repository;
+
+	@Autowired
+	private BookSearchIndex searchIndex;
+
+	@Autowired
+	private StatsService statsService;
+
+	@Autowired
+	private ChangeEventService changeEvents;
+
+	@Test
+	void elPatchDescuentaElEstadoAnteriorAunqueNoEsteIndexado() {
+		String genero = generoNuevo();
+		String otroGenero = generoNuevo();
+		Book libro = service.save(libro("Los detectives salvajes", genero));
+		// Sin la copia del índice el estado anterior sale igual de la BD
+		searchIndex.remove(libro.getId());
+
+		service.patch(libro.getId(), Map.of("genre", otroGenero), libro.getVersion());
+
+		assertThat(librosDelGenero(genero)).isZero();
+		assertThat(librosDelGenero(otroGenero)).isEqualTo(1);
+		assertThat(searchIndex.get(libro.getId())).extracting(Book::getGenre).isEqualTo(otroGenero);
+	}
+
+	@Test
+	void elPutYElSaveDescuentanElEstadoAnterior() {
+		String genero = generoNuevo();
+		String otroGenero = generoNuevo();
+		Book libro = service.save(libro("Nocturno de Chile", genero));
+		searchIndex.remove(libro.getId());
+
+		service.update(libro.getId(), libro("Nocturno de Chile", otroGenero), libro.getVersion());
+		assertThat(librosDelGenero(genero)).isZero();
+		assertThat(librosDelGenero(otroGenero)).isEqualTo(1);
+
+		Book editado = service.findById(libro.getId()).orElseThrow();
+		editado.setGenre(genero);
+		service.save(editado);
+		assertThat(librosDelGenero(genero)).isEqualTo(1);
+		assertThat(librosDelGenero(otroGenero)).isZero();
+	}
+
+	@Test
+	void losBorradosDescuentanLoQueHabiaEnLaBd() {
+		String genero = generoNuevo();
+		Book primero = service.save(libro("Estrella distante", genero));
+		service.save(libro("Amuleto", genero));
+		service.save(libro("Monsieur Pain", genero));
+		searchIndex.clear();
+
+		service.delete(primero.getId());
+		assertThat(librosDelGenero(genero)).isEqualTo(2);
+		assertThat(service.delete(primero.getId())).isFalse();
+		assertThat(librosDelGenero(genero)).isEqualTo(2);
+
+		service.deleteAll(null, genero);
+		assertThat(librosDelGenero(genero)).isZero();
+	}
+
+	@Test
+	void elBorradoPorIdsRegistraSoloLasFilasQueBorro() {
+		String genero = generoNuevo();
+		Book primero = service.save(libro("2666", genero));
+		Book segundo = service.save(libro("Los sinsabores del verdadero policía", genero));
+		long ultimoEvento = changeEvents.ultimoId();
+
+		int eliminados = service.deleteAll(List.of(primero.getId(), segundo.getId(), Long.MAX_VALUE), null);
+
+		assertThat(eliminados).isEqualTo(2);
+		assertThat(librosDelGenero(genero)).isZero();
+		assertThat(changeEvents.leer(ultimoEvento, Long.MAX_VALUE, 10))
+				.extracting(ChangeEvent::getEntityId)
+				.containsExactly(primero.getId(), segundo.getId());
+		assertThat(service.findById(primero.getId())).isEmpty();
+	}
+
+	@Test
+	void unaLecturaLentaNoDejaEnCacheLaVersionAnteriorAUnCambio() {
+		Book libro = service.save(libro("Putas asesinas", generoNuevo()));
+		AtomicBoolean primera = new AtomicBoolean(true);
+		doAnswer(lectura -> {
+			Optional<Book> leido = repository.findAllById(List.of(libro.getId())).stream().findFirst();
+			if (primera.getAndSet(false)) {
+				// Mientras tanto otro cliente cambia el libro y se invalida la caché
+				CompletableFuture.runAsync(() -> service.patch(libro.getId(), Map.of("title", "El gaucho insufrible"),
+						libro.getVersion())).join();
+			}
+			return leido;
+		}).when(repository).findById(libro.getId());
+
+		assertThat(service.findById(libro.getId())).get().extracting(Book::getTitle).isEqualTo("Putas asesinas");
+		assertThat(service.findById(libro.getId())).get().extracting(Book::getTitle).isEqualTo("El gaucho insufrible");
+	}
+
+	@Test
+	void laImportacionCuentaSoloLasFilasQueInserto() throws Exception {
+		String genero = generoNuevo();
+		String ndjson = String.join("\n", List.of(
+				"{\"title\": \"Pedro Páramo\", \"author\": \"Juan Rulfo\", \"genre\": \"" + genero + "\", \"publication\": 1955}",
+				"{\"title\": \"El llano en llamas\", \"author\": \"Juan Rulfo\", \"genre\": \"" + genero + "\", \"publication\": 1953}"));
+		// El alta hecha por save() ya está contada: la importación suma solo sus dos filas
+		service.save(libro("El gallo de oro", genero));
+
+		importService.importar(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+				BookImportService.APPLICATION_NDJSON);
+
+		assertThat(librosDelGenero(genero)).isEqualTo(3);
+		assertThat(service.searchText("llano rulfo", 10)).extracting(Book::getTitle).containsExactly("El llano en llamas");
+	}
+
+	@Test
+	void laExportacionNdjsonEscribeElAnioComoNumero() throws Exception {
+		String genero = generoNuevo();
+		service.save(libro("Estrella distante", genero));
+
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		exportService.exportar(BookExportService.Format.NDJSON, salida);
+
+		// Se puede volver a importar tal cual
+		assertThat(salida.toString(StandardCharsets.UTF_8).lines().filter(linea -> linea.contains(genero)))
+				.singleElement().asString().endsWith("\"publication\":1998}");
+	}
+
+	private long librosDelGenero(String genero) {
+		return statsService.snapshot().getBooksByGenre().getOrDefault(genero, 0L);
+	}
+
+	private static Book libro(String titulo, String genero) {
+		Book libro = new Book();
+		libro.setTitle(titulo);
+		libro.setAuthor("Roberto Bolaño");
+		libro.setGenre(genero);
+		libro.setPublication(Year.of(1998));
+		return libro;
+	}
+
+	private static String generoNuevo() {
+		return "Género " + UUID.randomUUID().toString().substring(0, 8);
+	}
+}
@@ -0,0 +1,83 @@
+package com.fullstack.libreria.book.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.fullstack.libreria.book.search.BookSearchIndex;
+import com.fullstack.libreria.cache.CacheInvalidationChannel;
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.model.ChangeEvent.Operation;
+import com.fullstack.libreria.events.service.ChangeEventService;
+
+class BookStartupTasksTests {
+
+	private final BookService service = mock(BookService.class);
+	private final ChangeEventService changeEvents = mock(ChangeEventService.class);
+	private final BookStartupTasks tareas = new BookStartupTasks(service, mock(BookSearchIndex.class), changeEvents,
+			mock(CacheInvalidationChannel.class), 500, Duration.ofMinutes(10));
+
+	@Test
+	void elRefrescoAplicaSoloLosEventosNuevosYRevisaLosSaltados() {
+		when(changeEvents.ultimoId()).thenReturn(5L);
+		tareas.onReady();
+
+		when(changeEvents.primerId()).thenReturn(1L);
+		when(changeEvents.ultimoId()).thenReturn(8L);
+		List<ChangeEvent> nuevos = List.of(evento(6), evento(8));
+		when(changeEvents.leer(5L, 8L, 500)).thenReturn(nuevos);
+		tareas.refrescarIndice();
+
+		verify(service).aplicarEventosAlIndice(nuevos);
+		verify(changeEvents).leerIds(Set.of(7L));
+
+		// El 7 se confirma tarde: se aplica en el refresco siguiente
+		List<ChangeEvent> tardios = List.of(evento(7));
+		when(changeEvents.leer(8L, 8L, 500)).thenReturn(List.of());
+		when(changeEvents.leerIds(Set.of(7L))).thenReturn(tardios);
+		tareas.refrescarIndice();
+
+		verify(service).aplicarEventosAlIndice(tardios);
+		verify(service, never()).refrescarIndice();
+	}
+
+	@Test
+	void siLosEventosYaSeEliminaronSeRecorreElCatalogoCompleto() {
+		when(changeEvents.ultimoId()).thenReturn(5L);
+		tareas.onReady();
+
+		when(changeEvents.primerId()).thenReturn(20L);
+		when(changeEvents.ultimoId()).thenReturn(30L);
+		tareas.refrescarIndice();
+
+		verify(service).refrescarIndice();
+		verify(changeEvents, never()).leer(anyLong(), anyLong(), anyInt());
+
+		// Desde ahí sigue con los eventos
+		tareas.refrescarIndice();
+		verify(changeEvents).leer(30L, 30L, 500);
+		verify(service, never()).aplicarEventosAlIndice(any());
+	}
+
+	private static ChangeEvent evento(long id) {
+		ChangeEvent evento = new ChangeEvent();
+		evento.setId(id);
+		evento.setEntity(ChangeEvent.BOOK);
+		evento.setEntityId(id);
+		evento.setOperation(Operation.UPDATED);
+		evento.setVersion(1L);
+		evento.setCreatedAt(Instant.now());
+		return evento;
+	}
+}
@@ -0,0 +1,150 @@
+package com.fullstack.libreria.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fullstack.libreria.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTests {
+
+	private static final long SEGUNDO = 1_000_000_000L;
+
+	private final AtomicLong reloj = new AtomicLong(42 * SEGUNDO);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+
+	private RateLimitFilter filtro;
+
+	@BeforeEach
+	void crearFiltro() throws Exception {
+		RateLimitProperties propiedades = new RateLimitProperties();
+		propiedades.getGroups().put("login", presupuesto(2, 0.5));   // un token cada 2 s
+		propiedades.getGroups().put("write", presupuesto(1, 0.01));
+		propiedades.getGroups().put("catalog", presupuesto(1000, 1000));
+		propiedades.getShed().setWaitingThreshold(10);
+		propiedades.getShed().setGroups(List.of("catalog", "read"));
+
+		HikariDataSource hikari = mock(HikariDataSource.class);
+		when(hikari.getHikariPoolMXBean()).thenReturn(pool);
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+		when(dataSource.unwrap(HikariDataSource.class)).thenReturn(hikari);
+
+		ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+		filtro = new RateLimitFilter(propiedades, objectMapper, dataSource, registry, reloj::get);
+	}
+
+	@AfterEach
+	void limpiar() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void retryAfterEsLaEsperaRedondeadaHaciaArribaEnSegundos() throws Exception {
+		assertThat(enviar("POST", "/api/users/login", "10.0.0.1", null).getStatus()).isEqualTo(200);
+		assertThat(enviar("POST", "/api/users/login", "10.0.0.1", null).getStatus()).isEqualTo(200);
+
+		MockHttpServletResponse rechazada = enviar("POST", "/api/users/login", "10.0.0.1", null);
+		assertThat(rechazada.getStatus()).isEqualTo(429);
+		assertThat(rechazada.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+
+		reloj.addAndGet(1_500_000_000L);
+		assertThat(enviar("POST", "/api/users/login", "10.0.0.1", null).getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+		reloj.addAndGet(500_000_000L);
+		assertThat(enviar("POST", "/api/users/login", "10.0.0.1", null).getStatus()).isEqualTo(200);
+		// Otra IP tiene su propio balde
+		assertThat(enviar("POST", "/api/users/login", "10.0.0.2", null).getStatus()).isEqualTo(200);
+		assertThat(contador("quota", "login")).isEqualTo(2);
+	}
+
+	@Test
+	void conTokenElBaldeEsDelUsuarioYNoDeLaIp() throws Exception {
+		assertThat(enviar("POST", "/api/books", "10.0.0.1", 1L).getStatus()).isEqualTo(200);
+		// Mismo usuario desde otra IP: mismo balde
+		assertThat(enviar("POST", "/api/books", "10.0.0.9", 1L).getStatus()).isEqualTo(429);
+		// Otro usuario detrás de la misma IP (por ejemplo, una oficina con NAT): balde propio
+		assertThat(enviar("POST", "/api/books", "10.0.0.1", 2L).getStatus()).isEqualTo(200);
+		// Sin token se cuenta por IP
+		assertThat(enviar("POST", "/api/books", "10.0.0.1", null).getStatus()).isEqualTo(200);
+		assertThat(enviar("POST", "/api/books", "10.0.0.1", null).getStatus()).isEqualTo(429);
+	}
+
+	@Test
+	void elLoginSeCuentaPorIpAunqueVengaUnToken() throws Exception {
+		enviar("POST", "/api/users/login", "10.0.0.1", 1L);
+		enviar("POST", "/api/users/login", "10.0.0.1", 2L);
+
+		assertThat(enviar("POST", "/api/users/login", "10.0.0.1", 3L).getStatus()).isEqualTo(429);
+	}
+
+	@Test
+	void descartaLecturasSegunLosHilosEsperandoConexion() throws Exception {
+		when(pool.getThreadsAwaitingConnection()).thenReturn(9);
+		assertThat(enviar("GET", "/api/books", "10.0.0.1", null).getStatus()).isEqualTo(200);
+
+		// Al doble del umbral se descarta todo lo de los grupos configurados
+		when(pool.getThreadsAwaitingConnection()).thenReturn(20);
+		MockHttpServletResponse descartada = enviar("GET", "/api/books", "10.0.0.1", null);
+		assertThat(descartada.getStatus()).isEqualTo(429);
+		assertThat(descartada.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(contador("shed", "catalog")).isEqualTo(1);
+
+		// Las escrituras no se sacrifican
+		assertThat(enviar("POST", "/api/books", "10.0.0.1", null).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void fueraDeApiNoSeLimita() throws Exception {
+		when(pool.getThreadsAwaitingConnection()).thenReturn(100);
+		for (int i = 0; i < 5; i++) {
+			assertThat(enviar("GET", "/actuator/health", "10.0.0.1", null).getStatus()).isEqualTo(200);
+		}
+	}
+
+	private MockHttpServletResponse enviar(String metodo, String uri, String ip, Long usuario) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+		request.setRemoteAddr(ip);
+		SecurityContextHolder.clearContext();
+		if (usuario != null) {
+			SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+					new AuthenticatedUser(usuario, "u" + usuario + "@biblioteca.cl", "CLIENTE"), null, List.of()));
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filtro.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private double contador(String motivo, String grupo) {
+		return registry.get("libreria.ratelimit.rejected").tag("reason", motivo).tag("group", grupo).counter().count();
+	}
+
+	private static RateLimitProperties.Budget presupuesto(int capacidad, double tasa) {
+		RateLimitProperties.Budget presupuesto = new RateLimitProperties.Budget();
+		presupuesto.setCapacity(capacidad);
+		presupuesto.setRate(tasa);
+		return presupuesto;
+	}
+}
@@ -0,0 +1,116 @@
+package com.fullstack.libreria.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fullstack.libreria.security.TokenService;
+import com.fullstack.libreria.user.model.User;
+
+/**
+ * Matriz de acceso de SecurityConfig: método, ruta, rol del token (vacío =
+ * anónimo, INVALIDO = token con firma incorrecta) y resultado esperado.
+ * "permitido" solo exige que la petición pase la seguridad: el código final
+ * (200, 400, 404...) depende del controller y de los datos.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecurityConfigTests {
+
+	// ID del usuario de cada token (no hace falta que exista en la BD)
+	private static final long ID_PROPIO = 9001;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TokenService tokenService;
+
+	@ParameterizedTest(name = "{0} {1} como {2} → {3}")
+	@CsvSource({
+			// Catálogo: lectura pública, escritura para ADMIN y BIBLIOTECARIO
+			"GET,    /api/books,              ,              permitido",
+			"GET,    /api/books/1,            ,              permitido",
+			"POST,   /api/books,              ,              401",
+			"POST,   /api/books,              CLIENTE,       403",
+			"POST,   /api/books,              BIBLIOTECARIO, permitido",
+			"DELETE, /api/books/1,            CLIENTE,       403",
+			"DELETE, /api/books/1,            ADMIN,         permitido",
+			// Acceso público a login y registro
+			"POST,   /api/users/login,        ,              permitido",
+			"POST,   /api/users/register,     ,              permitido",
+			"GET,    /api/users/email-available?email=x@y.cl, , permitido",
+			// Cualquier usuario autenticado
+			"GET,    /api/users/me,           ,              401",
+			"GET,    /api/users/me,           INVALIDO,      401",
+			"GET,    /api/users/me,           CLIENTE,       permitido",
+			// Perfil: el propio usuario o un ADMIN
+			"PUT,    /api/users/profile/9001, CLIENTE,       permitido",
+			"PUT,    /api/users/profile/9002, CLIENTE,       403",
+			"PUT,    /api/users/profile/9002, BIBLIOTECARIO, 403",
+			"PUT,    /api/users/profile/9002, ADMIN,         permitido",
+			"PUT,    /api/users/profile/9002, ,              401",
+			// Resto de la administración de usuarios: solo ADMIN
+			"GET,    /api/users,              ,              401",
+			"GET,    /api/users,              CLIENTE,       403",
+			"GET,    /api/users,              BIBLIOTECARIO, 403",
+			"GET,    /api/users,              ADMIN,         permitido",
+			"DELETE, /api/users/id/9001,      CLIENTE,       403",
+			// Recuperación: devuelve la contraseña temporal, solo ADMIN
+			"GET,    /api/users/recover/x@y.cl, ,            401",
+			"GET,    /api/users/recover/x@y.cl, CLIENTE,     403",
+			"GET,    /api/users/recover/x@y.cl, ADMIN,       permitido",
+			// Estadísticas
+			"GET,    /api/stats,              CLIENTE,       403",
+			"GET,    /api/stats,              BIBLIOTECARIO, permitido",
+			// Flujo de cambios (solo los rechazos: una conexión permitida queda abierta)
+			"GET,    /api/events/books,       ,              401",
+			"GET,    /api/events/books,       CLIENTE,       403",
+			"GET,    /api/events/users,       BIBLIOTECARIO, 403",
+			// Actuator: salud y Prometheus abiertos, el resto solo ADMIN
+			"GET,    /actuator/health,        ,              permitido",
+			"GET,    /actuator/metrics,       ,              401",
+			"GET,    /actuator/metrics,       BIBLIOTECARIO, 403",
+			"GET,    /actuator/metrics,       ADMIN,         permitido",
+	})
+	void matrizDeAcceso(String metodo, String ruta, String rol, String esperado) throws Exception {
+		MockHttpServletRequestBuilder peticion = request(HttpMethod.valueOf(metodo), ruta)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{}");
+		if (rol != null) {
+			peticion.header(HttpHeaders.AUTHORIZATION, "Bearer " + token(rol));
+		}
+
+		int estado = mockMvc.perform(peticion).andReturn().getResponse().getStatus();
+
+		if (esperado.equals("permitido")) {
+			assertThat(estado).isNotIn(401, 403);
+		} else {
+			assertThat(estado).isEqualTo(Integer.parseInt(esperado));
+		}
+	}
+
+	private String token(String rol) {
+		if (rol.equals("INVALIDO")) {
+			String valido = token("ADMIN");
+			return valido.substring(0, valido.lastIndexOf('.') + 1) + "firma-falsa";
+		}
+		User usuario = new User();
+		usuario.setId(ID_PROPIO);
+		usuario.setEmail("matriz@biblioteca.cl");
+		usuario.setRol(rol);
+		return tokenService.issue(usuario);
+	}
+}
@@ -0,0 +1,65 @@
+package com.fullstack.libreria.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+	private static final long SEGUNDO = 1_000_000_000L;
+
+	// System.nanoTime() puede ser cualquier valor, incluso negativo
+	private static final long T0 = -5 * SEGUNDO;
+
+	@Test
+	void admiteUnaRafagaDeCapacityYLuegoInformaLaEspera() {
+		TokenBucket balde = new TokenBucket(3, 1);
+
+		assertThat(balde.tryConsume(T0)).isZero();
+		assertThat(balde.tryConsume(T0)).isZero();
+		assertThat(balde.tryConsume(T0)).isZero();
+		assertThat(balde.tryConsume(T0)).isEqualTo(SEGUNDO);
+		// Un rechazo no consume: la espera no crece
+		assertThat(balde.tryConsume(T0)).isEqualTo(SEGUNDO);
+	}
+
+	@Test
+	void seRecargaARateTokensPorSegundo() {
+		TokenBucket balde = new TokenBucket(2, 4); // un token cada 250 ms
+		balde.tryConsume(T0);
+		balde.tryConsume(T0);
+
+		assertThat(balde.tryConsume(T0 + 100_000_000L)).isEqualTo(150_000_000L);
+		assertThat(balde.tryConsume(T0 + 250_000_000L)).isZero();
+		assertThat(balde.tryConsume(T0 + 250_000_000L)).isEqualTo(250_000_000L);
+		assertThat(balde.tryConsume(T0 + 500_000_000L)).isZero();
+	}
+
+	@Test
+	void trasUnaPausaLargaLaRafagaNoSuperaCapacity() {
+		TokenBucket balde = new TokenBucket(2, 1);
+		balde.tryConsume(T0);
+
+		long despues = T0 + 3600 * SEGUNDO;
+		assertThat(balde.tryConsume(despues)).isZero();
+		assertThat(balde.tryConsume(despues)).isZero();
+		assertThat(balde.tryConsume(despues)).isEqualTo(SEGUNDO);
+	}
+
+	@Test
+	void conRateFraccionarioLaEsperaEsElIntervaloCompleto() {
+		TokenBucket balde = new TokenBucket(1, 0.2); // un token cada 5 s
+
+		assertThat(balde.tryConsume(T0)).isZero();
+		assertThat(balde.tryConsume(T0)).isEqualTo(5 * SEGUNDO);
+		assertThat(balde.tryConsume(T0 + 4 * SEGUNDO)).isEqualTo(SEGUNDO);
+		assertThat(balde.tryConsume(T0 + 5 * SEGUNDO)).isZero();
+	}
+
+	@Test
+	void rechazaCapacityORateNoPositivos() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(0, 1));
+		assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(1, 0));
+	}
+}
@@ -0,0 +1,70 @@
+package com.fullstack.libreria.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Principal y réplica son la misma BD en memoria (una réplica al día, así
+ * las tareas de arranque encuentran las tablas), con dos URLs: cada pool
+ * marca sus conexiones en la variable @POOL al abrirlas.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:rw-global;MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;INIT=SET @POOL='primary'",
+		"libreria.datasource.read.enabled=true",
+		"libreria.datasource.read.url=jdbc:h2:mem:rw-global;MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;INIT=SET @POOL='read'",
+		"libreria.datasource.read.scope=global",
+		"libreria.datasource.read.stickiness=2s" })
+@ActiveProfiles("test")
+class ReadWriteRoutingDataSourceTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void lasLecturasVanALaReplicaYLasEscriturasALaPrincipal() {
+		// Las escrituras del arranque también cuentan: se espera a que pase la stickiness
+		await().atMost(Duration.ofSeconds(5)).until(() -> "read".equals(pool(true)));
+
+		assertThat(pool(true)).isEqualTo("read");
+		assertThat(pool(false)).isEqualTo("primary");
+		// Sin transacción: principal
+		assertThat(jdbcTemplate.queryForObject("SELECT @POOL", String.class)).isEqualTo("primary");
+	}
+
+	@Test
+	void despuesDeUnaEscrituraTodasLasLecturasSiguenEnLaPrincipalDuranteLaStickiness() {
+		await().atMost(Duration.ofSeconds(5)).until(() -> "read".equals(pool(true)));
+
+		pool(false);
+		assertThat(pool(true)).isEqualTo("primary");
+		// Scope GLOBAL: también para otro cliente
+		ReadYourWrites.setCliente("ip:10.0.0.2");
+		try {
+			assertThat(pool(true)).isEqualTo("primary");
+		} finally {
+			ReadYourWrites.limpiarCliente();
+		}
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> "read".equals(pool(true)));
+	}
+
+	// Pool que atendió la transacción (de solo lectura o de escritura)
+	private String pool(boolean soloLectura) {
+		TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+		transaccion.setReadOnly(soloLectura);
+		return transaccion.execute(estado -> jdbcTemplate.queryForObject("SELECT @POOL", String.class));
+	}
+}
@@ -0,0 +1,93 @@
+package com.fullstack.libreria.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fullstack.libreria.security.AuthenticatedUser;
+
+/**
+ * Scope CLIENT: solo quien escribió (usuario del token o IP, según
+ * ReadYourWritesFilter) sigue leyendo de la principal. Misma BD con dos
+ * URLs que en ReadWriteRoutingDataSourceTests.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:rw-client;MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;INIT=SET @POOL='primary'",
+		"libreria.datasource.read.enabled=true",
+		"libreria.datasource.read.url=jdbc:h2:mem:rw-client;MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;INIT=SET @POOL='read'",
+		"libreria.datasource.read.scope=client",
+		"libreria.datasource.read.stickiness=2s" })
+@ActiveProfiles("test")
+class ReadYourWritesFilterTests {
+
+	@Autowired
+	private ReadYourWritesFilter filter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@AfterEach
+	void limpiar() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void soloElUsuarioQueEscribioLeeDeLaPrincipal() throws Exception {
+		assertThat(pool(7L, "10.0.0.1", true)).isEqualTo("read");
+
+		assertThat(pool(7L, "10.0.0.1", false)).isEqualTo("primary");
+		assertThat(pool(7L, "10.0.0.9", true)).isEqualTo("primary");
+		assertThat(pool(8L, "10.0.0.1", true)).isEqualTo("read");
+		assertThat(pool(null, "10.0.0.1", true)).isEqualTo("read");
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> "read".equals(pool(7L, "10.0.0.1", true)));
+	}
+
+	@Test
+	void sinTokenElClienteEsLaIp() throws Exception {
+		assertThat(pool(null, "10.0.0.3", false)).isEqualTo("primary");
+
+		assertThat(pool(null, "10.0.0.3", true)).isEqualTo("primary");
+		assertThat(pool(null, "10.0.0.4", true)).isEqualTo("read");
+	}
+
+	// Una petición del usuario (o anónima, si es null) desde la IP indicada
+	private String pool(Long usuario, String ip, boolean soloLectura) throws Exception {
+		if (usuario != null) {
+			AuthenticatedUser principal = new AuthenticatedUser(usuario, "lector" + usuario + "@biblioteca.cl", "CLIENTE");
+			SecurityContextHolder.getContext()
+					.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+		} else {
+			SecurityContextHolder.clearContext();
+		}
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+		request.setRemoteAddr(ip);
+
+		AtomicReference<String> pool = new AtomicReference<>();
+		filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+			TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+			transaccion.setReadOnly(soloLectura);
+			pool.set(transaccion.execute(estado -> jdbcTemplate.queryForObject("SELECT @POOL", String.class)));
+		});
+		return pool.get();
+	}
+}
@@ -0,0 +1,90 @@
+package com.fullstack.libreria.events.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.model.ChangeEvent.Operation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChangeEventRelayTests {
+
+	private final ChangeEventService service = mock(ChangeEventService.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private ChangeEventRelay relay;
+
+	@AfterEach
+	void detener() {
+		relay.detener();
+	}
+
+	@Test
+	void unIdSaltadoQueSeConfirmaDespuesSeEnviaTarde() {
+		relay = relay(Duration.ofMinutes(10));
+		relay.suscribir(null, null);
+		when(service.leer(eq(0L), anyLong(), anyInt())).thenReturn(List.of(evento(1), evento(3)));
+		when(service.leer(eq(1L), anyLong(), anyInt())).thenReturn(List.of(evento(3)));
+		when(service.leerIds(Set.of(2L))).thenReturn(List.of(evento(2)));
+
+		// 1: se detecta el hueco en el 2; 2: se sigue sin él; 3: ya está confirmado
+		relay.ciclo();
+		relay.ciclo();
+		assertThat(registry.counter("libreria.events.gaps").count()).isEqualTo(1);
+		relay.ciclo();
+		relay.ciclo();
+
+		verify(service, times(1)).leerIds(any());
+		assertThat(registry.counter("libreria.events.late").count()).isEqualTo(1);
+	}
+
+	@Test
+	void unIdSaltadoSeDaPorPerdidoTrasLaRevision() {
+		relay = relay(Duration.ZERO);
+		relay.suscribir(ChangeEvent.BOOK, null);
+		when(service.leer(eq(0L), anyLong(), anyInt())).thenReturn(List.of(evento(1), evento(3)));
+		when(service.leer(eq(1L), anyLong(), anyInt())).thenReturn(List.of(evento(3)));
+
+		relay.ciclo();
+		relay.ciclo();
+		relay.ciclo();
+
+		verify(service, never()).leerIds(any());
+		assertThat(registry.counter("libreria.events.gaps").count()).isEqualTo(1);
+	}
+
+	// Sin espera por los huecos: el segundo ciclo ya sigue sin el ID faltante
+	private ChangeEventRelay relay(Duration gapRecheck) {
+		return new ChangeEventRelay(service, new ObjectMapper().findAndRegisterModules(), registry,
+				Duration.ofMillis(250), 500, Duration.ZERO, gapRecheck, 1000, Duration.ofSeconds(15),
+				Duration.ofMinutes(30));
+	}
+
+	private static ChangeEvent evento(long id) {
+		ChangeEvent evento = new ChangeEvent();
+		evento.setId(id);
+		evento.setEntity(ChangeEvent.BOOK);
+		evento.setEntityId(id);
+		evento.setOperation(Operation.UPDATED);
+		evento.setVersion(1L);
+		evento.setCreatedAt(Instant.now());
+		return evento;
+	}
+}
@@ -0,0 +1,77 @@
+package com.fullstack.libreria.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.libreria.user.model.User;
+
+class TokenAuthenticationFilterTests {
+
+	private final TokenService tokenService = servicio();
+	private final TokenAuthenticationFilter filtro = new TokenAuthenticationFilter(tokenService);
+
+	@AfterEach
+	void limpiar() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void unTokenValidoAutenticaConElRolDelToken() throws Exception {
+		MockFilterChain cadena = filtrar("Bearer " + tokenService.issue(usuario("BIBLIOTECARIO")));
+
+		Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+		assertThat(autenticacion.getPrincipal()).isEqualTo(new AuthenticatedUser(5L, "lector@biblioteca.cl", "BIBLIOTECARIO"));
+		assertThat(autenticacion.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+				.containsExactly("ROLE_BIBLIOTECARIO");
+		assertThat(cadena.getRequest()).isNotNull();
+	}
+
+	@Test
+	void sinTokenOConTokenInvalidoSigueComoAnonima() throws Exception {
+		for (String cabecera : new String[] { null, "Basic dXN1YXJpbzpjbGF2ZQ==", "Bearer no.es.valido" }) {
+			MockFilterChain cadena = filtrar(cabecera);
+
+			assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+			// La petición sigue: SecurityConfig decide si se permite
+			assertThat(cadena.getRequest()).isNotNull();
+		}
+	}
+
+	private MockFilterChain filtrar(String cabecera) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+		if (cabecera != null) {
+			request.addHeader(HttpHeaders.AUTHORIZATION, cabecera);
+		}
+		MockFilterChain cadena = new MockFilterChain();
+		filtro.doFilter(request, new MockHttpServletResponse(), cadena);
+		return cadena;
+	}
+
+	private static TokenService servicio() {
+		TokenProperties propiedades = new TokenProperties();
+		propiedades.setTtl(Duration.ofMinutes(5));
+		propiedades.getKeys().put("k1", Base64.getEncoder().encodeToString(new byte[32]));
+		return new TokenService(new ObjectMapper(), propiedades);
+	}
+
+	private static User usuario(String rol) {
+		User usuario = new User();
+		usuario.setId(5L);
+		usuario.setEmail("lector@biblioteca.cl");
+		usuario.setRol(rol);
+		return usuario;
+	}
+}
@@ -0,0 +1,126 @@
+package com.fullstack.libreria.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.libreria.user.model.User;
+
+class TokenServiceTests {
+
+	private static final String CLAVE_1 = Base64.getEncoder().encodeToString(new byte[32]);
+	private static final String CLAVE_2 = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void firmaYVerificaConHs256() {
+		TokenService tokens = servicio("k1", Duration.ofHours(1));
+		String token = tokens.issue(usuario(7L, "ADMIN"));
+
+		assertThat(token.split("\\.")).hasSize(3);
+		assertThat(decodificar(token.split("\\.")[0])).contains("\"alg\":\"HS256\"", "\"kid\":\"k1\"");
+		assertThat(tokens.verify(token)).contains(new AuthenticatedUser(7L, "lector7@biblioteca.cl", "ADMIN"));
+	}
+
+	@Test
+	void rechazaUnTokenExpirado() {
+		TokenService tokens = servicio("k1", Duration.ZERO);
+
+		assertThat(tokens.verify(tokens.issue(usuario(1L, "CLIENTE")))).isEmpty();
+	}
+
+	@Test
+	void rechazaUnTokenConLosDatosModificados() {
+		TokenService tokens = servicio("k1", Duration.ofHours(1));
+		String[] partes = tokens.issue(usuario(1L, "CLIENTE")).split("\\.");
+		String datos = decodificar(partes[1]).replace("\"rol\":\"CLIENTE\"", "\"rol\":\"ADMIN\"");
+		String alterado = partes[0] + "." + codificar(datos) + "." + partes[2];
+
+		assertThat(tokens.verify(alterado)).isEmpty();
+	}
+
+	@Test
+	void rechazaFirmaAjenaAlgoritmoNoneYFormatoInvalido() {
+		TokenService tokens = servicio("k1", Duration.ofHours(1));
+		String[] partes = tokens.issue(usuario(1L, "CLIENTE")).split("\\.");
+
+		assertThat(tokens.verify(partes[0] + "." + partes[1] + "." + codificar("otra firma"))).isEmpty();
+		String sinFirma = codificar("{\"alg\":\"none\",\"typ\":\"JWT\",\"kid\":\"k1\"}") + "." + partes[1] + ".";
+		assertThat(tokens.verify(sinFirma)).isEmpty();
+		assertThat(tokens.verify("no-es-un-token")).isEmpty();
+		assertThat(tokens.verify("")).isEmpty();
+	}
+
+	@Test
+	void laClaveAnteriorSigueVerificandoDuranteLaRotacion() {
+		String token = servicio("k1", Duration.ofHours(1)).issue(usuario(3L, "BIBLIOTECARIO"));
+
+		TokenService rotado = servicio("k2", Duration.ofHours(1));
+		assertThat(rotado.verify(token)).map(AuthenticatedUser::rol).contains("BIBLIOTECARIO");
+		assertThat(decodificar(rotado.issue(usuario(3L, "BIBLIOTECARIO")).split("\\.")[0])).contains("\"kid\":\"k2\"");
+
+		TokenProperties sinK1 = propiedades("k2", Duration.ofHours(1));
+		sinK1.getKeys().remove("k1");
+		assertThat(new TokenService(objectMapper, sinK1).verify(token)).isEmpty();
+	}
+
+	@Test
+	void exigeClavesDeAlMenos32Bytes() {
+		TokenProperties propiedades = new TokenProperties();
+		propiedades.getKeys().put("corta", Base64.getEncoder().encodeToString(new byte[16]));
+
+		assertThatThrownBy(() -> new TokenService(objectMapper, propiedades))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void sinClavesNoArrancaSalvoQueSePermitaUnaAleatoria() {
+		TokenProperties propiedades = new TokenProperties();
+		// Como ${TOKEN_KEY_K1:} sin la variable definida
+		propiedades.getKeys().put("k1", "");
+
+		assertThatThrownBy(() -> new TokenService(objectMapper, propiedades))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("TOKEN_KEY_K1");
+
+		propiedades.setAllowRandomKey(true);
+		TokenService tokens = new TokenService(objectMapper, propiedades);
+		assertThat(tokens.verify(tokens.issue(usuario(1L, "CLIENTE")))).isPresent();
+	}
+
+	private TokenService servicio(String claveActiva, Duration ttl) {
+		return new TokenService(objectMapper, propiedades(claveActiva, ttl));
+	}
+
+	private static TokenProperties propiedades(String claveActiva, Duration ttl) {
+		TokenProperties propiedades = new TokenProperties();
+		propiedades.setTtl(ttl);
+		propiedades.setActiveKey(claveActiva);
+		propiedades.getKeys().put("k1", CLAVE_1);
+		propiedades.getKeys().put("k2", CLAVE_2);
+		return propiedades;
+	}
+
+	private static User usuario(Long id, String rol) {
+		User usuario = new User();
+		usuario.setId(id);
+		usuario.setEmail("lector" + id + "@biblioteca.cl");
+		usuario.setRol(rol);
+		return usuario;
+	}
+
+	private static String decodificar(String parte) {
+		return new String(Base64.getUrlDecoder().decode(parte), StandardCharsets.UTF_8);
+	}
+
+	private static String codificar(String texto) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+	}
+}
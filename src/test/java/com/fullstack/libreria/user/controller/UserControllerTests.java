@@ -0,0 +1,135 @@
+package com.fullstack.libreria.user.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.libreria.security.TokenService;
+import com.fullstack.libreria.user.model.User;
+import com.fullstack.libreria.user.repository.UserRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private TokenService tokenService;
+
+	@Test
+	void elRegistroPublicoSiempreCreaClientes() throws Exception {
+		String email = emailNuevo();
+
+		mockMvc.perform(post("/api/users/register")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"fullName": "Usuario Registrado", "email": "%s", "password": "clave123", "rol": "ADMIN"}
+						""".formatted(email)))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.rol").value("CLIENTE"));
+
+		assertThat(repository.findByEmailKey(email)).get().extracting(User::getRol).isEqualTo("CLIENTE");
+	}
+
+	@Test
+	void unClienteNoPuedeCambiarSuRolDesdeElPerfil() throws Exception {
+		User cliente = guardar("CLIENTE");
+
+		mockMvc.perform(put("/api/users/profile/{id}", cliente.getId())
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(cliente))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"fullName": "Cliente Renombrado", "phone": "912345678", "rol": "ADMIN"}
+						"""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.fullName").value("Cliente Renombrado"))
+				.andExpect(jsonPath("$.rol").value("CLIENTE"));
+
+		assertThat(repository.findById(cliente.getId())).get().extracting(User::getRol).isEqualTo("CLIENTE");
+	}
+
+	@Test
+	void unAdminSiPuedeCambiarElRolDesdeElPerfil() throws Exception {
+		User admin = guardar("ADMIN");
+		User cliente = guardar("CLIENTE");
+
+		mockMvc.perform(put("/api/users/profile/{id}", cliente.getId())
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(admin))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"fullName": "Cliente Ascendido", "rol": "BIBLIOTECARIO"}
+						"""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.rol").value("BIBLIOTECARIO"));
+	}
+
+	@Test
+	void unClienteNoPuedeEditarElPerfilDeOtro() throws Exception {
+		User cliente = guardar("CLIENTE");
+		User otro = guardar("CLIENTE");
+
+		mockMvc.perform(put("/api/users/profile/{id}", otro.getId())
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(cliente))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"fullName": "Perfil Ajeno Editado", "rol": "ADMIN"}
+						"""))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void getCondicionalResponde304ConLaVersionActualY200ConUnaVieja() throws Exception {
+		User admin = guardar("ADMIN");
+		String token = "Bearer " + tokenService.issue(admin);
+		String etag = "\"" + admin.getId() + "-" + admin.getVersion() + "\"";
+
+		mockMvc.perform(get("/api/users/id/{id}", admin.getId()).header(HttpHeaders.AUTHORIZATION, token))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+		mockMvc.perform(get("/api/users/id/{id}", admin.getId()).header(HttpHeaders.AUTHORIZATION, token)
+				.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/users/id/{id}", admin.getId()).header(HttpHeaders.AUTHORIZATION, token)
+				.header(HttpHeaders.IF_NONE_MATCH, "\"" + admin.getId() + "-" + (admin.getVersion() + 1) + "\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+	}
+
+	private User guardar(String rol) {
+		User usuario = new User();
+		usuario.setFullName("Usuario de Prueba");
+		usuario.setEmail(emailNuevo());
+		usuario.setPassword(passwordEncoder.encode("clave123"));
+		usuario.setRol(rol);
+		return repository.save(usuario);
+	}
+
+	private static String emailNuevo() {
+		return "usuario-" + UUID.randomUUID() + "@biblioteca.cl";
+	}
+}
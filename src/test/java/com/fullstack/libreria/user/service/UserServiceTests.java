@@ -0,0 +1,172 @@
+package com.fullstack.libreria.user.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.fullstack.libreria.cache.LocalCacheInvalidationChannel;
+import com.fullstack.libreria.events.model.ChangeEvent;
+import com.fullstack.libreria.events.model.ChangeEvent.Operation;
+import com.fullstack.libreria.events.service.ChangeEventService;
+import com.fullstack.libreria.exception.ConflictException;
+import com.fullstack.libreria.user.model.User;
+import com.fullstack.libreria.user.repository.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceTests {
+
+	@Autowired
+	private UserService service;
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private ChangeEventService changeEvents;
+
+	@MockitoSpyBean
+	private EmailBloomFilter emailFilter;
+
+	@Test
+	void unFalsoPositivoDelFiltroSeConfirmaEnLaBd() {
+		String email = emailNuevo();
+		// El filtro dice "puede existir" para un email que no está en la BD
+		doReturn(true).when(emailFilter).puedeExistir(User.normalizarEmail(email));
+
+		assertThat(service.emailDisponible(email)).isTrue();
+		User registrado = service.registrarUsuario(usuario(email));
+		assertThat(registrado.getId()).isNotNull();
+		assertThat(service.emailDisponible(email.toUpperCase())).isFalse();
+	}
+
+	@Test
+	void unEmailQueElFiltroNoConoceLoRechazaLaRestriccionUnica() {
+		// Alta directa en la BD (como la de otra instancia, sin aviso): el filtro no la conoce
+		service.cargarFiltroEmails();
+		String email = emailNuevo();
+		repository.saveAndFlush(usuario(email));
+		assertThat(emailFilter.puedeExistir(User.normalizarEmail(email))).isFalse();
+
+		assertThatThrownBy(() -> service.registrarUsuario(usuario(email.toUpperCase())))
+				.isInstanceOf(ConflictException.class);
+		assertThatThrownBy(() -> service.crear(usuario(email)))
+				.isInstanceOf(ConflictException.class);
+	}
+
+	@Test
+	void trasUnAvisoDeOtraReplicaElEmailSeConfirmaEnLaBdHastaReconstruir() {
+		service.cargarFiltroEmails();
+		String email = emailNuevo();
+		repository.saveAndFlush(usuario(email));
+
+		// La otra réplica avisa que cambió USERL
+		LocalCacheInvalidationChannel otraReplica = new LocalCacheInvalidationChannel();
+		try {
+			otraReplica.publish(List.of("USERL"));
+		} finally {
+			otraReplica.close();
+		}
+		assertThat(service.emailDisponible(email)).isFalse();
+
+		service.cargarFiltroEmails();
+		assertThat(emailFilter.puedeExistir(User.normalizarEmail(email))).isTrue();
+		assertThat(emailFilter.puedeExistir(User.normalizarEmail(emailNuevo()))).isFalse();
+	}
+
+	@Test
+	void soloSeAgregaAlFiltroUnEmailQueCambio() {
+		User usuario = service.crear(usuario(emailNuevo()));
+		clearInvocations(emailFilter);
+
+		long version = service.patch(usuario.getId(), Map.of("fullName", "Nombre Cambiado Por Patch"), usuario.getVersion());
+		User datos = usuario(usuario.getEmail());
+		datos.setFullName("Nombre Cambiado Por Put");
+		User actualizado = service.actualizar(usuario.getId(), datos, version);
+		verify(emailFilter, never()).agregar(any());
+
+		String nuevoEmail = emailNuevo();
+		service.patch(usuario.getId(), Map.of("email", nuevoEmail), actualizado.getVersion());
+		verify(emailFilter).agregar(User.normalizarEmail(nuevoEmail));
+	}
+
+	@Test
+	void elCambioDeEmailAUnoOcupadoResponde409() {
+		User primero = service.crear(usuario(emailNuevo()));
+		User segundo = service.crear(usuario(emailNuevo()));
+
+		assertThatThrownBy(() -> service.patch(segundo.getId(), Map.of("email", primero.getEmail()), segundo.getVersion()))
+				.isInstanceOf(ConflictException.class);
+	}
+
+	@Test
+	void laRecuperacionCambiaLaClaveYRegistraElEvento() {
+		User usuario = service.crear(usuario(emailNuevo()));
+		long ultimoEvento = changeEvents.ultimoId();
+
+		String temporal = service.recuperarContrasena(usuario.getEmail().toUpperCase());
+
+		assertThat(temporal).hasSize(8);
+		assertThat(service.login(usuario.getEmail(), temporal).getId()).isEqualTo(usuario.getId());
+		assertThat(changeEvents.leer(ultimoEvento, Long.MAX_VALUE, 10))
+				.filteredOn(evento -> evento.getEntityId().equals(usuario.getId()))
+				.singleElement()
+				.satisfies(evento -> {
+					assertThat(evento.getEntity()).isEqualTo(ChangeEvent.USER);
+					assertThat(evento.getOperation()).isEqualTo(Operation.UPDATED);
+					assertThat(evento.getVersion()).isEqualTo(usuario.getVersion() + 1);
+				});
+	}
+
+	@Test
+	void elBorradoMasivoRegistraSoloLosUsuariosQueBorro() {
+		User primero = service.crear(usuario(emailNuevo()));
+		User segundo = service.crear(usuario(emailNuevo()));
+		long ultimoEvento = changeEvents.ultimoId();
+
+		assertThat(service.eliminarVarios(List.of(primero.getId(), segundo.getId(), Long.MAX_VALUE), null))
+				.isEqualTo(2);
+		assertThat(changeEvents.leer(ultimoEvento, Long.MAX_VALUE, 10))
+				.extracting(ChangeEvent::getEntityId)
+				.containsExactly(primero.getId(), segundo.getId());
+
+		User tercero = usuario(emailNuevo());
+		tercero.setRol("BIBLIOTECARIO");
+		tercero = service.crear(tercero);
+		ultimoEvento = changeEvents.ultimoId();
+
+		// Un evento por cada usuario borrado del rol (puede haber otros de pruebas anteriores)
+		int delRol = service.eliminarVarios(null, "BIBLIOTECARIO");
+		assertThat(changeEvents.leer(ultimoEvento, Long.MAX_VALUE, 1000))
+				.extracting(ChangeEvent::getEntityId)
+				.hasSize(delRol)
+				.contains(tercero.getId());
+	}
+
+	private static User usuario(String email) {
+		User usuario = new User();
+		usuario.setFullName("Usuario de Prueba");
+		usuario.setEmail(email);
+		usuario.setPassword("clave123");
+		usuario.setRol("CLIENTE");
+		return usuario;
+	}
+
+	private static String emailNuevo() {
+		return "usuario-" + UUID.randomUUID() + "@biblioteca.cl";
+	}
+}
@@ -0,0 +1,56 @@
+package com.fullstack.libreria.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class ETagsTests {
+
+	@Test
+	void formatoIdGuionVersion() {
+		assertThat(ETags.of(5L, 3L)).isEqualTo("5-3");
+	}
+
+	@Test
+	void leeIfMatchConYSinComillasODebil() {
+		assertThat(ETags.parseIfMatch("\"5-3\"", 5L)).isEqualTo(3L);
+		assertThat(ETags.parseIfMatch("5-3", 5L)).isEqualTo(3L);
+		assertThat(ETags.parseIfMatch(" W/\"5-12\" ", 5L)).isEqualTo(12L);
+	}
+
+	@Test
+	void sinCabeceraOComodinNoHayVersionEsperada() {
+		assertThat(ETags.parseIfMatch(null, 5L)).isNull();
+		assertThat(ETags.parseIfMatch("  ", 5L)).isNull();
+		assertThat(ETags.parseIfMatch("*", 5L)).isNull();
+	}
+
+	@Test
+	void rechazaEtagsDeOtroRecursoOMalFormados() {
+		assertThatIllegalArgumentException().isThrownBy(() -> ETags.parseIfMatch("\"6-3\"", 5L));
+		// "15-3" empieza con "5"... pero no con "5-"
+		assertThatIllegalArgumentException().isThrownBy(() -> ETags.parseIfMatch("\"15-3\"", 5L));
+		assertThatIllegalArgumentException().isThrownBy(() -> ETags.parseIfMatch("\"5-x\"", 5L));
+		assertThatIllegalArgumentException().isThrownBy(() -> ETags.parseIfMatch("\"5-\"", 5L));
+	}
+
+	@Test
+	void esCondicionalSoloConIfNoneMatchOIfModifiedSince() {
+		assertThat(ETags.esCondicional(peticion(null, null))).isFalse();
+		assertThat(ETags.esCondicional(peticion(HttpHeaders.IF_MATCH, "\"5-3\""))).isFalse();
+		assertThat(ETags.esCondicional(peticion(HttpHeaders.IF_NONE_MATCH, "\"5-3\""))).isTrue();
+		assertThat(ETags.esCondicional(peticion(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 21 Oct 2015 07:28:00 GMT"))).isTrue();
+	}
+
+	private static ServletWebRequest peticion(String cabecera, String valor) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/5");
+		if (cabecera != null) {
+			request.addHeader(cabecera, valor);
+		}
+		return new ServletWebRequest(request);
+	}
+}